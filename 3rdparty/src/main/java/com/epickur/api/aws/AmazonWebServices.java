@@ -1,24 +1,35 @@
 package com.epickur.api.aws;
 
 import com.amazonaws.AmazonClientException;
-import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.model.ObjectListing;
-import com.amazonaws.services.s3.model.PutObjectRequest;
-import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.ListMultipartUploadsRequest;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.MultipartUploadListing;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
 import com.epickur.api.config.EpickurProperties;
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
 import lombok.extern.log4j.Log4j2;
-import org.joda.time.DateTime;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpStatus;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 /**
- * Class that communicates with Amazon S3 server. It connects and sends the DB dump to it.
+ * Class that communicates with Amazon S3 server. It connects and sends the DB dump to it. The objects are uploaded as parallel multipart
+ * uploads, see {@link S3PartUploader}.
  *
  * @author cph
  * @version 1.0
@@ -29,66 +40,125 @@ import java.util.List;
 public final class AmazonWebServices {
 
 	/**
-	 * Maximum amount of dump we keep on S3
+	 * Max number of keys of a delete request
 	 */
-	private static final int MAX_DUMP_KEPT = 20;
+	private static final int MAX_DELETE_KEYS = 1000;
 	@NonNull
 	public EpickurProperties properties;
 	@NonNull
 	private AmazonS3 s3client;
 
 	/**
-	 * @param filePath The file path
+	 * Start the upload of a stream. The stream must be closed to create the object, or aborted.
+	 *
+	 * @param key The key of the object
+	 * @return The stream to write the object to
+	 * @throws IOException If the upload could not be started
 	 */
-	public void uploadFile(final String filePath) {
-		log.info("Uploading file on AWS...");
-		final File file = new File(filePath);
+	public S3UploadStream openUpload(final String key) throws IOException {
+		log.info("Uploading {} on AWS...", key);
+		return new S3UploadStream(s3client, properties, key);
+	}
+
+	/**
+	 * @param key The key of the object
+	 * @return The content of the object, if it exists
+	 * @throws IOException If the object could not be read
+	 */
+	public Optional<byte[]> readObject(final String key) throws IOException {
+		try (final S3Object object = s3client.getObject(properties.getAwsBucket(), key); final InputStream in = object.getObjectContent()) {
+			return Optional.of(IOUtils.toByteArray(in));
+		} catch (final AmazonS3Exception e) {
+			if (e.getStatusCode() == HttpStatus.SC_NOT_FOUND) {
+				return Optional.empty();
+			}
+			throw new IOException("Could not read " + key + ": " + e.getLocalizedMessage(), e);
+		} catch (final AmazonClientException e) {
+			throw new IOException("Could not read " + key + ": " + e.getLocalizedMessage(), e);
+		}
+	}
+
+	/**
+	 * @param key The key of the object
+	 * @return The content of the object, to close once read
+	 * @throws IOException If the object could not be opened
+	 */
+	public InputStream openObject(final String key) throws IOException {
 		try {
-			s3client.putObject(new PutObjectRequest(properties.getAwsBucket(), file.getName(), file));
-			log.info("Upload done");
-		} catch (AmazonServiceException ase) {
-			final StringBuilder stb = new StringBuilder();
-			stb.append("Caught an AmazonServiceException, which means your request made it to Amazon S3, but was rejected with an error response for some reason.");
-			stb.append("\nError Message:    ").append(ase.getMessage());
-			stb.append("\nHTTP Status Code: ").append(ase.getStatusCode());
-			stb.append("\nAWS Error Code:   ").append(ase.getErrorCode());
-			stb.append("\nError Type:       ").append(ase.getErrorType());
-			stb.append("\nRequest ID:       ").append(ase.getRequestId());
-			log.error(stb.toString(), ase);
-		} catch (AmazonClientException ace) {
-			String res = "Caught an AmazonClientException, which means the client encountered an internal error while trying to communicate with S3, such as not being able to access the network.";
-			log.error("{}: {}", res, ace.getLocalizedMessage(), ace);
+			return s3client.getObject(properties.getAwsBucket(), key).getObjectContent();
+		} catch (final AmazonClientException e) {
+			throw new IOException("Could not read " + key + ": " + e.getLocalizedMessage(), e);
 		}
 	}
 
 	/**
-	 * Delete an old file
+	 * @param key     The key of the object
+	 * @param content The content of the object
+	 * @throws IOException If the object could not be written
 	 */
-	public void deleteOldFile() {
-		log.info("Deleting old file in AWS...");
-		ObjectListing listing = s3client.listObjects(properties.getAwsBucket());
-		final List<S3ObjectSummary> summaries = listing.getObjectSummaries();
-		// Get absolutely all items
-		while (listing.isTruncated()) {
-			listing = s3client.listNextBatchOfObjects(listing);
-			summaries.addAll(listing.getObjectSummaries());
+	public void writeObject(final String key, final byte[] content) throws IOException {
+		final ObjectMetadata metadata = new ObjectMetadata();
+		metadata.setContentLength(content.length);
+		try {
+			s3client.putObject(properties.getAwsBucket(), key, new ByteArrayInputStream(content), metadata);
+		} catch (final AmazonClientException e) {
+			throw new IOException("Could not write " + key + ": " + e.getLocalizedMessage(), e);
 		}
+	}
 
-		if (summaries.size() > MAX_DUMP_KEPT) {
-			S3ObjectSummary entry = null;
-			DateTime dateTimeEntry = null;
-			for (final S3ObjectSummary summary : summaries) {
-				final DateTime dateTime = new DateTime(summary.getLastModified());
-				if (dateTimeEntry == null || dateTime.isBefore(dateTimeEntry)) {
-					entry = summary;
-					dateTimeEntry = dateTime;
+	/**
+	 * Delete objects, with one request per 1000 keys
+	 *
+	 * @param keys The keys of the objects to delete
+	 */
+	public void deleteObjects(final List<String> keys) {
+		for (int from = 0; from < keys.size(); from += MAX_DELETE_KEYS) {
+			final List<String> batch = keys.subList(from, Math.min(from + MAX_DELETE_KEYS, keys.size()));
+			final DeleteObjectsRequest request = new DeleteObjectsRequest(properties.getAwsBucket())
+				.withKeys(batch.toArray(new String[batch.size()]))
+				.withQuiet(true);
+			try {
+				s3client.deleteObjects(request);
+				log.info("Deleted: {}", batch);
+			} catch (final MultiObjectDeleteException e) {
+				for (final MultiObjectDeleteException.DeleteError error : e.getErrors()) {
+					log.error("Could not delete {}: {}", error.getKey(), error.getMessage());
 				}
+			} catch (final AmazonClientException e) {
+				log.error("Could not delete {}: {}", batch, e.getLocalizedMessage(), e);
 			}
-			if (entry != null && entry.getKey() != null) {
-				log.info("Deleting: {}: {}", entry.getKey(), entry.getLastModified());
-				s3client.deleteObject(properties.getAwsBucket(), entry.getKey());
-			}
 		}
-		log.info("Delete done");
+	}
+
+	/**
+	 * Abort the multipart uploads initiated before a date under a prefix. A server that dies while streaming an object leaves its upload
+	 * in the bucket, and its parts are billed until the upload is aborted.
+	 *
+	 * @param prefix The prefix of the keys
+	 * @param before The date, the uploads initiated since may still be running
+	 * @return The number of uploads aborted
+	 */
+	public int abortUploads(final String prefix, final Date before) {
+		final String bucket = properties.getAwsBucket();
+		final ListMultipartUploadsRequest request = new ListMultipartUploadsRequest(bucket).withPrefix(prefix);
+		int aborted = 0;
+		try {
+			MultipartUploadListing listing;
+			do {
+				listing = s3client.listMultipartUploads(request);
+				for (final MultipartUpload upload : listing.getMultipartUploads()) {
+					if (upload.getInitiated().before(before)) {
+						s3client.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, upload.getKey(), upload.getUploadId()));
+						log.info("Aborted the upload of {} initiated at {}", upload.getKey(), upload.getInitiated());
+						aborted++;
+					}
+				}
+				request.setKeyMarker(listing.getNextKeyMarker());
+				request.setUploadIdMarker(listing.getNextUploadIdMarker());
+			} while (listing.isTruncated());
+		} catch (final AmazonClientException e) {
+			log.error("Could not abort the uploads of {}: {}", prefix, e.getLocalizedMessage(), e);
+		}
+		return aborted;
 	}
 }
@@ -0,0 +1,169 @@
+package com.epickur.api.aws;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.epickur.api.config.EpickurProperties;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Upload the parts of a multipart upload in parallel, on aws.upload.threads threads. At most that many parts are in flight, so the memory
+ * used is bounded by the part size.
+ * <p>
+ * A part that fails is retried alone, aws.upload.retries times with an exponential backoff starting at aws.upload.retry.delay
+ * milliseconds: the upload resumes where it failed instead of starting over. The errors S3 blames on the request are not retried.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Log4j2
+final class S3PartUploader {
+
+	private final AmazonS3 s3client;
+	private final String bucket;
+	private final String key;
+	private final String uploadId;
+	private final int threads;
+	private final int retries;
+	private final long retryDelay;
+	private final ExecutorService executor;
+	private final Deque<Future<PartETag>> pending = new ArrayDeque<>();
+	private final List<PartETag> parts = new ArrayList<>();
+	private long size;
+
+	/**
+	 * @param s3client   The client
+	 * @param properties The properties
+	 * @param key        The key of the object
+	 * @param uploadId   The id of the multipart upload, already initiated
+	 */
+	S3PartUploader(final AmazonS3 s3client, final EpickurProperties properties, final String key, final String uploadId) {
+		this.s3client = s3client;
+		this.bucket = properties.getAwsBucket();
+		this.key = key;
+		this.uploadId = uploadId;
+		this.threads = Math.max(1, properties.getAwsUploadThreads());
+		this.retries = properties.getAwsUploadRetries();
+		this.retryDelay = properties.getAwsUploadRetryDelay();
+		final AtomicInteger threadCount = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+			final Thread thread = new Thread(runnable, "s3-upload-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Upload a part in background. Waits while too many parts are in flight.
+	 *
+	 * @param partNumber The part number, from 1
+	 * @param data       The part, not modified until the upload is completed
+	 * @param length     The length of the part
+	 * @throws IOException If a part already failed
+	 */
+	void submit(final int partNumber, final byte[] data, final int length) throws IOException {
+		while (pending.size() >= threads) {
+			collect();
+		}
+		pending.add(executor.submit(() -> uploadPart(partNumber, data, length)));
+		size += length;
+	}
+
+	/**
+	 * Wait for the parts and create the object. The upload is left as is if it fails.
+	 *
+	 * @throws IOException If a part could not be uploaded or the upload could not be completed
+	 */
+	void complete() throws IOException {
+		try {
+			while (!pending.isEmpty()) {
+				collect();
+			}
+			parts.sort(Comparator.comparingInt(PartETag::getPartNumber));
+			s3client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, key, uploadId, parts));
+			log.info("{} uploaded: {} bytes in {} parts", key, size, parts.size());
+		} catch (final AmazonClientException e) {
+			throw new IOException("Could not complete the upload of " + key + ": " + e.getLocalizedMessage(), e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Cancel the upload and delete the parts already uploaded
+	 */
+	void abort() {
+		executor.shutdownNow();
+		try {
+			s3client.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, key, uploadId));
+			log.info("Upload of {} aborted", key);
+		} catch (final AmazonClientException e) {
+			log.error("Could not abort the upload of {}, its parts stay in the bucket: {}", key, e.getLocalizedMessage(), e);
+		}
+	}
+
+	/**
+	 * @return The number of parts uploaded or submitted
+	 */
+	int getPartCount() {
+		return parts.size() + pending.size();
+	}
+
+	private void collect() throws IOException {
+		try {
+			parts.add(pending.poll().get());
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Upload of " + key + " interrupted");
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException("Could not upload " + key + ": " + e.getCause().getLocalizedMessage(), e.getCause());
+		}
+	}
+
+	private PartETag uploadPart(final int partNumber, final byte[] data, final int length) throws IOException, InterruptedException {
+		for (int attempt = 0; ; attempt++) {
+			final UploadPartRequest request = new UploadPartRequest()
+				.withBucketName(bucket)
+				.withKey(key)
+				.withUploadId(uploadId)
+				.withPartNumber(partNumber)
+				.withPartSize(length)
+				.withInputStream(new ByteArrayInputStream(data, 0, length));
+			try {
+				return s3client.uploadPart(request).getPartETag();
+			} catch (final AmazonClientException e) {
+				if (attempt >= retries || !isRetryable(e)) {
+					throw new IOException("Could not upload the part " + partNumber + " of " + key + ": " + e.getLocalizedMessage(), e);
+				}
+				final long delay = retryDelay << attempt;
+				log.warn("Upload of the part {} of {} failed, retry in {} ms: {}", partNumber, key, delay, e.getLocalizedMessage());
+				Thread.sleep(delay);
+			}
+		}
+	}
+
+	private static boolean isRetryable(final AmazonClientException e) {
+		return !(e instanceof AmazonServiceException) || ((AmazonServiceException) e).getErrorType() != AmazonServiceException.ErrorType.Client;
+	}
+}
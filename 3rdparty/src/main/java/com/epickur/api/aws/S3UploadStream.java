@@ -0,0 +1,135 @@
+package com.epickur.api.aws;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.epickur.api.config.EpickurProperties;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Stream uploaded to S3 as a multipart upload, one part each time aws.upload.part bytes have been written. Nothing is written on disk, the
+ * parts are uploaded in parallel by a {@link S3PartUploader}.
+ * <p>
+ * The object is created by {@link #close()}. If the stream is not complete, {@link #abort()} must be called instead so that S3 deletes the
+ * parts already uploaded.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public final class S3UploadStream extends OutputStream {
+
+	/**
+	 * Min size of a part, except the last one
+	 */
+	public static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+	private final String key;
+	private final S3PartUploader uploader;
+	private final int partSize;
+	private byte[] buffer;
+	private int count;
+	private long size;
+	private boolean closed;
+
+	/**
+	 * Start the multipart upload
+	 *
+	 * @param s3client   The client
+	 * @param properties The properties
+	 * @param key        The key of the object
+	 * @throws IOException If the upload could not be started
+	 */
+	S3UploadStream(final AmazonS3 s3client, final EpickurProperties properties, final String key) throws IOException {
+		this.key = key;
+		this.partSize = Math.max(properties.getAwsUploadPartSize(), MIN_PART_SIZE);
+		this.buffer = new byte[partSize];
+		try {
+			final String uploadId = s3client.initiateMultipartUpload(new InitiateMultipartUploadRequest(properties.getAwsBucket(), key))
+				.getUploadId();
+			this.uploader = new S3PartUploader(s3client, properties, key, uploadId);
+		} catch (final AmazonClientException e) {
+			throw new IOException("Could not start the upload of " + key + ": " + e.getLocalizedMessage(), e);
+		}
+	}
+
+	@Override
+	public void write(final int b) throws IOException {
+		ensureOpen();
+		buffer[count++] = (byte) b;
+		if (count == buffer.length) {
+			uploadPart();
+		}
+	}
+
+	@Override
+	public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+		ensureOpen();
+		int from = offset;
+		int remaining = length;
+		while (remaining > 0) {
+			final int chunk = Math.min(remaining, buffer.length - count);
+			System.arraycopy(bytes, from, buffer, count, chunk);
+			count += chunk;
+			from += chunk;
+			remaining -= chunk;
+			if (count == buffer.length) {
+				uploadPart();
+			}
+		}
+	}
+
+	/**
+	 * Upload the last part, wait for all the parts and create the object
+	 *
+	 * @throws IOException If the upload failed, it is then aborted
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			if (count > 0 || uploader.getPartCount() == 0) {
+				uploadPart();
+			}
+			uploader.complete();
+			closed = true;
+		} catch (final IOException e) {
+			abort();
+			throw e;
+		}
+	}
+
+	/**
+	 * Cancel the upload and delete the parts already uploaded
+	 */
+	public void abort() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		uploader.abort();
+	}
+
+	/**
+	 * @return The number of bytes written
+	 */
+	public long getSize() {
+		return size + count;
+	}
+
+	private void uploadPart() throws IOException {
+		uploader.submit(uploader.getPartCount() + 1, buffer, count);
+		size += count;
+		buffer = new byte[partSize];
+		count = 0;
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Upload of " + key + " already closed");
+		}
+	}
+}
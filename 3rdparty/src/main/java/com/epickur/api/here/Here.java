@@ -3,24 +3,20 @@ package com.epickur.api.here;
 import com.epickur.api.config.EpickurProperties;
 import com.epickur.api.entity.Geo;
 import com.epickur.api.exception.HereException;
+import com.epickur.api.exception.HereNotFoundException;
+import com.epickur.api.http.HttpClientPool;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
-import lombok.Cleanup;
 import lombok.NonNull;
 import lombok.SneakyThrows;
 import lombok.extern.log4j.Log4j2;
-import org.apache.commons.io.IOUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
-import java.net.URL;
-import java.net.URLConnection;
 import java.net.URLEncoder;
-import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
 
@@ -39,6 +35,8 @@ public class Here {
 	public EpickurProperties properties;
 	@NonNull
 	private ObjectMapper mapper;
+	@NonNull
+	private HttpClientPool httpClientPool;
 	/**
 	 * Url base
 	 */
@@ -118,18 +116,11 @@ public class Here {
 	 */
 	protected final String connectUrl(final String address) throws HereException {
 		log.debug("URL: " + address);
-		String toReturn;
 		try {
-			final URL url = new URL(address);
-			final URLConnection uc = url.openConnection();
-			uc.setConnectTimeout(1000);
-			final Charset charset = Charset.forName("UTF8");
-			@Cleanup final InputStreamReader in = new InputStreamReader(uc.getInputStream(), charset);
-			toReturn = IOUtils.toString(in);
+			return httpClientPool.get(address);
 		} catch (final IOException e) {
 			throw new HereException("Error: " + HereException.CONNECT_ERROR, e);
 		}
-		return toReturn;
 	}
 
 	/**
@@ -137,7 +128,7 @@ public class Here {
 	 *
 	 * @param data The data
 	 * @return Geo containing the data
-	 * @throws HereException If we could not access the coordinates
+	 * @throws HereException If we could not access the coordinates, {@link HereNotFoundException} if Here did not find them
 	 */
 	@SuppressWarnings("unchecked")
 	private Geo getGeoFromStr(final String data, final String text) throws HereException {
@@ -172,7 +163,7 @@ public class Here {
 									}
 								} else {
 									final String message = String.format("Could not geocode accurately '%s'", text);
-									throw new HereException(message);
+									throw new HereNotFoundException(message);
 								}
 							}
 						}
@@ -183,7 +174,7 @@ public class Here {
 			throw new HereException("Geolocation error", e);
 		}
 		if (geo == null) {
-			throw new HereException("Geolocation error. Data sent by Here: '" + data + "'");
+			throw new HereNotFoundException("Geolocation error. Data sent by Here: '" + data + "'");
 		}
 		return geo;
 	}
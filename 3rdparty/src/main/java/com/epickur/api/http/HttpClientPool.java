@@ -0,0 +1,175 @@
+package com.epickur.api.http;
+
+import com.epickur.api.config.EpickurProperties;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pooled HTTP client shared by the outbound integrations: Here, Mandrill and the newsletter. The connections are kept alive and reused.
+ * <ul>
+ * <li>http.pool.max: max connections in total</li>
+ * <li>http.pool.route: max connections to one host</li>
+ * <li>http.route.limits: max connections to some hosts, as a list of url=limit</li>
+ * <li>http.connect.timeout and http.read.timeout: timeouts, in milliseconds, the first one also applies to the wait for a connection of
+ * the pool</li>
+ * <li>http.idle.timeout: delay after which an idle connection is closed, in milliseconds</li>
+ * </ul>
+ * The time taken by the requests is recorded per host.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Log4j2
+@Component
+public class HttpClientPool {
+
+	private final PoolingHttpClientConnectionManager connectionManager;
+	private final CloseableHttpClient client;
+	private final Map<String, HttpStats> stats = new ConcurrentHashMap<>();
+
+	@Autowired
+	public HttpClientPool(final EpickurProperties properties) {
+		this.connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(properties.getHttpPoolMax());
+		connectionManager.setDefaultMaxPerRoute(properties.getHttpPoolRoute());
+		for (final String limit : properties.getHttpRouteLimits()) {
+			if (StringUtils.isNotBlank(limit)) {
+				final String url = StringUtils.substringBeforeLast(limit, "=").trim();
+				final int max = Integer.parseInt(StringUtils.substringAfterLast(limit, "=").trim());
+				connectionManager.setMaxPerRoute(new HttpRoute(toHost(url)), max);
+			}
+		}
+		final RequestConfig requestConfig = RequestConfig.custom()
+			.setConnectTimeout(properties.getHttpConnectTimeout())
+			.setConnectionRequestTimeout(properties.getHttpConnectTimeout())
+			.setSocketTimeout(properties.getHttpReadTimeout())
+			.build();
+		this.client = HttpClients.custom()
+			.setConnectionManager(connectionManager)
+			.setDefaultRequestConfig(requestConfig)
+			.setRequestExecutor(new TimedRequestExecutor())
+			.evictExpiredConnections()
+			.evictIdleConnections(properties.getHttpIdleTimeout(), TimeUnit.MILLISECONDS)
+			.build();
+	}
+
+	/**
+	 * @return The client, for the libraries that need one
+	 */
+	public CloseableHttpClient getClient() {
+		return client;
+	}
+
+	/**
+	 * @param url The url
+	 * @return The body of the response
+	 * @throws IOException If the request failed or the status is not 2xx
+	 */
+	public String get(final String url) throws IOException {
+		try (final CloseableHttpResponse response = client.execute(new HttpGet(url))) {
+			final String body = response.getEntity() == null ? "" : EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+			final int status = response.getStatusLine().getStatusCode();
+			if (status < 200 || status >= 300) {
+				throw new IOException("HTTP " + status + " from " + toHost(url));
+			}
+			return body;
+		}
+	}
+
+	/**
+	 * @param url The url
+	 * @return The status of the response, whose body is ignored
+	 * @throws IOException If the request failed
+	 */
+	public int post(final String url) throws IOException {
+		try (final CloseableHttpResponse response = client.execute(new HttpPost(url))) {
+			EntityUtils.consume(response.getEntity());
+			return response.getStatusLine().getStatusCode();
+		}
+	}
+
+	/**
+	 * @return The statistics of the requests, by host
+	 */
+	public Map<String, HttpStats> getStats() {
+		return Collections.unmodifiableMap(stats);
+	}
+
+	/**
+	 * @return The number of connections leased, available and pending in the pool
+	 */
+	public String getPoolStats() {
+		return connectionManager.getTotalStats().toString();
+	}
+
+	@PreDestroy
+	public void close() {
+		try {
+			client.close();
+		} catch (final IOException e) {
+			log.warn("Could not close the HTTP client: {}", e.getLocalizedMessage());
+		}
+		stats.forEach((host, hostStats) -> log.info("HTTP {}: {} requests, {} errors, {} ms on average, {} ms max", host,
+			hostStats.getRequests(), hostStats.getErrors(), String.format("%.1f", hostStats.getAverageMillis()), hostStats.getMaxMillis()));
+	}
+
+	/**
+	 * @param url The url
+	 * @return The host of the url, with the default port of its scheme if absent
+	 */
+	static HttpHost toHost(final String url) {
+		final URI uri = URI.create(url);
+		final int port = uri.getPort() != -1 ? uri.getPort() : "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+		return new HttpHost(uri.getHost(), port, uri.getScheme());
+	}
+
+	/**
+	 * Record the time until the response headers are received
+	 */
+	private class TimedRequestExecutor extends HttpRequestExecutor {
+
+		@Override
+		public HttpResponse execute(final HttpRequest request, final HttpClientConnection conn, final HttpContext context)
+			throws IOException, HttpException {
+			final long start = System.nanoTime();
+			boolean error = true;
+			try {
+				final HttpResponse response = super.execute(request, conn, context);
+				error = false;
+				return response;
+			} finally {
+				final HttpHost target = HttpClientContext.adapt(context).getTargetHost();
+				final String host = target == null ? "unknown" : target.getHostName();
+				stats.computeIfAbsent(host, key -> new HttpStats()).record(System.nanoTime() - start, error);
+			}
+		}
+	}
+}
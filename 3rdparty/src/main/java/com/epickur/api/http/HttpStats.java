@@ -0,0 +1,56 @@
+package com.epickur.api.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of the requests sent to one target host by this server.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public final class HttpStats {
+
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong errors = new AtomicLong();
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	void record(final long nanos, final boolean error) {
+		requests.incrementAndGet();
+		if (error) {
+			errors.incrementAndGet();
+		}
+		totalNanos.addAndGet(nanos);
+		maxNanos.accumulateAndGet(nanos, Math::max);
+	}
+
+	/**
+	 * @return The number of requests
+	 */
+	public long getRequests() {
+		return requests.get();
+	}
+
+	/**
+	 * @return The number of requests that failed with an I/O error
+	 */
+	public long getErrors() {
+		return errors.get();
+	}
+
+	/**
+	 * @return The average time until the response headers were received, in milliseconds
+	 */
+	public double getAverageMillis() {
+		final long count = requests.get();
+		return count == 0 ? 0 : totalNanos.get() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	/**
+	 * @return The longest time until the response headers were received, in milliseconds
+	 */
+	public long getMaxMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+	}
+}
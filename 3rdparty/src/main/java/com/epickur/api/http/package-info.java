@@ -0,0 +1,7 @@
+/**
+ * HTTP client shared by the outbound integrations.
+ *
+ * @author cph
+ * @version 1.0
+ */
+package com.epickur.api.http;
@@ -0,0 +1,96 @@
+package com.epickur.api.aws;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ListMultipartUploadsRequest;
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.config.S3CompatibleConfigTest;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Run against a S3 compatible server, skipped when aws.s3.endpoint is not set.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = S3CompatibleConfigTest.class)
+public class AmazonWebServicesIT {
+
+	@Autowired
+	private EpickurProperties properties;
+	@Autowired
+	private AmazonS3 amazonS3;
+	@Autowired
+	private AmazonWebServices amazonWebServices;
+	private byte[] content;
+
+	@Before
+	public void setUp() {
+		assumeTrue(StringUtils.isNotBlank(properties.getAwsS3Endpoint()));
+		if (!amazonS3.doesBucketExist(properties.getAwsBucket())) {
+			amazonS3.createBucket(properties.getAwsBucket());
+		}
+		content = new byte[2 * properties.getAwsUploadPartSize() + 1000];
+		new Random(42).nextBytes(content);
+	}
+
+	@Test
+	public void testOpenUpload() throws IOException {
+		// When
+		try (final S3UploadStream upload = amazonWebServices.openUpload("stream.archive.gz")) {
+			upload.write(content);
+		}
+
+		// Then
+		assertArrayEquals(content, read("stream.archive.gz"));
+	}
+
+	@Test
+	public void testAbortUploads() {
+		// Given
+		amazonS3.initiateMultipartUpload(new InitiateMultipartUploadRequest(properties.getAwsBucket(), "stale_stream.archive.gz"));
+
+		// When
+		amazonWebServices.abortUploads("stale_", new Date(System.currentTimeMillis() + 60000));
+
+		// Then
+		assertTrue(amazonS3.listMultipartUploads(new ListMultipartUploadsRequest(properties.getAwsBucket()).withPrefix("stale_"))
+			.getMultipartUploads().isEmpty());
+	}
+
+	@Test
+	public void testDeleteObjects() throws IOException {
+		// Given
+		amazonWebServices.writeObject("delete1", new byte[]{1});
+		amazonWebServices.writeObject("delete2", new byte[]{2});
+
+		// When
+		amazonWebServices.deleteObjects(Arrays.asList("delete1", "delete2"));
+
+		// Then
+		assertFalse(amazonWebServices.readObject("delete1").isPresent());
+		assertFalse(amazonWebServices.readObject("delete2").isPresent());
+	}
+
+	private byte[] read(final String key) throws IOException {
+		try (final InputStream in = amazonWebServices.openObject(key)) {
+			return IOUtils.toByteArray(in);
+		}
+	}
+}
@@ -1,117 +1,107 @@
 package com.epickur.api.aws;
 
 import com.amazonaws.AmazonClientException;
-import com.amazonaws.AmazonServiceException;
-import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.model.ObjectListing;
-import com.amazonaws.services.s3.model.PutObjectRequest;
-import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.ListMultipartUploadsRequest;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.MultipartUploadListing;
 import com.epickur.api.config.AmazonConfigTest;
 import org.junit.After;
-import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.Mock;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.any;
-import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
-import static org.mockito.MockitoAnnotations.initMocks;
+import static org.mockito.Mockito.times;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @ContextConfiguration(classes = AmazonConfigTest.class)
 public class AmazonWebServicesTest {
 
-	private final String filePath = "/path";
-	@Mock
-	private BasicAWSCredentials basicAWSCredentials;
-	@Mock
-	private ObjectListing objectListing;
-	@Mock
-	private List<S3ObjectSummary> s3ObjectSummaries;
-	@Mock
-	private Iterator<S3ObjectSummary> s3ObjectSummaryIterator;
-	@Mock
-	private S3ObjectSummary s3ObjectSummary;
 	@Autowired
 	private AmazonS3 amazonS3;
 	@Autowired
 	private AmazonWebServices amazonWebServices;
 
-	@Before
-	public void setUp() throws Exception {
-		initMocks(this);
-	}
-
 	@After
 	public void tearDown() throws Exception {
 		reset(amazonS3);
 	}
 
 	@Test
-	public void testUploadFile() {
-		// When
-		amazonWebServices.uploadFile(filePath);
-
-		// Then
-		then(amazonS3).should().putObject(any(PutObjectRequest.class));
-	}
-
-	@Test
-	public void testUploadFileAmazonServiceException() {
+	public void testAbortUploads() {
 		// Given
-		given(amazonS3.putObject(any(PutObjectRequest.class))).willThrow(new AmazonServiceException(""));
+		final MultipartUploadListing first = new MultipartUploadListing();
+		first.setMultipartUploads(Arrays.asList(upload("epickur_old", "old", new Date(1000L)), upload("epickur_new", "new", new Date(3000L))));
+		first.setTruncated(true);
+		first.setNextKeyMarker("epickur_new");
+		final MultipartUploadListing second = new MultipartUploadListing();
+		second.setMultipartUploads(Arrays.asList(upload("epickur_older", "older", new Date(500L))));
+		given(amazonS3.listMultipartUploads(any(ListMultipartUploadsRequest.class))).willReturn(first, second);
 
 		// When
-		amazonWebServices.uploadFile(filePath);
+		final int actual = amazonWebServices.abortUploads("epickur_", new Date(2000L));
 
 		// Then
-		then(amazonS3).should().putObject(any(PutObjectRequest.class));
+		assertEquals(2, actual);
+		final ArgumentCaptor<AbortMultipartUploadRequest> aborts = ArgumentCaptor.forClass(AbortMultipartUploadRequest.class);
+		then(amazonS3).should(times(2)).abortMultipartUpload(aborts.capture());
+		assertEquals("old", aborts.getAllValues().get(0).getUploadId());
+		assertEquals("older", aborts.getAllValues().get(1).getUploadId());
 	}
 
 	@Test
-	public void testUploadFileAmazonClientException() {
+	public void testAbortUploadsAmazonClientException() {
 		// Given
-		given(amazonS3.putObject(any(PutObjectRequest.class))).willThrow(new AmazonClientException(""));
+		given(amazonS3.listMultipartUploads(any(ListMultipartUploadsRequest.class))).willThrow(new AmazonClientException(""));
 
 		// When
-		amazonWebServices.uploadFile(filePath);
+		final int actual = amazonWebServices.abortUploads("epickur_", new Date());
 
 		// Then
-		then(amazonS3).should().putObject(any(PutObjectRequest.class));
+		assertEquals(0, actual);
+		then(amazonS3).should(never()).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
 	}
 
 	@Test
-	public void testDeleteOldFile() {
+	public void testDeleteObjects() {
 		// Given
-		given(amazonS3.listObjects(anyString())).willReturn(objectListing);
-		given(objectListing.isTruncated()).willReturn(true, false);
-		given(objectListing.getObjectSummaries()).willReturn(s3ObjectSummaries);
-		given(amazonS3.listNextBatchOfObjects(objectListing)).willReturn(objectListing);
-		given(s3ObjectSummaries.size()).willReturn(30);
-		given(s3ObjectSummaries.iterator()).willReturn(s3ObjectSummaryIterator);
-		given(s3ObjectSummaryIterator.hasNext()).willReturn(true, false);
-		given(s3ObjectSummaryIterator.next()).willReturn(s3ObjectSummary);
-		given(s3ObjectSummary.getLastModified()).willReturn(new Date());
-		given(s3ObjectSummary.getKey()).willReturn("key");
-		given(s3ObjectSummary.getLastModified()).willReturn(new Date());
+		final List<String> keys = new ArrayList<>();
+		for (int i = 0; i < 1500; i++) {
+			keys.add("dump" + i);
+		}
 
 		// When
-		amazonWebServices.deleteOldFile();
+		amazonWebServices.deleteObjects(keys);
 
 		// Then
-		then(amazonS3).should().deleteObject(anyString(), anyString());
-		then(s3ObjectSummaries).should().addAll(s3ObjectSummaries);
-		then(amazonS3).should().listNextBatchOfObjects(objectListing);
+		final ArgumentCaptor<DeleteObjectsRequest> requests = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+		then(amazonS3).should(times(2)).deleteObjects(requests.capture());
+		assertEquals(1000, requests.getAllValues().get(0).getKeys().size());
+		assertEquals(500, requests.getAllValues().get(1).getKeys().size());
+		assertEquals("dump1000", requests.getAllValues().get(1).getKeys().get(0).getKey());
+	}
+
+	private static MultipartUpload upload(final String key, final String uploadId, final Date initiated) {
+		final MultipartUpload upload = new MultipartUpload();
+		upload.setKey(key);
+		upload.setUploadId(uploadId);
+		upload.setInitiated(initiated);
+		return upload;
 	}
 }
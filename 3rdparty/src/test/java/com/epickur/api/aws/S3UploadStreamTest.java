@@ -0,0 +1,168 @@
+package com.epickur.api.aws;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.epickur.api.config.EpickurProperties;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+@RunWith(MockitoJUnitRunner.class)
+public class S3UploadStreamTest {
+
+	private static final int PART_SIZE = S3UploadStream.MIN_PART_SIZE;
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+	@Mock
+	private AmazonS3 s3client;
+	@Mock
+	private EpickurProperties properties;
+
+	@Before
+	public void setUp() {
+		given(properties.getAwsBucket()).willReturn("bucket");
+		given(properties.getAwsUploadPartSize()).willReturn(PART_SIZE);
+		given(properties.getAwsUploadThreads()).willReturn(2);
+		given(properties.getAwsUploadRetries()).willReturn(2);
+		given(properties.getAwsUploadRetryDelay()).willReturn(1L);
+		final InitiateMultipartUploadResult initiated = new InitiateMultipartUploadResult();
+		initiated.setUploadId("upload");
+		given(s3client.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class))).willReturn(initiated);
+		given(s3client.uploadPart(any(UploadPartRequest.class))).willAnswer(invocation -> {
+			final UploadPartRequest request = invocation.getArgument(0);
+			final UploadPartResult result = new UploadPartResult();
+			result.setPartNumber(request.getPartNumber());
+			result.setETag("etag" + request.getPartNumber());
+			return result;
+		});
+	}
+
+	@Test
+	public void testUpload() throws IOException {
+		// Given
+		final S3UploadStream upload = new S3UploadStream(s3client, properties, "dump");
+
+		// When
+		upload.write(new byte[PART_SIZE + 10], 0, PART_SIZE + 10);
+		upload.write(1);
+		upload.close();
+
+		// Then
+		assertEquals(PART_SIZE + 11, upload.getSize());
+		final ArgumentCaptor<UploadPartRequest> parts = ArgumentCaptor.forClass(UploadPartRequest.class);
+		then(s3client).should(times(2)).uploadPart(parts.capture());
+		assertEquals(PART_SIZE, parts.getAllValues().get(0).getPartSize());
+		assertEquals(11, parts.getAllValues().get(1).getPartSize());
+		final ArgumentCaptor<CompleteMultipartUploadRequest> complete = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+		then(s3client).should().completeMultipartUpload(complete.capture());
+		final List<?> etags = complete.getValue().getPartETags();
+		assertEquals(2, etags.size());
+		then(s3client).should(never()).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+	}
+
+	@Test
+	public void testUploadEmpty() throws IOException {
+		// When
+		new S3UploadStream(s3client, properties, "dump").close();
+
+		// Then
+		then(s3client).should().uploadPart(any(UploadPartRequest.class));
+		then(s3client).should().completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+	}
+
+	@Test
+	public void testAbort() throws IOException {
+		// Given
+		final S3UploadStream upload = new S3UploadStream(s3client, properties, "dump");
+		upload.write(1);
+
+		// When
+		upload.abort();
+		upload.close();
+
+		// Then
+		then(s3client).should().abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+		then(s3client).should(never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+	}
+
+	@Test
+	public void testUploadPartRetry() throws IOException {
+		// Given
+		final UploadPartResult result = new UploadPartResult();
+		result.setPartNumber(1);
+		result.setETag("etag1");
+		given(s3client.uploadPart(any(UploadPartRequest.class))).willThrow(new AmazonClientException("timeout")).willReturn(result);
+		final S3UploadStream upload = new S3UploadStream(s3client, properties, "dump");
+
+		// When
+		upload.write(1);
+		upload.close();
+
+		// Then
+		then(s3client).should(times(2)).uploadPart(any(UploadPartRequest.class));
+		then(s3client).should().completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+	}
+
+	@Test
+	public void testUploadPartFail() throws IOException {
+		// Given
+		given(s3client.uploadPart(any(UploadPartRequest.class))).willThrow(new AmazonClientException("down"));
+		final S3UploadStream upload = new S3UploadStream(s3client, properties, "dump");
+		upload.write(new byte[PART_SIZE], 0, PART_SIZE);
+
+		// Then
+		thrown.expect(IOException.class);
+		thrown.expectMessage("Could not upload the part 1 of dump");
+
+		// When
+		try {
+			upload.close();
+		} finally {
+			then(s3client).should(times(3)).uploadPart(any(UploadPartRequest.class));
+			then(s3client).should().abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+		}
+	}
+
+	@Test
+	public void testUploadPartClientError() throws IOException {
+		// Given
+		final AmazonServiceException denied = new AmazonServiceException("denied");
+		denied.setErrorType(AmazonServiceException.ErrorType.Client);
+		given(s3client.uploadPart(any(UploadPartRequest.class))).willThrow(denied);
+		final S3UploadStream upload = new S3UploadStream(s3client, properties, "dump");
+		upload.write(1);
+
+		// Then
+		thrown.expect(IOException.class);
+
+		// When
+		try {
+			upload.close();
+		} finally {
+			then(s3client).should().uploadPart(any(UploadPartRequest.class));
+		}
+	}
+}
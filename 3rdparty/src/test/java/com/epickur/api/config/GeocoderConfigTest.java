@@ -2,6 +2,7 @@ package com.epickur.api.config;
 
 import com.epickur.api.here.GeocoderHereImpl;
 import com.epickur.api.here.Here;
+import com.epickur.api.http.HttpClientPool;
 import com.epickur.api.utils.Utils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,7 +24,12 @@ public class GeocoderConfigTest {
 
 	@Bean
 	public Here here() {
-		return new Here(epickurProperties, objectMapper());
+		return new Here(epickurProperties, objectMapper(), httpClientPool());
+	}
+
+	@Bean
+	public HttpClientPool httpClientPool() {
+		return new HttpClientPool(epickurProperties);
 	}
 
 	@Bean
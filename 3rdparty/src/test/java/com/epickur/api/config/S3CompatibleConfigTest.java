@@ -0,0 +1,40 @@
+package com.epickur.api.config;
+
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3Client;
+import com.amazonaws.services.s3.S3ClientOptions;
+import com.epickur.api.aws.AmazonWebServices;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * A real client, pointed at the S3 compatible server of aws.s3.endpoint when it is set, with -Daws.s3.endpoint=http://localhost:9000 for
+ * example.
+ */
+@Configuration
+@Import(EpickurPropertiesTestConfig.class)
+public class S3CompatibleConfigTest {
+
+	@Autowired
+	private EpickurProperties epickurProperties;
+
+	@Bean
+	public AmazonS3 amazonS3() {
+		final AmazonS3Client client = new AmazonS3Client(
+			new BasicAWSCredentials(epickurProperties.getAwsAccessKeyId(), epickurProperties.getAwsSecretKey()));
+		if (StringUtils.isNotBlank(epickurProperties.getAwsS3Endpoint())) {
+			client.setEndpoint(epickurProperties.getAwsS3Endpoint());
+			client.setS3ClientOptions(new S3ClientOptions().withPathStyleAccess(true));
+		}
+		return client;
+	}
+
+	@Bean
+	public AmazonWebServices amazonWebServices() {
+		return new AmazonWebServices(epickurProperties, amazonS3());
+	}
+}
@@ -0,0 +1,107 @@
+package com.epickur.api.http;
+
+import com.epickur.api.config.EpickurProperties;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpHost;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HttpClientPoolTest {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+	@Mock
+	private EpickurProperties properties;
+	private HttpServer server;
+	private String url;
+	private HttpClientPool httpClientPool;
+
+	@Before
+	public void setUp() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/ok", exchange -> {
+			final byte[] body = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, body.length);
+			try (final OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.createContext("/missing", exchange -> {
+			exchange.sendResponseHeaders(404, -1);
+			exchange.close();
+		});
+		server.start();
+		url = "http://localhost:" + server.getAddress().getPort();
+
+		given(properties.getHttpPoolMax()).willReturn(10);
+		given(properties.getHttpPoolRoute()).willReturn(2);
+		given(properties.getHttpRouteLimits()).willReturn(new String[]{url + "=5", ""});
+		given(properties.getHttpConnectTimeout()).willReturn(1000);
+		given(properties.getHttpReadTimeout()).willReturn(1000);
+		given(properties.getHttpIdleTimeout()).willReturn(30000L);
+		httpClientPool = new HttpClientPool(properties);
+	}
+
+	@After
+	public void tearDown() {
+		httpClientPool.close();
+		server.stop(0);
+	}
+
+	@Test
+	public void testGet() throws IOException {
+		// When
+		final String first = httpClientPool.get(url + "/ok");
+		final String second = httpClientPool.get(url + "/ok");
+
+		// Then
+		assertEquals("{\"ok\":true}", first);
+		assertEquals(first, second);
+		final HttpStats stats = httpClientPool.getStats().get("localhost");
+		assertEquals(2, stats.getRequests());
+		assertEquals(0, stats.getErrors());
+		assertTrue(stats.getAverageMillis() >= 0);
+	}
+
+	@Test
+	public void testGetFailStatus() throws IOException {
+		// Then
+		thrown.expect(IOException.class);
+		thrown.expectMessage("HTTP 404");
+
+		// When
+		httpClientPool.get(url + "/missing");
+	}
+
+	@Test
+	public void testPost() throws IOException {
+		// When
+		final int status = httpClientPool.post(url + "/missing");
+
+		// Then
+		assertEquals(404, status);
+		assertEquals(1, httpClientPool.getStats().get("localhost").getRequests());
+	}
+
+	@Test
+	public void testToHost() {
+		assertEquals(new HttpHost("mandrillapp.com", 443, "https"), HttpClientPool.toHost("https://mandrillapp.com/api"));
+		assertEquals(new HttpHost("geocoder.api.here.com", 80, "http"), HttpClientPool.toHost("http://geocoder.api.here.com"));
+	}
+}
@@ -7,7 +7,6 @@ import org.joda.time.DateTime;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 import org.xeustechnologies.jtar.TarEntry;
-import org.xeustechnologies.jtar.TarOutputStream;
 
 import java.io.*;
 import java.text.DateFormat;
@@ -27,6 +26,11 @@ import java.util.regex.Pattern;
 @Log4j2
 public class CommonsUtil {
 
+	/**
+	 * Size of the buffer used to copy the files into an archive
+	 */
+	private static final int COPY_BUFFER_SIZE = 1024 * 1024;
+	private static final int TAR_BLOCK_SIZE = 512;
 	private static String PICKUP_DATE_REGEX = "^(mon|tue|wed|thu|fri|sat|sun)\\-(([0-1][0-9]|2[0-3]):([0-5][0-9]))$";
 
 	/**
@@ -129,26 +133,34 @@ public class CommonsUtil {
 	}
 
 	/**
-	 * Create tar.gz file
+	 * Create tar.gz file, compressed on all the cores. The entries are written straight to the compression, by blocks of 1M: the tar
+	 * stream of jtar writes its data byte by byte.
 	 *
 	 * @param inputs the input path list
 	 * @param output the output path
+	 * @see ParallelGzipOutputStream
 	 */
 	public static void createTarGz(@NonNull final List<String> inputs, @NonNull final String output) {
-		try (final FileOutputStream dest = new FileOutputStream(output);
-			 final TarOutputStream out = new TarOutputStream(new BufferedOutputStream(dest))) {
+		try (final OutputStream out = new ParallelGzipOutputStream(new FileOutputStream(output))) {
+			final byte[] data = new byte[COPY_BUFFER_SIZE];
 			for (String input : inputs) {
 				final File f = new File(input);
-				out.putNextEntry(new TarEntry(f, f.getName()));
-				try (final BufferedInputStream origin = new BufferedInputStream(new FileInputStream(f))) {
+				final byte[] header = new byte[TAR_BLOCK_SIZE];
+				new TarEntry(f, f.getName()).writeEntryHeader(header);
+				out.write(header);
+				long size = 0;
+				try (final FileInputStream origin = new FileInputStream(f)) {
 					int count;
-					byte[] data = new byte[2048];
 					while ((count = origin.read(data)) != -1) {
 						out.write(data, 0, count);
+						size += count;
 					}
-					out.flush();
 				}
+				final int padding = (int) ((TAR_BLOCK_SIZE - size % TAR_BLOCK_SIZE) % TAR_BLOCK_SIZE);
+				out.write(new byte[padding]);
 			}
+			// End of archive
+			out.write(new byte[2 * TAR_BLOCK_SIZE]);
 		} catch (final IOException e) {
 			log.error("Error while creating tar.gz: {}", e.getLocalizedMessage(), e);
 		}
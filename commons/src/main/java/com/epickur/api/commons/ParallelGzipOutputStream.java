@@ -0,0 +1,205 @@
+package com.epickur.api.commons;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip stream compressed on several threads, the way pigz does it.
+ * <p>
+ * The data is cut in blocks that are deflated in parallel. Each block is primed with the last 32K of the previous one as dictionary and
+ * ends with a sync flush, so the blocks concatenate into a single deflate stream: the output is one standard gzip member, with almost the
+ * ratio of a single threaded compression. Only the CRC is computed by the writing thread.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+	/**
+	 * Default size of the blocks, the one of pigz
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+	private static final int DICTIONARY_SIZE = 32 * 1024;
+	private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+	private final OutputStream out;
+	private final int level;
+	private final int maxPending;
+	private final ExecutorService executor;
+	private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+	private final CRC32 crc = new CRC32();
+	private byte[] block;
+	private int blockLength;
+	private byte[] dictionary;
+	private long size;
+	private boolean closed;
+
+	/**
+	 * @param out The stream to write the gzip stream to
+	 * @throws IOException If the header could not be written
+	 */
+	public ParallelGzipOutputStream(final OutputStream out) throws IOException {
+		this(out, Runtime.getRuntime().availableProcessors(), DEFAULT_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * @param out       The stream to write the gzip stream to
+	 * @param threads   The number of compression threads
+	 * @param blockSize The size of the blocks compressed independently, at least 32K
+	 * @param level     The compression level
+	 * @throws IOException If the header could not be written
+	 */
+	public ParallelGzipOutputStream(final OutputStream out, final int threads, final int blockSize, final int level) throws IOException {
+		if (blockSize < DICTIONARY_SIZE) {
+			throw new IllegalArgumentException("The block size must be at least " + DICTIONARY_SIZE);
+		}
+		this.out = out;
+		this.level = level;
+		this.maxPending = Math.max(1, threads) * 2;
+		this.block = new byte[blockSize];
+		final AtomicInteger threadCount = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+			final Thread thread = new Thread(runnable, "gzip-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		out.write(HEADER);
+	}
+
+	@Override
+	public void write(final int b) throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		block[blockLength++] = (byte) b;
+		if (blockLength == block.length) {
+			submit(false);
+		}
+	}
+
+	@Override
+	public void write(final byte[] b, final int off, final int len) throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		int offset = off;
+		int remaining = len;
+		while (remaining > 0) {
+			final int count = Math.min(remaining, block.length - blockLength);
+			System.arraycopy(b, offset, block, blockLength, count);
+			blockLength += count;
+			offset += count;
+			remaining -= count;
+			if (blockLength == block.length) {
+				submit(false);
+			}
+		}
+	}
+
+	/**
+	 * Wait for the blocks submitted and write them.
+	 */
+	@Override
+	public void flush() throws IOException {
+		while (!pending.isEmpty()) {
+			writeNext();
+		}
+		out.flush();
+	}
+
+	/**
+	 * Write the last block and the trailer, then close the underlying stream.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			submit(true);
+			flush();
+			final long value = crc.getValue();
+			out.write(new byte[]{
+				(byte) value, (byte) (value >> 8), (byte) (value >> 16), (byte) (value >> 24),
+				(byte) size, (byte) (size >> 8), (byte) (size >> 16), (byte) (size >> 24)});
+		} finally {
+			closed = true;
+			executor.shutdownNow();
+			out.close();
+		}
+	}
+
+	private void submit(final boolean last) throws IOException {
+		final byte[] data = block;
+		final int length = blockLength;
+		final byte[] previous = dictionary;
+		crc.update(data, 0, length);
+		size += length;
+		if (length >= DICTIONARY_SIZE) {
+			dictionary = Arrays.copyOfRange(data, length - DICTIONARY_SIZE, length);
+		}
+		pending.add(executor.submit(() -> deflate(data, length, previous, last)));
+		block = new byte[data.length];
+		blockLength = 0;
+		while (pending.size() >= maxPending || (!pending.isEmpty() && pending.peek().isDone())) {
+			writeNext();
+		}
+	}
+
+	private void writeNext() throws IOException {
+		try {
+			out.write(pending.poll().get());
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Compression interrupted");
+		} catch (final ExecutionException e) {
+			throw new IOException("Compression failed: " + e.getCause().getLocalizedMessage(), e.getCause());
+		}
+	}
+
+	/**
+	 * @param data       The block
+	 * @param length     The length of the block
+	 * @param dictionary The end of the previous block, null for the first one
+	 * @param last       True to end the deflate stream
+	 * @return The raw deflate data of the block
+	 */
+	private byte[] deflate(final byte[] data, final int length, final byte[] dictionary, final boolean last) {
+		final Deflater deflater = new Deflater(level, true);
+		try {
+			if (dictionary != null) {
+				deflater.setDictionary(dictionary);
+			}
+			deflater.setInput(data, 0, length);
+			final ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2 + 64);
+			final byte[] buffer = new byte[64 * 1024];
+			if (last) {
+				deflater.finish();
+				while (!deflater.finished()) {
+					compressed.write(buffer, 0, deflater.deflate(buffer));
+				}
+			} else {
+				int count;
+				do {
+					count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+					compressed.write(buffer, 0, count);
+				} while (count == buffer.length);
+			}
+			return compressed.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+}
@@ -5,17 +5,32 @@ import org.joda.time.DateTime;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
-
+import org.junit.rules.TemporaryFolder;
+import org.xeustechnologies.jtar.TarEntry;
+import org.xeustechnologies.jtar.TarInputStream;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 public class CommonsUtilTest {
 
 	@Rule
 	public ExpectedException thrown = ExpectedException.none();
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
 
 	@Test
 	public void testParsePickupdate() {
@@ -112,4 +127,39 @@ public class CommonsUtilTest {
 		// Then
 		assertNotNull(actual);
 	}
+
+	@Test
+	public void testCreateTarGz() throws IOException {
+		// Given
+		final File first = folder.newFile("first.txt");
+		final File second = folder.newFile("second.bin");
+		Files.write(first.toPath(), "hello".getBytes(StandardCharsets.UTF_8));
+		final byte[] content = ParallelGzipOutputStreamTest.data(300 * 1024);
+		Files.write(second.toPath(), content);
+		final File output = new File(folder.getRoot(), "archive.tar.gz");
+
+		// When
+		CommonsUtil.createTarGz(Arrays.asList(first.getPath(), second.getPath()), output.getPath());
+
+		// Then
+		try (final TarInputStream in = new TarInputStream(new GZIPInputStream(new FileInputStream(output)))) {
+			TarEntry entry = in.getNextEntry();
+			assertEquals("first.txt", entry.getName());
+			assertArrayEquals("hello".getBytes(StandardCharsets.UTF_8), read(in, entry.getSize()));
+			entry = in.getNextEntry();
+			assertEquals("second.bin", entry.getName());
+			assertArrayEquals(content, read(in, entry.getSize()));
+			assertNull(in.getNextEntry());
+		}
+	}
+
+	private static byte[] read(final InputStream in, final long size) throws IOException {
+		final byte[] data = new byte[(int) size];
+		int offset = 0;
+		int count;
+		while (offset < data.length && (count = in.read(data, offset, data.length - offset)) != -1) {
+			offset += count;
+		}
+		return data;
+	}
 }
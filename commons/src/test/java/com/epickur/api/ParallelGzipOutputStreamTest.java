@@ -0,0 +1,93 @@
+package com.epickur.api;
+
+import com.epickur.api.commons.ParallelGzipOutputStream;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelGzipOutputStreamTest {
+
+	private static final int BLOCK_SIZE = 32 * 1024;
+
+	@Test
+	public void testWrite() throws IOException {
+		// Given
+		final byte[] data = data(10 * BLOCK_SIZE + 123);
+
+		// When
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (final ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(out, 4, BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION)) {
+			gzip.write(data, 0, 1000);
+			gzip.write(data[1000]);
+			gzip.write(data, 1001, data.length - 1001);
+		}
+
+		// Then
+		assertArrayEquals(data, gunzip(out.toByteArray()));
+	}
+
+	@Test
+	public void testWriteRatio() throws IOException {
+		// Given
+		final byte[] data = data(20 * BLOCK_SIZE);
+		final ByteArrayOutputStream single = new ByteArrayOutputStream();
+		try (final GZIPOutputStream gzip = new GZIPOutputStream(single)) {
+			gzip.write(data);
+		}
+
+		// When
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (final ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(out, 4, BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION)) {
+			gzip.write(data);
+		}
+
+		// Then
+		assertTrue(out.size() + " compressed bytes instead of " + single.size(), out.size() < single.size() * 1.05);
+	}
+
+	@Test
+	public void testWriteEmpty() throws IOException {
+		// When
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new ParallelGzipOutputStream(out).close();
+
+		// Then
+		assertArrayEquals(new byte[0], gunzip(out.toByteArray()));
+	}
+
+	/**
+	 * @return Data that compresses like a dump, repeated words and some noise
+	 */
+	static byte[] data(final int size) {
+		final Random random = new Random(42);
+		final String[] words = {"name", "description", "caterer", "dish", "price", "createdAt", "updatedAt", "Kebab", "fries"};
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+		while (out.size() < size) {
+			final byte[] word = (words[random.nextInt(words.length)] + random.nextInt(1000) + ' ').getBytes();
+			out.write(word, 0, Math.min(word.length, size - out.size()));
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] gunzip(final byte[] compressed) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (final InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			final byte[] buffer = new byte[8192];
+			int count;
+			while ((count = in.read(buffer)) != -1) {
+				out.write(buffer, 0, count);
+			}
+		}
+		return out.toByteArray();
+	}
+}
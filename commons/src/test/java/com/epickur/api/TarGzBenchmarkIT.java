@@ -0,0 +1,89 @@
+package com.epickur.api;
+
+import com.epickur.api.commons.CommonsUtil;
+import lombok.extern.log4j.Log4j2;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xeustechnologies.jtar.TarEntry;
+import org.xeustechnologies.jtar.TarOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compare the archiving of dump sized files, single threaded through the jtar stream and a 2048 bytes buffer as it was done before, against
+ * {@link CommonsUtil#createTarGz}. The total size is set with -Dbenchmark.tar.size, in MB, 2G by default.
+ */
+@Log4j2
+public class TarGzBenchmarkIT {
+
+	private static final int FILES = 4;
+	private static final long MB = 1024 * 1024;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testCreateTarGz() throws IOException {
+		final long size = Long.getLong("benchmark.tar.size", 2048) * MB;
+		final List<String> inputs = new ArrayList<>();
+		final byte[] chunk = ParallelGzipOutputStreamTest.data((int) MB);
+		for (int i = 0; i < FILES; i++) {
+			final File file = folder.newFile("collection" + i + ".bson");
+			try (final OutputStream out = new FileOutputStream(file)) {
+				for (long written = 0; written < size / FILES; written += chunk.length) {
+					out.write(chunk);
+				}
+			}
+			inputs.add(file.getPath());
+		}
+
+		final File legacy = new File(folder.getRoot(), "legacy.tar.gz");
+		long start = System.nanoTime();
+		legacyCreateTarGz(inputs, legacy.getPath());
+		final long legacyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		final File parallel = new File(folder.getRoot(), "parallel.tar.gz");
+		start = System.nanoTime();
+		CommonsUtil.createTarGz(inputs, parallel.getPath());
+		final long parallelMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		log.info("{} MB on {} cores", size / MB, Runtime.getRuntime().availableProcessors());
+		log.info("Single threaded: {} ms, {} MB/s, {} bytes", legacyMillis, size / MB * 1000 / Math.max(1, legacyMillis), legacy.length());
+		log.info("Parallel: {} ms, {} MB/s, {} bytes", parallelMillis, size / MB * 1000 / Math.max(1, parallelMillis), parallel.length());
+		assertTrue(parallel.length() < legacy.length() * 1.05);
+	}
+
+	/**
+	 * The archiving before it was parallel, gzipped to compare the same output
+	 */
+	private static void legacyCreateTarGz(final List<String> inputs, final String output) throws IOException {
+		try (final FileOutputStream dest = new FileOutputStream(output);
+			 final TarOutputStream out = new TarOutputStream(new BufferedOutputStream(new GZIPOutputStream(dest)))) {
+			for (String input : inputs) {
+				final File f = new File(input);
+				out.putNextEntry(new TarEntry(f, f.getName()));
+				try (final BufferedInputStream origin = new BufferedInputStream(new FileInputStream(f))) {
+					int count;
+					byte[] data = new byte[2048];
+					while ((count = origin.read(data)) != -1) {
+						out.write(data, 0, count);
+					}
+					out.flush();
+				}
+			}
+		}
+	}
+}
@@ -40,6 +40,42 @@ public class EpickurProperties {
 	@Value("${email.send}")
 	private Boolean send;
 
+	// Outbound HTTP
+	@Value("${http.pool.max:50}")
+	private Integer httpPoolMax;
+	@Value("${http.pool.route:10}")
+	private Integer httpPoolRoute;
+	@Value("${http.route.limits:}")
+	private String[] httpRouteLimits;
+	@Value("${http.connect.timeout:2000}")
+	private Integer httpConnectTimeout;
+	@Value("${http.read.timeout:10000}")
+	private Integer httpReadTimeout;
+	@Value("${http.idle.timeout:30000}")
+	private Long httpIdleTimeout;
+
+	// Email outbox
+	@Value("${email.outbox.workers:4}")
+	private Integer emailOutboxWorkers;
+	@Value("${email.outbox.poll:5000}")
+	private Long emailOutboxPoll;
+	@Value("${email.outbox.lease:60000}")
+	private Long emailOutboxLease;
+	@Value("${email.outbox.attempts:8}")
+	private Integer emailOutboxAttempts;
+	@Value("${email.outbox.backoff:10000}")
+	private Long emailOutboxBackoff;
+	@Value("${email.outbox.backoff.max:3600000}")
+	private Long emailOutboxBackoffMax;
+	@Value("${email.outbox.shutdown:10000}")
+	private Long emailOutboxShutdown;
+
+	// Admin digest
+	@Value("${email.admin.digest:false}")
+	private Boolean emailAdminDigest;
+	@Value("${email.admin.digest.immediate:ORDER_ADMINS_FAIL}")
+	private String[] emailAdminDigestImmediate;
+
 	// MongoDB
 	@Value("${mongo.path}")
 	private String mongoPath;
@@ -53,22 +89,90 @@ public class EpickurProperties {
 	private String mongoLogin;
 	@Value("${mongo.user.password}")
 	private String mongoPassword;
+	@Value("${mongo.indexes.mode:apply}")
+	private String mongoIndexesMode;
 
 	// Mongo Backup
-	@Value("${mongod.path}")
-	private String mongodPath;
-	@Value("${mongo.backup.path}")
-	private String mongoBackupPath;
+	@Value("${mongo.backup.threads:4}")
+	private Integer mongoBackupThreads;
+	@Value("${mongo.backup.block:4194304}")
+	private Integer mongoBackupBlockSize;
+	@Value("${mongo.backup.incremental:false}")
+	private Boolean mongoBackupIncremental;
+	@Value("${mongo.backup.full.interval:86400000}")
+	private Long mongoBackupFullInterval;
+	@Value("${mongo.backup.overlap:60000}")
+	private Long mongoBackupOverlap;
+	@Value("${mongo.backup.kept:20}")
+	private Integer mongoBackupKept;
+	@Value("${mongo.restore.threads:4}")
+	private Integer mongoRestoreThreads;
+	@Value("${mongo.restore.pending:8}")
+	private Integer mongoRestorePending;
 
 	// Schedule
 	@Value("${cron.cleankeys.interval}")
 	private Integer cleanKeysInterval;
 	@Value("${cron.order.timelimit}")
 	private Integer orderTimeLimit;
+	@Value("${cron.order.sweep.batch:500}")
+	private Integer orderSweepBatchSize;
+	@Value("${cron.order.notify.lease:300000}")
+	private Long orderNotifyLease;
+	@Value("${cron.lock.node:}")
+	private String cronLockNode;
+	@Value("${cron.lock.lease:600000}")
+	private Long cronLockLease;
+	@Value("${cron.lock.min:30000}")
+	private Long cronLockMin;
+	@Value("${cron.scheduler.threads:6}")
+	private Integer cronSchedulerThreads;
+
+	// Request logs
+	@Value("${log.queue.capacity:10000}")
+	private Integer logQueueCapacity;
+	@Value("${log.batch.size:500}")
+	private Integer logBatchSize;
+	@Value("${log.queue.policy:drop}")
+	private String logQueuePolicy;
+	@Value("${log.sample.rate:10}")
+	private Integer logSampleRate;
+	@Value("${log.flush.interval:1000}")
+	private Long logFlushInterval;
+
+	// Voucher generation
+	@Value("${voucher.generate.batch.size:1000}")
+	private Integer voucherGenerateBatchSize;
+	@Value("${voucher.generate.async.threshold:1000}")
+	private Integer voucherGenerateAsyncThreshold;
+	@Value("${voucher.clean.audit:false}")
+	private Boolean voucherCleanAudit;
+
+	// Order ids
+	@Value("${sequence.block.size:100}")
+	private Integer sequenceBlockSize;
 
 	// Session
 	@Value("${session.timeout}")
 	private Integer sessionTimeout;
+	@Value("${session.cache.size:10000}")
+	private Integer sessionCacheSize;
+	@Value("${session.cache.ttl:300}")
+	private Integer sessionCacheTtl;
+	@Value("${session.token.enabled:false}")
+	private Boolean sessionTokenEnabled;
+	@Value("${session.token.secret:}")
+	private String sessionTokenSecret;
+
+	// Geocoding cache
+	@Value("${geocode.cache.size:5000}")
+	private Integer geocodeCacheSize;
+	@Value("${geocode.cache.ttl:2592000}")
+	private Long geocodeCacheTtl;
+	@Value("${geocode.cache.negative.ttl:3600}")
+	private Long geocodeCacheNegativeTtl;
+	@Value("${geocode.cache.persistent:false}")
+	private Boolean geocodeCachePersistent;
 
 	// Stripe
 	@Value("${stripe.key}")
@@ -91,6 +195,16 @@ public class EpickurProperties {
 	private String awsSecretKey;
 	@Value("${aws.bucket}")
 	private String awsBucket;
+	@Value("${aws.upload.part:16777216}")
+	private Integer awsUploadPartSize;
+	@Value("${aws.upload.threads:4}")
+	private Integer awsUploadThreads;
+	@Value("${aws.upload.retries:3}")
+	private Integer awsUploadRetries;
+	@Value("${aws.upload.retry.delay:1000}")
+	private Long awsUploadRetryDelay;
+	@Value("${aws.s3.endpoint:}")
+	private String awsS3Endpoint;
 
 	// Scripts used in tests
 	@Value("${script.setup}")
@@ -36,7 +36,17 @@ public final class CollectionsName {
 
 	public static final String KEY_COLL = "keys";
 
+	public static final String REVOKED_TOKEN_COLL = "revokedTokens";
+
 	public static final String LOG_COLL = "logs";
 
 	public static final String SEQUENCE_COLL = "seq";
+
+	public static final String LOCK_COLL = "locks";
+
+	public static final String EMAIL_OUTBOX_COLL = "emailOutbox";
+
+	public static final String GEOCODE_COLL = "geocodes";
+
+	public static final String VOUCHER_JOB_COLL = "voucherJobs";
 }
@@ -2,6 +2,7 @@ package com.epickur.api.dao;
 
 import com.epickur.api.entity.AbstractEntity;
 import com.epickur.api.exception.EpickurException;
+import org.bson.Document;
 
 import java.util.List;
 import java.util.Optional;
@@ -69,4 +70,40 @@ public interface ICrudDAO<T extends AbstractEntity> {
 	 */
 	List<T> readAll() throws EpickurException;
 
+	/**
+	 * Create objects in one batch
+	 * 
+	 * @param objs
+	 *            The objects to create
+	 * @param ordered
+	 *            True to stop at the first failure, false to try every object
+	 * @return The objects created
+	 * @throws EpickurException
+	 *             If an epickur exception occurred. The objects that failed are listed by EpickurDBException.getErrors()
+	 */
+	List<T> createAll(final List<T> objs, final boolean ordered) throws EpickurException;
+
+	/**
+	 * Update objects in one batch
+	 * 
+	 * @param objs
+	 *            The objects to update
+	 * @param ordered
+	 *            True to stop at the first failure, false to try every object
+	 * @return The number of objects modified
+	 * @throws EpickurException
+	 *             If an epickur exception occurred. The objects that failed are listed by EpickurDBException.getErrors()
+	 */
+	long updateAll(final List<T> objs, final boolean ordered) throws EpickurException;
+
+	/**
+	 * Delete the objects matching a filter
+	 * 
+	 * @param filter
+	 *            The filter
+	 * @return The number of objects deleted
+	 * @throws EpickurException
+	 *             If an epickur exception occurred
+	 */
+	long deleteWhere(final Document filter) throws EpickurException;
 }
\ No newline at end of file
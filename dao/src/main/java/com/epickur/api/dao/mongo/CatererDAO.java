@@ -3,10 +3,10 @@ package com.epickur.api.dao.mongo;
 import com.epickur.api.entity.Caterer;
 import com.epickur.api.exception.EpickurDBException;
 import com.epickur.api.exception.EpickurException;
-import com.epickur.api.exception.EpickurParsingException;
 import com.mongodb.MongoException;
-import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.Indexes;
 import lombok.extern.log4j.Log4j2;
 import org.bson.Document;
 import org.bson.types.ObjectId;
@@ -14,7 +14,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import javax.annotation.PostConstruct;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,7 +32,7 @@ public class CatererDAO extends CrudDAO<Caterer> {
 
 	@Autowired
 	public CatererDAO(final MongoDatabase db) {
-		super(db);
+		super(db, Caterer.class);
 	}
 
 	@PostConstruct
@@ -40,20 +40,23 @@ public class CatererDAO extends CrudDAO<Caterer> {
 		setColl(getDb().getCollection(CATERER_COLL));
 	}
 
+	@Override
+	public List<IndexModel> getIndexes() {
+		return Collections.singletonList(index(Indexes.ascending("updatedAt"), "updatedAt_1"));
+	}
+
 	@Override
 	public Caterer create(final Caterer caterer) throws EpickurException {
 		log.debug("Create caterer: {}", caterer);
-		final Document doc = caterer.getDocumentDBView();
-		insertDocument(doc);
-		return Caterer.getDocumentAsCatererDBView(doc);
+		insertEntity(caterer);
+		return caterer;
 	}
 
 	@Override
 	public Optional<Caterer> read(final String id) throws EpickurException {
 		log.debug("Read caterer: {}", id);
 		final Document query = convertAttributeToDocument("_id", new ObjectId(id));
-		final Document find = findDocument(query);
-		return processAfterQuery(find);
+		return Optional.ofNullable(findEntity(query));
 	}
 
 	@Override
@@ -61,27 +64,15 @@ public class CatererDAO extends CrudDAO<Caterer> {
 		log.debug("Update caterer: {}", caterer);
 		final Document filter = convertAttributeToDocument("_id", caterer.getId());
 		final Document update = caterer.getUpdateQuery();
-		final Document updated = updateDocument(filter, update);
-		return processAfterQuery(updated).orElse(null);
-	}
-
-	private Optional<Caterer> processAfterQuery(final Document caterer) throws EpickurParsingException {
-		return caterer != null
-			? Optional.of(Caterer.getDocumentAsCatererDBView(caterer))
-			: Optional.empty();
+		return updateEntity(filter, update);
 	}
 
 	@Override
 	public List<Caterer> readAll() throws EpickurException {
-		final List<Caterer> caterers = new ArrayList<>();
-		try (final MongoCursor<Document> cursor = getColl().find().iterator()) {
-			while (cursor.hasNext()) {
-				final Caterer user = Caterer.getDocumentAsCatererDBView(cursor.next());
-				caterers.add(user);
-			}
+		try {
+			return findEntities(new Document());
 		} catch (final MongoException e) {
 			throw new EpickurDBException("readAll", e.getLocalizedMessage(), e);
 		}
-		return caterers;
 	}
 }
@@ -1,31 +1,47 @@
 package com.epickur.api.dao.mongo;
 
 import com.epickur.api.dao.ICrudDAO;
-import com.epickur.api.entity.AbstractEntity;
+import com.epickur.api.entity.AbstractMainDBEntity;
 import com.epickur.api.exception.EpickurDBException;
 import com.epickur.api.exception.EpickurException;
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteError;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.InsertManyOptions;
 import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.client.result.DeleteResult;
 import lombok.NonNull;
 import lombok.extern.log4j.Log4j2;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
- * Abstract class that helps the manipulation of Documents.
+ * Abstract class that helps the manipulation of Documents. Entities are read and written through a typed collection that relies on the
+ * codecs registered in the database, documents are used for filters and updates.
  *
- * @param <T> Must be an AbstractEntity
+ * @param <T> Must be an AbstractMainDBEntity
  * @author cph
  * @version 1.0
  */
 @Log4j2
-public abstract class CrudDAO<T extends AbstractEntity> implements ICrudDAO<T> {
+public abstract class CrudDAO<T extends AbstractMainDBEntity> implements ICrudDAO<T>, IIndexedDAO {
 
 	/**
 	 * Database
@@ -33,8 +49,15 @@ public abstract class CrudDAO<T extends AbstractEntity> implements ICrudDAO<T> {
 	@NonNull
 	private MongoDatabase db;
 
-	public CrudDAO(final MongoDatabase db) {
+	/**
+	 * Entity class
+	 */
+	@NonNull
+	private final Class<T> entityClass;
+
+	public CrudDAO(final MongoDatabase db, final Class<T> entityClass) {
 		this.db = db;
+		this.entityClass = entityClass;
 	}
 
 	/**
@@ -42,6 +65,11 @@ public abstract class CrudDAO<T extends AbstractEntity> implements ICrudDAO<T> {
 	 */
 	private MongoCollection<Document> coll;
 
+	/**
+	 * Database collection decoded with the entity codec
+	 */
+	private MongoCollection<T> entityColl;
+
 	@Override
 	public abstract T create(final T obj) throws EpickurException;
 
@@ -58,26 +86,105 @@ public abstract class CrudDAO<T extends AbstractEntity> implements ICrudDAO<T> {
 		return deleteDocument(filter);
 	}
 
+	@Override
+	public List<T> createAll(final List<T> objs, final boolean ordered) throws EpickurException {
+		log.debug("Create {} documents", objs.size());
+		if (!objs.isEmpty()) {
+			try {
+				getEntityColl().insertMany(objs, new InsertManyOptions().ordered(ordered));
+			} catch (final MongoException e) {
+				throw bulkException("createAll", e);
+			}
+		}
+		return objs;
+	}
+
+	@Override
+	public long updateAll(final List<T> objs, final boolean ordered) throws EpickurException {
+		log.debug("Update {} documents", objs.size());
+		if (objs.isEmpty()) {
+			return 0;
+		}
+		final List<WriteModel<T>> updates = new ArrayList<>(objs.size());
+		for (final T obj : objs) {
+			updates.add(new UpdateOneModel<>(convertAttributeToDocument("_id", obj.getId()), obj.getUpdateQuery()));
+		}
+		try {
+			return getEntityColl().bulkWrite(updates, new BulkWriteOptions().ordered(ordered)).getModifiedCount();
+		} catch (final MongoException e) {
+			throw bulkException("updateAll", e);
+		}
+	}
+
+	@Override
+	public long deleteWhere(final Document filter) throws EpickurException {
+		log.debug("Delete where: {}", filter);
+		try {
+			return getColl().deleteMany(filter).getDeletedCount();
+		} catch (final MongoException e) {
+			throw new EpickurDBException("deleteWhere", e.getMessage(), filter, e);
+		}
+	}
+
+	/**
+	 * @param operation The bulk operation
+	 * @param e         The exception thrown by the driver
+	 * @return An exception reporting the error of each item that failed
+	 */
+	private static EpickurDBException bulkException(final String operation, final MongoException e) {
+		if (!(e instanceof MongoBulkWriteException)) {
+			return new EpickurDBException(operation, e.getMessage(), e);
+		}
+		final Map<Integer, String> errors = new LinkedHashMap<>();
+		for (final BulkWriteError error : ((MongoBulkWriteException) e).getWriteErrors()) {
+			errors.put(error.getIndex(), error.getMessage());
+		}
+		return new EpickurDBException(operation, errors.size() + " documents failed: " + e.getMessage(), errors, e);
+	}
+
+	@Override
+	public List<IndexModel> getIndexes() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * @param keys The index keys
+	 * @param name The index name
+	 * @return The index model
+	 */
+	protected static IndexModel index(final Bson keys, final String name) {
+		return new IndexModel(keys, new IndexOptions().name(name));
+	}
+
+	/**
+	 * @param keys The index keys
+	 * @param name The index name
+	 * @return The model of a unique index
+	 */
+	protected static IndexModel uniqueIndex(final Bson keys, final String name) {
+		return new IndexModel(keys, new IndexOptions().name(name).unique(true));
+	}
+
 	/**
-	 * @param document The document
+	 * @param entity The entity. Its id is set by the codec if absent.
 	 * @throws EpickurDBException If an EpickurDBException occurred.
 	 */
-	protected final void insertDocument(final Document document) throws EpickurDBException {
+	protected final void insertEntity(final T entity) throws EpickurDBException {
 		try {
-			getColl().insertOne(document);
+			getEntityColl().insertOne(entity);
 		} catch (final MongoException e) {
-			throw new EpickurDBException("create", e.getMessage(), document, e);
+			throw new EpickurDBException("create", e.getMessage(), e);
 		}
 	}
 
 	/**
 	 * @param query The document query.
-	 * @return The document.
+	 * @return The entity, or null if not found.
 	 * @throws EpickurDBException If an EpickurDBException occurred.
 	 */
-	protected final Document findDocument(final Document query) throws EpickurDBException {
+	protected final T findEntity(final Document query) throws EpickurDBException {
 		try {
-			return getColl().find(query).first();
+			return getEntityColl().find(query).first();
 		} catch (final MongoException e) {
 			throw new EpickurDBException("read", e.getMessage(), query, e);
 		}
@@ -86,17 +193,32 @@ public abstract class CrudDAO<T extends AbstractEntity> implements ICrudDAO<T> {
 	/**
 	 * @param filter The filter document.
 	 * @param update The update document.
-	 * @return The document.
+	 * @return The entity after the update, or null if not found.
 	 * @throws EpickurDBException If an EpickurDBException occurred.
 	 */
-	protected final Document updateDocument(final Document filter, final Document update) throws EpickurDBException {
+	protected final T updateEntity(final Document filter, final Document update) throws EpickurDBException {
 		try {
-			return getColl().findOneAndUpdate(filter, update, new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+			return getEntityColl().findOneAndUpdate(filter, update, new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
 		} catch (final MongoException e) {
 			throw new EpickurDBException("update", e.getMessage(), filter, update, e);
 		}
 	}
 
+	/**
+	 * @param query The query
+	 * @return A list of entities
+	 * @throws MongoException If a MongoException occurred
+	 */
+	protected final List<T> findEntities(final Bson query) {
+		final List<T> entities = new ArrayList<>();
+		try (final MongoCursor<T> cursor = getEntityColl().find(query).iterator()) {
+			while (cursor.hasNext()) {
+				entities.add(cursor.next());
+			}
+		}
+		return entities;
+	}
+
 	/**
 	 * @param filter The document filter
 	 * @return A boolean
@@ -138,16 +260,22 @@ public abstract class CrudDAO<T extends AbstractEntity> implements ICrudDAO<T> {
 		return db;
 	}
 
+	@Override
+	public final MongoCollection<Document> getColl() {
+		return coll;
+	}
+
 	/**
 	 * Getter
 	 *
-	 * @return The DBCollection
+	 * @return The collection decoded with the entity codec
 	 */
-	protected final MongoCollection<Document> getColl() {
-		return coll;
+	protected final MongoCollection<T> getEntityColl() {
+		return entityColl;
 	}
 
 	protected final void setColl(final MongoCollection<Document> coll) {
 		this.coll = coll;
+		this.entityColl = coll.withDocumentClass(entityClass);
 	}
 }
@@ -6,10 +6,11 @@ import com.epickur.api.entity.Geo;
 import com.epickur.api.enumeration.DishType;
 import com.epickur.api.exception.EpickurDBException;
 import com.epickur.api.exception.EpickurException;
-import com.epickur.api.exception.EpickurParsingException;
 import com.mongodb.MongoException;
 import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.Indexes;
 import lombok.extern.log4j.Log4j2;
 import org.bson.*;
 import org.bson.types.ObjectId;
@@ -18,9 +19,9 @@ import org.springframework.stereotype.Repository;
 
 import javax.annotation.PostConstruct;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import static com.epickur.api.dao.CollectionsName.DISH_COLL;
 
@@ -36,7 +37,7 @@ public class DishDAO extends CrudDAO<Dish> {
 
 	@Autowired
 	public DishDAO(final MongoDatabase db) {
-		super(db);
+		super(db, Dish.class);
 	}
 
 	@PostConstruct
@@ -44,20 +45,26 @@ public class DishDAO extends CrudDAO<Dish> {
 		setColl(getDb().getCollection(DISH_COLL));
 	}
 
+	@Override
+	public List<IndexModel> getIndexes() {
+		return Arrays.asList(
+			index(Indexes.geo2dsphere("caterer.location.geo"), "caterer.location.geo_2dsphere"),
+			index(Indexes.ascending("caterer._id"), "caterer._id_1"),
+			index(Indexes.ascending("updatedAt"), "updatedAt_1"));
+	}
+
 	@Override
 	public Dish create(final Dish dish) throws EpickurException {
 		log.debug("Create dish: {}", dish);
-		final Document doc = dish.getDocumentDBView();
-		insertDocument(doc);
-		return Dish.getDocumentAsDish(doc);
+		insertEntity(dish);
+		return dish;
 	}
 
 	@Override
 	public Optional<Dish> read(final String id) throws EpickurException {
 		log.debug("Read dish with id: {}", id);
 		final Document query = convertAttributeToDocument("_id", new ObjectId(id));
-		final Document find = findDocument(query);
-		return processAfterQuery(find);
+		return Optional.ofNullable(findEntity(query));
 	}
 
 	@Override
@@ -65,37 +72,20 @@ public class DishDAO extends CrudDAO<Dish> {
 		log.debug("Update dish: {}", dish);
 		final Document filter = convertAttributeToDocument("_id", dish.getId());
 		final Document update = dish.getUpdateQuery();
-		final Document updated = updateDocument(filter, update);
-		return processAfterQuery(updated).orElse(null);
-	}
-
-	/**
-	 * @param document The document.
-	 * @return The dish.
-	 * @throws EpickurParsingException If an EpickurException occurred.
-	 */
-	private Optional<Dish> processAfterQuery(final Document document) throws EpickurParsingException {
-		return document != null
-			? Optional.of(Dish.getDocumentAsDish(document))
-			: Optional.empty();
+		return updateEntity(filter, update);
 	}
 
 	@Override
 	public List<Dish> readAll() throws EpickurException {
-		final List<Dish> dishes = new ArrayList<>();
-		try (final MongoCursor<Document> cursor = getColl().find().iterator()) {
-			while (cursor.hasNext()) {
-				final Dish dish = Dish.getDocumentAsDish(cursor.next());
-				dishes.add(dish);
-			}
+		try {
+			return findEntities(new Document());
 		} catch (final MongoException e) {
 			throw new EpickurDBException("readAll", e.getMessage(), e);
 		}
-		return dishes;
 	}
 
 	/**
-	 * Search a list of Dish
+	 * Search a list of Dish. The opening hours are filtered by MongoDB, so the limit applies to dishes that can actually be picked up.
 	 *
 	 * @param day               The day
 	 * @param pickupdateMinutes The pickup date in minutes
@@ -108,6 +98,32 @@ public class DishDAO extends CrudDAO<Dish> {
 	 */
 	public List<Dish> search(final String day, final Integer pickupdateMinutes, final List<DishType> types, final Integer limit, final Geo geo,
 							 final Integer distance) throws EpickurException {
+		final Document find = getSearchQuery(day, pickupdateMinutes, types, geo, distance);
+		final List<Dish> dishes = new ArrayList<>();
+		log.debug("Searching: {}", find);
+		try (MongoCursor<Dish> cursor = getEntityColl().find(find).limit(limit).iterator()) {
+			while (cursor.hasNext()) {
+				dishes.add(cursor.next());
+			}
+		} catch (final MongoException e) {
+			throw new EpickurDBException("search", e.getMessage(), find, e);
+		}
+		return dishes;
+	}
+
+	/**
+	 * Build the search query. A dish matches if one of the time frames of the day contains the pickup time, bounds included, the same way
+	 * {@link com.epickur.api.entity.times.WorkingTimes#canBePickup(String, Integer)} does.
+	 *
+	 * @param day               The day
+	 * @param pickupdateMinutes The pickup date in minutes
+	 * @param types             The type of Dish to search
+	 * @param geo               The Geo
+	 * @param distance          The distance
+	 * @return The query
+	 */
+	public Document getSearchQuery(final String day, final Integer pickupdateMinutes, final List<DishType> types, final Geo geo,
+								   final Integer distance) {
 		final Document find = new Document();
 		if (types.size() == 1) {
 			find.append("type", types.get(0).getType());
@@ -125,28 +141,14 @@ public class DishDAO extends CrudDAO<Dish> {
 		final Document openClose = new Document();
 		final Document elementMatch = new Document();
 		final Document open = new Document();
-		open.put("$lt", new BsonInt32(pickupdateMinutes));
+		open.put("$lte", new BsonInt32(pickupdateMinutes));
 		final Document close = new Document();
-		close.put("$gt", new BsonInt32(pickupdateMinutes));
+		close.put("$gte", new BsonInt32(pickupdateMinutes));
 		elementMatch.append("open", open);
 		elementMatch.append("close", close);
 		openClose.put("$elemMatch", elementMatch);
 		find.put("caterer.workingTimes.hours." + day, openClose);
-		final List<Dish> dishes = new ArrayList<>();
-		log.debug("Searching: {}", find);
-		try (MongoCursor<Document> cursor = getColl().find(find).limit(limit).iterator()) {
-			while (cursor.hasNext()) {
-				final Dish dish = Dish.getDocumentAsDish(cursor.next());
-				dishes.add(dish);
-			}
-		} catch (final MongoException e) {
-			throw new EpickurDBException("search", e.getMessage(), find, e);
-		}
-		// TODO See how to optimize that and avoid doing that here.
-		// Should be doable in MongoDB.
-		return dishes.stream()
-			.filter(dish -> dish.getCaterer().getWorkingTimes().canBePickup(day, pickupdateMinutes))
-			.collect(Collectors.toList());
+		return find;
 	}
 
 	/**
@@ -155,17 +157,12 @@ public class DishDAO extends CrudDAO<Dish> {
 	 * @throws EpickurException if an epickur exception occurred
 	 */
 	public List<Dish> searchWithCatererId(final String catererId) throws EpickurException {
-		final List<Dish> dishes = new ArrayList<>();
 		final Document find = new Document();
 		find.append("caterer._id", new ObjectId(catererId));
-		try (MongoCursor<Document> cursor = getColl().find(find).iterator()) {
-			while (cursor.hasNext()) {
-				final Dish dish = Dish.getDocumentAsDish(cursor.next());
-				dishes.add(dish);
-			}
+		try {
+			return findEntities(find);
 		} catch (final MongoException e) {
 			throw new EpickurDBException("readAllForOneCaterer", e.getMessage(), find, e);
 		}
-		return dishes;
 	}
 }
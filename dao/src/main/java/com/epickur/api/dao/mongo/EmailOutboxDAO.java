@@ -0,0 +1,200 @@
+package com.epickur.api.dao.mongo;
+
+import com.epickur.api.entity.EmailMessage;
+import com.epickur.api.enumeration.EmailStatus;
+import com.epickur.api.exception.EpickurDBException;
+import com.epickur.api.exception.EpickurException;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReturnDocument;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.NotImplementedException;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.joda.time.DateTime;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static com.epickur.api.dao.CollectionsName.EMAIL_OUTBOX_COLL;
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.lte;
+import static com.mongodb.client.model.Filters.or;
+import static com.mongodb.client.model.Sorts.ascending;
+
+/**
+ * Email outbox DAO access. The emails are claimed one at a time by the workers, a claim expires after a while so the emails of a worker
+ * that died are sent by another one. The emails are deleted once sent.
+ * <p>
+ * The admin notifications buffered for a digest stay in the outbox until the digest of their type is queued.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Log4j2
+@Repository
+public class EmailOutboxDAO extends CrudDAO<EmailMessage> {
+
+	@Autowired
+	public EmailOutboxDAO(final MongoDatabase db) {
+		super(db, EmailMessage.class);
+	}
+
+	@PostConstruct
+	protected void initCollection() {
+		setColl(getDb().getCollection(EMAIL_OUTBOX_COLL));
+	}
+
+	@Override
+	public List<IndexModel> getIndexes() {
+		return Arrays.asList(
+			index(Indexes.ascending("status", "nextAttemptAt"), "status_1_nextAttemptAt_1"),
+			index(Indexes.ascending("updatedAt"), "updatedAt_1"));
+	}
+
+	@Override
+	public EmailMessage create(final EmailMessage message) throws EpickurException {
+		log.debug("Queue email: {}", message);
+		insertEntity(message);
+		return message;
+	}
+
+	@Override
+	public Optional<EmailMessage> read(final String id) throws EpickurException {
+		return Optional.ofNullable(findEntity(convertAttributeToDocument("_id", new ObjectId(id))));
+	}
+
+	@Override
+	public List<EmailMessage> readAll() throws EpickurException {
+		throw new NotImplementedException("Not implemented yet");
+	}
+
+	@Override
+	public EmailMessage update(final EmailMessage message) throws EpickurException {
+		throw new NotImplementedException("Not implemented yet");
+	}
+
+	/**
+	 * Claim the next email due, or one whose claim expired.
+	 *
+	 * @param now         The current date
+	 * @param lockedUntil The end of the claim
+	 * @return The email claimed
+	 * @throws EpickurDBException If an epickur exception occurred
+	 */
+	public Optional<EmailMessage> claim(final DateTime now, final DateTime lockedUntil) throws EpickurDBException {
+		final Bson due = or(
+			and(eq("status", EmailStatus.PENDING.getType()), lte("nextAttemptAt", now.getMillis())),
+			and(eq("status", EmailStatus.SENDING.getType()), lte("lockedUntil", now.getMillis())));
+		final Document update = new Document("$set", new Document("status", EmailStatus.SENDING.getType())
+			.append("lockedUntil", lockedUntil.getMillis())
+			.append("updatedAt", now.getMillis()));
+		final FindOneAndUpdateOptions options = new FindOneAndUpdateOptions().sort(ascending("nextAttemptAt")).returnDocument(ReturnDocument.AFTER);
+		try {
+			return Optional.ofNullable(getEntityColl().findOneAndUpdate(due, update, options));
+		} catch (final MongoException e) {
+			throw new EpickurDBException("claim", e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Put back an email that could not be sent.
+	 *
+	 * @param id            The email id
+	 * @param attempts      The number of failed attempts
+	 * @param nextAttemptAt The date of the next attempt
+	 * @param error         The error
+	 * @throws EpickurDBException If an epickur exception occurred
+	 */
+	public void retry(final ObjectId id, final int attempts, final DateTime nextAttemptAt, final String error) throws EpickurDBException {
+		release(id, new Document("status", EmailStatus.PENDING.getType())
+			.append("attempts", attempts)
+			.append("nextAttemptAt", nextAttemptAt.getMillis())
+			.append("lastError", error));
+	}
+
+	/**
+	 * Give up on an email. It stays in the outbox to be looked at.
+	 *
+	 * @param id       The email id
+	 * @param attempts The number of failed attempts
+	 * @param error    The last error
+	 * @throws EpickurDBException If an epickur exception occurred
+	 */
+	public void fail(final ObjectId id, final int attempts, final String error) throws EpickurDBException {
+		release(id, new Document("status", EmailStatus.FAILED.getType())
+			.append("attempts", attempts)
+			.append("lastError", error));
+	}
+
+	/**
+	 * @param status The status
+	 * @return The number of emails with this status
+	 * @throws EpickurDBException If an epickur exception occurred
+	 */
+	public long count(final EmailStatus status) throws EpickurDBException {
+		try {
+			return getColl().count(eq("status", status.getType()));
+		} catch (final MongoException e) {
+			throw new EpickurDBException("count", e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * @return The types of the emails buffered for a digest
+	 * @throws EpickurDBException If an epickur exception occurred
+	 */
+	public List<String> readBufferedTypes() throws EpickurDBException {
+		try {
+			return getColl().distinct("type", eq("status", EmailStatus.BUFFERED.getType()), String.class).into(new ArrayList<>());
+		} catch (final MongoException e) {
+			throw new EpickurDBException("readBufferedTypes", e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * @param type  The email type
+	 * @param limit The max number of emails
+	 * @return The oldest emails of this type buffered for a digest
+	 * @throws EpickurDBException If an epickur exception occurred
+	 */
+	public List<EmailMessage> readBuffered(final String type, final int limit) throws EpickurDBException {
+		try {
+			return getEntityColl().find(and(eq("status", EmailStatus.BUFFERED.getType()), eq("type", type)))
+				.sort(ascending("createdAt"))
+				.limit(limit)
+				.into(new ArrayList<>());
+		} catch (final MongoException e) {
+			throw new EpickurDBException("readBuffered", e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * @param ids The ids of the emails
+	 * @return The number of emails deleted
+	 * @throws EpickurException If an epickur exception occurred
+	 */
+	public long deleteAll(final List<ObjectId> ids) throws EpickurException {
+		return deleteWhere(new Document("_id", new Document("$in", ids)));
+	}
+
+	private void release(final ObjectId id, final Document fields) throws EpickurDBException {
+		final Document update = new Document("$set", fields.append("updatedAt", System.currentTimeMillis()))
+			.append("$unset", new Document("lockedUntil", ""));
+		try {
+			getColl().updateOne(eq("_id", id), update);
+		} catch (final MongoException e) {
+			throw new EpickurDBException("release", e.getMessage(), id.toHexString(), e);
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package com.epickur.api.dao.mongo;
+
+import com.epickur.api.entity.Geocode;
+import com.epickur.api.exception.EpickurDBException;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.UpdateOptions;
+import lombok.extern.log4j.Log4j2;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.epickur.api.dao.CollectionsName.GEOCODE_COLL;
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.gt;
+
+/**
+ * Geocode DAO access. Persistent cache of the geocoding results, by normalized address.
+ * <p>
+ * Unlike the other collections the expiration date is stored as a date, so that a TTL index removes the expired results.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Log4j2
+@Repository
+public class GeocodeDAO implements IIndexedDAO {
+
+	private final MongoDatabase db;
+
+	private MongoCollection<Document> coll;
+
+	@Autowired
+	public GeocodeDAO(final MongoDatabase db) {
+		this.db = db;
+	}
+
+	/**
+	 * Post construct
+	 */
+	@PostConstruct
+	public void postConstruct() {
+		this.coll = db.getCollection(GEOCODE_COLL);
+	}
+
+	@Override
+	public MongoCollection<Document> getColl() {
+		return coll;
+	}
+
+	/**
+	 * The results are removed by the TTL index as soon as they expire.
+	 *
+	 * @return The indexes of the collection
+	 */
+	@Override
+	public List<IndexModel> getIndexes() {
+		return Collections.singletonList(
+			new IndexModel(Indexes.ascending("expiresAt"), new IndexOptions().name("expiresAt_1").expireAfter(0L, TimeUnit.SECONDS)));
+	}
+
+	/**
+	 * @param address The normalized address
+	 * @return The result if it is known and not expired
+	 * @throws EpickurDBException If an epickur exception occurred
+	 */
+	public Optional<Geocode> read(final String address) throws EpickurDBException {
+		try {
+			final Document found = coll.find(and(eq("_id", address), gt("expiresAt", new Date()))).first();
+			if (found == null) {
+				return Optional.empty();
+			}
+			return Optional.of(new Geocode(address, found.getDouble("lat"), found.getDouble("lng"), found.getString("error"),
+				found.getDate("expiresAt").getTime()));
+		} catch (final MongoException e) {
+			throw new EpickurDBException("read", e.getMessage(), address, e);
+		}
+	}
+
+	/**
+	 * Create or replace the result of an address
+	 *
+	 * @param geocode The result
+	 * @throws EpickurDBException If an epickur exception occurred
+	 */
+	public void save(final Geocode geocode) throws EpickurDBException {
+		final Document document = new Document("_id", geocode.getAddress())
+			.append("lat", geocode.getLatitude())
+			.append("lng", geocode.getLongitude())
+			.append("error", geocode.getError())
+			.append("expiresAt", new Date(geocode.getExpiresAt()));
+		try {
+			coll.replaceOne(eq("_id", geocode.getAddress()), document, new UpdateOptions().upsert(true));
+		} catch (final MongoException e) {
+			throw new EpickurDBException("save", e.getMessage(), geocode.getAddress(), e);
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package com.epickur.api.dao.mongo;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexModel;
+import org.bson.Document;
+
+import java.util.List;
+
+/**
+ * Interface of the DAOs whose indexes are created and verified by the {@link IndexManager}.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public interface IIndexedDAO {
+
+	/**
+	 * @return The collection of the DAO
+	 */
+	MongoCollection<Document> getColl();
+
+	/**
+	 * Indexes needed by the queries of the DAO. They are created at startup, and verified, by the {@link IndexManager}.
+	 *
+	 * @return The indexes of the collection, the default _id index excluded
+	 */
+	List<IndexModel> getIndexes();
+}
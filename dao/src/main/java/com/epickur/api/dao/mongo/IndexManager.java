@@ -0,0 +1,191 @@
+package com.epickur.api.dao.mongo;
+
+import com.epickur.api.config.EpickurProperties;
+import com.mongodb.MongoClient;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import lombok.extern.log4j.Log4j2;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Create and verify the indexes declared by the DAOs. Depending on the mongo.indexes.mode property, it runs at startup:
+ * <ul>
+ * <li>apply: create the missing indexes, then report the differences</li>
+ * <li>verify: only report the differences</li>
+ * <li>none: do nothing</li>
+ * </ul>
+ * Creating an index that already exists is a no-op, so applying the indexes at each startup is safe. An index is compared on its keys and
+ * on the unique, sparse and expireAfterSeconds options. One that differs from its declaration is reported, it is never dropped.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Log4j2
+@Component
+public class IndexManager {
+
+	/**
+	 * Create the indexes at startup
+	 */
+	public static final String MODE_APPLY = "apply";
+	/**
+	 * Verify the indexes at startup
+	 */
+	public static final String MODE_VERIFY = "verify";
+	/**
+	 * Name of the default index on _id, never declared
+	 */
+	private static final String ID_INDEX = "_id_";
+
+	private final List<IIndexedDAO> daos;
+	private final EpickurProperties properties;
+
+	@Autowired
+	public IndexManager(final List<IIndexedDAO> daos, final EpickurProperties properties) {
+		this.daos = daos;
+		this.properties = properties;
+	}
+
+	/**
+	 * Post construct
+	 */
+	@PostConstruct
+	public void postConstruct() {
+		final String mode = properties.getMongoIndexesMode();
+		final IndexReport report;
+		if (MODE_APPLY.equals(mode)) {
+			report = ensureIndexes();
+		} else if (MODE_VERIFY.equals(mode)) {
+			report = verify();
+		} else {
+			return;
+		}
+		if (report.isValid()) {
+			log.info("MongoDB indexes are up to date");
+		} else {
+			log.warn("MongoDB indexes do not match the declared ones: {}", report);
+		}
+	}
+
+	/**
+	 * Create the declared indexes that do not exist yet.
+	 *
+	 * @return The report computed after the creation
+	 */
+	public IndexReport ensureIndexes() {
+		for (final IIndexedDAO dao : daos) {
+			final List<IndexModel> indexes = dao.getIndexes();
+			if (!indexes.isEmpty()) {
+				final MongoCollection<Document> coll = dao.getColl();
+				try {
+					coll.createIndexes(indexes);
+					log.debug("Indexes of {} applied", coll.getNamespace().getCollectionName());
+				} catch (final MongoException e) {
+					log.error("Could not create the indexes of {}: {}", coll.getNamespace().getCollectionName(), e.getMessage(), e);
+				}
+			}
+		}
+		return verify();
+	}
+
+	/**
+	 * Compare the declared indexes with the ones in the database. Nothing is modified.
+	 *
+	 * @return The report
+	 */
+	public IndexReport verify() {
+		final IndexReport report = new IndexReport();
+		for (final IIndexedDAO dao : daos) {
+			final MongoCollection<Document> coll = dao.getColl();
+			final String collectionName = coll.getNamespace().getCollectionName();
+			final Map<String, IndexModel> declared = new TreeMap<>();
+			for (final IndexModel index : dao.getIndexes()) {
+				declared.put(index.getOptions().getName(), index);
+			}
+			final Map<String, Document> existing = new TreeMap<>();
+			for (final Document index : coll.listIndexes()) {
+				existing.put(index.getString("name"), index);
+			}
+			existing.remove(ID_INDEX);
+			declared.forEach((name, index) -> {
+				if (!existing.containsKey(name)) {
+					report.addMissing(collectionName, name);
+				} else if (!matches(index, existing.get(name))) {
+					report.addMismatched(collectionName, name);
+				}
+			});
+			existing.keySet().stream()
+				.filter(name -> !declared.containsKey(name))
+				.forEach(name -> report.addExtra(collectionName, name));
+		}
+		return report;
+	}
+
+	/**
+	 * @param declared The declared index
+	 * @param existing The index found in the database
+	 * @return True if both have the same keys, in the same order, and the same options
+	 */
+	static boolean matches(final IndexModel declared, final Document existing) {
+		final IndexOptions options = declared.getOptions();
+		final BsonDocument keys = declared.getKeys().toBsonDocument(Document.class, MongoClient.getDefaultCodecRegistry());
+		return sameKeys(keys, existing.get("key", Document.class))
+			&& options.isUnique() == isSet(existing.get("unique"))
+			&& options.isSparse() == isSet(existing.get("sparse"))
+			&& Objects.equals(options.getExpireAfter(TimeUnit.SECONDS), toLong(existing.get("expireAfterSeconds")));
+	}
+
+	/**
+	 * @param declared The declared keys
+	 * @param existing The keys found in the database, where a direction can be stored as any number type
+	 * @return True if the keys are the same
+	 */
+	private static boolean sameKeys(final BsonDocument declared, final Document existing) {
+		if (existing == null || declared.size() != existing.size()) {
+			return false;
+		}
+		final Iterator<Map.Entry<String, BsonValue>> declaredKeys = declared.entrySet().iterator();
+		for (final Map.Entry<String, Object> key : existing.entrySet()) {
+			final Map.Entry<String, BsonValue> declaredKey = declaredKeys.next();
+			final BsonValue type = declaredKey.getValue();
+			final Object value = key.getValue();
+			final boolean same = type.isNumber()
+				? value instanceof Number && type.asNumber().doubleValue() == ((Number) value).doubleValue()
+				: type.isString() && type.asString().getValue().equals(value);
+			if (!declaredKey.getKey().equals(key.getKey()) || !same) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param value A boolean option, possibly stored as a number
+	 * @return True if the option is set
+	 */
+	private static boolean isSet(final Object value) {
+		return value instanceof Boolean ? (Boolean) value : value instanceof Number && ((Number) value).intValue() != 0;
+	}
+
+	/**
+	 * @param value A number, or null
+	 * @return The number as a long, or null
+	 */
+	private static Long toLong(final Object value) {
+		return value instanceof Number ? ((Number) value).longValue() : null;
+	}
+}
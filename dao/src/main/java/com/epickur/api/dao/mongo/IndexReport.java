@@ -0,0 +1,64 @@
+package com.epickur.api.dao.mongo;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Result of the comparison between the indexes declared by the DAOs and the ones present in the database.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Getter
+@ToString
+public final class IndexReport {
+
+	/**
+	 * Declared indexes not found in the database, by collection
+	 */
+	private final Map<String, List<String>> missing = new TreeMap<>();
+	/**
+	 * Indexes found in the database but not declared, by collection
+	 */
+	private final Map<String, List<String>> extra = new TreeMap<>();
+	/**
+	 * Indexes found in the database under a declared name, but with other keys or options, by collection
+	 */
+	private final Map<String, List<String>> mismatched = new TreeMap<>();
+
+	/**
+	 * @param collection The collection name
+	 * @param index      The index name
+	 */
+	public void addMissing(final String collection, final String index) {
+		missing.computeIfAbsent(collection, k -> new ArrayList<>()).add(index);
+	}
+
+	/**
+	 * @param collection The collection name
+	 * @param index      The index name
+	 */
+	public void addExtra(final String collection, final String index) {
+		extra.computeIfAbsent(collection, k -> new ArrayList<>()).add(index);
+	}
+
+	/**
+	 * @param collection The collection name
+	 * @param index      The index name
+	 */
+	public void addMismatched(final String collection, final String index) {
+		mismatched.computeIfAbsent(collection, k -> new ArrayList<>()).add(index);
+	}
+
+	/**
+	 * @return True if the database indexes match exactly the declared ones
+	 */
+	public boolean isValid() {
+		return missing.isEmpty() && extra.isEmpty() && mismatched.isEmpty();
+	}
+}
@@ -3,17 +3,18 @@ package com.epickur.api.dao.mongo;
 import com.epickur.api.entity.Key;
 import com.epickur.api.exception.EpickurDBException;
 import com.epickur.api.exception.EpickurException;
-import com.epickur.api.exception.EpickurParsingException;
 import com.mongodb.MongoException;
-import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.Indexes;
 import lombok.extern.log4j.Log4j2;
 import org.bson.Document;
+import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import javax.annotation.PostConstruct;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,7 +37,7 @@ public class KeyDAO extends CrudDAO<Key> {
 
 	@Autowired
 	public KeyDAO(final MongoDatabase db) {
-		super(db);
+		super(db, Key.class);
 	}
 
 	@PostConstruct
@@ -44,20 +45,27 @@ public class KeyDAO extends CrudDAO<Key> {
 		setColl(getDb().getCollection(KEY_COLL));
 	}
 
+	@Override
+	public List<IndexModel> getIndexes() {
+		return Arrays.asList(
+			index(Indexes.ascending("key"), "key_1"),
+			index(Indexes.ascending("userName"), "userName_1"),
+			index(Indexes.ascending("createdAt"), "createdAt_1"),
+			index(Indexes.ascending("updatedAt"), "updatedAt_1"));
+	}
+
 	@Override
 	public Key create(final Key key) throws EpickurException {
 		log.debug("Create key: " + key);
-		final Document doc = key.getDocumentDBView();
-		insertDocument(doc);
-		return Key.getDocumentAsKey(doc);
+		insertEntity(key);
+		return key;
 	}
 
 	@Override
 	public Optional<Key> read(final String key) throws EpickurException {
 		log.debug("Read key: " + key);
 		final Document query = convertAttributeToDocument("key", key);
-		final Document find = findDocument(query);
-		return processAfterQuery(find);
+		return Optional.ofNullable(findEntity(query));
 	}
 
 	/**
@@ -70,8 +78,7 @@ public class KeyDAO extends CrudDAO<Key> {
 	public Key readWithName(final String userName) throws EpickurException {
 		log.debug("Read key with name: " + userName);
 		final Document query = convertAttributeToDocument("userName", userName);
-		final Document find = findDocument(query);
-		return processAfterQuery(find).orElse(null);
+		return findEntity(query);
 	}
 
 	@Override
@@ -79,17 +86,6 @@ public class KeyDAO extends CrudDAO<Key> {
 		throw new EpickurException(NOT_IMPLEMENTED);
 	}
 
-	/**
-	 * @param key The document key.
-	 * @return The key.
-	 * @throws EpickurParsingException If an EpickurParsingException occurred.
-	 */
-	private Optional<Key> processAfterQuery(final Document key) throws EpickurParsingException {
-		return key != null
-			? Optional.of(Key.getDocumentAsKey(key))
-			: Optional.empty();
-	}
-
 	/**
 	 * @param key The key.
 	 * @return A boolean
@@ -103,15 +99,21 @@ public class KeyDAO extends CrudDAO<Key> {
 
 	@Override
 	public List<Key> readAll() throws EpickurException {
-		final List<Key> keys = new ArrayList<>();
-		try (final MongoCursor<Document> cursor = getColl().find().iterator()) {
-			while (cursor.hasNext()) {
-				final Key key = Key.getDocumentAsKey(cursor.next());
-				keys.add(key);
-			}
+		try {
+			return findEntities(new Document());
 		} catch (final MongoException e) {
 			throw new EpickurDBException("readAll", e.getMessage(), e);
 		}
-		return keys;
+	}
+
+	/**
+	 * Delete the keys created before a date, in one operation.
+	 *
+	 * @param date The date
+	 * @return The number of keys deleted
+	 * @throws EpickurException If an EpickurException occurred.
+	 */
+	public long deleteCreatedBefore(final DateTime date) throws EpickurException {
+		return deleteWhere(new Document("createdAt", new Document("$lt", date.getMillis())));
 	}
 }
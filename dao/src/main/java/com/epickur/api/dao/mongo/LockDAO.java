@@ -0,0 +1,117 @@
+package com.epickur.api.dao.mongo;
+
+import com.epickur.api.exception.EpickurDBException;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import lombok.extern.log4j.Log4j2;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import java.util.Optional;
+
+import static com.epickur.api.dao.CollectionsName.LOCK_COLL;
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.gt;
+import static com.mongodb.client.model.Filters.lte;
+
+/**
+ * Lock DAO access. A lock is a document named after what it protects, held by one owner until a date.
+ * <p>
+ * Each acquisition increments the token of the lock. The token is a fencing token: an owner whose lease expired can check it to know that
+ * somebody else took the lock in the meantime.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Log4j2
+@Repository
+public class LockDAO {
+
+	private static final int DUPLICATE_KEY = 11000;
+
+	private final MongoDatabase db;
+
+	private MongoCollection<Document> coll;
+
+	@Autowired
+	public LockDAO(final MongoDatabase db) {
+		this.db = db;
+	}
+
+	/**
+	 * Post construct
+	 */
+	@PostConstruct
+	public void postConstruct() {
+		this.coll = db.getCollection(LOCK_COLL);
+	}
+
+	/**
+	 * Acquire a lock if it is free or expired. A lock held by the same owner is not acquired again: two servers can share an owner name.
+	 *
+	 * @param name  The lock name
+	 * @param owner The owner
+	 * @param until The end of the lease
+	 * @return The fencing token if the lock has been acquired
+	 * @throws EpickurDBException If an epickur exception occurred
+	 */
+	public Optional<Long> acquire(final String name, final String owner, final long until) throws EpickurDBException {
+		final long now = System.currentTimeMillis();
+		final Document update = new Document("$set", new Document("owner", owner).append("lockedAt", now).append("lockedUntil", until))
+			.append("$inc", new Document("token", 1L));
+		final FindOneAndUpdateOptions options = new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER);
+		try {
+			final Document lock = coll.findOneAndUpdate(and(eq("_id", name), lte("lockedUntil", now)), update, options);
+			log.debug("Lock {} acquired by {}", name, owner);
+			return Optional.of(lock.getLong("token"));
+		} catch (final MongoException e) {
+			if (e.getCode() == DUPLICATE_KEY) {
+				// The lock exists and is held by someone else
+				return Optional.empty();
+			}
+			throw new EpickurDBException("acquire", e.getMessage(), name, e);
+		}
+	}
+
+	/**
+	 * Release a lock and record the run. Does nothing if the lock has been taken by someone else since.
+	 *
+	 * @param name  The lock name
+	 * @param owner The owner
+	 * @param token The fencing token returned by acquire
+	 * @param until The date the lock can be acquired again, now to free it immediately
+	 * @return False if the lock was not held anymore
+	 * @throws EpickurDBException If an epickur exception occurred
+	 */
+	public boolean release(final String name, final String owner, final long token, final long until) throws EpickurDBException {
+		final Document update = new Document("$set", new Document("lockedUntil", until)
+			.append("lastRunBy", owner)
+			.append("lastRunAt", System.currentTimeMillis()))
+			.append("$inc", new Document("runs", 1L));
+		try {
+			return coll.updateOne(and(eq("_id", name), eq("owner", owner), eq("token", token)), update).getModifiedCount() == 1;
+		} catch (final MongoException e) {
+			throw new EpickurDBException("release", e.getMessage(), name, e);
+		}
+	}
+
+	/**
+	 * @param name  The lock name
+	 * @param token The fencing token
+	 * @return True if no one acquired the lock since this token was issued and its lease did not expire
+	 * @throws EpickurDBException If an epickur exception occurred
+	 */
+	public boolean isHeld(final String name, final long token) throws EpickurDBException {
+		try {
+			return coll.count(and(eq("_id", name), eq("token", token), gt("lockedUntil", System.currentTimeMillis()))) == 1;
+		} catch (final MongoException e) {
+			throw new EpickurDBException("isHeld", e.getMessage(), name, e);
+		}
+	}
+}
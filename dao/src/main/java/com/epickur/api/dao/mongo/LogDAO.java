@@ -3,13 +3,15 @@ package com.epickur.api.dao.mongo;
 import com.epickur.api.entity.Log;
 import com.epickur.api.exception.EpickurException;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.Indexes;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.NotImplementedException;
-import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import javax.annotation.PostConstruct;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,7 +29,7 @@ public class LogDAO extends CrudDAO<Log> {
 
 	@Autowired
 	public LogDAO(final MongoDatabase db) {
-		super(db);
+		super(db, Log.class);
 	}
 
 	@PostConstruct
@@ -35,6 +37,11 @@ public class LogDAO extends CrudDAO<Log> {
 		setColl(getDb().getCollection(LOG_COLL));
 	}
 
+	@Override
+	public List<IndexModel> getIndexes() {
+		return Collections.singletonList(index(Indexes.ascending("time"), "time_1"));
+	}
+
 	@Override
 	public List<Log> readAll() throws EpickurException {
 		throw new NotImplementedException("Not implemented yet");
@@ -43,8 +50,7 @@ public class LogDAO extends CrudDAO<Log> {
 	@Override
 	public Log create(final Log obj) throws EpickurException {
 		log.trace("Create log: {}", obj);
-		final Document doc = obj.getDocumentDBView();
-		insertDocument(doc);
+		insertEntity(obj);
 		return null;
 	}
 
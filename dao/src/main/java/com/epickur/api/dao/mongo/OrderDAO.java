@@ -1,15 +1,18 @@
 package com.epickur.api.dao.mongo;
 
 import com.epickur.api.entity.Order;
+import com.epickur.api.enumeration.OrderStatus;
 import com.epickur.api.exception.EpickurDBException;
 import com.epickur.api.exception.EpickurException;
-import com.epickur.api.exception.EpickurParsingException;
 import com.mongodb.MongoException;
-import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.NotImplementedException;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,10 +20,18 @@ import org.springframework.stereotype.Repository;
 
 import javax.annotation.PostConstruct;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static com.epickur.api.dao.CollectionsName.ORDER_COLL;
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Filters.lte;
+import static com.mongodb.client.model.Filters.or;
+import static com.mongodb.client.model.Projections.include;
 
 /**
  * Order DAO access with CRUD operations.
@@ -32,9 +43,18 @@ import static com.epickur.api.dao.CollectionsName.ORDER_COLL;
 @Repository
 public class OrderDAO extends CrudDAO<Order> {
 
+	/**
+	 * Id of the sweep that canceled an expired order
+	 */
+	private static final String EXPIRY_CLAIM = "expiryClaim";
+	/**
+	 * Date after which an expired order canceled but not notified yet can be claimed again. Removed once notified
+	 */
+	private static final String NOTIFY_DEADLINE = "notifyDeadline";
+
 	@Autowired
 	public OrderDAO(final MongoDatabase db) {
-		super(db);
+		super(db, Order.class);
 	}
 
 	@PostConstruct
@@ -42,20 +62,28 @@ public class OrderDAO extends CrudDAO<Order> {
 		setColl(getDb().getCollection(ORDER_COLL));
 	}
 
+	@Override
+	public List<IndexModel> getIndexes() {
+		return Arrays.asList(
+			index(Indexes.ascending("createdBy"), "createdBy_1"),
+			index(Indexes.ascending("dish.caterer._id", "createdAt"), "dish.caterer._id_1_createdAt_1"),
+			index(Indexes.ascending("status", "expiresAt"), "status_1_expiresAt_1"),
+			index(Indexes.ascending("updatedAt"), "updatedAt_1"),
+			new IndexModel(Indexes.ascending(NOTIFY_DEADLINE), new IndexOptions().name(NOTIFY_DEADLINE + "_1").sparse(true)));
+	}
+
 	@Override
 	public Order create(final Order order) throws EpickurException {
 		log.debug("Create order: {}", order);
-		final Document doc = order.getDocumentDBView();
-		insertDocument(doc);
-		return Order.getDocumentAsOrder(doc);
+		insertEntity(order);
+		return order;
 	}
 
 	@Override
 	public Optional<Order> read(final String id) throws EpickurException {
 		log.debug("Read order with id: {}", id);
 		final Document query = convertAttributeToDocument("_id", new ObjectId(id));
-		final Document find = findDocument(query);
-		return processAfterQuery(find);
+		return Optional.ofNullable(findEntity(query));
 	}
 
 	@Override
@@ -63,14 +91,7 @@ public class OrderDAO extends CrudDAO<Order> {
 		log.debug("Update order: {}", order);
 		final Document filter = convertAttributeToDocument("_id", order.getId());
 		final Document update = order.getUpdateQuery();
-		final Document updated = updateDocument(filter, update);
-		return processAfterQuery(updated).orElse(null);
-	}
-
-	private Optional<Order> processAfterQuery(final Document document) throws EpickurParsingException {
-		return document != null
-			? Optional.of(Order.getDocumentAsOrder(document))
-			: Optional.empty();
+		return updateEntity(filter, update);
 	}
 
 	@Override
@@ -86,17 +107,12 @@ public class OrderDAO extends CrudDAO<Order> {
 	 * @throws EpickurException If an epickur exception occurred
 	 */
 	public List<Order> readAllWithUserId(final String userId) throws EpickurException {
-		final List<Order> orders = new ArrayList<>();
 		final Document query = new Document().append("createdBy", userId);
-		try (final MongoCursor<Document> cursor = getColl().find(query).iterator()) {
-			while (cursor.hasNext()) {
-				final Order user = Order.getDocumentAsOrder(cursor.next());
-				orders.add(user);
-			}
+		try {
+			return findEntities(query);
 		} catch (final MongoException e) {
 			throw new EpickurDBException("readAllWithUserId", e.getMessage(), userId, e);
 		}
-		return orders;
 	}
 
 	/**
@@ -107,7 +123,6 @@ public class OrderDAO extends CrudDAO<Order> {
 	 * @throws EpickurException If an epickur exception occurred
 	 */
 	public List<Order> readAllWithCatererId(final String catererId, final DateTime start, final DateTime end) throws EpickurException {
-		final List<Order> orders = new ArrayList<>();
 		final Document query = new Document().append("dish.caterer._id", catererId);
 		final Document filter = new Document();
 		if (start != null) {
@@ -119,14 +134,122 @@ public class OrderDAO extends CrudDAO<Order> {
 		if (filter.keySet().size() != 0) {
 			query.put("createdAt", filter);
 		}
-		try (final MongoCursor<Document> cursor = getColl().find(query).iterator()) {
-			while (cursor.hasNext()) {
-				final Order user = Order.getDocumentAsOrder(cursor.next());
-				orders.add(user);
-			}
+		try {
+			return findEntities(query);
 		} catch (final MongoException e) {
 			throw new EpickurDBException("readAllWithCatererId", e.getMessage(), catererId, e);
 		}
-		return orders;
+	}
+
+	/**
+	 * Cancel a batch of pending orders that expired. The orders are found, then claimed and canceled with one update guarded by their
+	 * status: an order confirmed or claimed by another server in the meantime is left untouched. The orders created before the expiration
+	 * date existed are canceled according to their creation date.
+	 * <p>
+	 * The orders canceled stay to notify until {@link #markCancelNotified(ObjectId)}: if they are not notified by notifyUntil, they are
+	 * returned by {@link #claimUnnotified(DateTime, DateTime, int)}.
+	 *
+	 * @param now           The current date
+	 * @param createdBefore The creation date before which an order without expiration date is expired
+	 * @param notifyUntil   The date before which the caller notifies the orders canceled
+	 * @param limit         The max number of orders to cancel
+	 * @return The orders canceled by this call
+	 * @throws EpickurException If an epickur exception occurred
+	 */
+	public List<Order> cancelExpired(final DateTime now, final DateTime createdBefore, final DateTime notifyUntil, final int limit)
+		throws EpickurException {
+		final String pending = OrderStatus.PENDING.toString();
+		final Bson expired = and(eq("status", pending), or(
+			lte("expiresAt", now.getMillis()),
+			and(eq("expiresAt", null), lte("createdAt", createdBefore.getMillis()))));
+		try {
+			return claim(expired, new Document("status", OrderStatus.CANCELED.toString()), now, notifyUntil, limit);
+		} catch (final MongoException e) {
+			throw new EpickurDBException("cancelExpired", e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Claim a batch of expired orders canceled but still not notified once their notification deadline passed, because the server that
+	 * canceled them stopped or failed to notify them.
+	 *
+	 * @param now         The current date
+	 * @param notifyUntil The date before which the caller notifies the orders claimed
+	 * @param limit       The max number of orders to claim
+	 * @return The orders claimed by this call
+	 * @throws EpickurException If an epickur exception occurred
+	 */
+	public List<Order> claimUnnotified(final DateTime now, final DateTime notifyUntil, final int limit) throws EpickurException {
+		final Bson unnotified = and(eq("status", OrderStatus.CANCELED.toString()), lte(NOTIFY_DEADLINE, now.getMillis()));
+		try {
+			return claim(unnotified, new Document(), now, notifyUntil, limit);
+		} catch (final MongoException e) {
+			throw new EpickurDBException("claimUnnotified", e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Record that the voucher of a canceled order has been reverted, so that it is not reverted again if the notification is resumed.
+	 *
+	 * @param id The order id
+	 * @throws EpickurException If an epickur exception occurred
+	 */
+	public void markVoucherReverted(final ObjectId id) throws EpickurException {
+		try {
+			getColl().updateOne(eq("_id", id), new Document("$set", new Document("voucherReverted", true)
+				.append("updatedAt", System.currentTimeMillis())));
+		} catch (final MongoException e) {
+			throw new EpickurDBException("markVoucherReverted", e.getMessage(), id.toHexString(), e);
+		}
+	}
+
+	/**
+	 * Record that a canceled order has been notified, it is not claimed again.
+	 *
+	 * @param id The order id
+	 * @throws EpickurException If an epickur exception occurred
+	 */
+	public void markCancelNotified(final ObjectId id) throws EpickurException {
+		try {
+			getColl().updateOne(eq("_id", id), new Document("$unset", new Document(NOTIFY_DEADLINE, ""))
+				.append("$set", new Document("updatedAt", System.currentTimeMillis())));
+		} catch (final MongoException e) {
+			throw new EpickurDBException("markCancelNotified", e.getMessage(), id.toHexString(), e);
+		}
+	}
+
+	/**
+	 * Find a batch of orders, then claim them with one update guarded by the same filter. When another server claimed the whole batch
+	 * in the meantime, the next batch is read: the orders it claimed no longer match the filter, so an empty list means none is left.
+	 *
+	 * @param filter      The orders to claim
+	 * @param set         The fields to set with the claim
+	 * @param now         The current date
+	 * @param notifyUntil The notification deadline of the orders claimed
+	 * @param limit       The max number of orders
+	 * @return The orders claimed
+	 */
+	private List<Order> claim(final Bson filter, final Document set, final DateTime now, final DateTime notifyUntil, final int limit) {
+		while (true) {
+			final List<ObjectId> ids = getColl().find(filter)
+				.projection(include("_id"))
+				.limit(limit)
+				.map(document -> document.getObjectId("_id"))
+				.into(new ArrayList<>());
+			if (ids.isEmpty()) {
+				return Collections.emptyList();
+			}
+			final String claim = new ObjectId().toHexString();
+			final Document update = new Document("$set", new Document(set)
+				.append(EXPIRY_CLAIM, claim)
+				.append(NOTIFY_DEADLINE, notifyUntil.getMillis())
+				.append("updatedAt", now.getMillis()));
+			final long claimed = getColl().updateMany(and(in("_id", ids), filter), update).getModifiedCount();
+			if (claimed > 0) {
+				log.debug("Claimed {} expired orders", claimed);
+				return findEntities(and(in("_id", ids), eq(EXPIRY_CLAIM, claim)));
+			}
+			log.debug("The {} expired orders found were claimed by another server, reading the next batch", ids.size());
+		}
 	}
 }
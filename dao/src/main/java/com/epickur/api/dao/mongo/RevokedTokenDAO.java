@@ -0,0 +1,98 @@
+package com.epickur.api.dao.mongo;
+
+import com.epickur.api.entity.Key;
+import com.epickur.api.exception.EpickurDBException;
+import com.epickur.api.exception.EpickurException;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.Indexes;
+import lombok.extern.log4j.Log4j2;
+import org.bson.Document;
+import org.joda.time.DateTime;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static com.epickur.api.dao.CollectionsName.REVOKED_TOKEN_COLL;
+
+/**
+ * Revoked session tokens DAO access. A revoked token is stored as a {@link Key}: the key is the token id and the creation date is the
+ * token issue date.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Log4j2
+@Repository
+public class RevokedTokenDAO extends CrudDAO<Key> {
+
+	/**
+	 * Not implemented
+	 */
+	private static final String NOT_IMPLEMENTED = "Not implemented";
+
+	@Autowired
+	public RevokedTokenDAO(final MongoDatabase db) {
+		super(db, Key.class);
+	}
+
+	@PostConstruct
+	protected void initCollection() {
+		setColl(getDb().getCollection(REVOKED_TOKEN_COLL));
+	}
+
+	@Override
+	public List<IndexModel> getIndexes() {
+		return Arrays.asList(
+			index(Indexes.ascending("key"), "key_1"),
+			index(Indexes.ascending("createdAt"), "createdAt_1"));
+	}
+
+	@Override
+	public Key create(final Key key) throws EpickurException {
+		log.debug("Revoke token: " + key.getKey());
+		insertEntity(key);
+		return key;
+	}
+
+	@Override
+	public Optional<Key> read(final String tokenId) throws EpickurException {
+		final Document query = convertAttributeToDocument("key", tokenId);
+		return Optional.ofNullable(findEntity(query));
+	}
+
+	@Override
+	public Key update(final Key key) throws EpickurException {
+		throw new EpickurException(NOT_IMPLEMENTED);
+	}
+
+	@Override
+	public List<Key> readAll() throws EpickurException {
+		try {
+			return findEntities(new Document());
+		} catch (final MongoException e) {
+			throw new EpickurDBException("readAll", e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Delete the revocations of the tokens issued before a date, they have expired anyway.
+	 *
+	 * @param date The date
+	 * @return The number of revocations deleted
+	 * @throws EpickurException If an EpickurException occurred.
+	 */
+	public long deleteIssuedBefore(final DateTime date) throws EpickurException {
+		final Document filter = new Document("createdAt", new Document("$lt", date.getMillis()));
+		try {
+			return getColl().deleteMany(filter).getDeletedCount();
+		} catch (final MongoException e) {
+			throw new EpickurDBException("deleteIssuedBefore", e.getMessage(), filter, e);
+		}
+	}
+}
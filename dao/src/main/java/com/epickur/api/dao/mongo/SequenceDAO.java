@@ -1,9 +1,12 @@
 package com.epickur.api.dao.mongo;
 
+import com.epickur.api.config.EpickurProperties;
 import com.epickur.api.exception.EpickurDBException;
 import com.mongodb.MongoException;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
 import lombok.extern.log4j.Log4j2;
 import org.bson.BsonInt32;
 import org.bson.Document;
@@ -16,6 +19,9 @@ import static com.epickur.api.dao.CollectionsName.SEQUENCE_COLL;
 
 /**
  * Sequence DAO access with CRUD operations.
+ * <p>
+ * The order ids are reserved by blocks of sequence.block.size: one update of the sequence document per block, the ids of the block are then
+ * handed out from memory. The ids are unique across servers but not strictly increasing, and the rest of a block is lost at shutdown.
  *
  * @author cph
  * @version 1.0
@@ -24,13 +30,30 @@ import static com.epickur.api.dao.CollectionsName.SEQUENCE_COLL;
 @Repository
 public class SequenceDAO {
 
+	private static final String SEQUENCE_ID = "order";
+	private static final String SEQUENCE_FIELD = "seq";
+	private static final int DUPLICATE_KEY = 11000;
+
 	private final MongoDatabase db;
+	private final int blockSize;
 
 	private MongoCollection<Document> coll;
+	/**
+	 * Next id to hand out, guarded by this
+	 */
+	private int next;
+	/**
+	 * End of the current block, excluded
+	 */
+	private int end;
 
 	@Autowired
-	public SequenceDAO(final MongoDatabase db) {
+	public SequenceDAO(final MongoDatabase db, final EpickurProperties properties) {
 		this.db = db;
+		this.blockSize = properties.getSequenceBlockSize();
+		if (blockSize < 1) {
+			throw new IllegalArgumentException("sequence.block.size must be at least 1: " + blockSize);
+		}
 	}
 
 	/**
@@ -47,28 +70,39 @@ public class SequenceDAO {
 	 * @return The next order id
 	 * @throws EpickurDBException If an epickur exception occurred
 	 */
-	public String getNextId() throws EpickurDBException {
-		final String sequenceId = "order";
-		final String sequenceField = "seq";
-
-		final Document query = new Document();
-		query.append("_id", sequenceId);
+	public synchronized String getNextId() throws EpickurDBException {
+		if (next >= end) {
+			end = reserveBlock();
+			next = end - blockSize;
+		}
+		return Integer.toHexString(next++);
+	}
 
-		final Document change = new Document(sequenceField, new BsonInt32(1));
-		final Document update = new Document("$inc", change);
+	/**
+	 * Reserve a block of ids. The sequence document is created by the first reservation.
+	 *
+	 * @return The end of the block, excluded
+	 * @throws EpickurDBException If an epickur exception occurred
+	 */
+	private int reserveBlock() throws EpickurDBException {
+		final Document query = new Document("_id", SEQUENCE_ID);
+		final Document update = new Document("$inc", new Document(SEQUENCE_FIELD, new BsonInt32(blockSize)));
+		final FindOneAndUpdateOptions options = new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER);
 		try {
-			final Document res = coll.findOneAndUpdate(query, update);
-			log.debug("Read next Order id");
-			if (res != null) {
-				return Integer.toHexString(Integer.parseInt(res.get(sequenceField).toString()));
-			} else {
-				// Put 1 as new seq and return 0 as current sequence
-				query.append(sequenceField, 1);
-				coll.insertOne(query);
-				return Integer.toHexString(0);
+			Document res;
+			try {
+				res = coll.findOneAndUpdate(query, update, options);
+			} catch (final MongoException e) {
+				if (e.getCode() != DUPLICATE_KEY) {
+					throw e;
+				}
+				// Another server created the sequence at the same time, it exists now
+				res = coll.findOneAndUpdate(query, update, options);
 			}
+			log.debug("Reserved {} Order ids", blockSize);
+			return ((Number) res.get(SEQUENCE_FIELD)).intValue();
 		} catch (MongoException e) {
-			throw new EpickurDBException("getNextId", e.getMessage(), sequenceId, e);
+			throw new EpickurDBException("getNextId", e.getMessage(), SEQUENCE_ID, e);
 		}
 	}
 }
@@ -3,10 +3,10 @@ package com.epickur.api.dao.mongo;
 import com.epickur.api.entity.User;
 import com.epickur.api.exception.EpickurDBException;
 import com.epickur.api.exception.EpickurException;
-import com.epickur.api.exception.EpickurParsingException;
 import com.mongodb.MongoException;
-import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.Indexes;
 import lombok.extern.log4j.Log4j2;
 import org.bson.BsonArray;
 import org.bson.BsonDocument;
@@ -17,7 +17,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import javax.annotation.PostConstruct;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,7 +36,7 @@ public class UserDAO extends CrudDAO<User> {
 
 	@Autowired
 	public UserDAO(final MongoDatabase db) {
-		super(db);
+		super(db, User.class);
 	}
 
 	@PostConstruct
@@ -43,20 +44,26 @@ public class UserDAO extends CrudDAO<User> {
 		setColl(getDb().getCollection(USER_COLL));
 	}
 
+	@Override
+	public List<IndexModel> getIndexes() {
+		return Arrays.asList(
+			index(Indexes.ascending("name"), "name_1"),
+			index(Indexes.ascending("email"), "email_1"),
+			index(Indexes.ascending("updatedAt"), "updatedAt_1"));
+	}
+
 	@Override
 	public User create(final User user) throws EpickurException {
 		log.debug("Create user: " + user);
-		final Document doc = user.getDocumentDBView();
-		insertDocument(doc);
-		return User.getDocumentAsUser(doc);
+		insertEntity(user);
+		return user;
 	}
 
 	@Override
 	public Optional<User> read(final String id) throws EpickurException {
 		log.debug("Read user with id: " + id);
 		final Document query = convertAttributeToDocument("_id", new ObjectId(id));
-		final Document find = findDocument(query);
-		return processAfterQuery(find);
+		return Optional.ofNullable(findEntity(query));
 	}
 
 	/**
@@ -69,8 +76,7 @@ public class UserDAO extends CrudDAO<User> {
 	public Optional<User> readWithName(final String name) throws EpickurException {
 		log.debug("Read user with name: " + name);
 		final Document query = convertAttributeToDocument("name", name);
-		final Document find = findDocument(query);
-		return processAfterQuery(find);
+		return Optional.ofNullable(findEntity(query));
 	}
 
 	/**
@@ -83,8 +89,7 @@ public class UserDAO extends CrudDAO<User> {
 	public Optional<User> readWithEmail(final String email) throws EpickurException {
 		log.debug("Read user with email: " + email);
 		final Document query = convertAttributeToDocument("email", email);
-		final Document find = findDocument(query);
-		return processAfterQuery(find);
+		return Optional.ofNullable(findEntity(query));
 	}
 
 	@Override
@@ -92,28 +97,29 @@ public class UserDAO extends CrudDAO<User> {
 		log.debug("Update user: " + user);
 		final Document filter = convertAttributeToDocument("_id", user.getId());
 		final Document update = user.getUpdateQuery();
-		final Document updated = updateDocument(filter, update);
-		return processAfterQuery(updated).orElse(null);
-	}
-
-	private Optional<User> processAfterQuery(final Document user) throws EpickurParsingException {
-		return user != null
-			? Optional.of(User.getDocumentAsUser(user))
-			: Optional.empty();
+		return updateEntity(filter, update);
 	}
 
 	@Override
 	public List<User> readAll() throws EpickurException {
-		final List<User> users = new ArrayList<>();
-		try (final MongoCursor<Document> cursor = getColl().find().iterator()) {
-			while (cursor.hasNext()) {
-				final User user = User.getDocumentAsUser(cursor.next());
-				users.add(user);
-			}
+		try {
+			return findEntities(new Document());
+		} catch (final MongoException e) {
+			throw new EpickurDBException("readAll", e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * @param ids The User ids
+	 * @return The Users found
+	 * @throws EpickurException If an epickur exception occurred
+	 */
+	public List<User> readAll(final Collection<ObjectId> ids) throws EpickurException {
+		try {
+			return findEntities(new Document("_id", new Document("$in", ids)));
 		} catch (final MongoException e) {
 			throw new EpickurDBException("readAll", e.getMessage(), e);
 		}
-		return users;
 	}
 
 	/**
@@ -126,7 +132,7 @@ public class UserDAO extends CrudDAO<User> {
 	 */
 	public boolean exists(final String name, final String email) throws EpickurDBException {
 		final Document query = createExistsQuery(name, email);
-		final Document found = findDocument(query);
+		final User found = findEntity(query);
 		return found != null;
 	}
 
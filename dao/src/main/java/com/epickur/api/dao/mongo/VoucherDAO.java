@@ -5,10 +5,11 @@ import com.epickur.api.enumeration.voucher.ExpirationType;
 import com.epickur.api.enumeration.voucher.Status;
 import com.epickur.api.exception.EpickurDBException;
 import com.epickur.api.exception.EpickurException;
-import com.epickur.api.exception.EpickurParsingException;
+import com.mongodb.Block;
 import com.mongodb.MongoException;
-import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.Indexes;
 import lombok.extern.log4j.Log4j2;
 import org.bson.Document;
 import org.bson.conversions.Bson;
@@ -17,14 +18,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import javax.annotation.PostConstruct;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static com.epickur.api.dao.CollectionsName.VOUCHER_COLL;
 import static com.mongodb.client.model.Filters.and;
 import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.in;
 import static com.mongodb.client.model.Filters.lt;
+import static com.mongodb.client.model.Projections.include;
 
 /**
  * Voucher DAO access with CRUD operations.
@@ -43,7 +48,7 @@ public class VoucherDAO extends CrudDAO<Voucher> {
 
 	@Autowired
 	public VoucherDAO(final MongoDatabase db) {
-		super(db);
+		super(db, Voucher.class);
 	}
 
 	@PostConstruct
@@ -51,6 +56,13 @@ public class VoucherDAO extends CrudDAO<Voucher> {
 		setColl(getDb().getCollection(VOUCHER_COLL));
 	}
 
+	@Override
+	public List<IndexModel> getIndexes() {
+		return Arrays.asList(
+			uniqueIndex(Indexes.ascending("code"), "code_1_unique"),
+			index(Indexes.ascending("updatedAt"), "updatedAt_1"));
+	}
+
 	@Override
 	public List<Voucher> readAll() throws EpickurException {
 		throw new EpickurException(NOT_IMPLEMENTED);
@@ -59,17 +71,15 @@ public class VoucherDAO extends CrudDAO<Voucher> {
 	@Override
 	public Voucher create(final Voucher voucher) throws EpickurException {
 		log.debug("Create voucher: " + voucher);
-		final Document doc = voucher.getDocumentDBView();
-		insertDocument(doc);
-		return Voucher.getDocumentAsVoucher(doc);
+		insertEntity(voucher);
+		return voucher;
 	}
 
 	@Override
 	public Optional<Voucher> read(final String code) throws EpickurException {
 		log.debug("Read voucher with code: " + code);
 		final Document query = convertAttributeToDocument("code", code);
-		final Document find = findDocument(query);
-		return processAfterQuery(find);
+		return Optional.ofNullable(findEntity(query));
 	}
 
 	@Override
@@ -77,14 +87,68 @@ public class VoucherDAO extends CrudDAO<Voucher> {
 		log.debug("Update voucher: " + voucher);
 		final Document filter = convertAttributeToDocument("_id", voucher.getId());
 		final Document update = voucher.getUpdateQuery();
-		final Document updated = updateDocument(filter, update);
-		return processAfterQuery(updated).orElse(null);
+		return updateEntity(filter, update);
+	}
+
+	/**
+	 * Redeem a voucher with a conditional update: a valid UNTIL voucher gets its used count incremented, a valid ONETIME voucher expires.
+	 * UNTIL is tried first, so the shared codes, the ones used concurrently, cost a single round trip.
+	 *
+	 * @param code The voucher code
+	 * @return The voucher after the update, empty if it does not exist or can not be used
+	 * @throws EpickurException If an EpickurException occurred
+	 */
+	public Optional<Voucher> redeem(final String code) throws EpickurException {
+		log.debug("Redeem voucher: " + code);
+		final long now = System.currentTimeMillis();
+		Voucher voucher = updateEntity(
+			codeFilter(code, ExpirationType.UNTIL).append("status", Status.VALID.getType()),
+			new Document("$inc", new Document("usedCount", 1)).append("$set", new Document("updatedAt", now)));
+		if (voucher == null) {
+			voucher = updateEntity(
+				codeFilter(code, ExpirationType.ONETIME).append("status", Status.VALID.getType()),
+				new Document("$set", new Document("status", Status.EXPIRED.getType()).append("updatedAt", now)));
+		}
+		return Optional.ofNullable(voucher);
+	}
+
+	/**
+	 * Revert the redemption of a voucher with a conditional update: an UNTIL voucher gets its used count decremented, an expired ONETIME
+	 * voucher is valid again.
+	 *
+	 * @param code The voucher code
+	 * @return The voucher after the update, empty if it does not exist or has nothing to revert
+	 * @throws EpickurException If an EpickurException occurred
+	 */
+	public Optional<Voucher> revert(final String code) throws EpickurException {
+		log.debug("Revert voucher: " + code);
+		final long now = System.currentTimeMillis();
+		Voucher voucher = updateEntity(
+			codeFilter(code, ExpirationType.UNTIL).append("usedCount", new Document("$gt", 0)),
+			new Document("$inc", new Document("usedCount", -1)).append("$set", new Document("updatedAt", now)));
+		if (voucher == null) {
+			voucher = updateEntity(
+				codeFilter(code, ExpirationType.ONETIME).append("status", Status.EXPIRED.getType()),
+				new Document("$set", new Document("status", Status.VALID.getType()).append("updatedAt", now)));
+		}
+		return Optional.ofNullable(voucher);
 	}
 
-	private Optional<Voucher> processAfterQuery(final Document voucher) throws EpickurParsingException {
-		return voucher != null
-			? Optional.of(Voucher.getDocumentAsVoucher(voucher))
-			: Optional.empty();
+	private static Document codeFilter(final String code, final ExpirationType expirationType) {
+		return new Document("code", code).append("expirationType", expirationType.getType());
+	}
+
+	/**
+	 * @param codes The codes
+	 * @return The vouchers with these codes
+	 * @throws EpickurException If an EpickurException occurred
+	 */
+	public List<Voucher> readByCodes(final Collection<String> codes) throws EpickurException {
+		try {
+			return findEntities(in("code", codes));
+		} catch (final MongoException e) {
+			throw new EpickurDBException("readByCodes", e.getMessage(), e);
+		}
 	}
 
 	/**
@@ -101,19 +165,51 @@ public class VoucherDAO extends CrudDAO<Voucher> {
 	public List<Voucher> readToClean() throws EpickurException {
 		try {
 			log.debug("Read all vouchers to clean");
-			final DateTime date = new DateTime();
-			final Bson query = and(eq("expirationType", ExpirationType.UNTIL.getType()), lt("expiration", date.getMillis()), eq("status", Status.VALID.getType()));
-			final FindIterable<Document> find = getColl().find(query);
-			final List<Voucher> res = new ArrayList<>();
-			if (find != null) {
-				for (final Document document : find) {
-					final Voucher current = Voucher.getDocumentAsVoucher(document);
-					res.add(current);
-				}
-			}
-			return res;
+			return findEntities(toClean(new DateTime()));
 		} catch (final MongoException e) {
 			throw new EpickurDBException("readToClean", e.getMessage(), e);
 		}
 	}
+
+	/**
+	 * Expire, with one update, the valid UNTIL vouchers whose expiration date has passed.
+	 *
+	 * @param now The current date, also used as update date
+	 * @return The number of vouchers expired
+	 * @throws EpickurException If an EpickurException occurred
+	 */
+	public long expireOutdated(final DateTime now) throws EpickurException {
+		log.debug("Expire outdated vouchers");
+		final Document update = new Document("$set", new Document("status", Status.EXPIRED.getType()).append("updatedAt", now.getMillis()));
+		try {
+			return getColl().updateMany(toClean(now), update).getModifiedCount();
+		} catch (final MongoException e) {
+			throw new EpickurDBException("expireOutdated", e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Stream the codes of the UNTIL vouchers expired at a date by {@link #expireOutdated(DateTime)}, without loading the vouchers.
+	 *
+	 * @param date   The date given to expireOutdated
+	 * @param action What to do with each code
+	 * @throws EpickurException If an EpickurException occurred
+	 */
+	public void forEachExpiredAt(final DateTime date, final Consumer<String> action) throws EpickurException {
+		final Bson query = and(eq("expirationType", ExpirationType.UNTIL.getType()), eq("status", Status.EXPIRED.getType()),
+			eq("updatedAt", date.getMillis()));
+		try {
+			getColl().find(query).projection(include("code")).forEach((Block<Document>) document -> action.accept(document.getString("code")));
+		} catch (final MongoException e) {
+			throw new EpickurDBException("forEachExpiredAt", e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * @param date The current date
+	 * @return The filter of the valid UNTIL vouchers expired at this date
+	 */
+	private static Bson toClean(final DateTime date) {
+		return and(eq("expirationType", ExpirationType.UNTIL.getType()), lt("expiration", date.getMillis()), eq("status", Status.VALID.getType()));
+	}
 }
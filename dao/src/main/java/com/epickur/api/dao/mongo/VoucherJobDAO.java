@@ -0,0 +1,189 @@
+package com.epickur.api.dao.mongo;
+
+import com.epickur.api.entity.VoucherGenerationJob;
+import com.epickur.api.entity.VoucherGenerationJob.Status;
+import com.epickur.api.exception.EpickurDBException;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import lombok.extern.log4j.Log4j2;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.epickur.api.dao.CollectionsName.VOUCHER_JOB_COLL;
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.lt;
+
+/**
+ * Voucher generation job DAO access. A job is updated while it runs, so any server can report its progress.
+ * <p>
+ * The updates only apply to a running job: a job declared failed by {@link #failStale(String, long)} can not be brought back.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Log4j2
+@Repository
+public class VoucherJobDAO implements IIndexedDAO {
+
+	/**
+	 * Number of days a job is kept, the TTL index removes it after
+	 */
+	private static final long RETENTION_DAYS = 7;
+
+	private final MongoDatabase db;
+
+	private MongoCollection<Document> coll;
+
+	@Autowired
+	public VoucherJobDAO(final MongoDatabase db) {
+		this.db = db;
+	}
+
+	/**
+	 * Post construct
+	 */
+	@PostConstruct
+	public void postConstruct() {
+		this.coll = db.getCollection(VOUCHER_JOB_COLL);
+	}
+
+	@Override
+	public MongoCollection<Document> getColl() {
+		return coll;
+	}
+
+	/**
+	 * The jobs are removed by the TTL index a few days after they started.
+	 *
+	 * @return The indexes of the collection
+	 */
+	@Override
+	public List<IndexModel> getIndexes() {
+		return Collections.singletonList(
+			new IndexModel(Indexes.ascending("createdAt"),
+				new IndexOptions().name("createdAt_1").expireAfter(TimeUnit.DAYS.toSeconds(RETENTION_DAYS), TimeUnit.SECONDS)));
+	}
+
+	/**
+	 * @param job The job to create
+	 * @throws EpickurDBException If an epickur exception occurred
+	 */
+	public void create(final VoucherGenerationJob job) throws EpickurDBException {
+		final Document document = new Document("_id", job.getId())
+			.append("status", job.getStatus().name())
+			.append("count", job.getCount())
+			.append("generated", job.getGenerated())
+			.append("createdAt", new Date(job.getUpdatedAt()))
+			.append("updatedAt", job.getUpdatedAt());
+		try {
+			coll.insertOne(document);
+		} catch (final MongoException e) {
+			throw new EpickurDBException("create", e.getMessage(), job.getId(), e);
+		}
+	}
+
+	/**
+	 * @param id The job id
+	 * @return The job
+	 * @throws EpickurDBException If an epickur exception occurred
+	 */
+	public Optional<VoucherGenerationJob> read(final String id) throws EpickurDBException {
+		try {
+			final Document found = coll.find(eq("_id", id)).first();
+			if (found == null) {
+				return Optional.empty();
+			}
+			final VoucherGenerationJob job = new VoucherGenerationJob();
+			job.setId(id);
+			job.setStatus(Status.valueOf(found.getString("status")));
+			job.setCount(found.getInteger("count", 0));
+			job.setGenerated(found.getInteger("generated", 0));
+			job.setError(found.getString("error"));
+			@SuppressWarnings("unchecked")
+			final List<String> codes = (List<String>) found.get("codes");
+			job.setCodes(codes);
+			job.setUpdatedAt(found.getLong("updatedAt"));
+			return Optional.of(job);
+		} catch (final MongoException e) {
+			throw new EpickurDBException("read", e.getMessage(), id, e);
+		}
+	}
+
+	/**
+	 * @param id       The job id
+	 * @param inserted The number of vouchers inserted since the last progress
+	 * @throws EpickurDBException If an epickur exception occurred
+	 */
+	public void progress(final String id, final int inserted) throws EpickurDBException {
+		final Document update = new Document("$inc", new Document("generated", inserted))
+			.append("$set", new Document("updatedAt", System.currentTimeMillis()));
+		updateRunning("progress", id, update);
+	}
+
+	/**
+	 * @param id    The job id
+	 * @param codes The codes of the vouchers generated
+	 * @throws EpickurDBException If an epickur exception occurred
+	 */
+	public void done(final String id, final List<String> codes) throws EpickurDBException {
+		final Document update = new Document("$set", new Document("status", Status.DONE.name())
+			.append("generated", codes.size())
+			.append("codes", codes)
+			.append("updatedAt", System.currentTimeMillis()));
+		updateRunning("done", id, update);
+	}
+
+	/**
+	 * @param id    The job id
+	 * @param error The error message
+	 * @throws EpickurDBException If an epickur exception occurred
+	 */
+	public void failed(final String id, final String error) throws EpickurDBException {
+		final Document update = new Document("$set", new Document("status", Status.FAILED.name())
+			.append("error", error)
+			.append("updatedAt", System.currentTimeMillis()));
+		updateRunning("failed", id, update);
+	}
+
+	/**
+	 * Fail a running job that has not been updated since a date, the server running it stopped.
+	 *
+	 * @param id     The job id
+	 * @param before The date in milliseconds
+	 * @return True if the job has been failed
+	 * @throws EpickurDBException If an epickur exception occurred
+	 */
+	public boolean failStale(final String id, final long before) throws EpickurDBException {
+		final Document update = new Document("$set", new Document("status", Status.FAILED.name())
+			.append("error", "Interrupted")
+			.append("updatedAt", System.currentTimeMillis()));
+		try {
+			return coll.updateOne(and(eq("_id", id), eq("status", Status.RUNNING.name()), lt("updatedAt", before)), update).getModifiedCount() == 1;
+		} catch (final MongoException e) {
+			throw new EpickurDBException("failStale", e.getMessage(), id, e);
+		}
+	}
+
+	private void updateRunning(final String operation, final String id, final Document update) throws EpickurDBException {
+		try {
+			if (coll.updateOne(and(eq("_id", id), eq("status", Status.RUNNING.name())), update).getModifiedCount() == 0) {
+				log.warn("Voucher generation {} is not running anymore, {} ignored", id, operation);
+			}
+		} catch (final MongoException e) {
+			throw new EpickurDBException(operation, e.getMessage(), id, e);
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package com.epickur.api.dao.mongo.codec;
+
+import com.epickur.api.entity.AbstractMainDBEntity;
+import org.bson.BsonObjectId;
+import org.bson.BsonReader;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.codecs.CollectibleCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readDate;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readObjectId;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeDate;
+
+/**
+ * Base codec of the entities stored in their own collection. It reads and writes the documents directly from the BSON stream, with the same
+ * layout than the one produced by the ObjectMapperWrapperDB.
+ * <p>
+ * The id of a top level document is stored as an ObjectId. When the entity is embedded into another one (a Caterer into a Dish for example),
+ * its id is stored as an hexadecimal String.
+ *
+ * @param <T> The entity
+ * @author cph
+ * @version 1.0
+ */
+public abstract class AbstractMainDBEntityCodec<T extends AbstractMainDBEntity> implements CollectibleCodec<T> {
+
+	/**
+	 * Id field name
+	 */
+	protected static final String ID = "_id";
+
+	@Override
+	public final void encode(final BsonWriter writer, final T value, final EncoderContext encoderContext) {
+		writer.writeStartDocument();
+		if (value.getId() != null) {
+			writer.writeObjectId(ID, value.getId());
+		}
+		encodeBody(writer, value);
+		writer.writeEndDocument();
+	}
+
+	/**
+	 * Write the entity as an embedded document.
+	 *
+	 * @param writer The writer
+	 * @param value  The entity
+	 */
+	public final void encodeEmbedded(final BsonWriter writer, final T value) {
+		writer.writeStartDocument();
+		CodecUtils.writeObjectIdAsString(writer, ID, value.getId());
+		encodeBody(writer, value);
+		writer.writeEndDocument();
+	}
+
+	private void encodeBody(final BsonWriter writer, final T value) {
+		encodeFields(writer, value);
+		writeDate(writer, "createdAt", value.getCreatedAt());
+		writeDate(writer, "updatedAt", value.getUpdatedAt());
+	}
+
+	@Override
+	public final T decode(final BsonReader reader, final DecoderContext decoderContext) {
+		return decodeEmbedded(reader);
+	}
+
+	/**
+	 * Read the entity, whether it is a top level or an embedded document.
+	 *
+	 * @param reader The reader
+	 * @return The entity
+	 */
+	public final T decodeEmbedded(final BsonReader reader) {
+		final T entity = newInstance();
+		CodecUtils.readDocument(reader, (name, r) -> {
+			switch (name) {
+				case ID:
+					entity.setId(readObjectId(r));
+					return true;
+				case "createdAt":
+					entity.setCreatedAt(readDate(r));
+					return true;
+				case "updatedAt":
+					entity.setUpdatedAt(readDate(r));
+					return true;
+				default:
+					return decodeField(r, name, entity);
+			}
+		});
+		return entity;
+	}
+
+	@Override
+	public final T generateIdIfAbsentFromDocument(final T document) {
+		if (document.getId() == null) {
+			document.setId(new ObjectId());
+		}
+		return document;
+	}
+
+	@Override
+	public final boolean documentHasId(final T document) {
+		return document.getId() != null;
+	}
+
+	@Override
+	public final BsonValue getDocumentId(final T document) {
+		if (!documentHasId(document)) {
+			throw new IllegalStateException("The document does not contain an _id");
+		}
+		return new BsonObjectId(document.getId());
+	}
+
+	/**
+	 * @return A new empty entity
+	 */
+	protected abstract T newInstance();
+
+	/**
+	 * Write the fields specific to the entity.
+	 *
+	 * @param writer The writer
+	 * @param value  The entity
+	 */
+	protected abstract void encodeFields(final BsonWriter writer, final T value);
+
+	/**
+	 * Read one field specific to the entity.
+	 *
+	 * @param reader The reader positioned on the field value
+	 * @param name   The field name
+	 * @param entity The entity to fill
+	 * @return false if the field is unknown
+	 */
+	protected abstract boolean decodeField(final BsonReader reader, final String name, final T entity);
+}
@@ -0,0 +1,272 @@
+package com.epickur.api.dao.mongo.codec;
+
+import com.epickur.api.entity.Address;
+import com.epickur.api.entity.Caterer;
+import com.epickur.api.entity.Geo;
+import com.epickur.api.entity.Location;
+import com.epickur.api.entity.times.Hours;
+import com.epickur.api.entity.times.TimeFrame;
+import com.epickur.api.entity.times.WeeklyAvailability;
+import com.epickur.api.entity.times.WorkingTimes;
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+
+import java.util.List;
+
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readDocument;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readInteger;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readList;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readObjectId;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readString;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeInteger;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeList;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeObjectIdAsString;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeString;
+
+/**
+ * Codec to allow MongoDB to Serialize and Deserialize a {@link Caterer}, with its {@link Location} and {@link WorkingTimes}.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public final class CatererCodec extends AbstractMainDBEntityCodec<Caterer> {
+
+	@Override
+	public Class<Caterer> getEncoderClass() {
+		return Caterer.class;
+	}
+
+	@Override
+	protected Caterer newInstance() {
+		return new Caterer();
+	}
+
+	@Override
+	protected void encodeFields(final BsonWriter writer, final Caterer value) {
+		writeString(writer, "name", value.getName());
+		writeString(writer, "description", value.getDescription());
+		writeString(writer, "manager", value.getManager());
+		writeString(writer, "email", value.getEmail());
+		writeString(writer, "phone", value.getPhone());
+		if (value.getLocation() != null) {
+			writer.writeName("location");
+			encodeLocation(writer, value.getLocation());
+		}
+		if (value.getWorkingTimes() != null) {
+			writer.writeName("workingTimes");
+			encodeWorkingTimes(writer, value.getWorkingTimes());
+		}
+		writeObjectIdAsString(writer, "createdBy", value.getCreatedBy());
+	}
+
+	@Override
+	protected boolean decodeField(final BsonReader reader, final String name, final Caterer entity) {
+		switch (name) {
+			case "name":
+				entity.setName(readString(reader));
+				return true;
+			case "description":
+				entity.setDescription(readString(reader));
+				return true;
+			case "manager":
+				entity.setManager(readString(reader));
+				return true;
+			case "email":
+				entity.setEmail(readString(reader));
+				return true;
+			case "phone":
+				entity.setPhone(readString(reader));
+				return true;
+			case "location":
+				entity.setLocation(decodeLocation(reader));
+				return true;
+			case "workingTimes":
+				entity.setWorkingTimes(decodeWorkingTimes(reader));
+				return true;
+			case "createdBy":
+				entity.setCreatedBy(readObjectId(reader));
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	private void encodeLocation(final BsonWriter writer, final Location location) {
+		writer.writeStartDocument();
+		final Address address = location.getAddress();
+		if (address != null) {
+			writer.writeStartDocument("address");
+			writeString(writer, "label", address.getLabel());
+			writeString(writer, "houseNumber", address.getHouseNumber());
+			writeString(writer, "street", address.getStreet());
+			writeString(writer, "city", address.getCity());
+			writeInteger(writer, "postalCode", address.getPostalCode());
+			writeString(writer, "state", address.getState());
+			writeString(writer, "country", address.getCountry());
+			writer.writeEndDocument();
+		}
+		final Geo geo = location.getGeo();
+		if (geo != null) {
+			writer.writeStartDocument("geo");
+			writeString(writer, "type", geo.getType());
+			writer.writeStartArray("coordinates");
+			for (final Double coordinate : geo.getCoordinates()) {
+				writer.writeDouble(coordinate);
+			}
+			writer.writeEndArray();
+			writer.writeEndDocument();
+		}
+		writer.writeEndDocument();
+	}
+
+	private Location decodeLocation(final BsonReader reader) {
+		final Location location = new Location();
+		readDocument(reader, (name, r) -> {
+			if ("address".equals(name)) {
+				location.setAddress(decodeAddress(r));
+				return true;
+			} else if ("geo".equals(name)) {
+				location.setGeo(decodeGeo(r));
+				return true;
+			}
+			return false;
+		});
+		return location;
+	}
+
+	private Address decodeAddress(final BsonReader reader) {
+		final Address address = new Address();
+		readDocument(reader, (name, r) -> {
+			switch (name) {
+				case "label":
+					address.setLabel(readString(r));
+					return true;
+				case "houseNumber":
+					address.setHouseNumber(readString(r));
+					return true;
+				case "street":
+					address.setStreet(readString(r));
+					return true;
+				case "city":
+					address.setCity(readString(r));
+					return true;
+				case "postalCode":
+					address.setPostalCode(readInteger(r));
+					return true;
+				case "state":
+					address.setState(readString(r));
+					return true;
+				case "country":
+					address.setCountry(readString(r));
+					return true;
+				default:
+					return false;
+			}
+		});
+		return address;
+	}
+
+	private Geo decodeGeo(final BsonReader reader) {
+		final Geo geo = new Geo();
+		readDocument(reader, (name, r) -> {
+			if ("coordinates".equals(name)) {
+				final List<Double> coordinates = readList(r, CodecUtils::readDouble);
+				if (coordinates != null) {
+					geo.setCoordinates(coordinates.toArray(new Double[coordinates.size()]));
+				}
+				return true;
+			}
+			// The type is always a Point
+			return false;
+		});
+		return geo;
+	}
+
+	private void encodeWorkingTimes(final BsonWriter writer, final WorkingTimes workingTimes) {
+		writer.writeStartDocument();
+		final Hours hours = workingTimes.getHours();
+		if (hours != null) {
+			writer.writeStartDocument("hours");
+			for (final String day : WeeklyAvailability.DAYS) {
+				writeList(writer, day, hours.get(day), this::encodeTimeFrame);
+			}
+			writer.writeEndDocument();
+		}
+		writer.writeInt32("minimumPreparationTime", workingTimes.getMinimumPreparationTime());
+		writer.writeEndDocument();
+	}
+
+	private void encodeTimeFrame(final BsonWriter writer, final TimeFrame timeFrame) {
+		writer.writeStartDocument();
+		writer.writeInt32("open", timeFrame.getOpen());
+		writer.writeInt32("close", timeFrame.getClose());
+		writer.writeEndDocument();
+	}
+
+	private WorkingTimes decodeWorkingTimes(final BsonReader reader) {
+		final WorkingTimes workingTimes = new WorkingTimes();
+		readDocument(reader, (name, r) -> {
+			if ("hours".equals(name)) {
+				workingTimes.setHours(decodeHours(r));
+				return true;
+			} else if ("minimumPreparationTime".equals(name)) {
+				workingTimes.setMinimumPreparationTime(intValue(readInteger(r)));
+				return true;
+			}
+			return false;
+		});
+		return workingTimes;
+	}
+
+	private Hours decodeHours(final BsonReader reader) {
+		final Hours hours = new Hours();
+		readDocument(reader, (name, r) -> {
+			switch (name) {
+				case "mon":
+					hours.setMon(readList(r, this::decodeTimeFrame));
+					return true;
+				case "tue":
+					hours.setTue(readList(r, this::decodeTimeFrame));
+					return true;
+				case "wed":
+					hours.setWed(readList(r, this::decodeTimeFrame));
+					return true;
+				case "thu":
+					hours.setThu(readList(r, this::decodeTimeFrame));
+					return true;
+				case "fri":
+					hours.setFri(readList(r, this::decodeTimeFrame));
+					return true;
+				case "sat":
+					hours.setSat(readList(r, this::decodeTimeFrame));
+					return true;
+				case "sun":
+					hours.setSun(readList(r, this::decodeTimeFrame));
+					return true;
+				default:
+					return false;
+			}
+		});
+		return hours;
+	}
+
+	private TimeFrame decodeTimeFrame(final BsonReader reader) {
+		// Open and close, the time frame is immutable
+		final int[] values = new int[2];
+		readDocument(reader, (name, r) -> {
+			if ("open".equals(name)) {
+				values[0] = intValue(readInteger(r));
+				return true;
+			} else if ("close".equals(name)) {
+				values[1] = intValue(readInteger(r));
+				return true;
+			}
+			return false;
+		});
+		return new TimeFrame(values[0], values[1]);
+	}
+
+	private static int intValue(final Integer value) {
+		return value == null ? 0 : value;
+	}
+}
@@ -0,0 +1,368 @@
+package com.epickur.api.dao.mongo.codec;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.types.ObjectId;
+import org.joda.time.DateTime;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Helpers shared by the entity codecs. Writers skip null values, the same way Jackson does with {@code JsonInclude.Include.NON_NULL}.
+ * Readers are lenient on the BSON type because documents written through the JSON round trip can store a number as a String,
+ * an Int32 or an Int64.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public final class CodecUtils {
+
+	private CodecUtils() {
+	}
+
+	/**
+	 * @param writer The writer
+	 * @param name   The field name
+	 * @param value  The value
+	 */
+	public static void writeString(final BsonWriter writer, final String name, final String value) {
+		if (value != null) {
+			writer.writeString(name, value);
+		}
+	}
+
+	/**
+	 * @param writer The writer
+	 * @param name   The field name
+	 * @param value  The value
+	 */
+	public static void writeInteger(final BsonWriter writer, final String name, final Integer value) {
+		if (value != null) {
+			writer.writeInt32(name, value);
+		}
+	}
+
+	/**
+	 * @param writer The writer
+	 * @param name   The field name
+	 * @param value  The value
+	 */
+	public static void writeDouble(final BsonWriter writer, final String name, final Double value) {
+		if (value != null) {
+			writer.writeDouble(name, value);
+		}
+	}
+
+	/**
+	 * @param writer The writer
+	 * @param name   The field name
+	 * @param value  The value
+	 */
+	public static void writeBoolean(final BsonWriter writer, final String name, final Boolean value) {
+		if (value != null) {
+			writer.writeBoolean(name, value);
+		}
+	}
+
+	/**
+	 * Dates are stored as a number of milliseconds, like the DateSerializer does.
+	 *
+	 * @param writer The writer
+	 * @param name   The field name
+	 * @param value  The value
+	 */
+	public static void writeDate(final BsonWriter writer, final String name, final DateTime value) {
+		if (value != null) {
+			writer.writeInt64(name, value.getMillis());
+		}
+	}
+
+	/**
+	 * Ids that reference another document are stored as an hexadecimal String, like the ObjectIdSerializer does.
+	 *
+	 * @param writer The writer
+	 * @param name   The field name
+	 * @param value  The value
+	 */
+	public static void writeObjectIdAsString(final BsonWriter writer, final String name, final ObjectId value) {
+		if (value != null) {
+			writer.writeString(name, value.toHexString());
+		}
+	}
+
+	/**
+	 * @param writer    The writer
+	 * @param name      The field name
+	 * @param value     The value
+	 * @param converter The function that gives the stored String, it has to match the Jackson serializer of the enum
+	 * @param <E>       The enum type
+	 */
+	public static <E extends Enum<E>> void writeEnum(final BsonWriter writer, final String name, final E value, final Function<E, String> converter) {
+		if (value != null) {
+			writer.writeString(name, converter.apply(value));
+		}
+	}
+
+	/**
+	 * @param writer  The writer
+	 * @param name    The field name
+	 * @param values  The values
+	 * @param encoder The function that writes one element
+	 * @param <E>     The element type
+	 */
+	public static <E> void writeList(final BsonWriter writer, final String name, final List<E> values, final BiConsumer<BsonWriter, E> encoder) {
+		if (values != null) {
+			writer.writeStartArray(name);
+			for (final E value : values) {
+				if (value == null) {
+					writer.writeNull();
+				} else {
+					encoder.accept(writer, value);
+				}
+			}
+			writer.writeEndArray();
+		}
+	}
+
+	/**
+	 * @param writer The writer
+	 * @param name   The field name
+	 * @param values The values
+	 */
+	public static void writeStringList(final BsonWriter writer, final String name, final List<String> values) {
+		writeList(writer, name, values, BsonWriter::writeString);
+	}
+
+	/**
+	 * @param writer The writer
+	 * @param name   The field name
+	 * @param values The values
+	 */
+	public static void writeStringMap(final BsonWriter writer, final String name, final Map<String, String> values) {
+		if (values != null) {
+			writer.writeStartDocument(name);
+			values.forEach((key, value) -> {
+				if (value == null) {
+					writer.writeNull(key);
+				} else {
+					writer.writeString(key, value);
+				}
+			});
+			writer.writeEndDocument();
+		}
+	}
+
+	/**
+	 * @param reader The reader positioned on a value
+	 * @return The value as a String, or null
+	 */
+	public static String readString(final BsonReader reader) {
+		switch (reader.getCurrentBsonType()) {
+			case STRING:
+				return reader.readString();
+			case SYMBOL:
+				return reader.readSymbol();
+			case OBJECT_ID:
+				return reader.readObjectId().toHexString();
+			case INT32:
+				return String.valueOf(reader.readInt32());
+			case INT64:
+				return String.valueOf(reader.readInt64());
+			case DOUBLE:
+				return String.valueOf(reader.readDouble());
+			case BOOLEAN:
+				return String.valueOf(reader.readBoolean());
+			default:
+				reader.skipValue();
+				return null;
+		}
+	}
+
+	/**
+	 * @param reader The reader positioned on a value
+	 * @return The value as an Integer, or null
+	 */
+	public static Integer readInteger(final BsonReader reader) {
+		final Long value = readLong(reader);
+		return value == null ? null : value.intValue();
+	}
+
+	/**
+	 * @param reader The reader positioned on a value
+	 * @return The value as a Long, or null
+	 */
+	public static Long readLong(final BsonReader reader) {
+		switch (reader.getCurrentBsonType()) {
+			case INT32:
+				return (long) reader.readInt32();
+			case INT64:
+				return reader.readInt64();
+			case DOUBLE:
+				return (long) reader.readDouble();
+			case DATE_TIME:
+				return reader.readDateTime();
+			case STRING:
+				final String value = reader.readString();
+				return NumberUtils.isCreatable(value) ? NumberUtils.createNumber(value).longValue() : null;
+			default:
+				reader.skipValue();
+				return null;
+		}
+	}
+
+	/**
+	 * @param reader The reader positioned on a value
+	 * @return The value as a Double, or null
+	 */
+	public static Double readDouble(final BsonReader reader) {
+		switch (reader.getCurrentBsonType()) {
+			case DOUBLE:
+				return reader.readDouble();
+			case INT32:
+				return (double) reader.readInt32();
+			case INT64:
+				return (double) reader.readInt64();
+			case STRING:
+				final String value = reader.readString();
+				return NumberUtils.isCreatable(value) ? NumberUtils.createDouble(value) : null;
+			default:
+				reader.skipValue();
+				return null;
+		}
+	}
+
+	/**
+	 * @param reader The reader positioned on a value
+	 * @return The value as a Boolean, or null
+	 */
+	public static Boolean readBoolean(final BsonReader reader) {
+		switch (reader.getCurrentBsonType()) {
+			case BOOLEAN:
+				return reader.readBoolean();
+			case STRING:
+				return Boolean.valueOf(reader.readString());
+			default:
+				reader.skipValue();
+				return null;
+		}
+	}
+
+	/**
+	 * @param reader The reader positioned on a value
+	 * @return The value as a DateTime, or null
+	 */
+	public static DateTime readDate(final BsonReader reader) {
+		final Long millis = readLong(reader);
+		return millis == null ? null : new DateTime(millis);
+	}
+
+	/**
+	 * @param reader The reader positioned on a value
+	 * @return The value as an ObjectId, or null
+	 */
+	public static ObjectId readObjectId(final BsonReader reader) {
+		if (reader.getCurrentBsonType() == BsonType.OBJECT_ID) {
+			return reader.readObjectId();
+		}
+		final String value = readString(reader);
+		return value == null ? null : new ObjectId(value);
+	}
+
+	/**
+	 * @param reader The reader positioned on a value
+	 * @param parser The function that converts the stored String to the enum
+	 * @param <E>    The enum type
+	 * @return The enum, or null
+	 */
+	public static <E extends Enum<E>> E readEnum(final BsonReader reader, final Function<String, E> parser) {
+		final String value = readString(reader);
+		return value == null ? null : parser.apply(value);
+	}
+
+	/**
+	 * @param reader  The reader positioned on an array
+	 * @param decoder The function that reads one element
+	 * @param <E>     The element type
+	 * @return The list, or null
+	 */
+	public static <E> List<E> readList(final BsonReader reader, final Function<BsonReader, E> decoder) {
+		if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+			reader.skipValue();
+			return null;
+		}
+		final List<E> values = new ArrayList<>();
+		reader.readStartArray();
+		while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+			if (reader.getCurrentBsonType() == BsonType.NULL) {
+				reader.readNull();
+				values.add(null);
+			} else {
+				values.add(decoder.apply(reader));
+			}
+		}
+		reader.readEndArray();
+		return values;
+	}
+
+	/**
+	 * @param reader The reader positioned on an array
+	 * @return The list, or null
+	 */
+	public static List<String> readStringList(final BsonReader reader) {
+		return readList(reader, CodecUtils::readString);
+	}
+
+	/**
+	 * @param reader The reader positioned on a document
+	 * @return The map, or null
+	 */
+	public static Map<String, String> readStringMap(final BsonReader reader) {
+		final Map<String, String> values = new HashMap<>();
+		readDocument(reader, (name, r) -> {
+			values.put(name, readString(r));
+			return true;
+		});
+		return values;
+	}
+
+	/**
+	 * Iterate over the fields of an embedded or top level document. Null values are consumed here and never passed to the field reader. When
+	 * the field reader does not know the field, its value is skipped.
+	 *
+	 * @param reader      The reader positioned on a document
+	 * @param fieldReader The function called for each field. Returns false if the field is unknown.
+	 */
+	public static void readDocument(final BsonReader reader, final FieldReader fieldReader) {
+		reader.readStartDocument();
+		while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+			final String name = reader.readName();
+			if (reader.getCurrentBsonType() == BsonType.NULL) {
+				reader.readNull();
+			} else if (!fieldReader.read(name, reader)) {
+				reader.skipValue();
+			}
+		}
+		reader.readEndDocument();
+	}
+
+	/**
+	 * Read one field of a document.
+	 */
+	@FunctionalInterface
+	public interface FieldReader {
+
+		/**
+		 * @param name   The field name
+		 * @param reader The reader positioned on the field value
+		 * @return true if the value has been read, false if it must be skipped
+		 */
+		boolean read(final String name, final BsonReader reader);
+	}
+}
@@ -0,0 +1,186 @@
+package com.epickur.api.dao.mongo.codec;
+
+import com.epickur.api.entity.Dish;
+import com.epickur.api.entity.Ingredient;
+import com.epickur.api.entity.NutritionFact;
+import com.epickur.api.enumeration.DishType;
+import com.epickur.api.enumeration.MeasurementUnit;
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readDocument;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readDouble;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readEnum;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readInteger;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readList;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readObjectId;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readString;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readStringList;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeDouble;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeEnum;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeInteger;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeList;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeObjectIdAsString;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeString;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeStringList;
+
+/**
+ * Codec to allow MongoDB to Serialize and Deserialize a {@link Dish}. The {@link com.epickur.api.entity.Caterer} is embedded.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public final class DishCodec extends AbstractMainDBEntityCodec<Dish> {
+
+	/**
+	 * Codec of the embedded caterer
+	 */
+	private final CatererCodec catererCodec = new CatererCodec();
+
+	@Override
+	public Class<Dish> getEncoderClass() {
+		return Dish.class;
+	}
+
+	@Override
+	protected Dish newInstance() {
+		return new Dish();
+	}
+
+	@Override
+	protected void encodeFields(final BsonWriter writer, final Dish value) {
+		writeString(writer, "name", value.getName());
+		writeString(writer, "description", value.getDescription());
+		writeEnum(writer, "type", value.getType(), DishType::toString);
+		writeInteger(writer, "price", value.getPrice());
+		writeInteger(writer, "cookingTime", value.getCookingTime());
+		writeInteger(writer, "difficultyLevel", value.getDifficultyLevel());
+		writeString(writer, "imageAfterUrl", value.getImageAfterUrl());
+		writeString(writer, "videoUrl", value.getVideoUrl());
+		writeList(writer, "nutritionFacts", value.getNutritionFacts(), this::encodeNutritionFact);
+		writeList(writer, "ingredients", value.getIngredients(), this::encodeIngredient);
+		writeStringList(writer, "steps", value.getSteps());
+		writeStringList(writer, "condiments", value.getCondiments());
+		writeStringList(writer, "utensils", value.getUtensils());
+		if (value.getCaterer() != null) {
+			writer.writeName("caterer");
+			catererCodec.encodeEmbedded(writer, value.getCaterer());
+		}
+		writeObjectIdAsString(writer, "createdBy", value.getCreatedBy());
+	}
+
+	@Override
+	protected boolean decodeField(final BsonReader reader, final String name, final Dish entity) {
+		switch (name) {
+			case "name":
+				entity.setName(readString(reader));
+				return true;
+			case "description":
+				entity.setDescription(readString(reader));
+				return true;
+			case "type":
+				entity.setType(readEnum(reader, DishType::fromString));
+				return true;
+			case "price":
+				entity.setPrice(readInteger(reader));
+				return true;
+			case "cookingTime":
+				entity.setCookingTime(readInteger(reader));
+				return true;
+			case "difficultyLevel":
+				entity.setDifficultyLevel(readInteger(reader));
+				return true;
+			case "imageAfterUrl":
+				entity.setImageAfterUrl(readString(reader));
+				return true;
+			case "videoUrl":
+				entity.setVideoUrl(readString(reader));
+				return true;
+			case "nutritionFacts":
+				entity.setNutritionFacts(readList(reader, this::decodeNutritionFact));
+				return true;
+			case "ingredients":
+				entity.setIngredients(readList(reader, this::decodeIngredient));
+				return true;
+			case "steps":
+				entity.setSteps(readStringList(reader));
+				return true;
+			case "condiments":
+				entity.setCondiments(readStringList(reader));
+				return true;
+			case "utensils":
+				entity.setUtensils(readStringList(reader));
+				return true;
+			case "caterer":
+				entity.setCaterer(catererCodec.decodeEmbedded(reader));
+				return true;
+			case "createdBy":
+				entity.setCreatedBy(readObjectId(reader));
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	private void encodeNutritionFact(final BsonWriter writer, final NutritionFact nutritionFact) {
+		writer.writeStartDocument();
+		writeString(writer, "name", nutritionFact.getName());
+		writeDouble(writer, "value", nutritionFact.getValue());
+		writeEnum(writer, "unit", nutritionFact.getUnit(), MeasurementUnit::name);
+		writer.writeEndDocument();
+	}
+
+	private NutritionFact decodeNutritionFact(final BsonReader reader) {
+		final NutritionFact nutritionFact = new NutritionFact();
+		readDocument(reader, (name, r) -> {
+			switch (name) {
+				case "name":
+					nutritionFact.setName(readString(r));
+					return true;
+				case "value":
+					nutritionFact.setValue(readDouble(r));
+					return true;
+				case "unit":
+					nutritionFact.setUnit(readEnum(r, MeasurementUnit::valueOf));
+					return true;
+				default:
+					return false;
+			}
+		});
+		return nutritionFact;
+	}
+
+	private void encodeIngredient(final BsonWriter writer, final Ingredient ingredient) {
+		writer.writeStartDocument();
+		writeString(writer, "name", ingredient.getName());
+		writer.writeInt32("sequence", ingredient.getSequence());
+		writer.writeDouble("quantity", ingredient.getQuantity());
+		writeEnum(writer, "measurementUnit", ingredient.getMeasurementUnit(), MeasurementUnit::name);
+		writer.writeEndDocument();
+	}
+
+	private Ingredient decodeIngredient(final BsonReader reader) {
+		final Ingredient ingredient = new Ingredient();
+		readDocument(reader, (name, r) -> {
+			switch (name) {
+				case "name":
+					ingredient.setName(readString(r));
+					return true;
+				case "sequence":
+					final Integer sequence = readInteger(r);
+					ingredient.setSequence(sequence == null ? 0 : sequence);
+					return true;
+				case "quantity":
+					final Double quantity = readDouble(r);
+					ingredient.setQuantity(quantity == null ? 0 : quantity);
+					return true;
+				case "measurementUnit":
+					ingredient.setMeasurementUnit(readEnum(r, MeasurementUnit::valueOf));
+					return true;
+				default:
+					return false;
+			}
+		});
+		return ingredient;
+	}
+}
@@ -0,0 +1,84 @@
+package com.epickur.api.dao.mongo.codec;
+
+import com.epickur.api.entity.EmailMessage;
+import com.epickur.api.enumeration.EmailStatus;
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readDate;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readEnum;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readInteger;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readString;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readStringList;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeDate;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeEnum;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeInteger;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeString;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeStringList;
+
+/**
+ * Codec to allow MongoDB to Serialize and Deserialize an {@link EmailMessage}.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public final class EmailMessageCodec extends AbstractMainDBEntityCodec<EmailMessage> {
+
+	@Override
+	public Class<EmailMessage> getEncoderClass() {
+		return EmailMessage.class;
+	}
+
+	@Override
+	protected EmailMessage newInstance() {
+		return new EmailMessage();
+	}
+
+	@Override
+	protected void encodeFields(final BsonWriter writer, final EmailMessage value) {
+		writeString(writer, "type", value.getType());
+		writeString(writer, "subject", value.getSubject());
+		writeString(writer, "content", value.getContent());
+		writeStringList(writer, "to", value.getTo());
+		writeEnum(writer, "status", value.getStatus(), EmailStatus::getType);
+		writeInteger(writer, "attempts", value.getAttempts());
+		writeDate(writer, "nextAttemptAt", value.getNextAttemptAt());
+		writeDate(writer, "lockedUntil", value.getLockedUntil());
+		writeString(writer, "lastError", value.getLastError());
+	}
+
+	@Override
+	protected boolean decodeField(final BsonReader reader, final String name, final EmailMessage entity) {
+		switch (name) {
+			case "type":
+				entity.setType(readString(reader));
+				return true;
+			case "subject":
+				entity.setSubject(readString(reader));
+				return true;
+			case "content":
+				entity.setContent(readString(reader));
+				return true;
+			case "to":
+				entity.setTo(readStringList(reader));
+				return true;
+			case "status":
+				entity.setStatus(readEnum(reader, EmailStatus::fromString));
+				return true;
+			case "attempts":
+				entity.setAttempts(readInteger(reader));
+				return true;
+			case "nextAttemptAt":
+				entity.setNextAttemptAt(readDate(reader));
+				return true;
+			case "lockedUntil":
+				entity.setLockedUntil(readDate(reader));
+				return true;
+			case "lastError":
+				entity.setLastError(readString(reader));
+				return true;
+			default:
+				return false;
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package com.epickur.api.dao.mongo.codec;
+
+import com.epickur.api.entity.Key;
+import com.epickur.api.enumeration.Role;
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readEnum;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readObjectId;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readString;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeEnum;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeObjectIdAsString;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeString;
+
+/**
+ * Codec to allow MongoDB to Serialize and Deserialize a {@link Key}.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public final class KeyCodec extends AbstractMainDBEntityCodec<Key> {
+
+	@Override
+	public Class<Key> getEncoderClass() {
+		return Key.class;
+	}
+
+	@Override
+	protected Key newInstance() {
+		return new Key();
+	}
+
+	@Override
+	protected void encodeFields(final BsonWriter writer, final Key value) {
+		writeString(writer, "key", value.getKey());
+		writeObjectIdAsString(writer, "userId", value.getUserId());
+		writeEnum(writer, "role", value.getRole(), role -> role.toString().toLowerCase());
+	}
+
+	@Override
+	protected boolean decodeField(final BsonReader reader, final String name, final Key entity) {
+		switch (name) {
+			case "key":
+				entity.setKey(readString(reader));
+				return true;
+			case "userId":
+				entity.setUserId(readObjectId(reader));
+				return true;
+			case "role":
+				entity.setRole(readEnum(reader, Role::getEnum));
+				return true;
+			default:
+				return false;
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package com.epickur.api.dao.mongo.codec;
+
+import com.epickur.api.entity.Log;
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readDate;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readString;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readStringMap;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeDate;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeString;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeStringMap;
+
+/**
+ * Codec to allow MongoDB to Serialize and Deserialize a {@link Log}.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public final class LogCodec extends AbstractMainDBEntityCodec<Log> {
+
+	@Override
+	public Class<Log> getEncoderClass() {
+		return Log.class;
+	}
+
+	@Override
+	protected Log newInstance() {
+		return new Log();
+	}
+
+	@Override
+	protected void encodeFields(final BsonWriter writer, final Log value) {
+		writeDate(writer, "time", value.getTime());
+		writeString(writer, "url", value.getUrl());
+		writeStringMap(writer, "args", value.getArgs());
+		writeString(writer, "method", value.getMethod());
+		writeString(writer, "protocol", value.getProtocol());
+		writeString(writer, "remoteAddr", value.getRemoteAddr());
+		writeString(writer, "userAgent", value.getUserAgent());
+	}
+
+	@Override
+	protected boolean decodeField(final BsonReader reader, final String name, final Log entity) {
+		switch (name) {
+			case "time":
+				entity.setTime(readDate(reader));
+				return true;
+			case "url":
+				entity.setUrl(readString(reader));
+				return true;
+			case "args":
+				entity.setArgs(readStringMap(reader));
+				return true;
+			case "method":
+				entity.setMethod(readString(reader));
+				return true;
+			case "protocol":
+				entity.setProtocol(readString(reader));
+				return true;
+			case "remoteAddr":
+				entity.setRemoteAddr(readString(reader));
+				return true;
+			case "userAgent":
+				entity.setUserAgent(readString(reader));
+				return true;
+			default:
+				return false;
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package com.epickur.api.dao.mongo.codec;
+
+import com.epickur.api.entity.Order;
+import com.epickur.api.enumeration.Currency;
+import com.epickur.api.enumeration.OrderMode;
+import com.epickur.api.enumeration.OrderStatus;
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readBoolean;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readDate;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readEnum;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readInteger;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readObjectId;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readString;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeBoolean;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeDate;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeEnum;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeInteger;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeObjectIdAsString;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeString;
+
+/**
+ * Codec to allow MongoDB to Serialize and Deserialize an {@link Order}. The {@link com.epickur.api.entity.Dish} and the
+ * {@link com.epickur.api.entity.Voucher} are embedded.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public final class OrderCodec extends AbstractMainDBEntityCodec<Order> {
+
+	/**
+	 * Codec of the embedded dish
+	 */
+	private final DishCodec dishCodec = new DishCodec();
+	/**
+	 * Codec of the embedded voucher
+	 */
+	private final VoucherCodec voucherCodec = new VoucherCodec();
+
+	@Override
+	public Class<Order> getEncoderClass() {
+		return Order.class;
+	}
+
+	@Override
+	protected Order newInstance() {
+		return new Order();
+	}
+
+	@Override
+	protected void encodeFields(final BsonWriter writer, final Order value) {
+		writeString(writer, "readableId", value.getReadableId());
+		writeString(writer, "description", value.getDescription());
+		writeInteger(writer, "quantity", value.getQuantity());
+		writeInteger(writer, "amount", value.getAmount());
+		writeEnum(writer, "status", value.getStatus(), OrderStatus::toString);
+		writeEnum(writer, "currency", value.getCurrency(), Currency::name);
+		writeString(writer, "pickupdate", value.getPickupdate());
+		writeString(writer, "cardToken", value.getCardToken());
+		writeString(writer, "chargeId", value.getChargeId());
+		writeBoolean(writer, "paid", value.getPaid());
+		if (value.getDish() != null) {
+			writer.writeName("dish");
+			dishCodec.encodeEmbedded(writer, value.getDish());
+		}
+		if (value.getVoucher() != null) {
+			writer.writeName("voucher");
+			voucherCodec.encodeEmbedded(writer, value.getVoucher());
+		}
+		writeEnum(writer, "mode", value.getMode(), OrderMode::name);
+		writeDate(writer, "expiresAt", value.getExpiresAt());
+		writeBoolean(writer, "voucherReverted", value.getVoucherReverted());
+		writeObjectIdAsString(writer, "createdBy", value.getCreatedBy());
+	}
+
+	@Override
+	protected boolean decodeField(final BsonReader reader, final String name, final Order entity) {
+		switch (name) {
+			case "readableId":
+				entity.setReadableId(readString(reader));
+				return true;
+			case "description":
+				entity.setDescription(readString(reader));
+				return true;
+			case "quantity":
+				entity.setQuantity(readInteger(reader));
+				return true;
+			case "amount":
+				entity.setAmount(readInteger(reader));
+				return true;
+			case "status":
+				entity.setStatus(readEnum(reader, OrderStatus::fromString));
+				return true;
+			case "currency":
+				entity.setCurrency(readEnum(reader, Currency::valueOf));
+				return true;
+			case "pickupdate":
+				entity.setPickupdate(readString(reader));
+				return true;
+			case "cardToken":
+				entity.setCardToken(readString(reader));
+				return true;
+			case "chargeId":
+				entity.setChargeId(readString(reader));
+				return true;
+			case "paid":
+				entity.setPaid(readBoolean(reader));
+				return true;
+			case "dish":
+				entity.setDish(dishCodec.decodeEmbedded(reader));
+				return true;
+			case "voucher":
+				entity.setVoucher(voucherCodec.decodeEmbedded(reader));
+				return true;
+			case "mode":
+				entity.setMode(readEnum(reader, OrderMode::valueOf));
+				return true;
+			case "expiresAt":
+				entity.setExpiresAt(readDate(reader));
+				return true;
+			case "voucherReverted":
+				entity.setVoucherReverted(readBoolean(reader));
+				return true;
+			case "createdBy":
+				entity.setCreatedBy(readObjectId(reader));
+				return true;
+			default:
+				return false;
+		}
+	}
+}
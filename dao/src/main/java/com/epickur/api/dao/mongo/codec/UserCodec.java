@@ -0,0 +1,127 @@
+package com.epickur.api.dao.mongo.codec;
+
+import com.epickur.api.entity.User;
+import com.epickur.api.enumeration.Role;
+import com.google.i18n.phonenumbers.Phonenumber.PhoneNumber;
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readDocument;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readEnum;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readInteger;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readLong;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readString;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeEnum;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeInteger;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeString;
+
+/**
+ * Codec to allow MongoDB to Serialize and Deserialize a {@link User}.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public final class UserCodec extends AbstractMainDBEntityCodec<User> {
+
+	@Override
+	public Class<User> getEncoderClass() {
+		return User.class;
+	}
+
+	@Override
+	protected User newInstance() {
+		return new User();
+	}
+
+	@Override
+	protected void encodeFields(final BsonWriter writer, final User value) {
+		writeString(writer, "name", value.getName());
+		writeString(writer, "first", value.getFirst());
+		writeString(writer, "last", value.getLast());
+		writeString(writer, "password", value.getPassword());
+		writeString(writer, "email", value.getEmail());
+		writeEnum(writer, "role", value.getRole(), role -> role.toString().toLowerCase());
+		if (value.getPhoneNumber() != null) {
+			writer.writeStartDocument("phoneNumber");
+			writer.writeInt64("nationalNumber", value.getPhoneNumber().getNationalNumber());
+			writer.writeInt32("countryCode", value.getPhoneNumber().getCountryCode());
+			writer.writeEndDocument();
+		}
+		writeString(writer, "zipcode", value.getZipcode());
+		writeString(writer, "state", value.getState());
+		writeString(writer, "country", value.getCountry());
+		writeInteger(writer, "allow", value.getAllow());
+		writeString(writer, "key", value.getKey());
+		writeString(writer, "newPassword", value.getNewPassword());
+	}
+
+	@Override
+	protected boolean decodeField(final BsonReader reader, final String name, final User entity) {
+		switch (name) {
+			case "name":
+				entity.setName(readString(reader));
+				return true;
+			case "first":
+				entity.setFirst(readString(reader));
+				return true;
+			case "last":
+				entity.setLast(readString(reader));
+				return true;
+			case "password":
+				entity.setPassword(readString(reader));
+				return true;
+			case "email":
+				entity.setEmail(readString(reader));
+				return true;
+			case "role":
+				entity.setRole(readEnum(reader, Role::getEnum));
+				return true;
+			case "phoneNumber":
+				entity.setPhoneNumber(decodePhoneNumber(reader));
+				return true;
+			case "zipcode":
+				entity.setZipcode(readString(reader));
+				return true;
+			case "state":
+				entity.setState(readString(reader));
+				return true;
+			case "country":
+				entity.setCountry(readString(reader));
+				return true;
+			case "allow":
+				entity.setAllow(readInteger(reader));
+				return true;
+			case "key":
+				entity.setKey(readString(reader));
+				return true;
+			case "newPassword":
+				entity.setNewPassword(readString(reader));
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	private PhoneNumber decodePhoneNumber(final BsonReader reader) {
+		final PhoneNumber phoneNumber = new PhoneNumber();
+		final boolean[] hasNationalNumber = { false };
+		readDocument(reader, (name, r) -> {
+			if ("nationalNumber".equals(name)) {
+				final Long nationalNumber = readLong(r);
+				if (nationalNumber != null) {
+					phoneNumber.setNationalNumber(nationalNumber);
+					hasNationalNumber[0] = true;
+				}
+				return true;
+			} else if ("countryCode".equals(name)) {
+				final Integer countryCode = readInteger(r);
+				if (countryCode != null) {
+					phoneNumber.setCountryCode(countryCode);
+				}
+				return true;
+			}
+			return false;
+		});
+		return hasNationalNumber[0] ? phoneNumber : null;
+	}
+}
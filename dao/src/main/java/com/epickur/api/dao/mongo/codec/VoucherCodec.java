@@ -0,0 +1,76 @@
+package com.epickur.api.dao.mongo.codec;
+
+import com.epickur.api.entity.Voucher;
+import com.epickur.api.enumeration.voucher.DiscountType;
+import com.epickur.api.enumeration.voucher.ExpirationType;
+import com.epickur.api.enumeration.voucher.Status;
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readDate;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readEnum;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readInteger;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.readString;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeDate;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeEnum;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeInteger;
+import static com.epickur.api.dao.mongo.codec.CodecUtils.writeString;
+
+/**
+ * Codec to allow MongoDB to Serialize and Deserialize a {@link Voucher}.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public final class VoucherCodec extends AbstractMainDBEntityCodec<Voucher> {
+
+	@Override
+	public Class<Voucher> getEncoderClass() {
+		return Voucher.class;
+	}
+
+	@Override
+	protected Voucher newInstance() {
+		return new Voucher();
+	}
+
+	@Override
+	protected void encodeFields(final BsonWriter writer, final Voucher value) {
+		writeString(writer, "code", value.getCode());
+		writeInteger(writer, "discount", value.getDiscount());
+		writeEnum(writer, "discountType", value.getDiscountType(), DiscountType::toString);
+		writeEnum(writer, "expirationType", value.getExpirationType(), ExpirationType::toString);
+		writeDate(writer, "expiration", value.getExpiration());
+		writeEnum(writer, "status", value.getStatus(), Status::toString);
+		writeInteger(writer, "usedCount", value.getUsedCount());
+	}
+
+	@Override
+	protected boolean decodeField(final BsonReader reader, final String name, final Voucher entity) {
+		switch (name) {
+			case "code":
+				entity.setCode(readString(reader));
+				return true;
+			case "discount":
+				entity.setDiscount(readInteger(reader));
+				return true;
+			case "discountType":
+				entity.setDiscountType(readEnum(reader, DiscountType::fromString));
+				return true;
+			case "expirationType":
+				entity.setExpirationType(readEnum(reader, ExpirationType::fromString));
+				return true;
+			case "expiration":
+				entity.setExpiration(readDate(reader));
+				return true;
+			case "status":
+				entity.setStatus(readEnum(reader, Status::fromString));
+				return true;
+			case "usedCount":
+				entity.setUsedCount(readInteger(reader));
+				return true;
+			default:
+				return false;
+		}
+	}
+}
@@ -44,15 +44,18 @@ public class CatererDAOTest {
 	@Mock
 	private MongoCollection<Document> collection;
 	@Mock
-	private FindIterable<Document> findIterable;
+	private MongoCollection<Caterer> entityCollection;
 	@Mock
-	private MongoCursor<Document> cursor;
+	private FindIterable<Caterer> findIterable;
+	@Mock
+	private MongoCursor<Caterer> cursor;
 	@InjectMocks
 	private CatererDAO dao;
 
 	@Before
 	public void setUp() throws Exception {
 		given(db.getCollection(CATERER_COLL)).willReturn(collection);
+		given(collection.withDocumentClass(Caterer.class)).willReturn(entityCollection);
 		dao.initCollection();
 	}
 
@@ -60,14 +63,14 @@ public class CatererDAOTest {
 	public void testCreate() throws EpickurException {
 		// Given
 		Caterer caterer = EntityGenerator.generateRandomCatererWithoutId();
-		Document document = caterer.getDocumentDBView();
+		Caterer document = caterer;
 
 		// When
 		Caterer actual = dao.create(caterer);
 
 		// Then
 		assertNotNull(actual);
-		then(collection).should().insertOne(document);
+		then(entityCollection).should().insertOne(document);
 	}
 
 	@Test
@@ -77,8 +80,8 @@ public class CatererDAOTest {
 
 		// Given
 		Caterer caterer = EntityGenerator.generateRandomCatererWithoutId();
-		Document document = caterer.getDocumentDBView();
-		willThrow(new MongoException("")).given(collection).insertOne(document);
+		Caterer document = caterer;
+		willThrow(new MongoException("")).given(entityCollection).insertOne(document);
 
 		// When
 		Caterer actual = dao.create(caterer);
@@ -89,8 +92,8 @@ public class CatererDAOTest {
 		// Given
 		String catererId = new ObjectId().toHexString();
 		Document query = new Document().append("_id", new ObjectId(catererId));
-		Document found = EntityGenerator.generateRandomCatererWithId().getDocumentDBView();
-		given(collection.find(query)).willReturn(findIterable);
+		Caterer found = EntityGenerator.generateRandomCatererWithId();
+		given(entityCollection.find(query)).willReturn(findIterable);
 		given(findIterable.first()).willReturn(found);
 
 		// When
@@ -98,7 +101,7 @@ public class CatererDAOTest {
 
 		// Then
 		assertTrue(actual.isPresent());
-		then(collection).should().find(query);
+		then(entityCollection).should().find(query);
 	}
 
 	@Test
@@ -109,7 +112,7 @@ public class CatererDAOTest {
 		// Given
 		String catererId = new ObjectId().toHexString();
 		Document query = new Document().append("_id", new ObjectId(catererId));
-		given(collection.find(query)).willThrow(new MongoException(""));
+		given(entityCollection.find(query)).willThrow(new MongoException(""));
 
 		// When
 		dao.read(catererId);
@@ -130,8 +133,8 @@ public class CatererDAOTest {
 	@Test
 	public void testReadAll() throws EpickurException {
 		// Given
-		Document found = EntityGenerator.generateRandomCatererWithId().getDocumentDBView();
-		given(collection.find()).willReturn(findIterable);
+		Caterer found = EntityGenerator.generateRandomCatererWithId();
+		given(entityCollection.find(new Document())).willReturn(findIterable);
 		given(findIterable.iterator()).willReturn(cursor);
 		given(cursor.hasNext()).willReturn(true, false);
 		given(cursor.next()).willReturn(found);
@@ -142,7 +145,7 @@ public class CatererDAOTest {
 		// Then
 		assertNotNull(actual);
 		assertEquals(1, actual.size());
-		then(collection).should().find();
+		then(entityCollection).should().find(new Document());
 		then(cursor).should().close();
 	}
 
@@ -152,7 +155,7 @@ public class CatererDAOTest {
 		thrown.expect(EpickurDBException.class);
 
 		// Given
-		given(collection.find()).willThrow(new MongoException(""));
+		given(entityCollection.find(new Document())).willThrow(new MongoException(""));
 
 		// When
 		dao.readAll();
@@ -162,29 +165,29 @@ public class CatererDAOTest {
 	public void testUpdate() throws EpickurException {
 		// Given
 		Caterer caterer = EntityGenerator.generateRandomCatererWithId();
-		Document document = caterer.getDocumentDBView();
-		given(collection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willReturn(document);
+		Caterer document = caterer;
+		given(entityCollection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willReturn(document);
 
 		// When
 		Caterer actual = dao.update(caterer);
 
 		// Then
 		assertNotNull(actual);
-		then(collection).should().findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class));
+		then(entityCollection).should().findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class));
 	}
 
 	@Test
 	public void testUpdateNotFound() throws Exception {
 		// Given
 		Caterer caterer = EntityGenerator.generateRandomCatererWithId();
-		given(collection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willReturn(null);
+		given(entityCollection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willReturn(null);
 
 		// When
 		Caterer actual = dao.update(caterer);
 
 		// Then
 		assertNull(actual);
-		then(collection).should().findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class));
+		then(entityCollection).should().findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class));
 	}
 
 	@Test
@@ -194,7 +197,7 @@ public class CatererDAOTest {
 
 		// Given
 		Caterer caterer = EntityGenerator.generateRandomCatererWithId();
-		given(collection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willThrow(new MongoException(""));
+		given(entityCollection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willThrow(new MongoException(""));
 
 		// When
 		dao.update(caterer);
@@ -15,6 +15,7 @@ import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.FindOneAndUpdateOptions;
+import org.bson.BsonInt32;
 import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.junit.Before;
@@ -48,15 +49,18 @@ public class DishDAOTest {
 	@Mock
 	private MongoCollection<Document> collection;
 	@Mock
-	private FindIterable<Document> findIteratble;
+	private MongoCollection<Dish> entityCollection;
 	@Mock
-	private MongoCursor<Document> cursor;
+	private FindIterable<Dish> findIteratble;
+	@Mock
+	private MongoCursor<Dish> cursor;
 	@InjectMocks
 	private DishDAO dao;
 
 	@Before
 	public void setUp() throws Exception {
 		given(db.getCollection(DISH_COLL)).willReturn(collection);
+		given(collection.withDocumentClass(Dish.class)).willReturn(entityCollection);
 		dao.initCollection();
 	}
 
@@ -64,14 +68,14 @@ public class DishDAOTest {
 	public void testCreate() throws EpickurException {
 		// Given
 		Dish dish = EntityGenerator.generateRandomDish();
-		Document document = dish.getDocumentDBView();
+		Dish document = dish;
 
 		// When
 		Dish actual = dao.create(dish);
 
 		// Then
 		assertNotNull(actual);
-		then(collection).should().insertOne(document);
+		then(entityCollection).should().insertOne(document);
 	}
 
 	@Test
@@ -81,8 +85,8 @@ public class DishDAOTest {
 
 		// Given
 		Dish dish = EntityGenerator.generateRandomDish();
-		Document document = dish.getDocumentDBView();
-		willThrow(new MongoException("")).given(collection).insertOne(document);
+		Dish document = dish;
+		willThrow(new MongoException("")).given(entityCollection).insertOne(document);
 
 		// When
 		dao.create(dish);
@@ -93,8 +97,8 @@ public class DishDAOTest {
 		// Given
 		String dishId = new ObjectId().toHexString();
 		Document query = new Document().append("_id", new ObjectId(dishId));
-		Document found = EntityGenerator.generateRandomDish().getDocumentDBView();
-		given(collection.find(query)).willReturn(findIteratble);
+		Dish found = EntityGenerator.generateRandomDish();
+		given(entityCollection.find(query)).willReturn(findIteratble);
 		given(findIteratble.first()).willReturn(found);
 
 		// When
@@ -102,7 +106,7 @@ public class DishDAOTest {
 
 		// Then
 		assertTrue(actual.isPresent());
-		then(collection).should().find(query);
+		then(entityCollection).should().find(query);
 	}
 
 	@Test
@@ -113,7 +117,7 @@ public class DishDAOTest {
 		// Given
 		String dishId = new ObjectId().toHexString();
 		Document query = new Document().append("_id", new ObjectId(dishId));
-		given(collection.find(query)).willThrow(new MongoException(""));
+		given(entityCollection.find(query)).willThrow(new MongoException(""));
 
 		// When
 		dao.read(dishId);
@@ -134,8 +138,8 @@ public class DishDAOTest {
 	@Test
 	public void testReadAll() throws EpickurException {
 		// Given
-		Document found = EntityGenerator.generateRandomDish().getDocumentDBView();
-		given(collection.find()).willReturn(findIteratble);
+		Dish found = EntityGenerator.generateRandomDish();
+		given(entityCollection.find(new Document())).willReturn(findIteratble);
 		given(findIteratble.iterator()).willReturn(cursor);
 		given(cursor.hasNext()).willReturn(true, false);
 		given(cursor.next()).willReturn(found);
@@ -146,7 +150,7 @@ public class DishDAOTest {
 		// Then
 		assertNotNull(actual);
 		assertEquals(1, actual.size());
-		then(collection).should().find();
+		then(entityCollection).should().find(new Document());
 		then(cursor).should().close();
 	}
 
@@ -156,7 +160,7 @@ public class DishDAOTest {
 		thrown.expect(EpickurDBException.class);
 
 		// Given
-		given(collection.find()).willThrow(new MongoException(""));
+		given(entityCollection.find(new Document())).willThrow(new MongoException(""));
 
 		// When
 		dao.readAll();
@@ -166,29 +170,29 @@ public class DishDAOTest {
 	public void testUpdate() throws EpickurException {
 		// Given
 		Dish dish = EntityGenerator.generateRandomDish();
-		Document document = dish.getDocumentDBView();
-		given(collection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willReturn(document);
+		Dish document = dish;
+		given(entityCollection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willReturn(document);
 
 		// When
 		Dish actual = dao.update(dish);
 
 		// Then
 		assertNotNull(actual);
-		then(collection).should().findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class));
+		then(entityCollection).should().findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class));
 	}
 
 	@Test
 	public void testUpdateNotFound() throws Exception {
 		// Given
 		Dish dish = EntityGenerator.generateRandomDish();
-		given(collection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willReturn(null);
+		given(entityCollection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willReturn(null);
 
 		// When
 		Dish actual = dao.update(dish);
 
 		// Then
 		assertNull(actual);
-		then(collection).should().findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class));
+		then(entityCollection).should().findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class));
 	}
 
 	@Test
@@ -198,7 +202,7 @@ public class DishDAOTest {
 
 		// Given
 		Dish dish = EntityGenerator.generateRandomDish();
-		given(collection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willThrow(new MongoException(""));
+		given(entityCollection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willThrow(new MongoException(""));
 
 		// When
 		dao.update(dish);
@@ -210,20 +214,18 @@ public class DishDAOTest {
 		Dish dish = EntityGenerator.generateRandomDish();
 		WorkingTimes wt = new WorkingTimes();
 		Hours hours = new Hours();
-		TimeFrame timeFrame = new TimeFrame();
-		timeFrame.setOpen(1);
-		timeFrame.setClose(11);
+		TimeFrame timeFrame = new TimeFrame(1, 11);
 		List<TimeFrame> timeFrames = new ArrayList<>();
 		timeFrames.add(timeFrame);
 		hours.setMon(timeFrames);
 		wt.setHours(hours);
 		wt.setMinimumPreparationTime(0);
 		dish.getCaterer().setWorkingTimes(wt);
-		Document found = dish.getDocumentDBView();
+		Dish found = dish;
 		List<DishType> dishTypes = new ArrayList<>();
 		dishTypes.add(DishType.MAIN);
 		Geo geo = EntityGenerator.generateGeo();
-		given(collection.find(any(Document.class))).willReturn(findIteratble);
+		given(entityCollection.find(any(Document.class))).willReturn(findIteratble);
 		given(findIteratble.limit(10)).willReturn(findIteratble);
 		given(findIteratble.iterator()).willReturn(cursor);
 		given(cursor.hasNext()).willReturn(true, false);
@@ -235,7 +237,7 @@ public class DishDAOTest {
 		// Then
 		assertNotNull(actuals);
 		assertThat(actuals, hasSize(1));
-		then(collection).should().find(any(Document.class));
+		then(entityCollection).should().find(any(Document.class));
 		then(cursor).should().close();
 	}
 
@@ -245,21 +247,19 @@ public class DishDAOTest {
 		Dish dish = EntityGenerator.generateRandomDish();
 		WorkingTimes wt = new WorkingTimes();
 		Hours hours = new Hours();
-		TimeFrame timeFrame = new TimeFrame();
-		timeFrame.setOpen(1);
-		timeFrame.setClose(11);
+		TimeFrame timeFrame = new TimeFrame(1, 11);
 		List<TimeFrame> timeFrames = new ArrayList<>();
 		timeFrames.add(timeFrame);
 		hours.setMon(timeFrames);
 		wt.setHours(hours);
 		wt.setMinimumPreparationTime(0);
 		dish.getCaterer().setWorkingTimes(wt);
-		Document found = dish.getDocumentDBView();
+		Dish found = dish;
 		List<DishType> dishTypes = new ArrayList<>();
 		dishTypes.add(DishType.MAIN);
 		dishTypes.add(DishType.DESSERT);
 		Geo geo = EntityGenerator.generateGeo();
-		given(collection.find(any(Document.class))).willReturn(findIteratble);
+		given(entityCollection.find(any(Document.class))).willReturn(findIteratble);
 		given(findIteratble.limit(10)).willReturn(findIteratble);
 		given(findIteratble.iterator()).willReturn(cursor);
 		given(cursor.hasNext()).willReturn(true, false);
@@ -271,10 +271,47 @@ public class DishDAOTest {
 		// Then
 		assertNotNull(actuals);
 		assertThat(actuals, hasSize(1));
-		then(collection).should().find(any(Document.class));
+		then(entityCollection).should().find(any(Document.class));
 		then(cursor).should().close();
 	}
 
+	@Test
+	public void testGetSearchQueryBoundsIncluded() {
+		// Given
+		List<DishType> dishTypes = new ArrayList<>();
+		dishTypes.add(DishType.MAIN);
+		Geo geo = EntityGenerator.generateGeo();
+
+		// When
+		Document actual = dao.getSearchQuery("mon", 5, dishTypes, geo, 20);
+
+		// Then
+		Document elemMatch = (Document) ((Document) actual.get("caterer.workingTimes.hours.mon")).get("$elemMatch");
+		assertEquals(new Document("$lte", new BsonInt32(5)), elemMatch.get("open"));
+		assertEquals(new Document("$gte", new BsonInt32(5)), elemMatch.get("close"));
+		assertEquals(DishType.MAIN.getType(), actual.get("type"));
+	}
+
+	@Test
+	public void testSearchLimitAppliedByMongo() throws EpickurException {
+		// Given
+		List<DishType> dishTypes = new ArrayList<>();
+		dishTypes.add(DishType.MAIN);
+		Geo geo = EntityGenerator.generateGeo();
+		given(entityCollection.find(any(Document.class))).willReturn(findIteratble);
+		given(findIteratble.limit(2)).willReturn(findIteratble);
+		given(findIteratble.iterator()).willReturn(cursor);
+		given(cursor.hasNext()).willReturn(true, true, false);
+		given(cursor.next()).willReturn(EntityGenerator.generateRandomDish(), EntityGenerator.generateRandomDish());
+
+		// When
+		List<Dish> actuals = dao.search("mon", 5, dishTypes, 2, geo, 20);
+
+		// Then
+		assertThat(actuals, hasSize(2));
+		then(findIteratble).should().limit(2);
+	}
+
 	@Test
 	public void testSearchMongoException() throws EpickurException {
 		// Then
@@ -284,7 +321,7 @@ public class DishDAOTest {
 		List<DishType> dishTypes = new ArrayList<>();
 		dishTypes.add(DishType.MAIN);
 		Geo geo = EntityGenerator.generateGeo();
-		given(collection.find(any(Document.class))).willThrow(new MongoException(""));
+		given(entityCollection.find(any(Document.class))).willThrow(new MongoException(""));
 
 		// When
 		dao.search("mon", 5, dishTypes, 10, geo, 20);
@@ -294,8 +331,8 @@ public class DishDAOTest {
 	public void testSearchWithCatererId() throws EpickurException {
 		// Given
 		String catererId = new ObjectId().toHexString();
-		Document found = EntityGenerator.generateRandomDish().getDocumentDBView();
-		given(collection.find(any(Document.class))).willReturn(findIteratble);
+		Dish found = EntityGenerator.generateRandomDish();
+		given(entityCollection.find(any(Document.class))).willReturn(findIteratble);
 		given(findIteratble.iterator()).willReturn(cursor);
 		given(cursor.hasNext()).willReturn(true, false);
 		given(cursor.next()).willReturn(found);
@@ -306,7 +343,7 @@ public class DishDAOTest {
 		// Then
 		assertNotNull(actual);
 		assertThat(actual, hasSize(1));
-		then(collection).should().find(any(Document.class));
+		then(entityCollection).should().find(any(Document.class));
 		then(cursor).should().close();
 	}
 
@@ -317,7 +354,7 @@ public class DishDAOTest {
 
 		// Given
 		String catererId = new ObjectId().toHexString();
-		given(collection.find(any(Document.class))).willThrow(new MongoException(""));
+		given(entityCollection.find(any(Document.class))).willThrow(new MongoException(""));
 
 		// When
 		dao.searchWithCatererId(catererId);
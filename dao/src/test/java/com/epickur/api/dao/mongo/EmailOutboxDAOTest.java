@@ -0,0 +1,155 @@
+package com.epickur.api.dao.mongo;
+
+import com.epickur.api.entity.EmailMessage;
+import com.epickur.api.enumeration.EmailStatus;
+import com.epickur.api.exception.EpickurDBException;
+import com.epickur.api.exception.EpickurException;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Optional;
+
+import static com.epickur.api.dao.CollectionsName.EMAIL_OUTBOX_COLL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EmailOutboxDAOTest {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+	@Mock
+	private MongoDatabase db;
+	@Mock
+	private MongoCollection<Document> collection;
+	@Mock
+	private MongoCollection<EmailMessage> entityCollection;
+	@InjectMocks
+	private EmailOutboxDAO dao;
+
+	@Before
+	public void setUp() {
+		given(db.getCollection(EMAIL_OUTBOX_COLL)).willReturn(collection);
+		given(collection.withDocumentClass(EmailMessage.class)).willReturn(entityCollection);
+		dao.initCollection();
+	}
+
+	@Test
+	public void testClaim() throws EpickurException {
+		// Given
+		EmailMessage message = new EmailMessage();
+		given(entityCollection.findOneAndUpdate(any(Bson.class), any(Bson.class), any(FindOneAndUpdateOptions.class))).willReturn(message);
+		DateTime now = new DateTime();
+
+		// When
+		Optional<EmailMessage> actual = dao.claim(now, now.plusMinutes(1));
+
+		// Then
+		assertTrue(actual.isPresent());
+		ArgumentCaptor<Bson> update = ArgumentCaptor.forClass(Bson.class);
+		then(entityCollection).should().findOneAndUpdate(any(Bson.class), update.capture(), any(FindOneAndUpdateOptions.class));
+		Document set = (Document) ((Document) update.getValue()).get("$set");
+		assertEquals(EmailStatus.SENDING.getType(), set.get("status"));
+		assertEquals(now.plusMinutes(1).getMillis(), set.get("lockedUntil"));
+		assertEquals(now.getMillis(), set.get("updatedAt"));
+	}
+
+	@Test
+	public void testClaimEmpty() throws EpickurException {
+		// When
+		Optional<EmailMessage> actual = dao.claim(new DateTime(), new DateTime().plusMinutes(1));
+
+		// Then
+		assertFalse(actual.isPresent());
+	}
+
+	@Test
+	public void testClaimMongoException() throws EpickurException {
+		// Then
+		thrown.expect(EpickurDBException.class);
+
+		// Given
+		given(entityCollection.findOneAndUpdate(any(Bson.class), any(Bson.class), any(FindOneAndUpdateOptions.class)))
+			.willThrow(new MongoException(""));
+
+		// When
+		dao.claim(new DateTime(), new DateTime().plusMinutes(1));
+	}
+
+	@Test
+	public void testRetry() throws EpickurException {
+		// Given
+		ObjectId id = new ObjectId();
+		DateTime next = new DateTime().plusMinutes(5);
+
+		// When
+		dao.retry(id, 2, next, "timeout");
+
+		// Then
+		ArgumentCaptor<Bson> update = ArgumentCaptor.forClass(Bson.class);
+		then(collection).should().updateOne(any(Bson.class), update.capture());
+		Document set = (Document) ((Document) update.getValue()).get("$set");
+		assertEquals(EmailStatus.PENDING.getType(), set.get("status"));
+		assertEquals(2, set.get("attempts"));
+		assertEquals(next.getMillis(), set.get("nextAttemptAt"));
+		assertEquals("timeout", set.get("lastError"));
+		assertTrue(((Document) update.getValue()).containsKey("$unset"));
+	}
+
+	@Test
+	public void testFail() throws EpickurException {
+		// When
+		dao.fail(new ObjectId(), 8, "rejected");
+
+		// Then
+		ArgumentCaptor<Bson> update = ArgumentCaptor.forClass(Bson.class);
+		then(collection).should().updateOne(any(Bson.class), update.capture());
+		Document set = (Document) ((Document) update.getValue()).get("$set");
+		assertEquals(EmailStatus.FAILED.getType(), set.get("status"));
+		assertEquals(8, set.get("attempts"));
+	}
+
+	@Test
+	public void testCount() throws EpickurException {
+		// Given
+		given(collection.count(any(Bson.class))).willReturn(3L);
+
+		// When
+		long actual = dao.count(EmailStatus.PENDING);
+
+		// Then
+		assertEquals(3L, actual);
+	}
+
+	@Test
+	public void testCreate() throws EpickurException {
+		// Given
+		EmailMessage message = new EmailMessage();
+
+		// When
+		dao.create(message);
+
+		// Then
+		then(entityCollection).should().insertOne(eq(message));
+	}
+}
@@ -0,0 +1,129 @@
+package com.epickur.api.dao.mongo;
+
+import com.epickur.api.entity.Geocode;
+import com.epickur.api.exception.EpickurDBException;
+import com.epickur.api.exception.EpickurException;
+import com.mongodb.MongoException;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.UpdateOptions;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.epickur.api.dao.CollectionsName.GEOCODE_COLL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GeocodeDAOTest {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+	@Mock
+	private MongoDatabase db;
+	@Mock
+	private MongoCollection<Document> collection;
+	@Mock
+	private FindIterable<Document> findIterable;
+	private GeocodeDAO dao;
+
+	@Before
+	public void setUp() {
+		given(db.getCollection(GEOCODE_COLL)).willReturn(collection);
+		dao = new GeocodeDAO(db);
+		dao.postConstruct();
+	}
+
+	@Test
+	public void testGetIndexes() {
+		// When
+		List<IndexModel> actual = dao.getIndexes();
+
+		// Then
+		assertEquals(1, actual.size());
+		assertEquals("expiresAt_1", actual.get(0).getOptions().getName());
+		assertEquals(0L, actual.get(0).getOptions().getExpireAfter(TimeUnit.SECONDS).longValue());
+		assertEquals(collection, dao.getColl());
+		then(collection).should(never()).createIndex(any(Bson.class), any(IndexOptions.class));
+	}
+
+	@Test
+	public void testRead() throws EpickurException {
+		// Given
+		final Date expiresAt = new Date(System.currentTimeMillis() + 1000);
+		given(collection.find(any(Bson.class))).willReturn(findIterable);
+		given(findIterable.first()).willReturn(new Document("_id", "chicago").append("lat", 41.8).append("lng", -87.6).append("expiresAt", expiresAt));
+
+		// When
+		Optional<Geocode> actual = dao.read("chicago");
+
+		// Then
+		assertTrue(actual.isPresent());
+		assertTrue(actual.get().isFound());
+		assertEquals(41.8, actual.get().getLatitude(), 0);
+		assertEquals(-87.6, actual.get().getLongitude(), 0);
+		assertNull(actual.get().getError());
+		assertEquals(expiresAt.getTime(), actual.get().getExpiresAt());
+	}
+
+	@Test
+	public void testReadMissing() throws EpickurException {
+		// Given
+		given(collection.find(any(Bson.class))).willReturn(findIterable);
+
+		// When
+		Optional<Geocode> actual = dao.read("nowhere");
+
+		// Then
+		assertFalse(actual.isPresent());
+	}
+
+	@Test
+	public void testSave() throws EpickurException {
+		// When
+		dao.save(new Geocode("nowhere", null, null, "not found", 1000L));
+
+		// Then
+		ArgumentCaptor<Document> document = ArgumentCaptor.forClass(Document.class);
+		ArgumentCaptor<UpdateOptions> options = ArgumentCaptor.forClass(UpdateOptions.class);
+		then(collection).should().replaceOne(any(Bson.class), document.capture(), options.capture());
+		assertEquals("nowhere", document.getValue().getString("_id"));
+		assertEquals("not found", document.getValue().getString("error"));
+		assertEquals(new Date(1000L), document.getValue().getDate("expiresAt"));
+		assertTrue(options.getValue().isUpsert());
+	}
+
+	@Test
+	public void testSaveFail() throws EpickurException {
+		// Given
+		given(collection.replaceOne(any(Bson.class), any(Document.class), any(UpdateOptions.class))).willThrow(new MongoException("down"));
+
+		// Then
+		thrown.expect(EpickurDBException.class);
+
+		// When
+		dao.save(new Geocode("chicago", 41.8, -87.6, null, 1000L));
+	}
+}
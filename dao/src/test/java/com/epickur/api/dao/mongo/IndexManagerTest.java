@@ -0,0 +1,169 @@
+package com.epickur.api.dao.mongo;
+
+import com.epickur.api.config.EpickurProperties;
+import com.mongodb.MongoException;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.ListIndexesIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import org.bson.Document;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.epickur.api.dao.CollectionsName.KEY_COLL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.never;
+
+@RunWith(MockitoJUnitRunner.class)
+public class IndexManagerTest {
+
+	private static final String ID_INDEX = "_id_";
+
+	@Mock
+	private MongoDatabase db;
+	@Mock
+	private MongoCollection<Document> collection;
+	@Mock
+	private ListIndexesIterable<Document> listIndexes;
+	@Mock
+	private MongoCursor<Document> cursor;
+	@Mock
+	private EpickurProperties properties;
+	private KeyDAO keyDAO;
+	private IndexManager indexManager;
+
+	@Before
+	public void setUp() {
+		given(db.getCollection(KEY_COLL)).willReturn(collection);
+		given(collection.getNamespace()).willReturn(new MongoNamespace("epickur", KEY_COLL));
+		given(collection.listIndexes()).willReturn(listIndexes);
+		given(listIndexes.iterator()).willReturn(cursor);
+		keyDAO = new KeyDAO(db);
+		keyDAO.initCollection();
+		indexManager = new IndexManager(Collections.singletonList(keyDAO), properties);
+	}
+
+	private void givenIndexes(final String... names) {
+		givenIndexes(Arrays.stream(names).map(IndexManagerTest::index).collect(Collectors.toList()));
+	}
+
+	private void givenIndexes(final List<Document> indexes) {
+		final Iterator<Document> iterator = indexes.iterator();
+		given(cursor.hasNext()).willAnswer(invocation -> iterator.hasNext());
+		given(cursor.next()).willAnswer(invocation -> iterator.next());
+	}
+
+	@Test
+	public void testVerify() {
+		// Given
+		givenIndexes("_id_", "key_1", "createdAt_1", "updatedAt_1", "role_1");
+
+		// When
+		IndexReport actual = indexManager.verify();
+
+		// Then
+		assertFalse(actual.isValid());
+		assertEquals(Collections.singletonList("userName_1"), actual.getMissing().get(KEY_COLL));
+		assertEquals(Collections.singletonList("role_1"), actual.getExtra().get(KEY_COLL));
+		then(collection).should(never()).createIndexes(anyListOf(IndexModel.class));
+	}
+
+	@Test
+	public void testVerifyMismatched() {
+		// Given
+		givenIndexes(Arrays.asList(index("_id_"), new Document("name", "key_1").append("key", new Document("key", -1)),
+			index("userName_1").append("unique", true), index("createdAt_1").append("expireAfterSeconds", 60), index("updatedAt_1")));
+
+		// When
+		IndexReport actual = indexManager.verify();
+
+		// Then
+		assertFalse(actual.isValid());
+		assertEquals(Arrays.asList("createdAt_1", "key_1", "userName_1"), actual.getMismatched().get(KEY_COLL));
+		assertTrue(actual.getMissing().isEmpty());
+		assertTrue(actual.getExtra().isEmpty());
+	}
+
+	@Test
+	public void testMatches() {
+		// Given
+		IndexModel ttl = new IndexModel(Indexes.ascending("expiresAt"), new IndexOptions().name("expiresAt_1").expireAfter(0L, TimeUnit.SECONDS));
+		IndexModel sparse = new IndexModel(Indexes.ascending("a", "b"), new IndexOptions().name("a_1_b_1").sparse(true));
+		IndexModel geo = new IndexModel(Indexes.geo2dsphere("geo"), new IndexOptions().name("geo_2dsphere"));
+
+		// Then
+		assertTrue(IndexManager.matches(ttl, new Document("key", new Document("expiresAt", 1.0)).append("expireAfterSeconds", 0L)));
+		assertFalse(IndexManager.matches(ttl, new Document("key", new Document("expiresAt", 1))));
+		assertTrue(IndexManager.matches(sparse, new Document("key", new Document("a", 1).append("b", 1L)).append("sparse", true)));
+		assertFalse(IndexManager.matches(sparse, new Document("key", new Document("b", 1).append("a", 1)).append("sparse", true)));
+		assertFalse(IndexManager.matches(sparse, new Document("key", new Document("a", 1).append("b", 1))));
+		assertTrue(IndexManager.matches(geo, new Document("key", new Document("geo", "2dsphere")).append("2dsphereIndexVersion", 3)));
+		assertFalse(IndexManager.matches(geo, new Document("key", new Document("geo", 1))));
+	}
+
+	@Test
+	public void testEnsureIndexes() {
+		// Given
+		givenIndexes("_id_", "key_1", "userName_1", "createdAt_1", "updatedAt_1");
+
+		// When
+		IndexReport actual = indexManager.ensureIndexes();
+
+		// Then
+		assertTrue(actual.isValid());
+		then(collection).should().createIndexes(anyListOf(IndexModel.class));
+	}
+
+	@Test
+	public void testEnsureIndexesMongoException() {
+		// Given
+		givenIndexes("_id_");
+		given(collection.createIndexes(anyListOf(IndexModel.class))).willThrow(new MongoException(""));
+
+		// When
+		IndexReport actual = indexManager.ensureIndexes();
+
+		// Then
+		assertEquals(Arrays.asList("createdAt_1", "key_1", "updatedAt_1", "userName_1"), actual.getMissing().get(KEY_COLL));
+	}
+
+	@Test
+	public void testPostConstructNone() {
+		// Given
+		given(properties.getMongoIndexesMode()).willReturn("none");
+
+		// When
+		indexManager.postConstruct();
+
+		// Then
+		then(collection).should(never()).listIndexes();
+	}
+
+	/**
+	 * @param name The name of an ascending index on one field, as generated by MongoDB
+	 * @return The index as listed by the database
+	 */
+	private static Document index(final String name) {
+		final String field = ID_INDEX.equals(name) ? "_id" : name.substring(0, name.lastIndexOf("_1"));
+		return new Document("v", 1).append("key", new Document(field, 1)).append("name", name);
+	}
+}
@@ -12,6 +12,7 @@ import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.result.DeleteResult;
 import org.bson.Document;
 import org.bson.types.ObjectId;
+import org.joda.time.DateTime;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -26,6 +27,7 @@ import java.util.Optional;
 
 import static com.epickur.api.dao.CollectionsName.KEY_COLL;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
@@ -44,9 +46,11 @@ public class KeyDAOTest {
 	@Mock
 	private MongoCollection<Document> collection;
 	@Mock
-	private FindIterable<Document> findIteratble;
+	private MongoCollection<Key> entityCollection;
 	@Mock
-	private MongoCursor<Document> cursor;
+	private FindIterable<Key> findIteratble;
+	@Mock
+	private MongoCursor<Key> cursor;
 	@Mock
 	private DeleteResult deleteResult;
 	@InjectMocks
@@ -55,6 +59,7 @@ public class KeyDAOTest {
 	@Before
 	public void setUp() throws Exception {
 		given(db.getCollection(KEY_COLL)).willReturn(collection);
+		given(collection.withDocumentClass(Key.class)).willReturn(entityCollection);
 		dao.initCollection();
 	}
 
@@ -62,14 +67,14 @@ public class KeyDAOTest {
 	public void testCreate() throws EpickurException {
 		// Given
 		Key key = EntityGenerator.generateRandomAdminKey();
-		Document document = key.getDocumentDBView();
+		Key document = key;
 
 		// When
 		Key actual = dao.create(key);
 
 		// Then
 		assertNotNull(actual);
-		then(collection).should().insertOne(document);
+		then(entityCollection).should().insertOne(document);
 	}
 
 	@Test
@@ -79,8 +84,8 @@ public class KeyDAOTest {
 
 		// Given
 		Key key = EntityGenerator.generateRandomAdminKey();
-		Document document = key.getDocumentDBView();
-		willThrow(new MongoException("")).given(collection).insertOne(document);
+		Key document = key;
+		willThrow(new MongoException("")).given(entityCollection).insertOne(document);
 
 		// When
 		Key actual = dao.create(key);
@@ -91,8 +96,8 @@ public class KeyDAOTest {
 		// Given
 		String key = new ObjectId().toHexString();
 		Document query = new Document().append("key", key);
-		Document found = EntityGenerator.generateRandomAdminKey().getDocumentDBView();
-		given(collection.find(query)).willReturn(findIteratble);
+		Key found = EntityGenerator.generateRandomAdminKey();
+		given(entityCollection.find(query)).willReturn(findIteratble);
 		given(findIteratble.first()).willReturn(found);
 
 		// When
@@ -100,7 +105,7 @@ public class KeyDAOTest {
 
 		// Then
 		assertTrue(actual.isPresent());
-		then(collection).should().find(query);
+		then(entityCollection).should().find(query);
 	}
 
 	@Test
@@ -111,7 +116,7 @@ public class KeyDAOTest {
 		// Given
 		String key = new ObjectId().toHexString();
 		Document query = new Document().append("key", key);
-		given(collection.find(query)).willThrow(new MongoException(""));
+		given(entityCollection.find(query)).willThrow(new MongoException(""));
 
 		// When
 		dao.read(key);
@@ -122,8 +127,8 @@ public class KeyDAOTest {
 		// Given
 		String userName = new ObjectId().toHexString();
 		Document query = new Document().append("userName", userName);
-		Document found = EntityGenerator.generateRandomAdminKey().getDocumentDBView();
-		given(collection.find(query)).willReturn(findIteratble);
+		Key found = EntityGenerator.generateRandomAdminKey();
+		given(entityCollection.find(query)).willReturn(findIteratble);
 		given(findIteratble.first()).willReturn(found);
 
 		// When
@@ -131,14 +136,14 @@ public class KeyDAOTest {
 
 		// Then
 		assertNotNull(actual);
-		then(collection).should().find(query);
+		then(entityCollection).should().find(query);
 	}
 
 	@Test
 	public void testReadAll() throws EpickurException {
 		// Given
-		Document found = EntityGenerator.generateRandomAdminKey().getDocumentDBView();
-		given(collection.find()).willReturn(findIteratble);
+		Key found = EntityGenerator.generateRandomAdminKey();
+		given(entityCollection.find(new Document())).willReturn(findIteratble);
 		given(findIteratble.iterator()).willReturn(cursor);
 		given(cursor.hasNext()).willReturn(true, false);
 		given(cursor.next()).willReturn(found);
@@ -149,7 +154,7 @@ public class KeyDAOTest {
 		// Then
 		assertNotNull(actual);
 		assertThat(actual, hasSize(1));
-		then(collection).should().find();
+		then(entityCollection).should().find(new Document());
 		then(cursor).should().close();
 	}
 
@@ -159,7 +164,7 @@ public class KeyDAOTest {
 		thrown.expect(EpickurDBException.class);
 
 		// Given
-		given(collection.find()).willThrow(new MongoException(""));
+		given(entityCollection.find(new Document())).willThrow(new MongoException(""));
 
 		// When
 		dao.readAll();
@@ -222,4 +227,19 @@ public class KeyDAOTest {
 		// When
 		dao.deleteWithKey(key);
 	}
+
+	@Test
+	public void testDeleteCreatedBefore() throws EpickurException {
+		// Given
+		DateTime date = new DateTime();
+		Document filter = new Document("createdAt", new Document("$lt", date.getMillis()));
+		given(collection.deleteMany(filter)).willReturn(DeleteResult.acknowledged(4));
+
+		// When
+		long actual = dao.deleteCreatedBefore(date);
+
+		// Then
+		assertEquals(4L, actual);
+		then(collection).should().deleteMany(filter);
+	}
 }
@@ -0,0 +1,140 @@
+package com.epickur.api.dao.mongo;
+
+import com.epickur.api.exception.EpickurDBException;
+import com.epickur.api.exception.EpickurException;
+import com.mongodb.MongoClient;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Optional;
+
+import static com.epickur.api.dao.CollectionsName.LOCK_COLL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LockDAOTest {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+	@Mock
+	private MongoDatabase db;
+	@Mock
+	private MongoCollection<Document> collection;
+	private LockDAO dao;
+
+	@Before
+	public void setUp() {
+		given(db.getCollection(LOCK_COLL)).willReturn(collection);
+		dao = new LockDAO(db);
+		dao.postConstruct();
+	}
+
+	@Test
+	public void testAcquire() throws EpickurException {
+		// Given
+		given(collection.findOneAndUpdate(any(Bson.class), any(Bson.class), any(FindOneAndUpdateOptions.class)))
+			.willReturn(new Document("_id", "job").append("token", 12L));
+
+		// When
+		Optional<Long> actual = dao.acquire("job", "node", System.currentTimeMillis() + 1000);
+
+		// Then
+		assertEquals(Optional.of(12L), actual);
+		ArgumentCaptor<Bson> filter = ArgumentCaptor.forClass(Bson.class);
+		ArgumentCaptor<Bson> update = ArgumentCaptor.forClass(Bson.class);
+		ArgumentCaptor<FindOneAndUpdateOptions> options = ArgumentCaptor.forClass(FindOneAndUpdateOptions.class);
+		then(collection).should().findOneAndUpdate(filter.capture(), update.capture(), options.capture());
+		assertFalse(filter.getValue().toBsonDocument(BsonDocument.class, MongoClient.getDefaultCodecRegistry()).toJson().contains("owner"));
+		assertEquals(new Document("token", 1L), ((Document) update.getValue()).get("$inc"));
+		assertTrue(options.getValue().isUpsert());
+	}
+
+	@Test
+	public void testAcquireHeld() throws EpickurException {
+		// Given
+		given(collection.findOneAndUpdate(any(Bson.class), any(Bson.class), any(FindOneAndUpdateOptions.class)))
+			.willThrow(mongoException(11000));
+
+		// When
+		Optional<Long> actual = dao.acquire("job", "node", System.currentTimeMillis() + 1000);
+
+		// Then
+		assertFalse(actual.isPresent());
+	}
+
+	@Test
+	public void testAcquireMongoException() throws EpickurException {
+		// Then
+		thrown.expect(EpickurDBException.class);
+
+		// Given
+		given(collection.findOneAndUpdate(any(Bson.class), any(Bson.class), any(FindOneAndUpdateOptions.class)))
+			.willThrow(mongoException(2));
+
+		// When
+		dao.acquire("job", "node", System.currentTimeMillis() + 1000);
+	}
+
+	@Test
+	public void testRelease() throws EpickurException {
+		// Given
+		given(collection.updateOne(any(Bson.class), any(Bson.class))).willReturn(UpdateResult.acknowledged(1, 1L, null));
+
+		// When
+		boolean actual = dao.release("job", "node", 12L, System.currentTimeMillis());
+
+		// Then
+		assertTrue(actual);
+	}
+
+	@Test
+	public void testReleaseTakenOver() throws EpickurException {
+		// Given
+		given(collection.updateOne(any(Bson.class), any(Bson.class))).willReturn(UpdateResult.acknowledged(0, 0L, null));
+
+		// When
+		boolean actual = dao.release("job", "node", 12L, System.currentTimeMillis());
+
+		// Then
+		assertFalse(actual);
+	}
+
+	@Test
+	public void testIsHeld() throws EpickurException {
+		// Given
+		given(collection.count(any(Bson.class))).willReturn(1L);
+
+		// When
+		boolean actual = dao.isHeld("job", 12L);
+
+		// Then
+		assertTrue(actual);
+	}
+
+	private static MongoException mongoException(final int code) {
+		return new MongoCommandException(new BsonDocument("code", new BsonInt32(code)).append("errmsg", new BsonString("error")), new ServerAddress());
+	}
+}
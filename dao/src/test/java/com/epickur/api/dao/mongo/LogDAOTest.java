@@ -1,11 +1,14 @@
 package com.epickur.api.dao.mongo;
 
 import com.epickur.api.entity.Log;
+import com.epickur.api.exception.EpickurDBException;
 import com.epickur.api.exception.EpickurException;
+import com.mongodb.MongoException;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.InsertManyOptions;
 import org.apache.commons.lang3.NotImplementedException;
 import org.bson.Document;
 import org.junit.Before;
@@ -17,10 +20,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static com.epickur.api.dao.CollectionsName.LOG_COLL;
 import static org.junit.Assert.assertNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 
 @RunWith(MockitoJUnitRunner.class)
 public class LogDAOTest {
@@ -32,15 +41,18 @@ public class LogDAOTest {
 	@Mock
 	private MongoCollection<Document> collection;
 	@Mock
-	private FindIterable<Document> documentFindIterable;
+	private MongoCollection<Log> entityCollection;
+	@Mock
+	private FindIterable<Log> documentFindIterable;
 	@Mock
-	private MongoCursor<Document> cursor;
+	private MongoCursor<Log> cursor;
 	@InjectMocks
 	private LogDAO dao;
 
 	@Before
 	public void setUp() throws Exception {
 		given(db.getCollection(LOG_COLL)).willReturn(collection);
+		given(collection.withDocumentClass(Log.class)).willReturn(entityCollection);
 		dao.initCollection();
 	}
 
@@ -48,14 +60,38 @@ public class LogDAOTest {
 	public void testCreate() throws EpickurException {
 		// Given
 		Log log = new Log();
-		Document document = log.getDocumentDBView();
 
 		// When
 		Log actual = dao.create(log);
 
 		// Then
 		assertNull(actual);
-		then(collection).should().insertOne(document);
+		then(entityCollection).should().insertOne(log);
+	}
+
+	@Test
+	public void testCreateAll() throws EpickurException {
+		// Given
+		List<Log> logs = Arrays.asList(new Log(), new Log());
+
+		// When
+		dao.createAll(logs, false);
+
+		// Then
+		then(entityCollection).should().insertMany(eq(logs), any(InsertManyOptions.class));
+	}
+
+	@Test
+	public void testCreateAllMongoException() throws EpickurException {
+		// Then
+		thrown.expect(EpickurDBException.class);
+
+		// Given
+		List<Log> logs = Arrays.asList(new Log(), new Log());
+		willThrow(new MongoException("")).given(entityCollection).insertMany(eq(logs), any(InsertManyOptions.class));
+
+		// When
+		dao.createAll(logs, false);
 	}
 
 	@Test
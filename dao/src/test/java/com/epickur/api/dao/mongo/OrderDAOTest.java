@@ -1,6 +1,7 @@
 package com.epickur.api.dao.mongo;
 
 import com.epickur.api.entity.Order;
+import com.epickur.api.enumeration.OrderStatus;
 import com.epickur.api.exception.EpickurDBException;
 import com.epickur.api.exception.EpickurException;
 import com.epickur.api.helper.EntityGenerator;
@@ -9,9 +10,12 @@ import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.MongoIterable;
 import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.result.UpdateResult;
 import org.apache.commons.lang3.NotImplementedException;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 import org.joda.time.DateTime;
 import org.junit.Before;
@@ -19,6 +23,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
@@ -28,6 +33,8 @@ import java.util.Optional;
 
 import static com.epickur.api.dao.CollectionsName.ORDER_COLL;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
@@ -37,6 +44,9 @@ import static org.mockito.BDDMockito.then;
 import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.isA;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 
 @RunWith(MockitoJUnitRunner.class)
 public class OrderDAOTest {
@@ -48,15 +58,18 @@ public class OrderDAOTest {
 	@Mock
 	private MongoCollection<Document> collection;
 	@Mock
-	private FindIterable<Document> findIteratble;
+	private MongoCollection<Order> entityCollection;
 	@Mock
-	private MongoCursor<Document> cursor;
+	private FindIterable<Order> findIteratble;
+	@Mock
+	private MongoCursor<Order> cursor;
 	@InjectMocks
 	private OrderDAO dao;
 
 	@Before
 	public void setUp() throws Exception {
 		given(db.getCollection(ORDER_COLL)).willReturn(collection);
+		given(collection.withDocumentClass(Order.class)).willReturn(entityCollection);
 		dao.initCollection();
 	}
 
@@ -64,14 +77,14 @@ public class OrderDAOTest {
 	public void testCreate() throws EpickurException {
 		// Given
 		Order order = EntityGenerator.generateRandomOrder();
-		Document document = order.getDocumentDBView();
+		Order document = order;
 
 		// When
 		Order actual = dao.create(order);
 
 		// Then
 		assertNotNull(actual);
-		then(collection).should().insertOne(document);
+		then(entityCollection).should().insertOne(document);
 	}
 
 	@Test
@@ -80,8 +93,8 @@ public class OrderDAOTest {
 
 		// Given
 		Order order = EntityGenerator.generateRandomOrder();
-		Document document = order.getDocumentDBView();
-		willThrow(new MongoException("")).given(collection).insertOne(document);
+		Order document = order;
+		willThrow(new MongoException("")).given(entityCollection).insertOne(document);
 
 		// When
 		Order actual = dao.create(order);
@@ -89,7 +102,7 @@ public class OrderDAOTest {
 		// Then
 		assertNotNull(actual);
 		then(db).should().getCollection(ORDER_COLL);
-		then(collection).should().insertOne(document);
+		then(entityCollection).should().insertOne(document);
 	}
 
 	@Test
@@ -97,8 +110,8 @@ public class OrderDAOTest {
 		// Given
 		String orderId = new ObjectId().toHexString();
 		Document query = new Document().append("_id", new ObjectId(orderId));
-		Document found = EntityGenerator.generateRandomOrder().getDocumentDBView();
-		given(collection.find(query)).willReturn(findIteratble);
+		Order found = EntityGenerator.generateRandomOrder();
+		given(entityCollection.find(query)).willReturn(findIteratble);
 		given(findIteratble.first()).willReturn(found);
 
 		// When
@@ -106,7 +119,7 @@ public class OrderDAOTest {
 
 		// Then
 		assertTrue(actual.isPresent());
-		then(collection).should().find(query);
+		then(entityCollection).should().find(query);
 	}
 
 	@Test
@@ -118,7 +131,7 @@ public class OrderDAOTest {
 		Document query = new Document().append("_id", new ObjectId(orderId));
 
 		// When
-		given(collection.find(query)).willThrow(new MongoException(""));
+		given(entityCollection.find(query)).willThrow(new MongoException(""));
 
 		// Then
 		dao.read(orderId);
@@ -139,29 +152,29 @@ public class OrderDAOTest {
 	public void testUpdate() throws EpickurException {
 		// Given
 		Order order = EntityGenerator.generateRandomOrder();
-		Document document = order.getDocumentDBView();
-		given(collection.findOneAndUpdate(isA(Document.class), isA(Document.class), isA(FindOneAndUpdateOptions.class))).willReturn(document);
+		Order document = order;
+		given(entityCollection.findOneAndUpdate(isA(Document.class), isA(Document.class), isA(FindOneAndUpdateOptions.class))).willReturn(document);
 
 		// When
 		Order actual = dao.update(order);
 
 		// Then
 		assertNotNull(actual);
-		then(collection).should().findOneAndUpdate(isA(Document.class), isA(Document.class), isA(FindOneAndUpdateOptions.class));
+		then(entityCollection).should().findOneAndUpdate(isA(Document.class), isA(Document.class), isA(FindOneAndUpdateOptions.class));
 	}
 
 	@Test
 	public void testUpdateNotFound() throws EpickurException {
 		// Given
 		Order order = EntityGenerator.generateRandomOrder();
-		given(collection.findOneAndUpdate(isA(Document.class), isA(Document.class), isA(FindOneAndUpdateOptions.class))).willReturn(null);
+		given(entityCollection.findOneAndUpdate(isA(Document.class), isA(Document.class), isA(FindOneAndUpdateOptions.class))).willReturn(null);
 
 		// When
 		Order actual = dao.update(order);
 
 		// Then
 		assertNull(actual);
-		then(collection).should().findOneAndUpdate(isA(Document.class), isA(Document.class), isA(FindOneAndUpdateOptions.class));
+		then(entityCollection).should().findOneAndUpdate(isA(Document.class), isA(Document.class), isA(FindOneAndUpdateOptions.class));
 	}
 
 	@Test
@@ -171,7 +184,7 @@ public class OrderDAOTest {
 
 		// Given
 		Order order = EntityGenerator.generateRandomOrder();
-		given(collection.findOneAndUpdate(isA(Document.class), isA(Document.class), isA(FindOneAndUpdateOptions.class))).willThrow(new MongoException(""));
+		given(entityCollection.findOneAndUpdate(isA(Document.class), isA(Document.class), isA(FindOneAndUpdateOptions.class))).willThrow(new MongoException(""));
 
 		// When
 		dao.update(order);
@@ -191,8 +204,8 @@ public class OrderDAOTest {
 		// Given
 		String userId = new ObjectId().toHexString();
 		Document query = new Document().append("createdBy", userId);
-		Document found = EntityGenerator.generateRandomOrder().getDocumentDBView();
-		given(collection.find(query)).willReturn(findIteratble);
+		Order found = EntityGenerator.generateRandomOrder();
+		given(entityCollection.find(query)).willReturn(findIteratble);
 		given(findIteratble.iterator()).willReturn(cursor);
 		given(cursor.hasNext()).willReturn(true, false);
 		given(cursor.next()).willReturn(found);
@@ -203,7 +216,7 @@ public class OrderDAOTest {
 		// Then
 		assertNotNull(actual);
 		assertThat(actual, hasSize(1));
-		then(collection).should().find(query);
+		then(entityCollection).should().find(query);
 		then(cursor).should().close();
 	}
 
@@ -215,7 +228,7 @@ public class OrderDAOTest {
 		// Given
 		String userId = new ObjectId().toHexString();
 		Document query = new Document().append("createdBy", userId);
-		given(collection.find(query)).willThrow(new MongoException(""));
+		given(entityCollection.find(query)).willThrow(new MongoException(""));
 
 		// When
 		dao.readAllWithUserId(userId);
@@ -225,8 +238,8 @@ public class OrderDAOTest {
 	public void testReadAllWithCatererId() throws EpickurException {
 		// Given
 		String catererId = new ObjectId().toHexString();
-		Document found = EntityGenerator.generateRandomOrder().getDocumentDBView();
-		given(collection.find(any(Document.class))).willReturn(findIteratble);
+		Order found = EntityGenerator.generateRandomOrder();
+		given(entityCollection.find(any(Document.class))).willReturn(findIteratble);
 		given(findIteratble.iterator()).willReturn(cursor);
 		given(cursor.hasNext()).willReturn(true, false);
 		given(cursor.next()).willReturn(found);
@@ -239,7 +252,7 @@ public class OrderDAOTest {
 		// Then
 		assertNotNull(actual);
 		assertThat(actual, hasSize(1));
-		then(collection).should().find(isA(Document.class));
+		then(entityCollection).should().find(isA(Document.class));
 		then(cursor).should().close();
 	}
 
@@ -250,11 +263,159 @@ public class OrderDAOTest {
 
 		// Given
 		String catererId = new ObjectId().toHexString();
-		given(collection.find(isA(Document.class))).willThrow(new MongoException(""));
+		given(entityCollection.find(isA(Document.class))).willThrow(new MongoException(""));
 		DateTime start = new DateTime().minusDays(5);
 		DateTime end = new DateTime().plusDays(5);
 
 		// When
 		dao.readAllWithCatererId(catererId, start, end);
 	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testCancelExpired() throws Exception {
+		// Given
+		Order found = EntityGenerator.generateRandomOrderWithId();
+		FindIterable<Document> documents = mock(FindIterable.class);
+		MongoIterable<ObjectId> ids = mock(MongoIterable.class);
+		given(collection.find(any(Bson.class))).willReturn(documents);
+		given(documents.projection(any(Bson.class))).willReturn(documents);
+		given(documents.limit(10)).willReturn(documents);
+		given(documents.map(any())).willReturn((MongoIterable) ids);
+		given(ids.into(any())).willAnswer(invocation -> {
+			List<ObjectId> list = invocation.getArgument(0);
+			list.add(found.getId());
+			return list;
+		});
+		given(collection.updateMany(any(Bson.class), any(Bson.class))).willReturn(UpdateResult.acknowledged(1, 1L, null));
+		given(entityCollection.find(any(Bson.class))).willReturn(findIteratble);
+		given(findIteratble.iterator()).willReturn(cursor);
+		given(cursor.hasNext()).willReturn(true, false);
+		given(cursor.next()).willReturn(found);
+		DateTime now = new DateTime();
+
+		// When
+		List<Order> actual = dao.cancelExpired(now, now.minusMinutes(3), now.plusMinutes(5), 10);
+
+		// Then
+		assertThat(actual, hasSize(1));
+		ArgumentCaptor<Bson> update = ArgumentCaptor.forClass(Bson.class);
+		then(collection).should().updateMany(any(Bson.class), update.capture());
+		Document set = (Document) ((Document) update.getValue()).get("$set");
+		assertEquals(OrderStatus.CANCELED.toString(), set.get("status"));
+		assertNotNull(set.get("expiryClaim"));
+		assertEquals(now.plusMinutes(5).getMillis(), set.get("notifyDeadline"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testCancelExpiredNone() throws Exception {
+		// Given
+		FindIterable<Document> documents = mock(FindIterable.class);
+		MongoIterable<ObjectId> ids = mock(MongoIterable.class);
+		given(collection.find(any(Bson.class))).willReturn(documents);
+		given(documents.projection(any(Bson.class))).willReturn(documents);
+		given(documents.limit(10)).willReturn(documents);
+		given(documents.map(any())).willReturn((MongoIterable) ids);
+		given(ids.into(any())).willAnswer(invocation -> invocation.getArgument(0));
+		DateTime now = new DateTime();
+
+		// When
+		List<Order> actual = dao.cancelExpired(now, now.minusMinutes(3), now.plusMinutes(5), 10);
+
+		// Then
+		assertTrue(actual.isEmpty());
+		then(collection).should(never()).updateMany(any(Bson.class), any(Bson.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testCancelExpiredLostRace() throws Exception {
+		// Given
+		Order lost = EntityGenerator.generateRandomOrderWithId();
+		Order found = EntityGenerator.generateRandomOrderWithId();
+		FindIterable<Document> documents = mock(FindIterable.class);
+		MongoIterable<ObjectId> ids = mock(MongoIterable.class);
+		given(collection.find(any(Bson.class))).willReturn(documents);
+		given(documents.projection(any(Bson.class))).willReturn(documents);
+		given(documents.limit(10)).willReturn(documents);
+		given(documents.map(any())).willReturn((MongoIterable) ids);
+		given(ids.into(any())).willAnswer(invocation -> {
+			List<ObjectId> list = invocation.getArgument(0);
+			list.add(lost.getId());
+			return list;
+		}).willAnswer(invocation -> {
+			List<ObjectId> list = invocation.getArgument(0);
+			list.add(found.getId());
+			return list;
+		});
+		given(collection.updateMany(any(Bson.class), any(Bson.class)))
+			.willReturn(UpdateResult.acknowledged(0, 0L, null), UpdateResult.acknowledged(1, 1L, null));
+		given(entityCollection.find(any(Bson.class))).willReturn(findIteratble);
+		given(findIteratble.iterator()).willReturn(cursor);
+		given(cursor.hasNext()).willReturn(true, false);
+		given(cursor.next()).willReturn(found);
+		DateTime now = new DateTime();
+
+		// When
+		List<Order> actual = dao.cancelExpired(now, now.minusMinutes(3), now.plusMinutes(5), 10);
+
+		// Then
+		assertThat(actual, hasSize(1));
+		assertEquals(found.getId(), actual.get(0).getId());
+		ArgumentCaptor<Bson> update = ArgumentCaptor.forClass(Bson.class);
+		then(collection).should(times(2)).updateMany(any(Bson.class), update.capture());
+		Document first = (Document) ((Document) update.getAllValues().get(0)).get("$set");
+		Document second = (Document) ((Document) update.getAllValues().get(1)).get("$set");
+		assertNotEquals(first.get("expiryClaim"), second.get("expiryClaim"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testClaimUnnotified() throws Exception {
+		// Given
+		Order found = EntityGenerator.generateRandomOrderWithId();
+		FindIterable<Document> documents = mock(FindIterable.class);
+		MongoIterable<ObjectId> ids = mock(MongoIterable.class);
+		given(collection.find(any(Bson.class))).willReturn(documents);
+		given(documents.projection(any(Bson.class))).willReturn(documents);
+		given(documents.limit(10)).willReturn(documents);
+		given(documents.map(any())).willReturn((MongoIterable) ids);
+		given(ids.into(any())).willAnswer(invocation -> {
+			List<ObjectId> list = invocation.getArgument(0);
+			list.add(found.getId());
+			return list;
+		});
+		given(collection.updateMany(any(Bson.class), any(Bson.class))).willReturn(UpdateResult.acknowledged(1, 1L, null));
+		given(entityCollection.find(any(Bson.class))).willReturn(findIteratble);
+		given(findIteratble.iterator()).willReturn(cursor);
+		given(cursor.hasNext()).willReturn(true, false);
+		given(cursor.next()).willReturn(found);
+		DateTime now = new DateTime();
+
+		// When
+		List<Order> actual = dao.claimUnnotified(now, now.plusMinutes(5), 10);
+
+		// Then
+		assertThat(actual, hasSize(1));
+		ArgumentCaptor<Bson> update = ArgumentCaptor.forClass(Bson.class);
+		then(collection).should().updateMany(any(Bson.class), update.capture());
+		Document set = (Document) ((Document) update.getValue()).get("$set");
+		assertNull(set.get("status"));
+		assertEquals(now.plusMinutes(5).getMillis(), set.get("notifyDeadline"));
+	}
+
+	@Test
+	public void testMarkCancelNotified() throws EpickurException {
+		// Given
+		ObjectId id = new ObjectId();
+
+		// When
+		dao.markCancelNotified(id);
+
+		// Then
+		ArgumentCaptor<Bson> update = ArgumentCaptor.forClass(Bson.class);
+		then(collection).should().updateOne(any(Bson.class), update.capture());
+		assertTrue(((Document) update.getValue()).containsKey("$unset"));
+	}
 }
@@ -0,0 +1,112 @@
+package com.epickur.api.dao.mongo;
+
+import com.epickur.api.entity.Key;
+import com.epickur.api.exception.EpickurDBException;
+import com.epickur.api.exception.EpickurException;
+import com.epickur.api.helper.EntityGenerator;
+import com.mongodb.MongoException;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Optional;
+
+import static com.epickur.api.dao.CollectionsName.REVOKED_TOKEN_COLL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willThrow;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RevokedTokenDAOTest {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+	@Mock
+	private MongoDatabase db;
+	@Mock
+	private MongoCollection<Document> collection;
+	@Mock
+	private MongoCollection<Key> entityCollection;
+	@Mock
+	private FindIterable<Key> findIteratble;
+	@Mock
+	private DeleteResult deleteResult;
+	@InjectMocks
+	private RevokedTokenDAO dao;
+
+	@Before
+	public void setUp() throws Exception {
+		given(db.getCollection(REVOKED_TOKEN_COLL)).willReturn(collection);
+		given(collection.withDocumentClass(Key.class)).willReturn(entityCollection);
+		dao.initCollection();
+	}
+
+	@Test
+	public void testCreate() throws EpickurException {
+		// Given
+		Key key = EntityGenerator.generateRandomAdminKey();
+
+		// When
+		dao.create(key);
+
+		// Then
+		then(entityCollection).should().insertOne(key);
+	}
+
+	@Test
+	public void testRead() throws EpickurException {
+		// Given
+		String tokenId = EntityGenerator.generateRandomString();
+		Document query = new Document().append("key", tokenId);
+		given(entityCollection.find(query)).willReturn(findIteratble);
+		given(findIteratble.first()).willReturn(EntityGenerator.generateRandomAdminKey());
+
+		// When
+		Optional<Key> actual = dao.read(tokenId);
+
+		// Then
+		assertTrue(actual.isPresent());
+	}
+
+	@Test
+	public void testDeleteIssuedBefore() throws EpickurException {
+		// Given
+		DateTime date = new DateTime();
+		Document filter = new Document("createdAt", new Document("$lt", date.getMillis()));
+		given(collection.deleteMany(filter)).willReturn(deleteResult);
+		given(deleteResult.getDeletedCount()).willReturn(3L);
+
+		// When
+		long actual = dao.deleteIssuedBefore(date);
+
+		// Then
+		assertEquals(3L, actual);
+	}
+
+	@Test
+	public void testDeleteIssuedBeforeMongoException() throws EpickurException {
+		// Then
+		thrown.expect(EpickurDBException.class);
+
+		// Given
+		DateTime date = new DateTime();
+		Document filter = new Document("createdAt", new Document("$lt", date.getMillis()));
+		willThrow(new MongoException("")).given(collection).deleteMany(filter);
+
+		// When
+		dao.deleteIssuedBefore(date);
+	}
+}
@@ -1,63 +1,124 @@
 package com.epickur.api.dao.mongo;
 
+import com.epickur.api.config.EpickurProperties;
 import com.epickur.api.exception.EpickurException;
+import com.mongodb.MongoCommandException;
+import com.mongodb.ServerAddress;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
 import org.bson.Document;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import static com.epickur.api.dao.CollectionsName.SEQUENCE_COLL;
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
 
 @RunWith(MockitoJUnitRunner.class)
 public class SequenceDAOTest {
 
+	private static final int BLOCK_SIZE = 100;
+
 	@Rule
 	public ExpectedException thrown = ExpectedException.none();
 	@Mock
 	private MongoDatabase db;
 	@Mock
 	private MongoCollection<Document> collection;
-	@InjectMocks
+	@Mock
+	private EpickurProperties properties;
 	private SequenceDAO dao;
 
 	@Before
 	public void setUp() throws Exception {
 		given(db.getCollection(SEQUENCE_COLL)).willReturn(collection);
+		given(properties.getSequenceBlockSize()).willReturn(BLOCK_SIZE);
+		dao = new SequenceDAO(db, properties);
 		dao.postConstruct();
 	}
 
 	@Test
 	public void testNextId() throws EpickurException {
-		Document found = new Document().append("seq", 5);
-		given(collection.findOneAndUpdate(any(Document.class), any(Document.class))).willReturn(found);
+		Document found = new Document().append("seq", 105);
+		given(collection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willReturn(found);
 
-		String actual = dao.getNextId();
+		assertEquals("5", dao.getNextId());
+		assertEquals("6", dao.getNextId());
+		assertEquals("7", dao.getNextId());
 
-		assertNotNull(actual);
-		assertEquals("5", actual);
-		then(collection).should().findOneAndUpdate(any(Document.class), any(Document.class));
+		ArgumentCaptor<Document> update = ArgumentCaptor.forClass(Document.class);
+		ArgumentCaptor<FindOneAndUpdateOptions> options = ArgumentCaptor.forClass(FindOneAndUpdateOptions.class);
+		then(collection).should().findOneAndUpdate(any(Document.class), update.capture(), options.capture());
+		assertEquals(new Document("seq", new BsonInt32(BLOCK_SIZE)), update.getValue().get("$inc"));
+		assertTrue(options.getValue().isUpsert());
+	}
+
+	@Test
+	public void testNextIdNewBlock() throws EpickurException {
+		given(collection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class)))
+			.willReturn(new Document("seq", BLOCK_SIZE), new Document("seq", 5 * BLOCK_SIZE));
+
+		for (int i = 0; i < BLOCK_SIZE; i++) {
+			assertEquals(Integer.toHexString(i), dao.getNextId());
+		}
+		assertEquals(Integer.toHexString(4 * BLOCK_SIZE), dao.getNextId());
+		then(collection).should(times(2)).findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class));
 	}
 
 	@Test
 	public void testNextIdNotFound() throws EpickurException {
-		given(collection.findOneAndUpdate(any(Document.class), any(Document.class))).willReturn(null);
+		// Created by the upsert
+		given(collection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class)))
+			.willReturn(new Document("seq", BLOCK_SIZE));
+
+		assertEquals("0", dao.getNextId());
+	}
 
-		String actual = dao.getNextId();
+	@Test
+	public void testNextIdConcurrentCreation() throws EpickurException {
+		MongoCommandException duplicate = new MongoCommandException(
+			new BsonDocument("code", new BsonInt32(11000)).append("errmsg", new BsonString("E11000 duplicate key error")), new ServerAddress());
+		given(collection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class)))
+			.willThrow(duplicate)
+			.willReturn(new Document("seq", 2 * BLOCK_SIZE));
+
+		assertEquals(Integer.toHexString(BLOCK_SIZE), dao.getNextId());
+		then(collection).should(times(2)).findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class));
+	}
+
+	@Test
+	public void testNextIdFail() throws EpickurException {
+		thrown.expect(EpickurException.class);
+		MongoCommandException error = new MongoCommandException(
+			new BsonDocument("code", new BsonInt32(2)).append("errmsg", new BsonString("error")), new ServerAddress());
+		given(collection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willThrow(error);
+
+		dao.getNextId();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBlockSizeZero() {
+		given(properties.getSequenceBlockSize()).willReturn(0);
+		new SequenceDAO(db, properties);
+	}
 
-		assertNotNull(actual);
-		assertEquals("0", actual);
-		then(collection).should().findOneAndUpdate(any(Document.class), any(Document.class));
+	@Test(expected = IllegalArgumentException.class)
+	public void testBlockSizeNegative() {
+		given(properties.getSequenceBlockSize()).willReturn(-1);
+		new SequenceDAO(db, properties);
 	}
 }
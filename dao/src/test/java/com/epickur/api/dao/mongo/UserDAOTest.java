@@ -46,15 +46,18 @@ public class UserDAOTest {
 	@Mock
 	private MongoCollection<Document> collection;
 	@Mock
-	private FindIterable<Document> findIteratble;
+	private MongoCollection<User> entityCollection;
 	@Mock
-	private MongoCursor<Document> cursor;
+	private FindIterable<User> findIteratble;
+	@Mock
+	private MongoCursor<User> cursor;
 	@InjectMocks
 	private UserDAO dao;
 
 	@Before
 	public void setUp() throws Exception {
 		given(db.getCollection(USER_COLL)).willReturn(collection);
+		given(collection.withDocumentClass(User.class)).willReturn(entityCollection);
 		dao.initCollection();
 	}
 
@@ -62,14 +65,14 @@ public class UserDAOTest {
 	public void testCreate() throws EpickurException {
 		// Given
 		User user = EntityGenerator.generateRandomUser();
-		Document document = user.getDocumentDBView();
+		User document = user;
 
 		// When
 		User actual = dao.create(user);
 
 		// Then
 		assertNotNull(actual);
-		then(collection).should().insertOne(document);
+		then(entityCollection).should().insertOne(document);
 	}
 
 	@Test
@@ -79,8 +82,8 @@ public class UserDAOTest {
 
 		// Given
 		User user = EntityGenerator.generateRandomUser();
-		Document document = user.getDocumentDBView();
-		willThrow(new MongoException("")).given(collection).insertOne(document);
+		User document = user;
+		willThrow(new MongoException("")).given(entityCollection).insertOne(document);
 
 		// When
 		dao.create(user);
@@ -91,8 +94,8 @@ public class UserDAOTest {
 		// Given
 		String userId = new ObjectId().toHexString();
 		Document query = new Document().append("_id", new ObjectId(userId));
-		Document found = EntityGenerator.generateRandomUser().getDocumentDBView();
-		given(collection.find(query)).willReturn(findIteratble);
+		User found = EntityGenerator.generateRandomUser();
+		given(entityCollection.find(query)).willReturn(findIteratble);
 		given(findIteratble.first()).willReturn(found);
 
 		// When
@@ -100,7 +103,7 @@ public class UserDAOTest {
 
 		// Then
 		assertTrue(actual.isPresent());
-		then(collection).should().find(query);
+		then(entityCollection).should().find(query);
 	}
 
 	@Test
@@ -111,7 +114,7 @@ public class UserDAOTest {
 		// Given
 		String userId = new ObjectId().toHexString();
 		Document query = new Document().append("_id", new ObjectId(userId));
-		given(collection.find(query)).willThrow(new MongoException(""));
+		given(entityCollection.find(query)).willThrow(new MongoException(""));
 
 		// When
 		dao.read(userId);
@@ -134,8 +137,8 @@ public class UserDAOTest {
 		// Given
 		String name = new ObjectId().toHexString();
 		Document query = new Document().append("name", name);
-		Document found = EntityGenerator.generateRandomUser().getDocumentDBView();
-		given(collection.find(query)).willReturn(findIteratble);
+		User found = EntityGenerator.generateRandomUser();
+		given(entityCollection.find(query)).willReturn(findIteratble);
 		given(findIteratble.first()).willReturn(found);
 
 		// When
@@ -143,7 +146,7 @@ public class UserDAOTest {
 
 		// Then
 		assertTrue(actual.isPresent());
-		then(collection).should().find(query);
+		then(entityCollection).should().find(query);
 	}
 
 	@Test
@@ -151,8 +154,8 @@ public class UserDAOTest {
 		// Given
 		String email = new ObjectId().toHexString();
 		Document query = new Document().append("email", email);
-		Document found = EntityGenerator.generateRandomUser().getDocumentDBView();
-		given(collection.find(query)).willReturn(findIteratble);
+		User found = EntityGenerator.generateRandomUser();
+		given(entityCollection.find(query)).willReturn(findIteratble);
 		given(findIteratble.first()).willReturn(found);
 
 		// When
@@ -160,14 +163,14 @@ public class UserDAOTest {
 
 		// Then
 		assertTrue(actual.isPresent());
-		then(collection).should().find(query);
+		then(entityCollection).should().find(query);
 	}
 
 	@Test
 	public void testReadAll() throws EpickurException {
 		// Given
-		Document found = EntityGenerator.generateRandomUser().getDocumentDBView();
-		given(collection.find()).willReturn(findIteratble);
+		User found = EntityGenerator.generateRandomUser();
+		given(entityCollection.find(new Document())).willReturn(findIteratble);
 		given(findIteratble.iterator()).willReturn(cursor);
 		given(cursor.hasNext()).willReturn(true, false);
 		given(cursor.next()).willReturn(found);
@@ -178,7 +181,7 @@ public class UserDAOTest {
 		// Then
 		assertNotNull(actuals);
 		assertThat(actuals, hasSize(1));
-		then(collection).should().find();
+		then(entityCollection).should().find(new Document());
 		then(cursor).should().close();
 	}
 
@@ -188,7 +191,7 @@ public class UserDAOTest {
 		thrown.expect(EpickurDBException.class);
 
 		// Given
-		given(collection.find()).willThrow(new MongoException(""));
+		given(entityCollection.find(new Document())).willThrow(new MongoException(""));
 
 		// When
 		dao.readAll();
@@ -198,29 +201,29 @@ public class UserDAOTest {
 	public void testUpdate() throws EpickurException {
 		// Given
 		User user = EntityGenerator.generateRandomUser();
-		Document document = user.getDocumentDBView();
-		given(collection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willReturn(document);
+		User document = user;
+		given(entityCollection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willReturn(document);
 
 		// When
 		User actual = dao.update(user);
 
 		// Then
 		assertNotNull(actual);
-		then(collection).should().findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class));
+		then(entityCollection).should().findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class));
 	}
 
 	@Test
 	public void testUpdateNotFound() throws Exception {
 		// Given
 		User user = EntityGenerator.generateRandomUser();
-		given(collection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willReturn(null);
+		given(entityCollection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willReturn(null);
 
 		// When
 		User actual = dao.update(user);
 
 		// Then
 		assertNull(actual);
-		then(collection).should().findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class));
+		then(entityCollection).should().findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class));
 	}
 
 	@Test
@@ -230,7 +233,7 @@ public class UserDAOTest {
 
 		// Given
 		User user = EntityGenerator.generateRandomUser();
-		given(collection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willThrow(new MongoException(""));
+		given(entityCollection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willThrow(new MongoException(""));
 
 		// When
 		dao.update(user);
@@ -242,8 +245,8 @@ public class UserDAOTest {
 		String name = EntityGenerator.generateRandomString();
 		String email = EntityGenerator.generateRandomString();
 		User user = EntityGenerator.generateRandomUser();
-		Document document = user.getDocumentDBView();
-		given(collection.find(any(Document.class))).willReturn(findIteratble);
+		User document = user;
+		given(entityCollection.find(any(Document.class))).willReturn(findIteratble);
 		given(findIteratble.first()).willReturn(document);
 
 		// When
@@ -251,6 +254,6 @@ public class UserDAOTest {
 
 		// Then
 		assertTrue(actual);
-		then(collection).should().find(any(Document.class));
+		then(entityCollection).should().find(any(Document.class));
 	}
 }
@@ -4,37 +4,59 @@ import com.epickur.api.entity.Voucher;
 import com.epickur.api.exception.EpickurDBException;
 import com.epickur.api.exception.EpickurException;
 import com.epickur.api.helper.EntityGenerator;
+import com.mongodb.Block;
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.MongoException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonDocument;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
+import org.joda.time.DateTime;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static com.epickur.api.dao.CollectionsName.VOUCHER_COLL;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 
 @RunWith(MockitoJUnitRunner.class)
 public class VoucherDAOTest {
@@ -46,15 +68,18 @@ public class VoucherDAOTest {
 	@Mock
 	private MongoCollection<Document> collection;
 	@Mock
-	private FindIterable<Document> findIteratble;
+	private MongoCollection<Voucher> entityCollection;
 	@Mock
-	private MongoCursor<Document> cursor;
+	private FindIterable<Voucher> findIteratble;
+	@Mock
+	private MongoCursor<Voucher> cursor;
 	@InjectMocks
 	private VoucherDAO dao;
 
 	@Before
 	public void setUp() throws Exception {
 		given(db.getCollection(VOUCHER_COLL)).willReturn(collection);
+		given(collection.withDocumentClass(Voucher.class)).willReturn(entityCollection);
 		dao.initCollection();
 	}
 
@@ -62,14 +87,14 @@ public class VoucherDAOTest {
 	public void testCreate() throws EpickurException {
 		// Given
 		Voucher voucher = EntityGenerator.generateVoucher();
-		Document document = voucher.getDocumentDBView();
+		Voucher document = voucher;
 
 		// When
 		Voucher actual = dao.create(voucher);
 
 		// Then
 		assertNotNull(actual);
-		then(collection).should().insertOne(document);
+		then(entityCollection).should().insertOne(document);
 	}
 
 	@Test
@@ -79,8 +104,8 @@ public class VoucherDAOTest {
 
 		// Given
 		Voucher voucher = EntityGenerator.generateVoucher();
-		Document document = voucher.getDocumentDBView();
-		willThrow(new MongoException("")).given(collection).insertOne(document);
+		Voucher document = voucher;
+		willThrow(new MongoException("")).given(entityCollection).insertOne(document);
 
 		// When
 		dao.create(voucher);
@@ -91,8 +116,8 @@ public class VoucherDAOTest {
 		// Given
 		String code = new ObjectId().toHexString();
 		Document query = new Document().append("code", code);
-		Document found = EntityGenerator.generateVoucher().getDocumentDBView();
-		given(collection.find(query)).willReturn(findIteratble);
+		Voucher found = EntityGenerator.generateVoucher();
+		given(entityCollection.find(query)).willReturn(findIteratble);
 		given(findIteratble.first()).willReturn(found);
 
 		// When
@@ -100,7 +125,7 @@ public class VoucherDAOTest {
 
 		// Then
 		assertTrue(actual.isPresent());
-		then(collection).should().find(query);
+		then(entityCollection).should().find(query);
 	}
 
 	@Test
@@ -111,7 +136,7 @@ public class VoucherDAOTest {
 		// Given
 		String code = new ObjectId().toHexString();
 		Document query = new Document().append("code", code);
-		given(collection.find(query)).willThrow(new MongoException(""));
+		given(entityCollection.find(query)).willThrow(new MongoException(""));
 
 		// When
 		dao.read(code);
@@ -120,8 +145,8 @@ public class VoucherDAOTest {
 	@Test
 	public void testReadToClean() throws EpickurException {
 		// Given
-		Document found = EntityGenerator.generateVoucher().getDocumentDBView();
-		given(collection.find(any(Bson.class))).willReturn(findIteratble);
+		Voucher found = EntityGenerator.generateVoucher();
+		given(entityCollection.find(any(Bson.class))).willReturn(findIteratble);
 		given(findIteratble.iterator()).willReturn(cursor);
 		given(cursor.hasNext()).willReturn(true, false);
 		given(cursor.next()).willReturn(found);
@@ -132,7 +157,7 @@ public class VoucherDAOTest {
 		// Then
 		assertNotNull(actual);
 		assertThat(actual, hasSize(1));
-		then(collection).should().find(any(Bson.class));
+		then(entityCollection).should().find(any(Bson.class));
 	}
 
 	@Test
@@ -141,12 +166,64 @@ public class VoucherDAOTest {
 		thrown.expect(EpickurDBException.class);
 
 		// Given
-		given(collection.find(any(Bson.class))).willThrow(new MongoException(""));
+		given(entityCollection.find(any(Bson.class))).willThrow(new MongoException(""));
 
 		// When
 		dao.readToClean();
 	}
 
+	@Test
+	public void testExpireOutdated() throws EpickurException {
+		// Given
+		DateTime now = new DateTime();
+		given(collection.updateMany(any(Bson.class), any(Bson.class))).willReturn(UpdateResult.acknowledged(5, 5L, null));
+
+		// When
+		long actual = dao.expireOutdated(now);
+
+		// Then
+		assertEquals(5L, actual);
+		ArgumentCaptor<Bson> update = ArgumentCaptor.forClass(Bson.class);
+		then(collection).should().updateMany(any(Bson.class), update.capture());
+		Document set = (Document) ((Document) update.getValue()).get("$set");
+		assertEquals("expired", set.get("status"));
+		assertEquals(now.getMillis(), set.get("updatedAt"));
+	}
+
+	@Test
+	public void testExpireOutdatedMongoException() throws EpickurException {
+		// Then
+		thrown.expect(EpickurDBException.class);
+
+		// Given
+		given(collection.updateMany(any(Bson.class), any(Bson.class))).willThrow(new MongoException(""));
+
+		// When
+		dao.expireOutdated(new DateTime());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testForEachExpiredAt() throws EpickurException {
+		// Given
+		FindIterable<Document> documents = mock(FindIterable.class);
+		given(collection.find(any(Bson.class))).willReturn(documents);
+		given(documents.projection(any(Bson.class))).willReturn(documents);
+		willAnswer(invocation -> {
+			Block<Document> block = invocation.getArgument(0);
+			block.apply(new Document("code", "AAA"));
+			block.apply(new Document("code", "BBB"));
+			return null;
+		}).given(documents).forEach(any(Block.class));
+		List<String> codes = new ArrayList<>();
+
+		// When
+		dao.forEachExpiredAt(new DateTime(), codes::add);
+
+		// Then
+		assertEquals(Arrays.asList("AAA", "BBB"), codes);
+	}
+
 	@Test
 	public void testReadAll() throws EpickurException {
 		// Then
@@ -160,29 +237,29 @@ public class VoucherDAOTest {
 	public void testUpdate() throws EpickurException {
 		// Given
 		Voucher voucher = EntityGenerator.generateVoucher();
-		Document document = voucher.getDocumentDBView();
-		given(collection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willReturn(document);
+		Voucher document = voucher;
+		given(entityCollection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willReturn(document);
 
 		// When
 		Voucher actual = dao.update(voucher);
 
 		// Then
 		assertNotNull(actual);
-		then(collection).should().findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class));
+		then(entityCollection).should().findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class));
 	}
 
 	@Test
 	public void testUpdateNotFound() throws Exception {
 		// Given
 		Voucher voucher = EntityGenerator.generateVoucher();
-		given(collection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willReturn(null);
+		given(entityCollection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willReturn(null);
 
 		// When
 		Voucher actual = dao.update(voucher);
 
 		// Then
 		assertNull(actual);
-		then(collection).should().findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class));
+		then(entityCollection).should().findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class));
 	}
 
 	@Test
@@ -192,9 +269,151 @@ public class VoucherDAOTest {
 
 		// Given
 		Voucher voucher = EntityGenerator.generateVoucher();
-		given(collection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willThrow(new MongoException(""));
+		given(entityCollection.findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class))).willThrow(new MongoException(""));
 
 		// When
 		dao.update(voucher);
 	}
+
+	@Test
+	public void testCreateAll() throws EpickurException {
+		// Given
+		List<Voucher> vouchers = Arrays.asList(EntityGenerator.generateVoucher(), EntityGenerator.generateVoucher());
+
+		// When
+		List<Voucher> actual = dao.createAll(vouchers, true);
+
+		// Then
+		assertThat(actual, hasSize(2));
+		then(entityCollection).should().insertMany(eq(vouchers), any(InsertManyOptions.class));
+	}
+
+	@Test
+	public void testCreateAllBulkWriteException() throws EpickurException {
+		// Given
+		List<Voucher> vouchers = Arrays.asList(EntityGenerator.generateVoucher(), EntityGenerator.generateVoucher());
+		BulkWriteError error = new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1);
+		willThrow(new MongoBulkWriteException(BulkWriteResult.acknowledged(1, 0, 0, 0, Collections.emptyList()), Collections.singletonList(error),
+			null, new ServerAddress())).given(entityCollection).insertMany(eq(vouchers), any(InsertManyOptions.class));
+
+		try {
+			// When
+			dao.createAll(vouchers, false);
+		} catch (final EpickurDBException e) {
+			// Then
+			assertEquals("createAll", e.getOperation());
+			assertEquals(Collections.singletonMap(1, "duplicate key"), e.getErrors());
+			return;
+		}
+		throw new AssertionError("EpickurDBException expected");
+	}
+
+	@Test
+	public void testUpdateAll() throws EpickurException {
+		// Given
+		Voucher voucher = EntityGenerator.generateVoucher();
+		voucher.setId(new ObjectId());
+		given(entityCollection.bulkWrite(anyList(), any(BulkWriteOptions.class))).willReturn(BulkWriteResult.acknowledged(0, 1, 0, 1,
+			Collections.emptyList()));
+
+		// When
+		long actual = dao.updateAll(Collections.singletonList(voucher), false);
+
+		// Then
+		assertEquals(1, actual);
+		then(entityCollection).should().bulkWrite(anyList(), any(BulkWriteOptions.class));
+	}
+
+	@Test
+	public void testUpdateAllEmpty() throws EpickurException {
+		// When
+		long actual = dao.updateAll(Collections.emptyList(), false);
+
+		// Then
+		assertEquals(0, actual);
+		then(entityCollection).shouldHaveZeroInteractions();
+	}
+
+	@Test
+	public void testDeleteWhere() throws EpickurException {
+		// Given
+		Document filter = new Document("status", "expired");
+		given(collection.deleteMany(filter)).willReturn(DeleteResult.acknowledged(3));
+
+		// When
+		long actual = dao.deleteWhere(filter);
+
+		// Then
+		assertEquals(3, actual);
+	}
+
+	@Test
+	public void testDeleteWhereMongoException() throws EpickurException {
+		// Then
+		thrown.expect(EpickurDBException.class);
+
+		// Given
+		Document filter = new Document("status", "expired");
+		given(collection.deleteMany(filter)).willThrow(new MongoException(""));
+
+		// When
+		dao.deleteWhere(filter);
+	}
+
+	@Test
+	public void testRedeemUntil() throws EpickurException {
+		// Given
+		Voucher voucher = EntityGenerator.generateVoucher();
+		Document filter = new Document("code", voucher.getCode()).append("expirationType", "until").append("status", "valid");
+		given(entityCollection.findOneAndUpdate(eq(filter), any(Document.class), any(FindOneAndUpdateOptions.class))).willReturn(voucher);
+
+		// When
+		Optional<Voucher> actual = dao.redeem(voucher.getCode());
+
+		// Then
+		assertTrue(actual.isPresent());
+		then(entityCollection).should().findOneAndUpdate(eq(filter), any(Document.class), any(FindOneAndUpdateOptions.class));
+	}
+
+	@Test
+	public void testRedeemOneTime() throws EpickurException {
+		// Given
+		Voucher voucher = EntityGenerator.generateVoucher();
+		Document filter = new Document("code", voucher.getCode()).append("expirationType", "onetime").append("status", "valid");
+		given(entityCollection.findOneAndUpdate(eq(filter), any(Document.class), any(FindOneAndUpdateOptions.class))).willReturn(voucher);
+
+		// When
+		Optional<Voucher> actual = dao.redeem(voucher.getCode());
+
+		// Then
+		assertTrue(actual.isPresent());
+		then(entityCollection).should(times(2)).findOneAndUpdate(any(Document.class), any(Document.class), any(FindOneAndUpdateOptions.class));
+	}
+
+	@Test
+	public void testRedeemNotValid() throws EpickurException {
+		// When
+		Optional<Voucher> actual = dao.redeem(EntityGenerator.generateRandomString());
+
+		// Then
+		assertFalse(actual.isPresent());
+	}
+
+	@Test
+	public void testRevertUntil() throws EpickurException {
+		// Given
+		Voucher voucher = EntityGenerator.generateVoucher();
+		Document filter = new Document("code", voucher.getCode()).append("expirationType", "until").append("usedCount", new Document("$gt", 0));
+		Document update = new Document("$inc", new Document("usedCount", -1));
+		given(entityCollection.findOneAndUpdate(eq(filter), any(Document.class), any(FindOneAndUpdateOptions.class))).willReturn(voucher);
+
+		// When
+		Optional<Voucher> actual = dao.revert(voucher.getCode());
+
+		// Then
+		assertTrue(actual.isPresent());
+		ArgumentCaptor<Document> captor = ArgumentCaptor.forClass(Document.class);
+		then(entityCollection).should().findOneAndUpdate(eq(filter), captor.capture(), any(FindOneAndUpdateOptions.class));
+		assertEquals(update.get("$inc"), captor.getValue().get("$inc"));
+	}
 }
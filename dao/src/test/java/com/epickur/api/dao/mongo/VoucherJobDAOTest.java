@@ -0,0 +1,154 @@
+package com.epickur.api.dao.mongo;
+
+import com.epickur.api.entity.VoucherGenerationJob;
+import com.epickur.api.exception.EpickurDBException;
+import com.epickur.api.exception.EpickurException;
+import com.mongodb.MongoException;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.epickur.api.dao.CollectionsName.VOUCHER_JOB_COLL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+@RunWith(MockitoJUnitRunner.class)
+public class VoucherJobDAOTest {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+	@Mock
+	private MongoDatabase db;
+	@Mock
+	private MongoCollection<Document> collection;
+	@Mock
+	private FindIterable<Document> findIterable;
+	private VoucherJobDAO dao;
+
+	@Before
+	public void setUp() {
+		given(db.getCollection(VOUCHER_JOB_COLL)).willReturn(collection);
+		dao = new VoucherJobDAO(db);
+		dao.postConstruct();
+	}
+
+	@Test
+	public void testGetIndexes() {
+		// When
+		List<IndexModel> actual = dao.getIndexes();
+
+		// Then
+		assertEquals(1, actual.size());
+		assertEquals("createdAt_1", actual.get(0).getOptions().getName());
+		assertEquals(TimeUnit.DAYS.toSeconds(7), actual.get(0).getOptions().getExpireAfter(TimeUnit.SECONDS).longValue());
+	}
+
+	@Test
+	public void testCreate() throws EpickurException {
+		// Given
+		VoucherGenerationJob job = new VoucherGenerationJob(500);
+
+		// When
+		dao.create(job);
+
+		// Then
+		ArgumentCaptor<Document> document = ArgumentCaptor.forClass(Document.class);
+		then(collection).should().insertOne(document.capture());
+		assertEquals(job.getId(), document.getValue().getString("_id"));
+		assertEquals("RUNNING", document.getValue().getString("status"));
+		assertEquals(500, document.getValue().getInteger("count").intValue());
+		assertEquals(new Date(job.getUpdatedAt()), document.getValue().getDate("createdAt"));
+	}
+
+	@Test
+	public void testRead() throws EpickurException {
+		// Given
+		given(collection.find(any(Bson.class))).willReturn(findIterable);
+		given(findIterable.first()).willReturn(new Document("_id", "id").append("status", "DONE").append("count", 2).append("generated", 2)
+			.append("codes", Arrays.asList("A", "B")).append("updatedAt", 1000L));
+
+		// When
+		Optional<VoucherGenerationJob> actual = dao.read("id");
+
+		// Then
+		assertTrue(actual.isPresent());
+		assertEquals(VoucherGenerationJob.Status.DONE, actual.get().getStatus());
+		assertEquals(2, actual.get().getGenerated());
+		assertEquals(Arrays.asList("A", "B"), actual.get().getCodes());
+		assertEquals(1000L, actual.get().getUpdatedAt());
+	}
+
+	@Test
+	public void testReadMissing() throws EpickurException {
+		// Given
+		given(collection.find(any(Bson.class))).willReturn(findIterable);
+
+		// When
+		Optional<VoucherGenerationJob> actual = dao.read("id");
+
+		// Then
+		assertFalse(actual.isPresent());
+	}
+
+	@Test
+	public void testDone() throws EpickurException {
+		// Given
+		given(collection.updateOne(any(Bson.class), any(Bson.class))).willReturn(UpdateResult.acknowledged(1, 1L, null));
+
+		// When
+		dao.done("id", Arrays.asList("A", "B"));
+
+		// Then
+		ArgumentCaptor<Document> update = ArgumentCaptor.forClass(Document.class);
+		then(collection).should().updateOne(any(Bson.class), update.capture());
+		Document set = (Document) update.getValue().get("$set");
+		assertEquals("DONE", set.getString("status"));
+		assertEquals(2, set.getInteger("generated").intValue());
+	}
+
+	@Test
+	public void testFailStale() throws EpickurException {
+		// Given
+		given(collection.updateOne(any(Bson.class), any(Bson.class))).willReturn(UpdateResult.acknowledged(0, 0L, null));
+
+		// When
+		boolean actual = dao.failStale("id", 1000L);
+
+		// Then
+		assertFalse(actual);
+	}
+
+	@Test
+	public void testProgressFail() throws EpickurException {
+		// Given
+		given(collection.updateOne(any(Bson.class), any(Bson.class))).willThrow(new MongoException("down"));
+
+		// Then
+		thrown.expect(EpickurDBException.class);
+
+		// When
+		dao.progress("id", 10);
+	}
+}
@@ -0,0 +1,65 @@
+package com.epickur.api.dao.mongo.codec;
+
+import com.epickur.api.entity.Caterer;
+import com.epickur.api.helper.EntityGenerator;
+import com.mongodb.MongoClient;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class CatererCodecTest {
+
+	private CatererCodec codec;
+
+	@Before
+	public void setUp() {
+		codec = new CatererCodec();
+	}
+
+	@Test
+	public void testEncodeDecode() throws Exception {
+		// Given
+		Caterer expected = EntityGenerator.generateRandomCatererWithId();
+
+		// When
+		BsonDocument document = new BsonDocument();
+		codec.encode(new BsonDocumentWriter(document), expected, EncoderContext.builder().build());
+		Caterer actual = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+
+		// Then
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testDecodeJacksonDocument() throws Exception {
+		// Given
+		Caterer expected = EntityGenerator.generateRandomCatererWithId();
+		BsonDocument document = expected.getDocumentDBView().toBsonDocument(BsonDocument.class, MongoClient.getDefaultCodecRegistry());
+
+		// When
+		Caterer actual = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+
+		// Then
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testAvailabilityNotPersisted() throws Exception {
+		// Given
+		Caterer caterer = EntityGenerator.generateRandomCatererWithId();
+
+		// When
+		BsonDocument document = new BsonDocument();
+		codec.encode(new BsonDocumentWriter(document), caterer, EncoderContext.builder().build());
+
+		// Then
+		assertFalse(document.getDocument("workingTimes").containsKey("availability"));
+	}
+}
@@ -0,0 +1,51 @@
+package com.epickur.api.dao.mongo.codec;
+
+import com.epickur.api.entity.Dish;
+import com.epickur.api.helper.EntityGenerator;
+import com.mongodb.MongoClient;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DishCodecTest {
+
+	private DishCodec codec;
+
+	@Before
+	public void setUp() {
+		codec = new DishCodec();
+	}
+
+	@Test
+	public void testEncodeDecode() throws Exception {
+		// Given
+		Dish expected = EntityGenerator.generateRandomDishWithId();
+
+		// When
+		BsonDocument document = new BsonDocument();
+		codec.encode(new BsonDocumentWriter(document), expected, EncoderContext.builder().build());
+		Dish actual = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+
+		// Then
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testDecodeJacksonDocument() throws Exception {
+		// Given
+		Dish expected = EntityGenerator.generateRandomDishWithId();
+		BsonDocument document = expected.getDocumentDBView().toBsonDocument(BsonDocument.class, MongoClient.getDefaultCodecRegistry());
+
+		// When
+		Dish actual = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+
+		// Then
+		assertEquals(expected, actual);
+	}
+}
@@ -0,0 +1,46 @@
+package com.epickur.api.dao.mongo.codec;
+
+import com.epickur.api.entity.EmailMessage;
+import com.epickur.api.enumeration.EmailStatus;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class EmailMessageCodecTest {
+
+	@Test
+	public void testEncodeDecode() throws Exception {
+		// Given
+		EmailMessageCodec codec = new EmailMessageCodec();
+		EmailMessage expected = new EmailMessage();
+		expected.setId(new ObjectId());
+		expected.setCreatedAt(new DateTime());
+		expected.setType("ORDER_USER_NEW");
+		expected.setSubject("Subject");
+		expected.setContent("<p>Content</p>");
+		expected.setTo(Arrays.asList("a@example.com", "b@example.com"));
+		expected.setStatus(EmailStatus.SENDING);
+		expected.setAttempts(2);
+		expected.setNextAttemptAt(new DateTime());
+		expected.setLockedUntil(new DateTime().plusMinutes(1));
+		expected.setLastError("timeout");
+
+		// When
+		BsonDocument document = new BsonDocument();
+		codec.encode(new BsonDocumentWriter(document), expected, EncoderContext.builder().build());
+		EmailMessage actual = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+
+		// Then
+		assertEquals("sending", document.getString("status").getValue());
+		assertEquals(expected, actual);
+	}
+}
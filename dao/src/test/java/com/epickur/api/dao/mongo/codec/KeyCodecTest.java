@@ -0,0 +1,51 @@
+package com.epickur.api.dao.mongo.codec;
+
+import com.epickur.api.entity.Key;
+import com.epickur.api.helper.EntityGenerator;
+import com.mongodb.MongoClient;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class KeyCodecTest {
+
+	private KeyCodec codec;
+
+	@Before
+	public void setUp() {
+		codec = new KeyCodec();
+	}
+
+	@Test
+	public void testEncodeDecode() throws Exception {
+		// Given
+		Key expected = EntityGenerator.generateRandomAdminKey();
+
+		// When
+		BsonDocument document = new BsonDocument();
+		codec.encode(new BsonDocumentWriter(document), expected, EncoderContext.builder().build());
+		Key actual = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+
+		// Then
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testDecodeJacksonDocument() throws Exception {
+		// Given
+		Key expected = EntityGenerator.generateRandomAdminKey();
+		BsonDocument document = expected.getDocumentDBView().toBsonDocument(BsonDocument.class, MongoClient.getDefaultCodecRegistry());
+
+		// When
+		Key actual = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+
+		// Then
+		assertEquals(expected, actual);
+	}
+}
@@ -0,0 +1,70 @@
+package com.epickur.api.dao.mongo.codec;
+
+import com.epickur.api.entity.Log;
+import com.mongodb.MongoClient;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class LogCodecTest {
+
+	private LogCodec codec;
+
+	@Before
+	public void setUp() {
+		codec = new LogCodec();
+	}
+
+	@Test
+	public void testEncodeDecode() throws Exception {
+		// Given
+		Log expected = generateLog();
+
+		// When
+		BsonDocument document = new BsonDocument();
+		codec.encode(new BsonDocumentWriter(document), expected, EncoderContext.builder().build());
+		Log actual = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+
+		// Then
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testDecodeJacksonDocument() throws Exception {
+		// Given
+		Log expected = generateLog();
+		BsonDocument document = expected.getDocumentDBView().toBsonDocument(BsonDocument.class, MongoClient.getDefaultCodecRegistry());
+
+		// When
+		Log actual = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+
+		// Then
+		assertEquals(expected, actual);
+	}
+
+	private Log generateLog() {
+		Log log = new Log();
+		log.setId(new ObjectId());
+		log.setTime(new DateTime());
+		log.setUrl("http://localhost/api/users");
+		Map<String, String> args = new HashMap<>();
+		args.put("key", "value");
+		log.setArgs(args);
+		log.setMethod("GET");
+		log.setProtocol("HTTP/1.1");
+		log.setRemoteAddr("127.0.0.1");
+		log.setUserAgent("junit");
+		return log;
+	}
+}
@@ -0,0 +1,55 @@
+package com.epickur.api.dao.mongo.codec;
+
+import com.epickur.api.entity.Order;
+import com.epickur.api.helper.EntityGenerator;
+import com.mongodb.MongoClient;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class OrderCodecTest {
+
+	private OrderCodec codec;
+
+	@Before
+	public void setUp() {
+		codec = new OrderCodec();
+	}
+
+	@Test
+	public void testEncodeDecode() throws Exception {
+		// Given
+		Order expected = EntityGenerator.generateRandomOrderWithId();
+		expected.setExpiresAt(new DateTime().plusMinutes(3));
+		expected.setVoucherReverted(true);
+
+		// When
+		BsonDocument document = new BsonDocument();
+		codec.encode(new BsonDocumentWriter(document), expected, EncoderContext.builder().build());
+		Order actual = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+
+		// Then
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testDecodeJacksonDocument() throws Exception {
+		// Given
+		Order expected = EntityGenerator.generateRandomOrderWithId();
+		expected.setExpiresAt(new DateTime().plusMinutes(3));
+		BsonDocument document = expected.getDocumentDBView().toBsonDocument(BsonDocument.class, MongoClient.getDefaultCodecRegistry());
+
+		// When
+		Order actual = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+
+		// Then
+		assertEquals(expected, actual);
+	}
+}
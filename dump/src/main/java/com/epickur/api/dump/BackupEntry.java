@@ -0,0 +1,28 @@
+package com.epickur.api.dump;
+
+import lombok.Data;
+
+/**
+ * A backup recorded in the {@link BackupManifest}.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Data
+public final class BackupEntry {
+
+	/** Name of the archive */
+	private String name;
+	/** Type */
+	private BackupType type;
+	/** Name of the full backup this one applies to, its own name for a full backup */
+	private String base;
+	/** Documents changed after this date have been exported, in milliseconds. Null for a full backup */
+	private Long since;
+	/** Date the export started, in milliseconds */
+	private long startedAt;
+	/** Number of documents */
+	private long documents;
+	/** Size of the archive, in bytes */
+	private long compressedBytes;
+}
@@ -0,0 +1,103 @@
+package com.epickur.api.dump;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * List of the backups, oldest first. A restore replays the last full backup, then the incremental backups taken after it, in order.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Data
+public final class BackupManifest {
+
+	/** Backups, oldest first */
+	private List<BackupEntry> backups = new ArrayList<>();
+
+	/**
+	 * @return The last backup
+	 */
+	@JsonIgnore
+	public Optional<BackupEntry> getLast() {
+		return backups.isEmpty() ? Optional.empty() : Optional.of(backups.get(backups.size() - 1));
+	}
+
+	/**
+	 * @param now          The current date, in milliseconds
+	 * @param fullInterval The max age of a full backup, in milliseconds
+	 * @return The full backup the next backup can be an increment of, if it is recent enough
+	 */
+	public Optional<BackupEntry> getBase(final long now, final long fullInterval) {
+		for (int i = backups.size() - 1; i >= 0; i--) {
+			final BackupEntry entry = backups.get(i);
+			if (entry.getType() == BackupType.FULL) {
+				return entry.getStartedAt() > now - fullInterval ? Optional.of(entry) : Optional.empty();
+			}
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * @return The backups to replay to restore the last state: the last full backup and the incremental backups taken after it
+	 */
+	@JsonIgnore
+	public List<BackupEntry> getChain() {
+		return getLast().map(last -> getChain(last.getName())).orElseGet(ArrayList::new);
+	}
+
+	/**
+	 * @param name The name of a backup
+	 * @return The backups to replay to restore the state of that backup, in order. Empty if it is unknown or has no full backup anymore
+	 */
+	public List<BackupEntry> getChain(final String name) {
+		for (int i = backups.size() - 1; i >= 0; i--) {
+			if (backups.get(i).getName().equals(name)) {
+				for (int j = i; j >= 0; j--) {
+					if (backups.get(j).getType() == BackupType.FULL) {
+						return new ArrayList<>(backups.subList(j, i + 1));
+					}
+				}
+				break;
+			}
+		}
+		return new ArrayList<>();
+	}
+
+	/**
+	 * @param name The name of a backup
+	 * @return True if the backup is listed
+	 */
+	public boolean contains(final String name) {
+		return backups.stream().anyMatch(entry -> entry.getName().equals(name));
+	}
+
+	/**
+	 * @param entry The backup to add, the most recent one
+	 */
+	public void add(final BackupEntry entry) {
+		backups.add(entry);
+	}
+
+	/**
+	 * Remove the backups older than the last fullKept full backups. The incremental backups are removed with their full backup.
+	 *
+	 * @param fullKept The number of full backups to keep
+	 * @return The backups removed
+	 */
+	public List<BackupEntry> prune(final int fullKept) {
+		int full = 0;
+		for (int i = backups.size() - 1; i >= 0; i--) {
+			if (backups.get(i).getType() == BackupType.FULL && ++full == fullKept) {
+				final List<BackupEntry> removed = new ArrayList<>(backups.subList(0, i));
+				backups.subList(0, i).clear();
+				return removed;
+			}
+		}
+		return new ArrayList<>();
+	}
+}
@@ -0,0 +1,18 @@
+package com.epickur.api.dump;
+
+/**
+ * Type of a backup.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public enum BackupType {
+	/**
+	 * All the documents
+	 */
+	FULL,
+	/**
+	 * The documents changed since the previous backup
+	 */
+	INCREMENTAL
+}
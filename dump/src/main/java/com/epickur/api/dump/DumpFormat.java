@@ -0,0 +1,38 @@
+package com.epickur.api.dump;
+
+/**
+ * Format of the dump archives.
+ * <p>
+ * An archive is a standard gzip stream made of independent members, so that the members can be compressed in parallel. Each member holds
+ * one frame: a type byte, the collection name (modified UTF-8, as written by {@link java.io.DataOutput#writeUTF}), the length of the
+ * payload as an int and the payload. The first frame is a {@link #HEADER}, then the frames of the collections are interleaved.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public final class DumpFormat {
+
+	/**
+	 * Version of the format, in the header
+	 */
+	public static final int VERSION = 1;
+	/**
+	 * Frame holding a BSON document describing the archive
+	 */
+	public static final byte HEADER = 'H';
+	/**
+	 * Frame holding the BSON index specifications of a collection
+	 */
+	public static final byte INDEXES = 'I';
+	/**
+	 * Frame holding BSON documents of a collection
+	 */
+	public static final byte DATA = 'D';
+	/**
+	 * Extension of the archives
+	 */
+	public static final String EXTENSION = ".archive.gz";
+
+	private DumpFormat() {
+	}
+}
@@ -0,0 +1,86 @@
+package com.epickur.api.dump;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Read the frames of an archive, in order.
+ * <p>
+ * {@link GZIPInputStream} only goes on with the next member when the underlying stream says bytes are available, which a network stream
+ * does not always do between two members. The source is wrapped so that available() blocks until it knows whether the stream has ended.
+ *
+ * @author cph
+ * @version 1.0
+ */
+final class DumpReader {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final DataInputStream in;
+
+	DumpReader(final InputStream source) throws IOException {
+		this.in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new EndAwareInputStream(source), BUFFER_SIZE), BUFFER_SIZE));
+	}
+
+	/**
+	 * @return The next frame, null at the end of the archive
+	 * @throws IOException If the archive could not be read
+	 */
+	Frame next() throws IOException {
+		final int type = in.read();
+		if (type < 0) {
+			return null;
+		}
+		final String collection = in.readUTF();
+		final byte[] payload = new byte[in.readInt()];
+		in.readFully(payload);
+		return new Frame((byte) type, collection, payload);
+	}
+
+	/**
+	 * A frame of the archive.
+	 */
+	static final class Frame {
+
+		final byte type;
+		final String collection;
+		final byte[] payload;
+
+		Frame(final byte type, final String collection, final byte[] payload) {
+			this.type = type;
+			this.collection = collection;
+			this.payload = payload;
+		}
+	}
+
+	private static final class EndAwareInputStream extends FilterInputStream {
+
+		EndAwareInputStream(final InputStream in) {
+			super(new PushbackInputStream(in, 1));
+		}
+
+		@Override
+		public int available() throws IOException {
+			final int available = in.available();
+			if (available > 0) {
+				return available;
+			}
+			final int next = in.read();
+			if (next < 0) {
+				return 0;
+			}
+			((PushbackInputStream) in).unread(next);
+			return 1;
+		}
+
+		@Override
+		public void close() {
+			// The source is closed by its owner
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package com.epickur.api.dump;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of a dump.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public final class DumpStats {
+
+	private final long start = System.nanoTime();
+	private final AtomicLong collections = new AtomicLong();
+	private final AtomicLong documents = new AtomicLong();
+	private final AtomicLong bytes = new AtomicLong();
+	private volatile long compressedBytes;
+	private volatile long millis;
+
+	void addCollection() {
+		collections.incrementAndGet();
+	}
+
+	void addDocuments(final long count, final long size) {
+		documents.addAndGet(count);
+		bytes.addAndGet(size);
+	}
+
+	void done(final long compressed) {
+		this.compressedBytes = compressed;
+		this.millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+	}
+
+	/**
+	 * @return The number of collections
+	 */
+	public long getCollections() {
+		return collections.get();
+	}
+
+	/**
+	 * @return The number of documents
+	 */
+	public long getDocuments() {
+		return documents.get();
+	}
+
+	/**
+	 * @return The size of the documents, in bytes
+	 */
+	public long getBytes() {
+		return bytes.get();
+	}
+
+	/**
+	 * @return The size of the archive, in bytes
+	 */
+	public long getCompressedBytes() {
+		return compressedBytes;
+	}
+
+	/**
+	 * @return The duration, in milliseconds
+	 */
+	public long getMillis() {
+		return millis;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d collections, %d documents, %d bytes compressed to %d in %d ms", getCollections(), getDocuments(), getBytes(),
+			compressedBytes, millis);
+	}
+}
@@ -0,0 +1,56 @@
+package com.epickur.api.dump;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Write the frames of an archive. Each frame is compressed by the calling thread, only the write of the compressed bytes is serialized.
+ *
+ * @author cph
+ * @version 1.0
+ */
+final class DumpWriter {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final OutputStream out;
+	private final AtomicLong written = new AtomicLong();
+
+	DumpWriter(final OutputStream out) {
+		this.out = out;
+	}
+
+	/**
+	 * Compress a frame and append it to the archive
+	 *
+	 * @param type       The frame type
+	 * @param collection The collection name
+	 * @param payload    The payload
+	 * @param length     The length of the payload
+	 * @throws IOException If the archive could not be written
+	 */
+	void write(final byte type, final String collection, final byte[] payload, final int length) throws IOException {
+		final ByteArrayOutputStream member = new ByteArrayOutputStream(length / 4 + 64);
+		try (final DataOutputStream frame = new DataOutputStream(new GZIPOutputStream(member, BUFFER_SIZE))) {
+			frame.writeByte(type);
+			frame.writeUTF(collection);
+			frame.writeInt(length);
+			frame.write(payload, 0, length);
+		}
+		synchronized (out) {
+			member.writeTo(out);
+		}
+		written.addAndGet(member.size());
+	}
+
+	/**
+	 * @return The number of compressed bytes written
+	 */
+	long getWritten() {
+		return written.get();
+	}
+}
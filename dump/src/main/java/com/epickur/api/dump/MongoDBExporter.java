@@ -0,0 +1,269 @@
+package com.epickur.api.dump;
+
+import com.epickur.api.config.EpickurProperties;
+import com.mongodb.MongoException;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import lombok.extern.log4j.Log4j2;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.gt;
+import static com.mongodb.client.model.Filters.or;
+
+/**
+ * Export the database to a {@link DumpFormat} archive, without mongodump nor temporary files.
+ * <p>
+ * The collections are exported in parallel by mongo.backup.threads threads. Each one reads its collection as raw BSON, so the documents are
+ * never decoded, and compresses it in blocks of mongo.backup.block bytes that are appended to the archive as soon as they are ready.
+ * <p>
+ * An incremental export only reads the documents changed since a date. The change date of a collection is its first field among
+ * {@link #CHANGE_DATES} that leads an index: the entities have an updatedAt, the request logs only a time. The documents without it are
+ * always exported. A collection without such an index is scanned in full, on the first date each document has. The deletions are not
+ * seen, they are caught up by the next full export.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Log4j2
+@Component
+public class MongoDBExporter {
+
+	private static final String SYSTEM_PREFIX = "system.";
+	private static final int BATCH_SIZE = 1000;
+	/**
+	 * Fields holding the change date of a document, in milliseconds, by priority
+	 */
+	static final List<String> CHANGE_DATES = Arrays.asList("updatedAt", "createdAt", "time");
+
+	private final MongoDatabase db;
+	private final int threads;
+	private final int blockSize;
+
+	@Autowired
+	public MongoDBExporter(final MongoDatabase db, final EpickurProperties properties) {
+		this.db = db;
+		this.threads = properties.getMongoBackupThreads();
+		this.blockSize = properties.getMongoBackupBlockSize();
+	}
+
+	/**
+	 * Export all the documents. The stream is not closed.
+	 *
+	 * @param out The stream to write the archive to
+	 * @return The statistics of the dump
+	 * @throws IOException If the export failed
+	 */
+	public DumpStats export(final OutputStream out) throws IOException {
+		return export(out, null);
+	}
+
+	/**
+	 * Export the documents changed after a date. The stream is not closed.
+	 *
+	 * @param out   The stream to write the archive to
+	 * @param since The date in milliseconds, null to export all the documents
+	 * @return The statistics of the dump
+	 * @throws IOException If the export failed
+	 */
+	public DumpStats export(final OutputStream out, final Long since) throws IOException {
+		final List<String> collections = db.listCollectionNames().into(new ArrayList<>()).stream()
+			.filter(name -> !name.startsWith(SYSTEM_PREFIX))
+			.sorted()
+			.collect(Collectors.toList());
+		final DumpWriter writer = new DumpWriter(out);
+		final DumpStats stats = new DumpStats();
+		final byte[] header = toBson(new Document("format", DumpFormat.VERSION)
+			.append("database", db.getName())
+			.append("createdAt", System.currentTimeMillis())
+			.append("type", since == null ? BackupType.FULL.name() : BackupType.INCREMENTAL.name())
+			.append("since", since)
+			.append("collections", collections));
+		writer.write(DumpFormat.HEADER, db.getName(), header, header.length);
+
+		final AtomicInteger threadCount = new AtomicInteger();
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, collections.size())), runnable -> {
+			final Thread thread = new Thread(runnable, "mongo-export-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			final List<Future<Void>> futures = new ArrayList<>(collections.size());
+			for (final String collection : collections) {
+				futures.add(executor.submit(() -> {
+					exportCollection(collection, since, writer, stats);
+					return null;
+				}));
+			}
+			for (final Future<Void> future : futures) {
+				future.get();
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Export interrupted", e);
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException("Export failed: " + e.getCause().getLocalizedMessage(), e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		stats.done(writer.getWritten());
+		return stats;
+	}
+
+	/**
+	 * @param collection The collection name
+	 * @param since      The date of the oldest change to export, null for all the documents
+	 * @param writer     The archive
+	 * @param stats      The statistics
+	 * @throws IOException If the archive could not be written
+	 */
+	private void exportCollection(final String collection, final Long since, final DumpWriter writer, final DumpStats stats)
+		throws IOException {
+		final long start = System.currentTimeMillis();
+		final Block block = new Block(blockSize);
+		try {
+			final List<Document> indexes = db.getCollection(collection).listIndexes().into(new ArrayList<>());
+			for (final Document index : indexes) {
+				block.write(toBson(index));
+			}
+			writer.write(DumpFormat.INDEXES, collection, block.buffer(), block.size());
+			block.reset();
+
+			long documents = 0;
+			long bytes = 0;
+			final MongoCollection<RawBsonDocument> raw = db.getCollection(collection, RawBsonDocument.class);
+			final FindIterable<RawBsonDocument> documentsFound = since == null ? raw.find() : raw.find(changedSince(collection, indexes, since));
+			try (final MongoCursor<RawBsonDocument> cursor = documentsFound.batchSize(BATCH_SIZE).iterator()) {
+				while (cursor.hasNext()) {
+					final ByteBuffer document = cursor.next().getByteBuffer().asNIO();
+					bytes += document.remaining();
+					documents++;
+					block.write(document.array(), document.arrayOffset() + document.position(), document.remaining());
+					if (block.size() >= blockSize) {
+						writer.write(DumpFormat.DATA, collection, block.buffer(), block.size());
+						block.reset();
+					}
+				}
+			}
+			if (block.size() > 0) {
+				writer.write(DumpFormat.DATA, collection, block.buffer(), block.size());
+			}
+			stats.addCollection();
+			stats.addDocuments(documents, bytes);
+			log.debug("Collection {} exported: {} documents in {} ms", collection, documents, System.currentTimeMillis() - start);
+		} catch (final MongoException e) {
+			throw new IOException("Could not export " + collection + ": " + e.getLocalizedMessage(), e);
+		}
+	}
+
+	/**
+	 * @param collection The collection name
+	 * @param indexes    The indexes of the collection
+	 * @param since      The date in milliseconds
+	 * @return The filter of the documents changed after since, on the indexed change date when there is one
+	 */
+	private static Bson changedSince(final String collection, final List<Document> indexes, final long since) {
+		final Optional<String> field = changeDate(indexes);
+		if (!field.isPresent()) {
+			log.debug("Collection {} has no index on a change date, it is scanned in full", collection);
+			return changedSince(since);
+		}
+		return changedSince(field.get(), since);
+	}
+
+	/**
+	 * @param indexes The indexes of a collection
+	 * @return The first change date that leads an index holding every document
+	 */
+	static Optional<String> changeDate(final List<Document> indexes) {
+		for (final String field : CHANGE_DATES) {
+			for (final Document index : indexes) {
+				final Document key = index.get("key", Document.class);
+				if (key != null && !key.isEmpty() && field.equals(key.keySet().iterator().next())
+					&& !index.getBoolean("sparse", false) && !index.containsKey("partialFilterExpression")) {
+					return Optional.of(field);
+				}
+			}
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * Both branches are answered by an index on the field, the missing values being indexed as null.
+	 *
+	 * @param field The change date
+	 * @param since The date in milliseconds
+	 * @return The filter of the documents whose change date is after since, or that have no change date
+	 */
+	static Bson changedSince(final String field, final long since) {
+		return or(gt(field, since), eq(field, null));
+	}
+
+	/**
+	 * @param since The date in milliseconds
+	 * @return The filter of the documents whose first change date is after since, or that have no change date
+	 */
+	static Bson changedSince(final long since) {
+		final List<Bson> clauses = new ArrayList<>(CHANGE_DATES.size() + 1);
+		final List<Bson> absent = new ArrayList<>(CHANGE_DATES.size());
+		for (final String field : CHANGE_DATES) {
+			final List<Bson> clause = new ArrayList<>(absent);
+			clause.add(gt(field, since));
+			clauses.add(clause.size() == 1 ? clause.get(0) : and(clause));
+			absent.add(eq(field, null));
+		}
+		clauses.add(and(absent));
+		return or(clauses);
+	}
+
+	/**
+	 * @param document A document
+	 * @return The document in BSON
+	 */
+	private static byte[] toBson(final Document document) {
+		final ByteBuffer buffer = new RawBsonDocument(document, new DocumentCodec()).getByteBuffer().asNIO();
+		final byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Buffer of a block, reused for all the blocks of a collection
+	 */
+	private static final class Block extends ByteArrayOutputStream {
+
+		private Block(final int size) {
+			super(size + size / 8);
+		}
+
+		private byte[] buffer() {
+			return buf;
+		}
+	}
+}
@@ -0,0 +1,287 @@
+package com.epickur.api.dump;
+
+import com.epickur.api.config.EpickurProperties;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import lombok.extern.log4j.Log4j2;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.mongodb.client.model.Filters.eq;
+
+/**
+ * Restore an archive written by {@link MongoDBExporter}.
+ * <p>
+ * The archive is read by the calling thread and its data blocks are inserted by mongo.restore.threads threads, with unordered bulk writes.
+ * At most mongo.restore.pending blocks are read ahead, which bounds the memory used. The indexes are built once all the data is loaded.
+ * <p>
+ * A full archive replaces its collections: they are dropped first. An incremental archive upserts its documents by _id, so the incremental
+ * archives must be restored in order, on top of their full archive.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Log4j2
+@Component
+public class MongoDBRestorer {
+
+	private static final String ID_INDEX = "_id_";
+	/**
+	 * Delay between two progress logs, in milliseconds
+	 */
+	private static final long PROGRESS_INTERVAL = TimeUnit.SECONDS.toMillis(10);
+
+	private final MongoDatabase db;
+	private final int threads;
+	private final int pending;
+
+	@Autowired
+	public MongoDBRestorer(final MongoDatabase db, final EpickurProperties properties) {
+		this.db = db;
+		this.threads = properties.getMongoRestoreThreads();
+		this.pending = properties.getMongoRestorePending();
+	}
+
+	/**
+	 * Restore an archive. The stream is not closed.
+	 *
+	 * @param in The archive
+	 * @return The statistics of the restore
+	 * @throws IOException If the archive could not be read or restored
+	 */
+	public RestoreStats restore(final InputStream in) throws IOException {
+		final DumpReader reader = new DumpReader(in);
+		final DumpReader.Frame first = reader.next();
+		if (first == null || first.type != DumpFormat.HEADER) {
+			throw new IOException("Not a dump archive");
+		}
+		final Document header = decode(first.payload).get(0);
+		if (header.getInteger("format", 0) != DumpFormat.VERSION) {
+			throw new IOException("Unsupported archive format: " + header.get("format"));
+		}
+		final boolean incremental = BackupType.INCREMENTAL.name().equals(header.getString("type"));
+		@SuppressWarnings("unchecked") final List<String> collections = (List<String>) header.get("collections");
+		log.info("Restoring {} archive of {} taken at {}: {} collections", incremental ? "incremental" : "full", header.getString("database"),
+			header.get("createdAt"), collections.size());
+
+		final RestoreStats stats = new RestoreStats();
+		try {
+			if (!incremental) {
+				for (final String collection : collections) {
+					db.getCollection(collection).drop();
+					db.createCollection(collection);
+				}
+			}
+			final Map<String, List<Document>> indexes = new LinkedHashMap<>();
+			loadData(reader, incremental, indexes, stats);
+			buildIndexes(indexes, stats);
+		} catch (final MongoException e) {
+			throw new IOException("Could not restore: " + e.getLocalizedMessage(), e);
+		}
+		stats.done();
+		log.info("Restore done: {}", stats);
+		return stats;
+	}
+
+	/**
+	 * @param reader      The archive
+	 * @param incremental True to upsert the documents
+	 * @param indexes     The index specifications found, by collection
+	 * @param stats       The statistics
+	 * @throws IOException If the archive could not be read or restored
+	 */
+	private void loadData(final DumpReader reader, final boolean incremental, final Map<String, List<Document>> indexes,
+		final RestoreStats stats) throws IOException {
+		final ExecutorService executor = newExecutor("mongo-restore-");
+		final Semaphore readAhead = new Semaphore(pending);
+		final List<Future<Void>> futures = new ArrayList<>();
+		long lastProgress = System.currentTimeMillis();
+		try {
+			DumpReader.Frame frame;
+			while ((frame = reader.next()) != null) {
+				if (frame.type == DumpFormat.INDEXES) {
+					indexes.put(frame.collection, decode(frame.payload));
+				} else if (frame.type == DumpFormat.DATA) {
+					readAhead.acquire();
+					final DumpReader.Frame block = frame;
+					futures.add(executor.submit(() -> {
+						try {
+							loadBlock(block, incremental, stats);
+							return null;
+						} finally {
+							readAhead.release();
+						}
+					}));
+					checkDone(futures);
+				}
+				if (System.currentTimeMillis() - lastProgress > PROGRESS_INTERVAL) {
+					lastProgress = System.currentTimeMillis();
+					log.info("Restore in progress: {}", stats);
+				}
+			}
+			for (final Future<Void> future : futures) {
+				future.get();
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Restore interrupted", e);
+		} catch (final ExecutionException e) {
+			throw toIOException(e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void loadBlock(final DumpReader.Frame block, final boolean incremental, final RestoreStats stats) throws IOException {
+		final List<RawBsonDocument> documents = split(block.payload);
+		final MongoCollection<RawBsonDocument> collection = db.getCollection(block.collection, RawBsonDocument.class);
+		try {
+			if (incremental) {
+				final List<WriteModel<RawBsonDocument>> upserts = new ArrayList<>(documents.size());
+				final UpdateOptions upsert = new UpdateOptions().upsert(true);
+				for (final RawBsonDocument document : documents) {
+					upserts.add(new ReplaceOneModel<>(eq("_id", document.get("_id")), document, upsert));
+				}
+				collection.bulkWrite(upserts, new BulkWriteOptions().ordered(false));
+			} else {
+				collection.insertMany(documents, new InsertManyOptions().ordered(false));
+			}
+		} catch (final MongoException e) {
+			throw new IOException("Could not restore " + block.collection + ": " + e.getLocalizedMessage(), e);
+		}
+		stats.addDocuments(documents.size(), block.payload.length);
+	}
+
+	/**
+	 * Build the indexes, one collection per thread. The _id index always exists.
+	 *
+	 * @param indexes The index specifications, by collection
+	 * @param stats   The statistics
+	 * @throws IOException If an index could not be built
+	 */
+	private void buildIndexes(final Map<String, List<Document>> indexes, final RestoreStats stats) throws IOException {
+		final ExecutorService executor = newExecutor("mongo-index-");
+		try {
+			final List<Future<Void>> futures = new ArrayList<>(indexes.size());
+			for (final Map.Entry<String, List<Document>> entry : indexes.entrySet()) {
+				futures.add(executor.submit(() -> {
+					buildIndexes(entry.getKey(), entry.getValue(), stats);
+					return null;
+				}));
+			}
+			for (final Future<Void> future : futures) {
+				future.get();
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Restore interrupted", e);
+		} catch (final ExecutionException e) {
+			throw toIOException(e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void buildIndexes(final String collection, final List<Document> specifications, final RestoreStats stats) throws IOException {
+		final List<Document> indexes = new ArrayList<>(specifications.size());
+		for (final Document specification : specifications) {
+			if (!ID_INDEX.equals(specification.getString("name"))) {
+				specification.remove("ns");
+				indexes.add(specification);
+			}
+		}
+		if (!indexes.isEmpty()) {
+			final long start = System.currentTimeMillis();
+			try {
+				db.runCommand(new Document("createIndexes", collection).append("indexes", indexes));
+			} catch (final MongoException e) {
+				throw new IOException("Could not build the indexes of " + collection + ": " + e.getLocalizedMessage(), e);
+			}
+			log.debug("{} indexes of {} built in {} ms", indexes.size(), collection, System.currentTimeMillis() - start);
+		}
+		stats.addIndexes(indexes.size());
+		stats.addCollection();
+	}
+
+	private ExecutorService newExecutor(final String prefix) {
+		final AtomicInteger threadCount = new AtomicInteger();
+		return Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+			final Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Surface the failure of a finished block as soon as possible, and forget the blocks done.
+	 *
+	 * @param futures The blocks submitted
+	 * @throws ExecutionException   If a block failed
+	 * @throws InterruptedException Never, the futures are done
+	 */
+	private static void checkDone(final List<Future<Void>> futures) throws ExecutionException, InterruptedException {
+		final Iterator<Future<Void>> iterator = futures.iterator();
+		while (iterator.hasNext()) {
+			final Future<Void> future = iterator.next();
+			if (future.isDone()) {
+				future.get();
+				iterator.remove();
+			}
+		}
+	}
+
+	private static IOException toIOException(final ExecutionException e) {
+		if (e.getCause() instanceof IOException) {
+			return (IOException) e.getCause();
+		}
+		return new IOException("Restore failed: " + e.getCause().getLocalizedMessage(), e.getCause());
+	}
+
+	/**
+	 * @param payload Concatenated BSON documents
+	 * @return The documents, sharing the payload
+	 */
+	private static List<RawBsonDocument> split(final byte[] payload) {
+		final List<RawBsonDocument> documents = new ArrayList<>();
+		int offset = 0;
+		while (offset < payload.length) {
+			final int size = (payload[offset] & 0xff) | (payload[offset + 1] & 0xff) << 8 | (payload[offset + 2] & 0xff) << 16
+				| (payload[offset + 3] & 0xff) << 24;
+			documents.add(new RawBsonDocument(payload, offset, size));
+			offset += size;
+		}
+		return documents;
+	}
+
+	private static List<Document> decode(final byte[] payload) {
+		final List<Document> documents = new ArrayList<>();
+		for (final RawBsonDocument document : split(payload)) {
+			documents.add(document.decode(new DocumentCodec()));
+		}
+		return documents;
+	}
+}
@@ -0,0 +1,90 @@
+package com.epickur.api.dump;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of a restore.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public final class RestoreStats {
+
+	private final long start = System.nanoTime();
+	private final AtomicLong collections = new AtomicLong();
+	private final AtomicLong documents = new AtomicLong();
+	private final AtomicLong bytes = new AtomicLong();
+	private final AtomicLong indexes = new AtomicLong();
+	private volatile long millis = -1;
+
+	void addCollection() {
+		collections.incrementAndGet();
+	}
+
+	void addDocuments(final long count, final long size) {
+		documents.addAndGet(count);
+		bytes.addAndGet(size);
+	}
+
+	void addIndexes(final long count) {
+		indexes.addAndGet(count);
+	}
+
+	void done() {
+		this.millis = elapsed();
+	}
+
+	/**
+	 * @return The number of collections
+	 */
+	public long getCollections() {
+		return collections.get();
+	}
+
+	/**
+	 * @return The number of documents
+	 */
+	public long getDocuments() {
+		return documents.get();
+	}
+
+	/**
+	 * @return The size of the documents, in bytes
+	 */
+	public long getBytes() {
+		return bytes.get();
+	}
+
+	/**
+	 * @return The number of indexes built
+	 */
+	public long getIndexes() {
+		return indexes.get();
+	}
+
+	/**
+	 * @return The duration, in milliseconds. The time elapsed so far while the restore runs
+	 */
+	public long getMillis() {
+		return millis < 0 ? elapsed() : millis;
+	}
+
+	/**
+	 * @return The number of documents restored per second
+	 */
+	public long getDocumentsPerSecond() {
+		return getDocuments() * 1000 / Math.max(1, getMillis());
+	}
+
+	private long elapsed() {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+	}
+
+	@Override
+	public String toString() {
+		final long duration = Math.max(1, getMillis());
+		return String.format("%d collections, %d documents, %d bytes, %d indexes in %d ms (%d documents/s, %.1f MB/s)", getCollections(),
+			getDocuments(), getBytes(), getIndexes(), getMillis(), getDocumentsPerSecond(), getBytes() * 1000.0 / duration / (1024 * 1024));
+	}
+}
@@ -23,6 +23,6 @@ public class MongoDumpConfigTest {
 	@Bean
 	@Scope("prototype")
 	public MongoDBDump dbDump() {
-		return new MongoDBDump(CommonsUtil.getCurrentDateInFormat("ddMMyyyy-hhmmss"));
+		return new MongoDBDump(CommonsUtil.getCurrentDateInFormat("ddMMyyyy-HHmmss"));
 	}
 }
@@ -0,0 +1,71 @@
+package com.epickur.api.dump;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class BackupManifestTest {
+
+	private BackupManifest manifest;
+
+	@Before
+	public void setUp() {
+		manifest = new BackupManifest();
+		manifest.add(entry("full1", BackupType.FULL, 100));
+		manifest.add(entry("inc1", BackupType.INCREMENTAL, 200));
+		manifest.add(entry("full2", BackupType.FULL, 300));
+		manifest.add(entry("inc2", BackupType.INCREMENTAL, 400));
+		manifest.add(entry("inc3", BackupType.INCREMENTAL, 500));
+	}
+
+	@Test
+	public void testGetBase() {
+		// When
+		final String base = manifest.getBase(600, 1000).get().getName();
+
+		// Then
+		assertEquals("full2", base);
+		assertFalse(manifest.getBase(1300, 1000).isPresent());
+		assertFalse(new BackupManifest().getBase(600, 1000).isPresent());
+	}
+
+	@Test
+	public void testGetChain() {
+		// When
+		final List<BackupEntry> chain = manifest.getChain();
+
+		// Then
+		assertEquals(Arrays.asList("full2", "inc2", "inc3"), names(chain));
+		assertEquals(Arrays.asList("full1", "inc1"), names(manifest.getChain("inc1")));
+		assertEquals(0, manifest.getChain("unknown").size());
+	}
+
+	@Test
+	public void testPrune() {
+		// When
+		final List<BackupEntry> removed = manifest.prune(1);
+
+		// Then
+		assertEquals(Arrays.asList("full1", "inc1"), names(removed));
+		assertEquals(Arrays.asList("full2", "inc2", "inc3"), names(manifest.getBackups()));
+		assertEquals(0, manifest.prune(2).size());
+	}
+
+	private static BackupEntry entry(final String name, final BackupType type, final long startedAt) {
+		final BackupEntry entry = new BackupEntry();
+		entry.setName(name);
+		entry.setType(type);
+		entry.setStartedAt(startedAt);
+		return entry;
+	}
+
+	private static List<String> names(final List<BackupEntry> entries) {
+		return entries.stream().map(BackupEntry::getName).collect(Collectors.toList());
+	}
+}
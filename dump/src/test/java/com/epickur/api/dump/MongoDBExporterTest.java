@@ -0,0 +1,258 @@
+package com.epickur.api.dump;
+
+import com.epickur.api.config.EpickurProperties;
+import com.mongodb.MongoClient;
+import com.mongodb.MongoException;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.ListIndexesIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.MongoIterable;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt64;
+import org.bson.BsonNull;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.conversions.Bson;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MongoDBExporterTest {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+	@Mock
+	private MongoDatabase db;
+	@Mock
+	private MongoIterable<String> collectionNames;
+	@Mock
+	private EpickurProperties properties;
+	private MongoDBExporter exporter;
+
+	@Before
+	public void setUp() {
+		given(properties.getMongoBackupThreads()).willReturn(2);
+		given(properties.getMongoBackupBlockSize()).willReturn(100);
+		given(db.getName()).willReturn("epickur");
+		given(db.listCollectionNames()).willReturn(collectionNames);
+		given(collectionNames.into(any())).willAnswer(invocation -> {
+			final Collection<String> target = invocation.getArgument(0);
+			target.addAll(Arrays.asList("users", "system.indexes", "dishes"));
+			return target;
+		});
+		exporter = new MongoDBExporter(db, properties);
+	}
+
+	@Test
+	public void testExport() throws IOException {
+		// Given
+		final List<Document> users = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			users.add(new Document("_id", i).append("name", "user" + i));
+		}
+		givenCollection("users", users);
+		givenCollection("dishes", new ArrayList<>());
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		// When
+		DumpStats stats = exporter.export(out);
+
+		// Then
+		assertEquals(2, stats.getCollections());
+		assertEquals(10, stats.getDocuments());
+		assertEquals(out.size(), stats.getCompressedBytes());
+		final Map<String, List<Document>> documents = new HashMap<>();
+		final Map<String, List<Document>> indexes = new HashMap<>();
+		try (final DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())))) {
+			assertEquals(DumpFormat.HEADER, in.readByte());
+			assertEquals("epickur", in.readUTF());
+			final Document header = read(in, in.readInt()).get(0);
+			assertEquals(DumpFormat.VERSION, header.getInteger("format").intValue());
+			assertEquals(Arrays.asList("dishes", "users"), header.get("collections"));
+			while (true) {
+				final byte type;
+				try {
+					type = in.readByte();
+				} catch (final EOFException e) {
+					break;
+				}
+				final String collection = in.readUTF();
+				final List<Document> frame = read(in, in.readInt());
+				(type == DumpFormat.INDEXES ? indexes : documents).computeIfAbsent(collection, name -> new ArrayList<>()).addAll(frame);
+			}
+		}
+		assertEquals(users, documents.get("users"));
+		assertEquals(null, documents.get("dishes"));
+		assertEquals("_id_", indexes.get("users").get(0).getString("name"));
+		assertEquals("_id_", indexes.get("dishes").get(0).getString("name"));
+	}
+
+	@Test
+	public void testExportFail() throws IOException {
+		// Given
+		givenCollection("dishes", new ArrayList<>());
+		@SuppressWarnings("unchecked") final MongoCollection<Document> users = mock(MongoCollection.class);
+		given(db.getCollection("users")).willReturn(users);
+		given(users.listIndexes()).willThrow(new MongoException("down"));
+
+		// Then
+		thrown.expect(IOException.class);
+		thrown.expectMessage("Could not export users");
+
+		// When
+		exporter.export(new ByteArrayOutputStream());
+	}
+
+	@Test
+	public void testExportIncremental() throws IOException {
+		// Given
+		final MongoCollection<RawBsonDocument> users = givenCollection("users", Collections.singletonList(new Document("_id", 1)),
+			index("updatedAt_1", new Document("updatedAt", 1)));
+		final MongoCollection<RawBsonDocument> dishes = givenCollection("dishes", new ArrayList<>());
+		final FindIterable<RawBsonDocument> usersFound = users.find();
+		final FindIterable<RawBsonDocument> dishesFound = dishes.find();
+		given(users.find(any(Bson.class))).willReturn(usersFound);
+		given(dishes.find(any(Bson.class))).willReturn(dishesFound);
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		// When
+		DumpStats stats = exporter.export(out, 1000L);
+
+		// Then
+		assertEquals(1, stats.getDocuments());
+		final ArgumentCaptor<Bson> filter = ArgumentCaptor.forClass(Bson.class);
+		then(users).should().find(filter.capture());
+		assertEquals(toBsonDocument(MongoDBExporter.changedSince("updatedAt", 1000L)), toBsonDocument(filter.getValue()));
+		then(dishes).should().find(any(Bson.class));
+		try (final DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())))) {
+			assertEquals(DumpFormat.HEADER, in.readByte());
+			in.readUTF();
+			final Document header = read(in, in.readInt()).get(0);
+			assertEquals(BackupType.INCREMENTAL.name(), header.getString("type"));
+			assertEquals(1000L, header.getLong("since").longValue());
+		}
+	}
+
+	@Test
+	public void testChangedSince() {
+		// When
+		final BsonDocument filter = MongoDBExporter.changedSince(1000L).toBsonDocument(Document.class, MongoClient.getDefaultCodecRegistry());
+
+		// Then
+		final BsonArray clauses = filter.getArray("$or");
+		assertEquals(MongoDBExporter.CHANGE_DATES.size() + 1, clauses.size());
+		assertEquals(new BsonDocument("updatedAt", new BsonDocument("$gt", new BsonInt64(1000L))), clauses.get(0));
+		assertEquals(new BsonDocument("updatedAt", new BsonNull()).append("createdAt", new BsonDocument("$gt", new BsonInt64(1000L))),
+			clauses.get(1));
+		assertEquals(new BsonDocument("updatedAt", new BsonNull()).append("createdAt", new BsonNull()).append("time", new BsonNull()),
+			clauses.get(3));
+	}
+
+	@Test
+	public void testChangeDate() {
+		// Given
+		final Document id = index("_id_", new Document("_id", 1));
+		final Document createdAt = index("createdAt_1", new Document("createdAt", 1));
+		final Document updatedAt = index("updatedAt_1", new Document("updatedAt", 1));
+		final Document sparse = index("time_1", new Document("time", 1)).append("sparse", true);
+		final Document compound = index("status_1_updatedAt_1", new Document("status", 1).append("updatedAt", 1));
+
+		// Then
+		assertEquals(Optional.of("updatedAt"), MongoDBExporter.changeDate(Arrays.asList(id, createdAt, updatedAt)));
+		assertEquals(Optional.of("createdAt"), MongoDBExporter.changeDate(Arrays.asList(id, createdAt, compound)));
+		assertEquals(Optional.empty(), MongoDBExporter.changeDate(Arrays.asList(id, sparse, compound)));
+	}
+
+	@Test
+	public void testChangedSinceIndexed() {
+		// When
+		final BsonDocument filter = toBsonDocument(MongoDBExporter.changedSince("time", 1000L));
+
+		// Then
+		final BsonArray clauses = filter.getArray("$or");
+		assertEquals(2, clauses.size());
+		assertEquals(new BsonDocument("time", new BsonDocument("$gt", new BsonInt64(1000L))), clauses.get(0));
+		assertEquals(new BsonDocument("time", new BsonNull()), clauses.get(1));
+	}
+
+	private static BsonDocument toBsonDocument(final Bson filter) {
+		return filter.toBsonDocument(Document.class, MongoClient.getDefaultCodecRegistry());
+	}
+
+	private static Document index(final String name, final Document key) {
+		return new Document("v", 1).append("key", key).append("name", name);
+	}
+
+	@SuppressWarnings("unchecked")
+	private MongoCollection<RawBsonDocument> givenCollection(final String name, final List<Document> documents, final Document... extraIndexes) {
+		final MongoCollection<Document> collection = mock(MongoCollection.class);
+		final ListIndexesIterable<Document> indexes = mock(ListIndexesIterable.class);
+		given(db.getCollection(name)).willReturn(collection);
+		given(collection.listIndexes()).willReturn(indexes);
+		given(indexes.into(any())).willAnswer(invocation -> {
+			final Collection<Document> target = invocation.getArgument(0);
+			target.add(index("_id_", new Document("_id", 1)));
+			target.addAll(Arrays.asList(extraIndexes));
+			return target;
+		});
+
+		final MongoCollection<RawBsonDocument> raw = mock(MongoCollection.class);
+		final FindIterable<RawBsonDocument> find = mock(FindIterable.class);
+		final Iterator<Document> iterator = documents.iterator();
+		final MongoCursor<RawBsonDocument> cursor = mock(MongoCursor.class);
+		given(db.getCollection(name, RawBsonDocument.class)).willReturn(raw);
+		given(raw.find()).willReturn(find);
+		given(find.batchSize(anyInt())).willReturn(find);
+		given(find.iterator()).willReturn(cursor);
+		given(cursor.hasNext()).willAnswer(invocation -> iterator.hasNext());
+		given(cursor.next()).willAnswer(invocation -> new RawBsonDocument(iterator.next(), new DocumentCodec()));
+		return raw;
+	}
+
+	private static List<Document> read(final DataInputStream in, final int length) throws IOException {
+		final byte[] payload = new byte[length];
+		in.readFully(payload);
+		final List<Document> documents = new ArrayList<>();
+		int offset = 0;
+		while (offset < length) {
+			final int size = (payload[offset] & 0xff) | (payload[offset + 1] & 0xff) << 8 | (payload[offset + 2] & 0xff) << 16
+				| (payload[offset + 3] & 0xff) << 24;
+			documents.add(new RawBsonDocument(payload, offset, size).decode(new DocumentCodec()));
+			offset += size;
+		}
+		return documents;
+	}
+}
@@ -0,0 +1,206 @@
+package com.epickur.api.dump;
+
+import com.epickur.api.config.EpickurProperties;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.conversions.Bson;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MongoDBRestorerTest {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+	@Mock
+	private MongoDatabase db;
+	@Mock
+	private EpickurProperties properties;
+	@Mock
+	private MongoCollection<Document> users;
+	@Mock
+	private MongoCollection<RawBsonDocument> rawUsers;
+	private MongoDBRestorer restorer;
+
+	@Before
+	public void setUp() {
+		given(properties.getMongoRestoreThreads()).willReturn(2);
+		given(properties.getMongoRestorePending()).willReturn(2);
+		given(db.getCollection("users")).willReturn(users);
+		given(db.getCollection("users", RawBsonDocument.class)).willReturn(rawUsers);
+		restorer = new MongoDBRestorer(db, properties);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testRestore() throws IOException {
+		// Given
+		final List<Document> documents = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			documents.add(new Document("_id", i).append("name", "user" + i));
+		}
+		final byte[] archive = archive(null, documents.subList(0, 4), documents.subList(4, 10));
+
+		// When
+		final RestoreStats stats = restorer.restore(new UnavailableInputStream(archive));
+
+		// Then
+		assertEquals(10, stats.getDocuments());
+		assertEquals(1, stats.getCollections());
+		assertEquals(1, stats.getIndexes());
+		then(users).should().drop();
+		then(db).should().createCollection("users");
+		final ArgumentCaptor<List<RawBsonDocument>> inserted = ArgumentCaptor.forClass(List.class);
+		then(rawUsers).should(times(2)).insertMany(inserted.capture(), any(InsertManyOptions.class));
+		final List<Document> actual = new ArrayList<>();
+		for (final List<RawBsonDocument> block : inserted.getAllValues()) {
+			for (final RawBsonDocument document : block) {
+				actual.add(document.decode(new DocumentCodec()));
+			}
+		}
+		actual.sort((d1, d2) -> d1.getInteger("_id").compareTo(d2.getInteger("_id")));
+		assertEquals(documents, actual);
+		final ArgumentCaptor<Bson> command = ArgumentCaptor.forClass(Bson.class);
+		then(db).should().runCommand(command.capture());
+		final Document createIndexes = (Document) command.getValue();
+		assertEquals("users", createIndexes.getString("createIndexes"));
+		assertEquals(Collections.singletonList(new Document("v", 1).append("key", new Document("name", 1)).append("name", "name_1")),
+			createIndexes.get("indexes"));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testRestoreIncremental() throws IOException {
+		// Given
+		final byte[] archive = archive(1000L, Arrays.asList(new Document("_id", 1), new Document("_id", 2)));
+
+		// When
+		final RestoreStats stats = restorer.restore(new ByteArrayInputStream(archive));
+
+		// Then
+		assertEquals(2, stats.getDocuments());
+		then(users).should(never()).drop();
+		final ArgumentCaptor<List<WriteModel<RawBsonDocument>>> upserts = ArgumentCaptor.forClass(List.class);
+		then(rawUsers).should().bulkWrite(upserts.capture(), any());
+		assertEquals(2, upserts.getValue().size());
+		final ReplaceOneModel<RawBsonDocument> upsert = (ReplaceOneModel<RawBsonDocument>) upserts.getValue().get(0);
+		assertEquals(true, upsert.getOptions().isUpsert());
+	}
+
+	@Test
+	public void testRestoreFail() throws IOException {
+		// Given
+		final byte[] archive = archive(null, Collections.singletonList(new Document("_id", 1)));
+		willThrow(new MongoException("down")).given(rawUsers).insertMany(anyList(), any(InsertManyOptions.class));
+
+		// Then
+		thrown.expect(IOException.class);
+		thrown.expectMessage("Could not restore users");
+
+		// When
+		restorer.restore(new ByteArrayInputStream(archive));
+	}
+
+	@Test
+	public void testRestoreNotAnArchive() throws IOException {
+		// Given
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new DumpWriter(out).write(DumpFormat.DATA, "users", new byte[0], 0);
+
+		// Then
+		thrown.expect(IOException.class);
+		thrown.expectMessage("Not a dump archive");
+
+		// When
+		restorer.restore(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	@SafeVarargs
+	private static byte[] archive(final Long since, final List<Document>... blocks) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final DumpWriter writer = new DumpWriter(out);
+		final byte[] header = toBson(Collections.singletonList(new Document("format", DumpFormat.VERSION)
+			.append("database", "epickur")
+			.append("type", since == null ? BackupType.FULL.name() : BackupType.INCREMENTAL.name())
+			.append("since", since)
+			.append("collections", Collections.singletonList("users"))));
+		writer.write(DumpFormat.HEADER, "epickur", header, header.length);
+		final byte[] indexes = toBson(Arrays.asList(
+			new Document("v", 1).append("key", new Document("_id", 1)).append("name", "_id_").append("ns", "epickur.users"),
+			new Document("v", 1).append("key", new Document("name", 1)).append("name", "name_1").append("ns", "epickur.users")));
+		writer.write(DumpFormat.INDEXES, "users", indexes, indexes.length);
+		for (final List<Document> block : blocks) {
+			final byte[] data = toBson(block);
+			writer.write(DumpFormat.DATA, "users", data, data.length);
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] toBson(final List<Document> documents) {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (final Document document : documents) {
+			final ByteBuffer buffer = new RawBsonDocument(document, new DocumentCodec()).getByteBuffer().asNIO();
+			out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * A stream that never says bytes are available, like a network stream between two gzip members.
+	 */
+	private static final class UnavailableInputStream extends InputStream {
+
+		private final ByteArrayInputStream in;
+
+		UnavailableInputStream(final byte[] bytes) {
+			this.in = new ByteArrayInputStream(bytes);
+		}
+
+		@Override
+		public int read() {
+			return in.read();
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len) {
+			return in.read(b, off, Math.min(len, 7));
+		}
+
+		@Override
+		public int available() {
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package com.epickur.api.entity;
+
+import com.epickur.api.enumeration.EmailStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.joda.time.DateTime;
+
+import java.util.List;
+
+/**
+ * Email waiting in the outbox. The subject and content are rendered when the email is queued.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Data
+@ToString(callSuper = true, exclude = "content")
+@EqualsAndHashCode(callSuper = true)
+public final class EmailMessage extends AbstractMainDBEntity {
+
+	/** Email type */
+	private String type;
+	/** Subject */
+	private String subject;
+	/** Content in HTML */
+	private String content;
+	/** Recipients */
+	private List<String> to;
+	/** Status */
+	private EmailStatus status;
+	/** Number of failed attempts */
+	private Integer attempts;
+	/** Date of the next attempt */
+	private DateTime nextAttemptAt;
+	/** End of the claim of the worker sending it */
+	private DateTime lockedUntil;
+	/** Last error */
+	private String lastError;
+}
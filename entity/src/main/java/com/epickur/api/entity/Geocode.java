@@ -0,0 +1,45 @@
+package com.epickur.api.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of the geocoding of an address: its position, or the reason why it could not be found.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public final class Geocode {
+
+	/** Normalized address */
+	private String address;
+	/** Latitude, null if not found */
+	private Double latitude;
+	/** Longitude, null if not found */
+	private Double longitude;
+	/** Why the address could not be found */
+	private String error;
+	/** Date after which the result must be geocoded again, in milliseconds */
+	private long expiresAt;
+
+	/**
+	 * @return True if the address has been found
+	 */
+	public boolean isFound() {
+		return latitude != null && longitude != null;
+	}
+
+	/**
+	 * @return A new Geo at this position
+	 */
+	public Geo toGeo() {
+		final Geo geo = new Geo();
+		geo.setLatitude(latitude);
+		geo.setLongitude(longitude);
+		return geo;
+	}
+}
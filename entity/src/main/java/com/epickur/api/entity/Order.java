@@ -1,8 +1,10 @@
 package com.epickur.api.entity;
 
 import com.epickur.api.annotation.PickupdateValidate;
+import com.epickur.api.entity.deserialize.DateDeserializer;
 import com.epickur.api.entity.deserialize.ObjectIdDeserializer;
 import com.epickur.api.entity.deserialize.OrderStatusDeserializer;
+import com.epickur.api.entity.serialize.DateSerializer;
 import com.epickur.api.entity.serialize.ObjectIdSerializer;
 import com.epickur.api.entity.serialize.OrderStatusSerializer;
 import com.epickur.api.enumeration.Currency;
@@ -29,6 +31,7 @@ import org.bson.json.JsonMode;
 import org.bson.json.JsonWriterSettings;
 import org.bson.types.ObjectId;
 import org.hibernate.validator.constraints.NotBlank;
+import org.joda.time.DateTime;
 
 import javax.validation.constraints.NotNull;
 import java.io.IOException;
@@ -44,7 +47,7 @@ import java.util.Map.Entry;
 @PickupdateValidate(groups = { Create.class, Update.class })
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @JsonPropertyOrder(value = { "id", "readableId", "userId", "description", "quantity", "amount", "status", "currency", "pickupdate", "cardToken",
-		"chargeId", "paid", "dish", "voucher", "createdBy", "createdAt", "updatedAt" })
+		"chargeId", "paid", "dish", "voucher", "expiresAt", "createdBy", "createdAt", "updatedAt" })
 @Data
 @ToString(callSuper = true)
 @EqualsAndHashCode(callSuper = true)
@@ -108,6 +111,15 @@ public class Order extends AbstractMainDBEntity {
 	 * Order mode
 	 */
 	private OrderMode mode;
+	/**
+	 * Date after which the order is canceled if it is still pending
+	 */
+	private DateTime expiresAt;
+	/**
+	 * True once the voucher of the order has been reverted after its expiration. Stored only, not part of the API
+	 */
+	@JsonIgnore
+	private Boolean voucherReverted;
 	/**
 	 * Owner id
 	 */
@@ -129,6 +141,22 @@ public class Order extends AbstractMainDBEntity {
 		this.status = status;
 	}
 
+	/**
+	 * @return The expiration date
+	 */
+	@JsonSerialize(using = DateSerializer.class)
+	public DateTime getExpiresAt() {
+		return expiresAt;
+	}
+
+	/**
+	 * @param expiresAt The expiration date
+	 */
+	@JsonDeserialize(using = DateDeserializer.class)
+	public void setExpiresAt(final DateTime expiresAt) {
+		this.expiresAt = expiresAt;
+	}
+
 	/**
 	 * @return The user id that created the object
 	 */
@@ -155,6 +183,7 @@ public class Order extends AbstractMainDBEntity {
 	public void prepareForUpdateIntoDB() {
 		super.prepareForUpdateIntoDB();
 		this.setReadableId(null);
+		this.setExpiresAt(null);
 	}
 
 	/**
@@ -0,0 +1,75 @@
+package com.epickur.api.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A voucher generation running in background. It is returned to the caller, who polls it until it is done.
+ * <p>
+ * The job is stored in the database and updated as it progresses, so it can be polled on any server and survives a restart.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder(value = {"id", "status", "count", "generated", "error", "vouchers"})
+public final class VoucherGenerationJob {
+
+	/**
+	 * Status of a job
+	 */
+	public enum Status {
+		RUNNING, DONE, FAILED
+	}
+
+	/**
+	 * Job id
+	 */
+	private String id;
+	/**
+	 * Number of vouchers requested
+	 */
+	private int count;
+	private Status status;
+	/**
+	 * Number of vouchers inserted so far
+	 */
+	private int generated;
+	/**
+	 * Error message if the job failed
+	 */
+	private String error;
+	/**
+	 * Codes of the vouchers generated, once the job is done
+	 */
+	@JsonIgnore
+	private List<String> codes;
+	/**
+	 * Vouchers generated, read from their codes once the job is done
+	 */
+	private Set<Voucher> vouchers;
+	/**
+	 * Last time the job was updated, in milliseconds. A running job updates it after each batch.
+	 */
+	@JsonIgnore
+	private long updatedAt;
+
+	/**
+	 * @param count The number of vouchers requested
+	 */
+	public VoucherGenerationJob(final int count) {
+		this.id = UUID.randomUUID().toString();
+		this.count = count;
+		this.status = Status.RUNNING;
+		this.updatedAt = System.currentTimeMillis();
+	}
+}
@@ -4,17 +4,24 @@ import com.epickur.api.entity.AbstractEntity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.ToString;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
- * Hours
+ * Hours. The lists of time frames are copied into unmodifiable lists, so the hours can only change through their setters, which bump a
+ * version. {@link WorkingTimes} compares this version to know if its availability is still valid.
  *
  * @author cph
  * @version 1.0
@@ -22,7 +29,7 @@ import java.util.stream.Collectors;
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @JsonPropertyOrder(value = { "mon", "tue", "wed", "thu", "fri", "sat", "sun" })
 @Data
-@ToString(callSuper = true)
+@ToString(callSuper = true, exclude = "version")
 @EqualsAndHashCode(callSuper = false)
 public final class Hours extends AbstractEntity {
 
@@ -54,6 +61,12 @@ public final class Hours extends AbstractEntity {
 	 * Sunday
 	 */
 	private List<TimeFrame> sun;
+	/**
+	 * Incremented by each setter
+	 */
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private final transient AtomicInteger version = new AtomicInteger();
 
 	/**
 	 * @param prefix The prefix
@@ -116,4 +129,71 @@ public final class Hours extends AbstractEntity {
 		}
 		return null;
 	}
+
+	/**
+	 * @param mon The time frames of the Monday
+	 */
+	public void setMon(final List<TimeFrame> mon) {
+		this.mon = freeze(mon);
+		version.incrementAndGet();
+	}
+
+	/**
+	 * @param tue The time frames of the Tuesday
+	 */
+	public void setTue(final List<TimeFrame> tue) {
+		this.tue = freeze(tue);
+		version.incrementAndGet();
+	}
+
+	/**
+	 * @param wed The time frames of the Wednesday
+	 */
+	public void setWed(final List<TimeFrame> wed) {
+		this.wed = freeze(wed);
+		version.incrementAndGet();
+	}
+
+	/**
+	 * @param thu The time frames of the Thursday
+	 */
+	public void setThu(final List<TimeFrame> thu) {
+		this.thu = freeze(thu);
+		version.incrementAndGet();
+	}
+
+	/**
+	 * @param fri The time frames of the Friday
+	 */
+	public void setFri(final List<TimeFrame> fri) {
+		this.fri = freeze(fri);
+		version.incrementAndGet();
+	}
+
+	/**
+	 * @param sat The time frames of the Saturday
+	 */
+	public void setSat(final List<TimeFrame> sat) {
+		this.sat = freeze(sat);
+		version.incrementAndGet();
+	}
+
+	/**
+	 * @param sun The time frames of the Sunday
+	 */
+	public void setSun(final List<TimeFrame> sun) {
+		this.sun = freeze(sun);
+		version.incrementAndGet();
+	}
+
+	/**
+	 * @return The version, incremented each time the hours change
+	 */
+	int version() {
+		return version.get();
+	}
+
+	private static List<TimeFrame> freeze(final List<TimeFrame> timeFrames) {
+		return timeFrames == null ? null : Collections.unmodifiableList(new ArrayList<>(timeFrames));
+	}
 }
@@ -6,25 +6,33 @@ import java.util.Map;
 import com.epickur.api.entity.AbstractEntity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
 import lombok.ToString;
 
 /**
- * TimeFrame
+ * TimeFrame. Immutable, so the availability derived from the {@link Hours} can not get out of date.
  * 
  * @author cph
  * @version 1.0
  *
  */
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 @ToString(callSuper = true)
 @EqualsAndHashCode(callSuper = false)
 public final class TimeFrame extends AbstractEntity {
 
 	/** Open Time value 0 - 1440 */
+	@Setter(AccessLevel.NONE)
 	private int open;
 	/** Open Time value 0 - 1440 */
+	@Setter(AccessLevel.NONE)
 	private int close;
 
 	/**
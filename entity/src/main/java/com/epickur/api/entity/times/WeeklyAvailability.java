@@ -0,0 +1,82 @@
+package com.epickur.api.entity.times;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Availability of a caterer during the week, derived from its {@link Hours}. Each day is a bitset with one bit per minute, bit n set if the
+ * caterer is open at minute n, bounds of the time frames included. Checking a pickup time is a single bit lookup. It is only kept in
+ * memory, the search queries filter on the hours.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public final class WeeklyAvailability {
+
+	/**
+	 * Number of minutes in a day. Minute 1440 is kept to allow a time frame closing at midnight.
+	 */
+	public static final int MINUTES_PER_DAY = 1440;
+	/**
+	 * Days, in the order of {@link Hours}
+	 */
+	public static final List<String> DAYS = Collections.unmodifiableList(Arrays.asList("mon", "tue", "wed", "thu", "fri", "sat", "sun"));
+	/**
+	 * Index of each day
+	 */
+	private static final Map<String, Integer> DAY_INDEXES = new HashMap<>();
+
+	static {
+		for (int i = 0; i < DAYS.size(); i++) {
+			DAY_INDEXES.put(DAYS.get(i), i);
+		}
+	}
+
+	/**
+	 * One bitset per day
+	 */
+	private final BitSet[] days = new BitSet[DAYS.size()];
+
+	private WeeklyAvailability() {
+		for (int i = 0; i < days.length; i++) {
+			days[i] = new BitSet(MINUTES_PER_DAY + 1);
+		}
+	}
+
+	/**
+	 * @param hours The hours, can be null
+	 * @return The availability
+	 */
+	public static WeeklyAvailability of(final Hours hours) {
+		final WeeklyAvailability availability = new WeeklyAvailability();
+		if (hours != null) {
+			for (int i = 0; i < DAYS.size(); i++) {
+				final List<TimeFrame> timeFrames = hours.get(DAYS.get(i));
+				if (timeFrames != null) {
+					for (final TimeFrame timeFrame : timeFrames) {
+						final int open = Math.max(timeFrame.getOpen(), 0);
+						final int close = Math.min(timeFrame.getClose(), MINUTES_PER_DAY);
+						if (open <= close) {
+							availability.days[i].set(open, close + 1);
+						}
+					}
+				}
+			}
+		}
+		return availability;
+	}
+
+	/**
+	 * @param day     The day
+	 * @param minutes The minutes since midnight
+	 * @return True if the caterer is open
+	 */
+	public boolean isAvailable(final String day, final int minutes) {
+		final Integer index = DAY_INDEXES.get(day);
+		return index != null && minutes >= 0 && days[index].get(minutes);
+	}
+}
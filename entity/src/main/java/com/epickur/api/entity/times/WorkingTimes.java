@@ -5,8 +5,11 @@ import com.epickur.api.exception.EpickurParsingException;
 import com.epickur.api.utils.ObjectMapperWrapperDB;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.ToString;
 import org.bson.Document;
 import org.bson.json.JsonMode;
@@ -14,7 +17,6 @@ import org.bson.json.JsonWriterSettings;
 
 import java.io.IOException;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -24,7 +26,7 @@ import java.util.Map;
  * @version 1.0
  */
 @Data
-@ToString(callSuper = true)
+@ToString(callSuper = true, exclude = "snapshot")
 @EqualsAndHashCode(callSuper = false)
 public final class WorkingTimes extends AbstractEntity {
 
@@ -36,6 +38,12 @@ public final class WorkingTimes extends AbstractEntity {
 	 * Minimum preparation time in minutes
 	 */
 	private int minimumPreparationTime;
+	/**
+	 * Availability built from the hours, with the version of the hours it was built from
+	 */
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private transient volatile Snapshot snapshot;
 
 	/**
 	 * @param day               The day
@@ -45,12 +53,50 @@ public final class WorkingTimes extends AbstractEntity {
 	@JsonIgnore
 	public boolean canBePickup(final String day, final Integer pickupdateMinutes) {
 		// Removed preparation time #API-76
-		//Integer openTime = null;
-		final List<TimeFrame> timeFrames = getHours().get(day);
-		assert timeFrames != null;
-		return timeFrames
-				.parallelStream()
-				.anyMatch(timeFrame -> timeFrame.getOpen() <= pickupdateMinutes && timeFrame.getClose() >= pickupdateMinutes);
+		return getAvailability().isAvailable(day, pickupdateMinutes);
+	}
+
+	/**
+	 * The availability is built on the first lookup, not when the hours are set: the working times read with a dish or an order are
+	 * rarely looked up. It is only rebuilt if the hours changed since, so the next lookups cost a version check and a bit lookup.
+	 *
+	 * @return The availability
+	 */
+	@JsonIgnore
+	public WeeklyAvailability getAvailability() {
+		final Snapshot current = snapshot;
+		if (current != null && current.isBuiltFrom(hours)) {
+			return current.availability;
+		}
+		return refreshAvailability();
+	}
+
+	private WeeklyAvailability refreshAvailability() {
+		final Hours current = hours;
+		// Read the version before the hours, a concurrent change can only make the snapshot look outdated
+		final int version = current == null ? 0 : current.version();
+		final Snapshot built = new Snapshot(current, version, WeeklyAvailability.of(current));
+		snapshot = built;
+		return built.availability;
+	}
+
+	/**
+	 * Immutable availability of a given version of the hours
+	 */
+	private static final class Snapshot {
+		private final Hours hours;
+		private final int version;
+		private final WeeklyAvailability availability;
+
+		private Snapshot(final Hours hours, final int version, final WeeklyAvailability availability) {
+			this.hours = hours;
+			this.version = version;
+			this.availability = availability;
+		}
+
+		private boolean isBuiltFrom(final Hours other) {
+			return hours == other && (other == null || version == other.version());
+		}
 	}
 
 	/**
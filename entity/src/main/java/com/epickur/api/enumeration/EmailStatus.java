@@ -0,0 +1,58 @@
+package com.epickur.api.enumeration;
+
+/**
+ * Status of an email in the outbox
+ *
+ * @author cph
+ * @version 1.0
+ */
+public enum EmailStatus {
+	/** Waiting to be sent */
+	PENDING("pending"),
+	/** Claimed by a worker */
+	SENDING("sending"),
+	/** Given up after too many attempts */
+	FAILED("failed"),
+	/** Admin notification waiting for the next digest */
+	BUFFERED("buffered");
+
+	/**
+	 * The constructor
+	 *
+	 * @param type The type
+	 */
+	EmailStatus(final String type) {
+		this.type = type;
+	}
+
+	/**
+	 * @param value The value to convert
+	 * @return An EmailStatus
+	 */
+	public static EmailStatus fromString(final String value) {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+		for (EmailStatus status : values()) {
+			if (value.equalsIgnoreCase(status.getType())) {
+				return status;
+			}
+		}
+		throw new IllegalArgumentException();
+	}
+
+	@Override
+	public String toString() {
+		return super.toString().toLowerCase();
+	}
+
+	/**
+	 * @return A String
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/** The type */
+	private final String type;
+}
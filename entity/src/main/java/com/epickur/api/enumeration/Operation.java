@@ -26,5 +26,7 @@ public enum Operation {
 	/** Search dish */
 	SEARCH_DISH,
 	/** Generate voucher */
-	GENERATE_VOUCHER
+	GENERATE_VOUCHER,
+	/** Read a voucher generation job */
+	READ_GENERATION_JOB
 }
@@ -4,6 +4,9 @@ import org.bson.Document;
 
 import com.mongodb.MongoException;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * Called whenever a DB Exception occurs.
  * 
@@ -22,6 +25,8 @@ public class EpickurDBException extends EpickurException {
 	private Document update;
 	/** Operation type */
 	private String operation;
+	/** Errors of a bulk operation, by index of the item */
+	private Map<Integer, String> errors = Collections.emptyMap();
 
 	/**
 	 * Constructor
@@ -105,6 +110,22 @@ public class EpickurDBException extends EpickurException {
 		this.operation = operation;
 	}
 
+	/**
+	 * @param operation
+	 *            The bulk operation
+	 * @param message
+	 *            The message
+	 * @param errors
+	 *            The error message of each item that failed, by index
+	 * @param exception
+	 *            The MongoException
+	 */
+	public EpickurDBException(final String operation, final String message, final Map<Integer, String> errors, final MongoException exception) {
+		super(message, exception);
+		this.errors = errors;
+		this.operation = operation;
+	}
+
 	/**
 	 * @return A Document
 	 */
@@ -132,4 +153,11 @@ public class EpickurDBException extends EpickurException {
 	public final String getOperation() {
 		return operation;
 	}
+
+	/**
+	 * @return The error message of each item that failed in a bulk operation, by index. Empty for the other operations.
+	 */
+	public final Map<Integer, String> getErrors() {
+		return errors;
+	}
 }
@@ -0,0 +1,21 @@
+package com.epickur.api.exception;
+
+/**
+ * Called when Here answered but could not geocode the text accurately.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public class HereNotFoundException extends HereException {
+
+	/** Serializer */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * @param message
+	 *            The message
+	 */
+	public HereNotFoundException(final String message) {
+		super(message);
+	}
+}
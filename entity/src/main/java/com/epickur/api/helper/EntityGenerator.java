@@ -96,14 +96,10 @@ public class EntityGenerator {
 
 	private static List<TimeFrame> generateRandomTimeFrame() {
 		List<TimeFrame> timeFrames = new ArrayList<>();
-		TimeFrame timeFrame1 = new TimeFrame();
-		timeFrame1.setOpen(RandomUtils.nextInt(350, 600));
-		timeFrame1.setClose(RandomUtils.nextInt(700, 900));
+		TimeFrame timeFrame1 = new TimeFrame(RandomUtils.nextInt(350, 600), RandomUtils.nextInt(700, 900));
 		timeFrames.add(timeFrame1);
 
-		TimeFrame timeFrame2 = new TimeFrame();
-		timeFrame2.setOpen(RandomUtils.nextInt(1020, 1080));
-		timeFrame2.setClose(RandomUtils.nextInt(1320, 1440));
+		TimeFrame timeFrame2 = new TimeFrame(RandomUtils.nextInt(1020, 1080), RandomUtils.nextInt(1320, 1440));
 		timeFrames.add(timeFrame2);
 		return timeFrames;
 	}
@@ -39,10 +39,8 @@ public class PickupdateValidateTest {
 		WorkingTimes workingTimes = order.getDish().getCaterer().getWorkingTimes();
 		Hours hours = new Hours();
 		List<TimeFrame> hoursMonday = new ArrayList<>();
-		TimeFrame frame = new TimeFrame();
+		TimeFrame frame = new TimeFrame(400, 1500);
 		hoursMonday.add(frame);
-		frame.setOpen(400);
-		frame.setClose(1500);
 		hours.setMon(hoursMonday);
 		workingTimes.setHours(hours);
 		order.setPickupdate("mon-10:30");
@@ -74,10 +72,8 @@ public class PickupdateValidateTest {
 		WorkingTimes workingTimes = order.getDish().getCaterer().getWorkingTimes();
 		Hours hours = new Hours();
 		List<TimeFrame> hoursMonday = new ArrayList<>();
-		TimeFrame frame = new TimeFrame();
+		TimeFrame frame = new TimeFrame(400, 600);
 		hoursMonday.add(frame);
-		frame.setOpen(400);
-		frame.setClose(600);
 		hours.setMon(hoursMonday);
 		workingTimes.setHours(hours);
 		order.setPickupdate("mon-10:30");
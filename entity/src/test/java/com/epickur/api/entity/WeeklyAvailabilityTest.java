@@ -0,0 +1,52 @@
+package com.epickur.api.entity;
+
+import com.epickur.api.entity.times.Hours;
+import com.epickur.api.entity.times.TimeFrame;
+import com.epickur.api.entity.times.WeeklyAvailability;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WeeklyAvailabilityTest {
+
+	private static TimeFrame timeFrame(final int open, final int close) {
+		return new TimeFrame(open, close);
+	}
+
+	@Test
+	public void testIsAvailable() {
+		// Given
+		Hours hours = new Hours();
+		List<TimeFrame> mon = new ArrayList<>();
+		mon.add(timeFrame(588, 825));
+		mon.add(timeFrame(1058, 1440));
+		hours.setMon(mon);
+
+		// When
+		WeeklyAvailability actual = WeeklyAvailability.of(hours);
+
+		// Then
+		assertFalse(actual.isAvailable("mon", 587));
+		assertTrue(actual.isAvailable("mon", 588));
+		assertTrue(actual.isAvailable("mon", 825));
+		assertFalse(actual.isAvailable("mon", 826));
+		assertTrue(actual.isAvailable("mon", 1440));
+		assertFalse(actual.isAvailable("tue", 600));
+		assertFalse(actual.isAvailable("unknown", 600));
+		assertFalse(actual.isAvailable("mon", -1));
+	}
+
+	@Test
+	public void testNullHours() {
+		// When
+		WeeklyAvailability actual = WeeklyAvailability.of(null);
+
+		// Then
+		assertFalse(actual.isAvailable("mon", 600));
+		assertFalse(actual.isAvailable("sun", 0));
+	}
+}
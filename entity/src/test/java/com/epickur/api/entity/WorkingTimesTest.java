@@ -3,13 +3,19 @@ package com.epickur.api.entity;
 import com.epickur.api.commons.CommonsUtil;
 import com.epickur.api.entity.times.Hours;
 import com.epickur.api.entity.times.TimeFrame;
+import com.epickur.api.entity.times.WeeklyAvailability;
 import com.epickur.api.entity.times.WorkingTimes;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class WorkingTimesTest {
 
@@ -18,12 +24,8 @@ public class WorkingTimesTest {
 		WorkingTimes workingTimes = new WorkingTimes();
 		workingTimes.setMinimumPreparationTime(26);
 		Hours hours = new Hours();
-		TimeFrame timeFrame1 = new TimeFrame();
-		timeFrame1.setOpen(588);
-		timeFrame1.setClose(825);
-		TimeFrame timeFrame2 = new TimeFrame();
-		timeFrame2.setOpen(1058);
-		timeFrame2.setClose(1332);
+		TimeFrame timeFrame1 = new TimeFrame(588, 825);
+		TimeFrame timeFrame2 = new TimeFrame(1058, 1332);
 		List<TimeFrame> sat = new ArrayList<>();
 		sat.add(timeFrame1);
 		sat.add(timeFrame2);
@@ -35,4 +37,70 @@ public class WorkingTimesTest {
 			assertFalse(workingTimes.canBePickup((String) objects[0], (Integer) objects[1]));
 		});
 	}
+
+	@Test
+	public void testSetHoursResetAvailability() {
+		WorkingTimes workingTimes = new WorkingTimes();
+		Hours hours = new Hours();
+		TimeFrame timeFrame = new TimeFrame(600, 700);
+		hours.setMon(Collections.singletonList(timeFrame));
+		workingTimes.setHours(hours);
+		assertFalse(workingTimes.canBePickup("tue", 650));
+
+		Hours newHours = new Hours();
+		newHours.setTue(Collections.singletonList(timeFrame));
+		workingTimes.setHours(newHours);
+		assertTrue(workingTimes.canBePickup("tue", 650));
+		assertFalse(workingTimes.canBePickup("mon", 650));
+	}
+
+	@Test
+	public void testHoursChanged() {
+		WorkingTimes workingTimes = new WorkingTimes();
+		Hours hours = new Hours();
+		List<TimeFrame> mon = new ArrayList<>();
+		mon.add(new TimeFrame(600, 700));
+		hours.setMon(mon);
+		workingTimes.setHours(hours);
+		WeeklyAvailability availability = workingTimes.getAvailability();
+		assertFalse(workingTimes.canBePickup("mon", 800));
+
+		mon.add(new TimeFrame(750, 900));
+		assertFalse(workingTimes.canBePickup("mon", 800));
+		assertSame(availability, workingTimes.getAvailability());
+
+		hours.setMon(mon);
+		assertTrue(workingTimes.canBePickup("mon", 800));
+		assertNotSame(availability, workingTimes.getAvailability());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testHoursListsUnmodifiable() {
+		Hours hours = new Hours();
+		hours.setMon(new ArrayList<>());
+		hours.getMon().add(new TimeFrame(600, 700));
+	}
+
+	@Test
+	public void testGetUpdateMapObject() {
+		WorkingTimes workingTimes = new WorkingTimes();
+		Hours hours = new Hours();
+		TimeFrame timeFrame = new TimeFrame(600, 700);
+		hours.setMon(Collections.singletonList(timeFrame));
+		workingTimes.setHours(hours);
+
+		Map<String, Object> actual = workingTimes.getUpdateMapObject("caterer.workingTimes");
+
+		assertTrue(actual.containsKey("caterer.workingTimes.hours.mon"));
+		assertFalse(actual.keySet().stream().anyMatch(key -> key.startsWith("caterer.workingTimes.availability")));
+	}
+
+	@Test
+	public void testAvailabilityNotInJson() throws Exception {
+		WorkingTimes workingTimes = new WorkingTimes();
+		workingTimes.setHours(new Hours());
+		workingTimes.getAvailability();
+
+		assertFalse(workingTimes.toStringAPIView().contains("availability"));
+	}
 }
@@ -1,12 +1,14 @@
 package com.epickur.api;
 
+import com.epickur.api.config.RestoreConfig;
 import org.springframework.boot.Banner;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.web.support.SpringBootServletInitializer;
 
 /**
- * Start Spring Boot application
+ * Start Spring Boot application. Started with {@code --restore}, it runs the restore in a context without the web server instead, see
+ * {@link RestoreApplication}.
  *
  * @author cph
  */
@@ -19,7 +21,25 @@ public class Application extends SpringBootServletInitializer {
 	}
 
 	public static void main(final String[] args) {
-		configureApplication(new SpringApplicationBuilder()).run(args);
+		if (isRestore(args)) {
+			new SpringApplicationBuilder(RestoreApplication.class).web(false).bannerMode(Banner.Mode.LOG).run(args);
+		} else {
+			configureApplication(new SpringApplicationBuilder()).run(args);
+		}
+	}
+
+	/**
+	 * @param args The command line arguments
+	 * @return True if the restore option is given, with or without a backup name
+	 */
+	static boolean isRestore(final String[] args) {
+		final String option = "--" + RestoreConfig.RESTORE;
+		for (final String arg : args) {
+			if (arg.equals(option) || arg.startsWith(option + "=")) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	private static SpringApplicationBuilder configureApplication(final SpringApplicationBuilder builder) {
@@ -0,0 +1,41 @@
+package com.epickur.api;
+
+import com.epickur.api.aws.AmazonWebServices;
+import com.epickur.api.config.AmazonWSConfig;
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.config.MongoConfig;
+import com.epickur.api.config.PropertySourcesConfig;
+import com.epickur.api.config.RestoreConfig;
+import com.epickur.api.cron.BackupRetention;
+import com.epickur.api.dump.MongoDBRestorer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.PropertySource;
+
+/**
+ * Context of the restore command: only the beans the restore needs, without the web server, the controllers or the background jobs, so
+ * that nothing reads or writes the database while it is being restored.
+ * <p>
+ * It is not a {@code @Configuration}, so that the component scan of the web application does not pick it up.
+ *
+ * @author cph
+ */
+@PropertySource("classpath:epickur-${spring.profiles.active:dev}.properties")
+@Import({
+	PropertySourcesConfig.class,
+	EpickurProperties.class,
+	MongoConfig.class,
+	AmazonWSConfig.class,
+	AmazonWebServices.class,
+	MongoDBRestorer.class,
+	BackupRetention.class,
+	RestoreConfig.class
+})
+public class RestoreApplication {
+
+	@Bean
+	public ObjectMapper objectMapper() {
+		return new ObjectMapper();
+	}
+}
@@ -3,6 +3,8 @@ package com.epickur.api.config;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3Client;
+import com.amazonaws.services.s3.S3ClientOptions;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -16,6 +18,12 @@ public class AmazonWSConfig {
 	@Bean
 	public AmazonS3 amazonS3() {
 		final BasicAWSCredentials awsCreds = new BasicAWSCredentials(properties.getAwsAccessKeyId(), properties.getAwsSecretKey());
-		return new AmazonS3Client(awsCreds);
+		final AmazonS3Client client = new AmazonS3Client(awsCreds);
+		// A S3 compatible server, for the tests
+		if (StringUtils.isNotBlank(properties.getAwsS3Endpoint())) {
+			client.setEndpoint(properties.getAwsS3Endpoint());
+			client.setS3ClientOptions(new S3ClientOptions().withPathStyleAccess(true));
+		}
+		return client;
 	}
-}
\ No newline at end of file
+}
@@ -2,7 +2,6 @@ package com.epickur.api.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.context.annotation.*;
-import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
 @Configuration
@@ -10,7 +9,6 @@ import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 @EnableWebMvc
 @ComponentScan(basePackages = "com.epickur.api")
 @EnableAspectJAutoProxy
-@EnableScheduling
 @Import({
 	AopConfig.class,
 	AmazonWSConfig.class,
@@ -18,8 +16,10 @@ import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 	GeoCoder.class,
 	MongoConfig.class,
 	PropertySourcesConfig.class,
+	RestoreConfig.class,
 	StripeConfig.class,
 	SchedulerConfig.class,
+	SchedulingConfig.class,
 	ValidationConfig.class
 })
 public class ApplicationConfig {
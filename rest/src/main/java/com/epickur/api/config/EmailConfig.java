@@ -2,6 +2,8 @@ package com.epickur.api.config;
 
 import com.cribbstechnologies.clients.mandrill.request.MandrillMessagesRequest;
 import com.cribbstechnologies.clients.mandrill.util.MandrillConfiguration;
+import com.epickur.api.http.HttpClientPool;
+import org.apache.http.client.HttpClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -25,4 +27,9 @@ public class EmailConfig {
 	public MandrillMessagesRequest mandrillMessagesRequest() {
 		return new MandrillMessagesRequest();
 	}
+
+	@Bean(destroyMethod = "")
+	public HttpClient httpClient(final HttpClientPool httpClientPool) {
+		return httpClientPool.getClient();
+	}
 }
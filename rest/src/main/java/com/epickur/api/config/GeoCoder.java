@@ -1,15 +1,21 @@
 package com.epickur.api.config;
 
+import com.epickur.api.cache.CachingGeocoder;
+import com.epickur.api.dao.mongo.GeocodeDAO;
 import com.epickur.api.here.IGeocoder;
 import com.epickur.api.here.GeocoderHereImpl;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class GeoCoder {
 
+	@Autowired
+	public EpickurProperties properties;
+
 	@Bean
-	public IGeocoder geocoder(){
-		return new GeocoderHereImpl();
+	public IGeocoder geocoder(final GeocoderHereImpl geocoderHere, final GeocodeDAO geocodeDAO) {
+		return new CachingGeocoder(geocoderHere, geocodeDAO, properties);
 	}
 }
@@ -1,9 +1,17 @@
 package com.epickur.api.config;
 
+import com.epickur.api.dao.mongo.codec.CatererCodec;
 import com.epickur.api.dao.mongo.codec.CoordinatesCodec;
+import com.epickur.api.dao.mongo.codec.DishCodec;
 import com.epickur.api.dao.mongo.codec.DishTypeCodec;
+import com.epickur.api.dao.mongo.codec.EmailMessageCodec;
 import com.epickur.api.dao.mongo.codec.ExpirationTypeCodec;
+import com.epickur.api.dao.mongo.codec.KeyCodec;
+import com.epickur.api.dao.mongo.codec.LogCodec;
+import com.epickur.api.dao.mongo.codec.OrderCodec;
 import com.epickur.api.dao.mongo.codec.StatusCodec;
+import com.epickur.api.dao.mongo.codec.UserCodec;
+import com.epickur.api.dao.mongo.codec.VoucherCodec;
 import com.mongodb.MongoClient;
 import com.mongodb.MongoClientOptions;
 import com.mongodb.MongoCredential;
@@ -31,13 +39,29 @@ public class MongoConfig {
 		final DishTypeCodec dishTypeCodec = new DishTypeCodec();
 		final ExpirationTypeCodec expirationTypeCodec = new ExpirationTypeCodec();
 		final StatusCodec statusCodec = new StatusCodec();
+		final CatererCodec catererCodec = new CatererCodec();
+		final DishCodec dishCodec = new DishCodec();
+		final EmailMessageCodec emailMessageCodec = new EmailMessageCodec();
+		final KeyCodec keyCodec = new KeyCodec();
+		final LogCodec logCodec = new LogCodec();
+		final OrderCodec orderCodec = new OrderCodec();
+		final UserCodec userCodec = new UserCodec();
+		final VoucherCodec voucherCodec = new VoucherCodec();
 
 		final CodecRegistry codecRegistry = CodecRegistries.fromRegistries(
 				MongoClient.getDefaultCodecRegistry(),
 				CodecRegistries.fromCodecs(coordinatesCodec),
 				CodecRegistries.fromCodecs(dishTypeCodec),
 				CodecRegistries.fromCodecs(expirationTypeCodec),
-				CodecRegistries.fromCodecs(statusCodec)
+				CodecRegistries.fromCodecs(statusCodec),
+				CodecRegistries.fromCodecs(catererCodec),
+				CodecRegistries.fromCodecs(dishCodec),
+				CodecRegistries.fromCodecs(emailMessageCodec),
+				CodecRegistries.fromCodecs(keyCodec),
+				CodecRegistries.fromCodecs(logCodec),
+				CodecRegistries.fromCodecs(orderCodec),
+				CodecRegistries.fromCodecs(userCodec),
+				CodecRegistries.fromCodecs(voucherCodec)
 		);
 
 		final MongoClientOptions options = MongoClientOptions.builder().serverSelectionTimeout(8000).codecRegistry(codecRegistry).build();
@@ -0,0 +1,56 @@
+package com.epickur.api.config;
+
+import com.epickur.api.cron.MongoDBRestore;
+import com.epickur.api.dump.RestoreStats;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnNotWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Restore command. Started with {@code --restore}, the application restores the last backup, or the one given with
+ * {@code --restore=<name>}, then exits. It runs in the context of {@link com.epickur.api.RestoreApplication}, without the web server, the
+ * scheduled jobs or the email outbox workers. The restore never runs in the web application.
+ */
+@Log4j2
+@Configuration
+public class RestoreConfig {
+
+	/**
+	 * Option that starts a restore
+	 */
+	public static final String RESTORE = "restore";
+
+	@Bean
+	public MongoDBRestore mongoDBRestore() {
+		return new MongoDBRestore();
+	}
+
+	@Bean
+	@ConditionalOnProperty(RESTORE)
+	@ConditionalOnNotWebApplication
+	public ApplicationRunner restoreRunner(final MongoDBRestore mongoDBRestore, final ApplicationContext context) {
+		return args -> {
+			final List<String> values = args.getOptionValues(RESTORE);
+			final String name = values == null || values.isEmpty() || values.get(0).isEmpty() ? null : values.get(0);
+			int exitCode = 0;
+			try {
+				final long start = System.currentTimeMillis();
+				final List<RestoreStats> restored = mongoDBRestore.restore(name);
+				log.info("{} archives restored in {} ms", restored.size(), System.currentTimeMillis() - start);
+			} catch (final IOException e) {
+				log.error("Restore failed: {}", e.getLocalizedMessage(), e);
+				exitCode = 1;
+			}
+			final int code = exitCode;
+			System.exit(SpringApplication.exit(context, () -> code));
+		};
+	}
+}
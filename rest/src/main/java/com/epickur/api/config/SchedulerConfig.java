@@ -1,12 +1,16 @@
 package com.epickur.api.config;
 
+import com.epickur.api.aws.AmazonWebServices;
 import com.epickur.api.commons.CommonsUtil;
+import com.epickur.api.cron.BackupRetention;
 import com.epickur.api.cron.CleanKeysJob;
 import com.epickur.api.cron.CleanVouchersJob;
+import com.epickur.api.cron.JobLock;
 import com.epickur.api.cron.MongoDBDumpJob;
-import com.epickur.api.cron.OrderJob;
 import com.epickur.api.dump.MongoDBDump;
+import com.epickur.api.dump.MongoDBExporter;
 import org.quartz.spi.TriggerFiredBundle;
+import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.context.ApplicationContext;
@@ -36,14 +40,16 @@ public class SchedulerConfig {
 
 	@Profile("prod")
 	@Bean
-	public MongoDBDumpJob databaseDump() {
-		return new MongoDBDumpJob();
+	public MongoDBDumpJob databaseDump(final AmazonWebServices aws, final ObjectFactory<MongoDBDump> mongoDBDumps,
+									   final MongoDBExporter mongoDBExporter, final JobLock jobLock, final BackupRetention retention,
+									   final EpickurProperties properties) {
+		return new MongoDBDumpJob(aws, mongoDBDumps, mongoDBExporter, jobLock, retention, properties);
 	}
 
 	@Bean
 	@Scope("prototype")
 	public MongoDBDump dbDump(){
-		return new MongoDBDump(CommonsUtil.getCurrentDateInFormat("ddMMyyyy-hhmmss"));
+		return new MongoDBDump(CommonsUtil.getCurrentDateInFormat("ddMMyyyy-HHmmss"));
 	}
 
 	@Bean
@@ -56,11 +62,6 @@ public class SchedulerConfig {
 		return new CleanKeysJob();
 	}
 
-	@Bean
-	public OrderJob orderJob() {
-		return new OrderJob();
-	}
-
 	/**
 	 * Add autowire capability to Quartz.
 	 */
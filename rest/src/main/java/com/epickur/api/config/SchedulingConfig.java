@@ -0,0 +1,47 @@
+package com.epickur.api.config;
+
+import com.epickur.api.service.EmailOutboxService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Background work: the scheduled jobs and the email outbox workers. None of it runs with {@code --restore}, so that nothing reads or
+ * writes the database while it is being restored.
+ * <p>
+ * The scheduled methods run on a pool of cron.scheduler.threads threads, so that a long job like the MongoDB dump does not delay the
+ * others, such as the reload of the revoked tokens.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = RestoreConfig.RESTORE, havingValue = "false", matchIfMissing = true)
+public class SchedulingConfig {
+
+	@Autowired
+	private EmailOutboxService emailOutboxService;
+
+	/**
+	 * @param properties The Epickur properties
+	 * @return The scheduler running the scheduled methods
+	 */
+	@Bean
+	public ThreadPoolTaskScheduler taskScheduler(final EpickurProperties properties) {
+		final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+		scheduler.setPoolSize(properties.getCronSchedulerThreads());
+		scheduler.setThreadNamePrefix("scheduler-");
+		return scheduler;
+	}
+
+	/**
+	 * Start the email outbox workers
+	 */
+	@PostConstruct
+	public void startEmailOutbox() {
+		emailOutboxService.start();
+	}
+}
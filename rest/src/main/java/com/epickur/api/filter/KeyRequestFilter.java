@@ -1,10 +1,12 @@
 package com.epickur.api.filter;
 
+import com.epickur.api.cache.KeyCache;
 import com.epickur.api.dao.mongo.KeyDAO;
 import com.epickur.api.entity.Key;
 import com.epickur.api.entity.message.ErrorMessage;
 import com.epickur.api.enumeration.Role;
 import com.epickur.api.exception.EpickurException;
+import com.epickur.api.service.TokenService;
 import com.epickur.api.utils.ErrorConstants;
 import com.epickur.api.utils.Utils;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -39,6 +41,14 @@ public class KeyRequestFilter extends OncePerRequestFilter {
 	private Utils utils;
 	@Autowired
 	private ObjectMapper mapper;
+	@Autowired
+	private KeyCache keyCache;
+	@Autowired
+	private TokenService tokenService;
+	/**
+	 * Web API key, loaded on first use
+	 */
+	private String apiKey;
 
 	@Override
 	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, final FilterChain filterChain) throws IOException, ServletException {
@@ -77,7 +87,9 @@ public class KeyRequestFilter extends OncePerRequestFilter {
 
 	protected void handleKey(final HttpServletRequest request, final HttpServletResponse response, final FilterChain filterChain,
 							 final String paramKey) throws EpickurException, IOException, ServletException {
-		final String apiKey = utils.getAPIKey();
+		if (apiKey == null) {
+			apiKey = utils.getAPIKey();
+		}
 		if (paramKey.equals(apiKey)) {
 			handleAPIKey(request, response, filterChain);
 		} else {
@@ -94,7 +106,7 @@ public class KeyRequestFilter extends OncePerRequestFilter {
 
 	protected void handlePrivateKey(final HttpServletRequest request, final HttpServletResponse response, final FilterChain filterChain,
 									final String paramKey) throws EpickurException, IOException, ServletException {
-		final Optional<Key> key = keyDAO.read(paramKey);
+		final Optional<Key> key = tokenService.isToken(paramKey) ? tokenService.verify(paramKey) : readKey(paramKey);
 		if (key.isPresent()) {
 			final Key keyFound = key.get();
 			if (!utils.isValid(keyFound)) {
@@ -107,4 +119,13 @@ public class KeyRequestFilter extends OncePerRequestFilter {
 			abortRequest(response, HttpStatus.UNAUTHORIZED, ErrorConstants.INVALID_KEY);
 		}
 	}
+
+	private Optional<Key> readKey(final String paramKey) throws EpickurException {
+		Optional<Key> key = keyCache.get(paramKey);
+		if (!key.isPresent()) {
+			key = keyDAO.read(paramKey);
+			key.filter(utils::isValid).ifPresent(keyCache::put);
+		}
+		return key;
+	}
 }
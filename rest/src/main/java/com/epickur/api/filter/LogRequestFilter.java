@@ -1,9 +1,6 @@
 package com.epickur.api.filter;
 
-import com.epickur.api.dao.mongo.LogDAO;
 import com.epickur.api.entity.Log;
-import com.epickur.api.exception.EpickurException;
-import lombok.extern.log4j.Log4j2;
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -17,17 +14,16 @@ import java.io.IOException;
 import java.util.Enumeration;
 
 /**
- * Filter that log any single request
+ * Filter that log any single request. The log is written to the database in background by the {@link LogWriter}.
  *
  * @author cph
  * @version 1.0
  */
-@Log4j2
 @Component("logRequestFilter")
 public class LogRequestFilter extends OncePerRequestFilter {
 
 	@Autowired
-	private LogDAO logDAO;
+	private LogWriter logWriter;
 
 	@Override
 	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, final FilterChain filterChain) throws ServletException, IOException {
@@ -47,11 +43,7 @@ public class LogRequestFilter extends OncePerRequestFilter {
 		}
 		logEntity.setRemoteAddr(ipAddress);
 		logEntity.setUserAgent(request.getHeader("User-Agent"));
-		try {
-			logDAO.create(logEntity);
-		} catch (final EpickurException e) {
-			log.warn("Can not put log into DB. {}", e.getLocalizedMessage());
-		}
+		logWriter.write(logEntity);
 		filterChain.doFilter(request, response);
 	}
 }
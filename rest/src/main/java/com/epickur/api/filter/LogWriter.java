@@ -0,0 +1,200 @@
+package com.epickur.api.filter;
+
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.dao.mongo.LogDAO;
+import com.epickur.api.entity.Log;
+import com.epickur.api.exception.EpickurDBException;
+import com.epickur.api.exception.EpickurException;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write the request logs to the database in background. The request thread only puts the log in a bounded queue, which is drained in
+ * batches every log.flush.interval milliseconds and on shutdown. The queue is drained by a thread of its own, so that a long scheduled
+ * job never delays it.
+ * <p>
+ * When the queue gets full, the log.queue.policy property decides what to do:
+ * <ul>
+ * <li>drop: the new logs are dropped until the queue is drained</li>
+ * <li>sample: once the queue is half full, only one log out of log.sample.rate is kept. The new logs are dropped if it is full.</li>
+ * </ul>
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Log4j2
+@Component
+public class LogWriter {
+
+	/**
+	 * What to do with the logs when the queue fills up
+	 */
+	public enum OverflowPolicy {
+		DROP, SAMPLE
+	}
+
+	private final LogDAO logDAO;
+	private final BlockingQueue<Log> queue;
+	private final int capacity;
+	private final int batchSize;
+	private final OverflowPolicy policy;
+	private final int sampleRate;
+	private final long flushInterval;
+	private final ScheduledExecutorService flusher;
+	/**
+	 * Logs offered while sampling, used to keep one out of sampleRate
+	 */
+	private final AtomicLong sampleCounter = new AtomicLong();
+	/**
+	 * Logs inserted in the database
+	 */
+	private final AtomicLong written = new AtomicLong();
+	/**
+	 * Logs dropped because of the queue
+	 */
+	private final AtomicLong dropped = new AtomicLong();
+	/**
+	 * Logs lost because the insertion failed
+	 */
+	private final AtomicLong failed = new AtomicLong();
+
+	@Autowired
+	public LogWriter(final LogDAO logDAO, final EpickurProperties properties) {
+		this.logDAO = logDAO;
+		this.capacity = properties.getLogQueueCapacity();
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.batchSize = properties.getLogBatchSize();
+		this.policy = OverflowPolicy.valueOf(properties.getLogQueuePolicy().toUpperCase());
+		this.sampleRate = properties.getLogSampleRate();
+		if (sampleRate < 1) {
+			throw new IllegalArgumentException("log.sample.rate must be at least 1: " + sampleRate);
+		}
+		this.flushInterval = properties.getLogFlushInterval();
+		this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, "log-writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Start draining the queue every log.flush.interval milliseconds
+	 */
+	@PostConstruct
+	public void start() {
+		flusher.scheduleWithFixedDelay(() -> {
+			try {
+				flush();
+			} catch (final RuntimeException e) {
+				log.error("Could not write the request logs: {}", e.getLocalizedMessage(), e);
+			}
+		}, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Queue a log. Never blocks.
+	 *
+	 * @param logEntity The log
+	 * @return False if the log has been dropped
+	 */
+	public boolean write(final Log logEntity) {
+		final boolean keep = policy != OverflowPolicy.SAMPLE
+			|| queue.size() < capacity / 2
+			|| sampleCounter.getAndIncrement() % sampleRate == 0;
+		if (keep && queue.offer(logEntity)) {
+			return true;
+		}
+		dropped.incrementAndGet();
+		return false;
+	}
+
+	/**
+	 * Insert the queued logs, in batches. The batches are unordered: when some logs of a batch fail, the others are still inserted.
+	 */
+	public synchronized void flush() {
+		final List<Log> batch = new ArrayList<>(batchSize);
+		while (queue.drainTo(batch, batchSize) > 0) {
+			try {
+				logDAO.createAll(batch, false);
+				written.addAndGet(batch.size());
+			} catch (final EpickurException e) {
+				final int failures = countFailures(e, batch.size());
+				written.addAndGet(batch.size() - failures);
+				failed.addAndGet(failures);
+				log.warn("Can not put {} logs into DB. {}", failures, e.getLocalizedMessage());
+			}
+			batch.clear();
+		}
+	}
+
+	/**
+	 * @param e         The exception thrown by the insertion of a batch
+	 * @param batchSize The size of the batch
+	 * @return The number of logs not inserted: the write errors of a bulk insert, the whole batch otherwise
+	 */
+	private static int countFailures(final EpickurException e, final int batchSize) {
+		if (e instanceof EpickurDBException) {
+			final Map<Integer, String> errors = ((EpickurDBException) e).getErrors();
+			if (errors != null && !errors.isEmpty()) {
+				return Math.min(errors.size(), batchSize);
+			}
+		}
+		return batchSize;
+	}
+
+	/**
+	 * Stop the flushing thread, then write what is left in the queue before the application stops.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		flusher.shutdown();
+		try {
+			flusher.awaitTermination(flushInterval, TimeUnit.MILLISECONDS);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		flush();
+		log.info("Request logs written: {}, dropped: {}, failed: {}", written.get(), dropped.get(), failed.get());
+	}
+
+	/**
+	 * @return The number of logs inserted in the database
+	 */
+	public long getWritten() {
+		return written.get();
+	}
+
+	/**
+	 * @return The number of logs dropped because the queue was full
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * @return The number of logs lost because the insertion failed
+	 */
+	public long getFailed() {
+		return failed.get();
+	}
+
+	/**
+	 * @return The number of logs waiting to be written
+	 */
+	public int getPending() {
+		return queue.size();
+	}
+}
@@ -2,6 +2,7 @@ package com.epickur.api.rest;
 
 import com.epickur.api.annotation.ValidateSimpleAccessRights;
 import com.epickur.api.entity.Voucher;
+import com.epickur.api.entity.VoucherGenerationJob;
 import com.epickur.api.enumeration.voucher.DiscountType;
 import com.epickur.api.enumeration.voucher.ExpirationType;
 import com.epickur.api.exception.EpickurException;
@@ -20,6 +21,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.util.Optional;
@@ -28,6 +30,7 @@ import java.util.Set;
 import static com.epickur.api.enumeration.EndpointType.VOUCHER;
 import static com.epickur.api.enumeration.Operation.GENERATE_VOUCHER;
 import static com.epickur.api.enumeration.Operation.READ;
+import static com.epickur.api.enumeration.Operation.READ_GENERATION_JOB;
 
 /**
  * JAX-RS Voucher Service
@@ -98,10 +101,11 @@ public class VoucherController {
 	 * @apiVersion 1.0.0
 	 * @apiName GenerateVoucher
 	 * @apiGroup Vouchers
-	 * @apiDescription Generate a list of vouchers.
+	 * @apiDescription Generate a list of vouchers. Above voucher.generate.async.threshold vouchers, the generation runs in background: the
+	 * response is a 202 with the generation job, to poll with /vouchers/generate/:id.
 	 * @apiPermission admin
 	 *
-	 * @apiParam (Request: URL Parameter) {Integer} count Number of voucher to generate.
+	 * @apiParam (Request: URL Parameter) {Integer} count Number of voucher to generate. At most 100000.
 	 * @apiParam (Request: URL Parameter) {String} discountType Discount type. Can be amount or percentage
 	 * @apiParam (Request: URL Parameter) {Double} discount Discount amount.
 	 * @apiParam (Request: URL Parameter) {Double} expirationType Expiration type. Can be onetime or until
@@ -152,7 +156,7 @@ public class VoucherController {
 	@ValidateSimpleAccessRights(operation = GENERATE_VOUCHER, endpoint = VOUCHER)
 	@RequestMapping(value = "/generate", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
 	public ResponseEntity<?> generate(
-		@RequestParam("count") @NotBlank(message = "{voucher.generate.count.blank}") @Min(value = 0, message = "{voucher.generate.count.positive}") final Integer count,
+		@RequestParam("count") @NotBlank(message = "{voucher.generate.count.blank}") @Min(value = 0, message = "{voucher.generate.count.positive}") @Max(value = 100000, message = "{voucher.generate.count.max}") final Integer count,
 		@RequestParam("discountType") @NotBlank(message = "{voucher.generate.discounttype}") final DiscountType discountType,
 		@RequestParam("discount") @NotBlank(message = "{voucher.generate.discount.blank}") @Min(value = 0, message = "{voucher.generate.discount.positive}") final Integer discount,
 		@RequestParam("expirationType") @NotNull(message = "{voucher.generate.expirationtype}") final ExpirationType expirationType,
@@ -162,7 +166,51 @@ public class VoucherController {
 		if (expiration != null) {
 			date = utils.parseDate(expiration, format);
 		}
+		if (voucherService.isAsync(count)) {
+			final VoucherGenerationJob job = voucherService.generateAsync(count, discountType, discount, expirationType, date);
+			return new ResponseEntity<>(job, HttpStatus.ACCEPTED);
+		}
 		final Set<Voucher> vouchers = voucherService.generate(count, discountType, discount, expirationType, date);
 		return new ResponseEntity<>(vouchers, HttpStatus.OK);
 	}
+
+	// @formatter:off
+	/**
+	 * @api {get} /vouchers/generate/:id Get a voucher generation job
+	 * @apiVersion 1.0.0
+	 * @apiName GetVoucherGenerationJob
+	 * @apiGroup Vouchers
+	 * @apiDescription Get the status of a voucher generation running in background. The vouchers are returned once it is done.
+	 * @apiPermission admin
+	 *
+	 * @apiParam (Request: URL Parameter) {String} id Job id.
+	 *
+	 * @apiSuccessExample Success-Response:
+	 * HTTP/1.1 200 OK
+	 * {
+	 *      "id": "0b7f3bd4-6c2a-4a5e-9c3b-5b1f2e0c8d41",
+	 *      "status": "RUNNING",
+	 *      "count": 10000,
+	 *      "generated": 4000
+	 * }
+	 *
+	 * @apiUse BadRequestError
+	 * @apiUse ForbiddenError
+	 * @apiUse InternalError
+	 */
+	// @formatter:on
+
+	/**
+	 * @param id The job id
+	 * @return The response
+	 * @throws EpickurException If an EpickurException occured
+	 */
+	@ValidateSimpleAccessRights(operation = READ_GENERATION_JOB, endpoint = VOUCHER)
+	@RequestMapping(value = "/generate/{id}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<?> readGenerationJob(@PathVariable("id") final String id) throws EpickurException {
+		final Optional<VoucherGenerationJob> job = voucherService.readGenerationJob(id);
+		return job.isPresent()
+			? new ResponseEntity<>(job.get(), HttpStatus.OK)
+			: ResponseError.notFound(ErrorConstants.VOUCHER_JOB_NOT_FOUND, id);
+	}
 }
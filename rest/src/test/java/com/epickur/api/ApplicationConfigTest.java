@@ -1,10 +1,13 @@
 package com.epickur.api;
 
+import com.epickur.api.cache.CachingGeocoder;
+import com.epickur.api.cache.KeyCache;
 import com.epickur.api.config.*;
-import com.epickur.api.cron.OrderJob;
+import com.epickur.api.cron.OrderExpiryJob;
 import com.epickur.api.dao.mongo.*;
 import com.epickur.api.here.GeocoderHereImpl;
 import com.epickur.api.here.Here;
+import com.epickur.api.http.HttpClientPool;
 import com.epickur.api.service.*;
 import com.epickur.api.stripe.ChargeWrapper;
 import com.epickur.api.stripe.StripePayment;
@@ -50,6 +53,11 @@ public class ApplicationConfigTest {
 		return new DishDAO(mongoDatabase);
 	}
 
+	@Bean
+	public GeocodeDAO geocodeDAO() {
+		return new GeocodeDAO(mongoDatabase);
+	}
+
 	@Bean
 	public KeyDAO keyDAO() {
 		return new KeyDAO(mongoDatabase);
@@ -67,7 +75,7 @@ public class ApplicationConfigTest {
 
 	@Bean
 	public SequenceDAO sequenceDAO() {
-		return new SequenceDAO(mongoDatabase);
+		return new SequenceDAO(mongoDatabase, epickurProperties());
 	}
 
 	@Bean
@@ -87,17 +95,37 @@ public class ApplicationConfigTest {
 
 	@Bean
 	public DishService dishService() {
-		return new DishService(geocoderHere(), dishDAO());
+		return new DishService(geocoder(), dishDAO());
+	}
+
+	@Bean
+	public CachingGeocoder geocoder() {
+		return new CachingGeocoder(geocoderHere(), geocodeDAO(), epickurProperties());
+	}
+
+	@Bean
+	public KeyCache keyCache() {
+		return new KeyCache(epickurProperties());
+	}
+
+	@Bean
+	public RevokedTokenDAO revokedTokenDAO() {
+		return new RevokedTokenDAO(mongoDatabase);
+	}
+
+	@Bean
+	public TokenService tokenService() {
+		return new TokenService(revokedTokenDAO(), epickurProperties());
 	}
 
 	@Bean
 	public KeyService keyService() {
-		return new KeyService(keyDAO());
+		return new KeyService(keyDAO(), keyCache(), tokenService());
 	}
 
 	@Bean
-	public OrderJob orderJob() {
-		return new OrderJob();
+	public OrderExpiryJob orderExpiryJob() {
+		return new OrderExpiryJob(orderDAO(), userDAO(), voucherService(), emailUtils(), epickurProperties());
 	}
 
 	@Bean
@@ -107,17 +135,27 @@ public class ApplicationConfigTest {
 
 	@Bean
 	public OrderService orderService() {
-		return new OrderService(orderDAO(), userDAO(), sequenceDAO(), voucherService(), orderJob(), emailUtils(), stripePayment());
+		return new OrderService(orderDAO(), userDAO(), sequenceDAO(), voucherService(), orderExpiryJob(), emailUtils(), stripePayment());
 	}
 
 	@Bean
 	public UserService userService() {
-		return new UserService(userDAO(), keyService(), emailUtils(), utils());
+		return new UserService(userDAO(), keyService(), emailUtils(), utils(), tokenService(), httpClientPool());
+	}
+
+	@Bean
+	public VoucherJobDAO voucherJobDAO() {
+		return new VoucherJobDAO(mongoDatabase);
+	}
+
+	@Bean
+	public VoucherGenerator voucherGenerator() {
+		return new VoucherGenerator(voucherDAO(), voucherJobDAO(), epickurProperties());
 	}
 
 	@Bean
 	public VoucherService voucherService() {
-		return new VoucherService(voucherDAO());
+		return new VoucherService(voucherDAO(), voucherGenerator());
 	}
 
 	@Bean
@@ -132,7 +170,12 @@ public class ApplicationConfigTest {
 
 	@Bean
 	public Here here() {
-		return new Here(epickurProperties(), objectMapper());
+		return new Here(epickurProperties(), objectMapper(), httpClientPool());
+	}
+
+	@Bean
+	public HttpClientPool httpClientPool() {
+		return new HttpClientPool(epickurProperties());
 	}
 
 	@Bean
@@ -140,6 +183,16 @@ public class ApplicationConfigTest {
 		return new EmailUtils();
 	}
 
+	@Bean
+	public EmailOutboxDAO emailOutboxDAO() {
+		return new EmailOutboxDAO(mongoDatabase);
+	}
+
+	@Bean(initMethod = "start")
+	public EmailOutboxService emailOutboxService() {
+		return new EmailOutboxService(emailOutboxDAO(), email(), epickurProperties());
+	}
+
 	@Bean
 	public EmailTemplate emailTemplate() {
 		return new EmailTemplate();
@@ -39,8 +39,6 @@ public class ApplicationInitializerTest {
 		assertNotNull(properties.getMandrillUrl());
 		assertNotNull(properties.getSend());
 		assertNotNull(properties.getMongoPath());
-		assertNotNull(properties.getMongodPath());
-		assertNotNull(properties.getMongoBackupPath());
 		assertNotNull(properties.getCleanKeysInterval());
 		assertNotNull(properties.getOrderTimeLimit());
 		assertNotNull(properties.getSessionTimeout());
@@ -0,0 +1,22 @@
+package com.epickur.api;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ApplicationTest {
+
+	@Test
+	public void testIsRestore() {
+		assertTrue(Application.isRestore(new String[]{"--restore"}));
+		assertTrue(Application.isRestore(new String[]{"--server.port=8081", "--restore=full1"}));
+	}
+
+	@Test
+	public void testIsNotRestore() {
+		assertFalse(Application.isRestore(new String[]{}));
+		assertFalse(Application.isRestore(new String[]{"--restored"}));
+		assertFalse(Application.isRestore(new String[]{"restore"}));
+	}
+}
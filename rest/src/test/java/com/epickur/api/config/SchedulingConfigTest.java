@@ -0,0 +1,82 @@
+package com.epickur.api.config;
+
+import com.epickur.api.service.EmailOutboxService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.scheduling.annotation.ScheduledAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SchedulingConfigTest {
+
+	@Mock
+	private EmailOutboxService emailOutboxService;
+	@Mock
+	private EpickurProperties properties;
+
+	@Test
+	public void testStart() {
+		// When
+		try (final AnnotationConfigApplicationContext context = context(null)) {
+
+			// Then
+			assertEquals(1, context.getBeansOfType(ScheduledAnnotationBeanPostProcessor.class).size());
+			assertEquals(3, context.getBean(ThreadPoolTaskScheduler.class).getScheduledThreadPoolExecutor().getCorePoolSize());
+			then(emailOutboxService).should().start();
+		}
+	}
+
+	@Test
+	public void testRestore() {
+		// When
+		try (final AnnotationConfigApplicationContext context = context("")) {
+
+			// Then
+			assertTrue(context.getBeansOfType(ScheduledAnnotationBeanPostProcessor.class).isEmpty());
+			assertTrue(context.getBeansOfType(ThreadPoolTaskScheduler.class).isEmpty());
+			then(emailOutboxService).should(never()).start();
+		}
+	}
+
+	@Test
+	public void testRestoreBackup() {
+		// When
+		try (final AnnotationConfigApplicationContext context = context("full1")) {
+
+			// Then
+			assertTrue(context.getBeansOfType(ScheduledAnnotationBeanPostProcessor.class).isEmpty());
+			then(emailOutboxService).should(never()).start();
+		}
+	}
+
+	/**
+	 * @param restore The value of the restore option, null if absent
+	 * @return The context holding the scheduling configuration
+	 */
+	private AnnotationConfigApplicationContext context(final String restore) {
+		final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		if (restore == null) {
+			given(properties.getCronSchedulerThreads()).willReturn(3);
+		} else {
+			context.getEnvironment().getPropertySources()
+				.addFirst(new MapPropertySource("args", Collections.singletonMap(RestoreConfig.RESTORE, restore)));
+		}
+		context.getBeanFactory().registerSingleton("emailOutboxService", emailOutboxService);
+		context.getBeanFactory().registerSingleton("epickurProperties", properties);
+		context.register(SchedulingConfig.class);
+		context.refresh();
+		return context;
+	}
+}
@@ -1,9 +1,11 @@
 package com.epickur.api.filter;
 
+import com.epickur.api.cache.KeyCache;
 import com.epickur.api.dao.mongo.KeyDAO;
 import com.epickur.api.entity.Key;
 import com.epickur.api.entity.message.ErrorMessage;
 import com.epickur.api.exception.EpickurException;
+import com.epickur.api.service.TokenService;
 import com.epickur.api.helper.EntityGenerator;
 import com.epickur.api.utils.ErrorConstants;
 import com.epickur.api.utils.Utils;
@@ -46,6 +48,10 @@ public class KeyRequestFilterTest {
 	@Mock
 	private KeyDAO dao;
 	@Mock
+	private KeyCache keyCache;
+	@Mock
+	private TokenService tokenService;
+	@Mock
 	private HttpServletRequest request;
 	@Mock
 	private HttpServletResponse response;
@@ -70,6 +76,41 @@ public class KeyRequestFilterTest {
 		// Then
 		then(request).should().setAttribute(KEY_PROPERTY, key);
 		then(filterChain).should().doFilter(request, response);
+		then(keyCache).should().put(key);
+	}
+
+	@Test
+	public void testHandlePrivateKeyCached() throws EpickurException, IOException, ServletException {
+		// Given
+		Key key = EntityGenerator.generateRandomAdminKey();
+		given(keyCache.get(key.getKey())).willReturn(Optional.of(key));
+		given(utils.isValid(key)).willReturn(true);
+
+		// When
+		filter.handlePrivateKey(request, response, filterChain, key.getKey());
+
+		// Then
+		then(dao).should(never()).read(anyString());
+		then(request).should().setAttribute(KEY_PROPERTY, key);
+		then(filterChain).should().doFilter(request, response);
+	}
+
+	@Test
+	public void testHandlePrivateKeyToken() throws EpickurException, IOException, ServletException {
+		// Given
+		Key key = EntityGenerator.generateRandomAdminKey();
+		given(tokenService.isToken(key.getKey())).willReturn(true);
+		given(tokenService.verify(key.getKey())).willReturn(Optional.of(key));
+		given(utils.isValid(key)).willReturn(true);
+
+		// When
+		filter.handlePrivateKey(request, response, filterChain, key.getKey());
+
+		// Then
+		then(dao).should(never()).read(anyString());
+		then(keyCache).should(never()).put(key);
+		then(request).should().setAttribute(KEY_PROPERTY, key);
+		then(filterChain).should().doFilter(request, response);
 	}
 
 	@Test
@@ -86,6 +127,7 @@ public class KeyRequestFilterTest {
 		// Then
 		then(request).should(never()).setAttribute(KEY_PROPERTY, key);
 		then(filterChain).should(never()).doFilter(request, response);
+		then(keyCache).should(never()).put(key);
 	}
 
 	@Test
@@ -1,8 +1,6 @@
 package com.epickur.api.filter;
 
-import com.epickur.api.dao.mongo.LogDAO;
 import com.epickur.api.entity.Log;
-import com.epickur.api.exception.EpickurException;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
@@ -19,13 +17,14 @@ import java.util.Enumeration;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.mock;
 
 @RunWith(MockitoJUnitRunner.class)
 public class LogRequestFilterTest {
 
 	@Mock
-	private LogDAO dao;
+	private LogWriter logWriter;
 	@Mock
 	private HttpServletRequest request;
 	@Mock
@@ -48,10 +47,14 @@ public class LogRequestFilterTest {
 
 		// When
 		filter.doFilterInternal(request, response, filterChain);
+
+		// Then
+		then(logWriter).should().write(any(Log.class));
+		then(filterChain).should().doFilter(request, response);
 	}
 
 	@Test
-	public void testDoFilterInternalFail() throws IOException, ServletException, EpickurException {
+	public void testDoFilterInternalDropped() throws IOException, ServletException {
 		// Given
 		Enumeration params = mock(Enumeration.class);
 		given(params.hasMoreElements()).willReturn(true, false);
@@ -59,9 +62,12 @@ public class LogRequestFilterTest {
 		given(request.getRequestURL()).willReturn(new StringBuffer());
 		given(request.getParameterNames()).willReturn(params);
 		given(request.getHeader("X-FORWARDED-FOR")).willReturn(null);
-		given(dao.create(any(Log.class))).willThrow(new EpickurException());
+		given(logWriter.write(any(Log.class))).willReturn(false);
 
 		// When
 		filter.doFilterInternal(request, response, filterChain);
+
+		// Then
+		then(filterChain).should().doFilter(request, response);
 	}
 }
@@ -0,0 +1,189 @@
+package com.epickur.api.filter;
+
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.dao.mongo.LogDAO;
+import com.epickur.api.entity.Log;
+import com.epickur.api.exception.EpickurDBException;
+import com.epickur.api.exception.EpickurException;
+import com.mongodb.MongoException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LogWriterTest {
+
+	@Mock
+	private LogDAO logDAO;
+	@Mock
+	private EpickurProperties properties;
+
+	private LogWriter createLogWriter(final String policy, final int capacity) {
+		return createLogWriter(policy, capacity, 2);
+	}
+
+	private LogWriter createLogWriter(final String policy, final int capacity, final int sampleRate) {
+		given(properties.getLogQueueCapacity()).willReturn(capacity);
+		given(properties.getLogBatchSize()).willReturn(2);
+		given(properties.getLogQueuePolicy()).willReturn(policy);
+		given(properties.getLogSampleRate()).willReturn(sampleRate);
+		given(properties.getLogFlushInterval()).willReturn(10L);
+		return new LogWriter(logDAO, properties);
+	}
+
+	@Test
+	public void testFlushInBatches() throws EpickurException {
+		// Given
+		LogWriter logWriter = createLogWriter("drop", 10);
+		List<Integer> batchSizes = new ArrayList<>();
+		willAnswer(invocation -> {
+			batchSizes.add(((List) invocation.getArgument(0)).size());
+			return invocation.getArgument(0);
+		}).given(logDAO).createAll(anyList(), eq(false));
+		for (int i = 0; i < 5; i++) {
+			logWriter.write(new Log());
+		}
+
+		// When
+		logWriter.flush();
+
+		// Then
+		then(logDAO).should(times(3)).createAll(anyList(), eq(false));
+		assertEquals(2, batchSizes.get(0).intValue());
+		assertEquals(1, batchSizes.get(2).intValue());
+		assertEquals(5, logWriter.getWritten());
+		assertEquals(0, logWriter.getPending());
+	}
+
+	@Test
+	public void testDropWhenFull() throws EpickurException {
+		// Given
+		LogWriter logWriter = createLogWriter("drop", 2);
+
+		// When
+		assertTrue(logWriter.write(new Log()));
+		assertTrue(logWriter.write(new Log()));
+		assertFalse(logWriter.write(new Log()));
+
+		// Then
+		assertEquals(1, logWriter.getDropped());
+		assertEquals(2, logWriter.getPending());
+	}
+
+	@Test
+	public void testSampleWhenHalfFull() {
+		// Given
+		LogWriter logWriter = createLogWriter("sample", 10);
+		for (int i = 0; i < 5; i++) {
+			logWriter.write(new Log());
+		}
+
+		// When
+		for (int i = 0; i < 4; i++) {
+			logWriter.write(new Log());
+		}
+
+		// Then
+		assertEquals(2, logWriter.getDropped());
+		assertEquals(7, logWriter.getPending());
+	}
+
+	@Test
+	public void testFlushFail() throws EpickurException {
+		// Given
+		LogWriter logWriter = createLogWriter("drop", 10);
+		willThrow(new EpickurDBException()).given(logDAO).createAll(anyList(), eq(false));
+		logWriter.write(new Log());
+
+		// When
+		logWriter.flush();
+
+		// Then
+		assertEquals(1, logWriter.getFailed());
+		assertEquals(0, logWriter.getWritten());
+	}
+
+	@Test
+	public void testFlushPartialFail() throws EpickurException {
+		// Given
+		LogWriter logWriter = createLogWriter("drop", 10);
+		Map<Integer, String> errors = new HashMap<>();
+		errors.put(1, "E11000 duplicate key error");
+		willThrow(new EpickurDBException("createAll", "1 documents failed", errors, new MongoException("bulk"))).given(logDAO)
+			.createAll(anyList(), eq(false));
+		logWriter.write(new Log());
+		logWriter.write(new Log());
+
+		// When
+		logWriter.flush();
+
+		// Then
+		assertEquals(1, logWriter.getFailed());
+		assertEquals(1, logWriter.getWritten());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSampleRateZero() {
+		createLogWriter("sample", 10, 0);
+	}
+
+	@Test
+	public void testShutdownFlush() throws EpickurException {
+		// Given
+		LogWriter logWriter = createLogWriter("drop", 10);
+		logWriter.write(new Log());
+
+		// When
+		logWriter.shutdown();
+
+		// Then
+		then(logDAO).should().createAll(anyList(), eq(false));
+		assertEquals(1, logWriter.getWritten());
+	}
+
+	@Test
+	public void testFlushInBackground() throws EpickurException {
+		// Given
+		LogWriter logWriter = createLogWriter("drop", 10);
+		logWriter.write(new Log());
+
+		// When
+		logWriter.start();
+
+		// Then
+		then(logDAO).should(timeout(1000)).createAll(anyList(), eq(false));
+		logWriter.shutdown();
+		assertEquals(1, logWriter.getWritten());
+	}
+
+	@Test
+	public void testFlushEmpty() throws EpickurException {
+		// Given
+		LogWriter logWriter = createLogWriter("drop", 10);
+
+		// When
+		logWriter.flush();
+
+		// Then
+		then(logDAO).should(never()).createAll(anyList(), eq(false));
+	}
+}
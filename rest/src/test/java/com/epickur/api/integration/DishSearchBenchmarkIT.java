@@ -0,0 +1,118 @@
+package com.epickur.api.integration;
+
+import com.epickur.api.ApplicationConfigTest;
+import com.epickur.api.IntegrationTestUtils;
+import com.epickur.api.dao.mongo.DishDAO;
+import com.epickur.api.entity.Dish;
+import com.epickur.api.entity.Geo;
+import com.epickur.api.entity.times.Hours;
+import com.epickur.api.entity.times.TimeFrame;
+import com.epickur.api.entity.times.WorkingTimes;
+import com.epickur.api.enumeration.DishType;
+import com.epickur.api.exception.EpickurException;
+import com.epickur.api.helper.EntityGenerator;
+import com.mongodb.client.MongoDatabase;
+import lombok.extern.log4j.Log4j2;
+import org.bson.Document;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import static com.epickur.api.dao.CollectionsName.DISH_COLL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compare the documents scanned and deserialized by the dish search, before and after the opening hours filter moved into MongoDB.
+ * <p>
+ * Half of the dishes open exactly at the pickup time, the other half are closed. The previous query excluded the bounds and filtered again
+ * in Java, the current one includes the bounds and returns the dishes as they are.
+ */
+@Log4j2
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = ApplicationConfigTest.class)
+public class DishSearchBenchmarkIT {
+
+	private static final int DISHES = 400;
+	private static final int LIMIT = 50;
+	private static final int PICKUP = 600;
+	private static final int DISTANCE = 1000;
+	private static final int ITERATIONS = 50;
+
+	@Autowired
+	private DishDAO dao;
+	@Autowired
+	private MongoDatabase db;
+
+	private final List<DishType> types = Collections.singletonList(DishType.MAIN);
+	private final Geo geo = EntityGenerator.generateGeo();
+
+	@AfterClass
+	public static void tearDownAfterClass() throws IOException {
+		IntegrationTestUtils.cleanDB();
+	}
+
+	@Before
+	public void setUp() throws EpickurException {
+		db.getCollection(DISH_COLL).createIndexes(dao.getIndexes());
+		for (int i = 0; i < DISHES; i++) {
+			final Dish dish = EntityGenerator.generateRandomDish();
+			dish.setType(DishType.MAIN);
+			dish.getCaterer().getLocation().setGeo(geo);
+			dish.getCaterer().setWorkingTimes(i % 2 == 0 ? workingTimes(PICKUP, PICKUP + 120) : workingTimes(0, PICKUP - 300));
+			dao.create(dish);
+		}
+	}
+
+	@Test
+	public void testSearch() throws EpickurException {
+		// Previous behaviour: strict bounds, then a second filter in Java
+		final Document legacyQuery = dao.getSearchQuery("mon", PICKUP, types, geo, DISTANCE);
+		final Document elemMatch = (Document) ((Document) legacyQuery.get("caterer.workingTimes.hours.mon")).get("$elemMatch");
+		elemMatch.put("open", new Document("$lt", PICKUP));
+		elemMatch.put("close", new Document("$gt", PICKUP));
+		final Document legacyStats = explain(legacyQuery);
+
+		final Document query = dao.getSearchQuery("mon", PICKUP, types, geo, DISTANCE);
+		final Document stats = explain(query);
+
+		long start = System.nanoTime();
+		List<Dish> dishes = null;
+		for (int i = 0; i < ITERATIONS; i++) {
+			dishes = dao.search("mon", PICKUP, types, LIMIT, geo, DISTANCE);
+		}
+		final long averageMicros = (System.nanoTime() - start) / ITERATIONS / 1000;
+
+		log.info("Legacy search: {} documents scanned, {} deserialized", legacyStats.get("totalDocsExamined"), legacyStats.get("nReturned"));
+		log.info("Current search: {} documents scanned, {} deserialized, {} returned, {}us per search", stats.get("totalDocsExamined"),
+			stats.get("nReturned"), dishes.size(), averageMicros);
+
+		assertEquals(0, legacyStats.getInteger("nReturned").intValue());
+		assertEquals(LIMIT, stats.getInteger("nReturned").intValue());
+		assertEquals(LIMIT, dishes.size());
+		assertTrue(dishes.stream().allMatch(dish -> dish.getCaterer().getWorkingTimes().canBePickup("mon", PICKUP)));
+	}
+
+	private Document explain(final Document filter) {
+		final Document find = new Document("find", DISH_COLL).append("filter", filter).append("limit", LIMIT);
+		final Document explain = db.runCommand(new Document("explain", find).append("verbosity", "executionStats"));
+		return (Document) explain.get("executionStats");
+	}
+
+	private static WorkingTimes workingTimes(final int open, final int close) {
+		final TimeFrame timeFrame = new TimeFrame(open, close);
+		final Hours hours = new Hours();
+		hours.setMon(Collections.singletonList(timeFrame));
+		final WorkingTimes workingTimes = new WorkingTimes();
+		workingTimes.setHours(hours);
+		return workingTimes;
+	}
+}
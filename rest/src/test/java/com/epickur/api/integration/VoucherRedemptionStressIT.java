@@ -0,0 +1,120 @@
+package com.epickur.api.integration;
+
+import com.epickur.api.ApplicationConfigTest;
+import com.epickur.api.IntegrationTestUtils;
+import com.epickur.api.dao.mongo.VoucherDAO;
+import com.epickur.api.entity.Voucher;
+import com.epickur.api.enumeration.voucher.ExpirationType;
+import com.epickur.api.enumeration.voucher.Status;
+import com.epickur.api.exception.EpickurException;
+import com.epickur.api.helper.EntityGenerator;
+import com.epickur.api.service.VoucherService;
+import lombok.extern.log4j.Log4j2;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Redeem one hot voucher code from many threads at once. Every redemption is a single conditional update, so no increment can be lost and a
+ * one time voucher can only be used once.
+ */
+@Log4j2
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = ApplicationConfigTest.class)
+public class VoucherRedemptionStressIT {
+
+	private static final int THREADS = 16;
+	private static final int REDEMPTIONS = 50;
+
+	@Autowired
+	private VoucherDAO voucherDAO;
+	@Autowired
+	private VoucherService voucherService;
+
+	@AfterClass
+	public static void tearDownAfterClass() throws IOException {
+		IntegrationTestUtils.cleanDB();
+	}
+
+	@Test
+	public void testRedeemUntil() throws Exception {
+		final Voucher voucher = createVoucher(ExpirationType.UNTIL);
+
+		final long start = System.nanoTime();
+		final int succeeded = hammer(voucher.getCode(), REDEMPTIONS);
+		log.info("{} redemptions in {} ms", THREADS * REDEMPTIONS, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+		assertEquals(THREADS * REDEMPTIONS, succeeded);
+		final Voucher actual = voucherDAO.read(voucher.getCode()).get();
+		assertEquals(THREADS * REDEMPTIONS, actual.getUsedCount().intValue());
+		assertEquals(Status.VALID, actual.getStatus());
+	}
+
+	@Test
+	public void testRedeemOneTime() throws Exception {
+		final Voucher voucher = createVoucher(ExpirationType.ONETIME);
+
+		final int succeeded = hammer(voucher.getCode(), 1);
+
+		assertEquals(1, succeeded);
+		assertEquals(Status.EXPIRED, voucherDAO.read(voucher.getCode()).get().getStatus());
+	}
+
+	private Voucher createVoucher(final ExpirationType expirationType) throws EpickurException {
+		final Voucher voucher = EntityGenerator.generateVoucher();
+		voucher.setExpirationType(expirationType);
+		voucher.setUsedCount(0);
+		voucher.prepareForInsertionIntoDB();
+		return voucherDAO.create(voucher);
+	}
+
+	/**
+	 * @param code        The voucher code
+	 * @param redemptions The redemptions per thread
+	 * @return The number of successful redemptions
+	 */
+	private int hammer(final String code, final int redemptions) throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicInteger succeeded = new AtomicInteger();
+		final List<Future<?>> futures = new ArrayList<>();
+		try {
+			for (int i = 0; i < THREADS; i++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int j = 0; j < redemptions; j++) {
+						try {
+							voucherService.validateVoucher(code);
+							succeeded.incrementAndGet();
+						} catch (final EpickurException e) {
+							log.debug(e.getLocalizedMessage());
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (final Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return succeeded.get();
+	}
+}
@@ -2,6 +2,7 @@ package com.epickur.api.rest;
 
 import com.epickur.api.commons.CommonsUtil;
 import com.epickur.api.entity.Voucher;
+import com.epickur.api.entity.VoucherGenerationJob;
 import com.epickur.api.entity.message.ErrorMessage;
 import com.epickur.api.enumeration.voucher.DiscountType;
 import com.epickur.api.enumeration.voucher.ExpirationType;
@@ -61,6 +62,33 @@ public class VoucherControllerTest {
 		assertEquals(1, actualVoucher.size());
 	}
 
+	@Test
+	public void testGenerateAsync() throws EpickurException {
+		// Given
+		VoucherGenerationJob job = new VoucherGenerationJob(5000);
+		given(voucherBusiness.isAsync(5000)).willReturn(true);
+		given(voucherBusiness.generateAsync(any(Integer.class), any(DiscountType.class), any(Integer.class), any(ExpirationType.class), isNull())).willReturn(job);
+
+		// When
+		ResponseEntity<?> actual = controller.generate(5000, DiscountType.AMOUNT, 1, ExpirationType.ONETIME, "05/05/2020", "MM/dd/yyyy");
+
+		// Then
+		assertEquals(202, actual.getStatusCode().value());
+		assertEquals(job, actual.getBody());
+	}
+
+	@Test
+	public void testReadGenerationJobNotFound() throws EpickurException {
+		// Given
+		given(voucherBusiness.readGenerationJob("jobId")).willReturn(Optional.empty());
+
+		// When
+		ResponseEntity<?> actual = controller.readGenerationJob("jobId");
+
+		// Then
+		assertEquals(404, actual.getStatusCode().value());
+	}
+
 	@Test
 	public void testRead() throws EpickurException {
 		// Given
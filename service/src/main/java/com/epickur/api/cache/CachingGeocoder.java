@@ -0,0 +1,224 @@
+package com.epickur.api.cache;
+
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.dao.mongo.GeocodeDAO;
+import com.epickur.api.entity.Geo;
+import com.epickur.api.entity.Geocode;
+import com.epickur.api.exception.EpickurDBException;
+import com.epickur.api.exception.GeoLocationException;
+import com.epickur.api.exception.HereNotFoundException;
+import com.epickur.api.here.IGeocoder;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+
+import java.text.Normalizer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link IGeocoder} that caches the results of another one, by normalized address: case, accents, punctuation and spaces are ignored.
+ * <p>
+ * The results are kept in memory, the geocode.cache.size least recently used ones, and in the geocodes collection if
+ * geocode.cache.persistent is true. A position is kept geocode.cache.ttl seconds. An address that could not be geocoded accurately is kept
+ * geocode.cache.negative.ttl seconds, so that it is not sent again on each search. The connection errors are never cached.
+ * <p>
+ * Concurrent lookups of the same address wait for the first one instead of calling the geocoder again.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Log4j2
+public class CachingGeocoder implements IGeocoder {
+
+	private final IGeocoder geocoder;
+	private final GeocodeDAO geocodeDAO;
+	private final boolean persistent;
+	private final long ttlMillis;
+	private final long negativeTtlMillis;
+	/**
+	 * Results, by normalized address, in access order
+	 */
+	private final Map<String, Geocode> cache;
+	/**
+	 * Lookups in progress, by normalized address
+	 */
+	private final ConcurrentMap<String, CompletableFuture<Geocode>> inFlight = new ConcurrentHashMap<>();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong shared = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	public CachingGeocoder(final IGeocoder geocoder, final GeocodeDAO geocodeDAO, final EpickurProperties properties) {
+		this.geocoder = geocoder;
+		this.geocodeDAO = geocodeDAO;
+		this.persistent = Boolean.TRUE.equals(properties.getGeocodeCachePersistent());
+		this.ttlMillis = properties.getGeocodeCacheTtl() * 1000L;
+		this.negativeTtlMillis = properties.getGeocodeCacheNegativeTtl() * 1000L;
+		final int maxSize = properties.getGeocodeCacheSize();
+		this.cache = Collections.synchronizedMap(new LinkedHashMap<String, Geocode>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, Geocode> eldest) {
+				return size() > maxSize;
+			}
+		});
+	}
+
+	@Override
+	public Geo getPosition(final String text) throws GeoLocationException {
+		final String address = normalize(text);
+		if (address.isEmpty()) {
+			return geocoder.getPosition(text);
+		}
+		final Optional<Geocode> cached = getCached(address);
+		if (cached.isPresent()) {
+			hits.incrementAndGet();
+			return toGeo(cached.get());
+		}
+		final CompletableFuture<Geocode> lookup = new CompletableFuture<>();
+		final CompletableFuture<Geocode> running = inFlight.putIfAbsent(address, lookup);
+		if (running != null) {
+			shared.incrementAndGet();
+			return toGeo(await(running));
+		}
+		try {
+			final Geocode geocode = lookup(address, text);
+			lookup.complete(geocode);
+			return toGeo(geocode);
+		} catch (final GeoLocationException | RuntimeException e) {
+			lookup.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(address, lookup);
+		}
+	}
+
+	/**
+	 * @return The number of lookups answered by the cache
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return The number of lookups that waited for the same address to be geocoded
+	 */
+	public long getShared() {
+		return shared.get();
+	}
+
+	/**
+	 * @return The number of lookups sent to the geocoder
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @return The number of results in memory, including the expired ones not evicted yet
+	 */
+	public int size() {
+		return cache.size();
+	}
+
+	/**
+	 * @param text The text to geocode
+	 * @return The cache key of the text
+	 */
+	static String normalize(final String text) {
+		if (text == null) {
+			return "";
+		}
+		final String stripped = Normalizer.normalize(text, Normalizer.Form.NFKD).replaceAll("\\p{M}+", "");
+		return stripped.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+	}
+
+	/**
+	 * @param address The normalized address
+	 * @return The result in memory, or in database, if not expired
+	 */
+	private Optional<Geocode> getCached(final String address) {
+		final Geocode cached = cache.get(address);
+		if (cached != null) {
+			if (cached.getExpiresAt() > System.currentTimeMillis()) {
+				return Optional.of(cached);
+			}
+			cache.remove(address);
+		}
+		if (persistent) {
+			try {
+				final Optional<Geocode> stored = geocodeDAO.read(address);
+				stored.ifPresent(geocode -> cache.put(address, geocode));
+				return stored;
+			} catch (final EpickurDBException e) {
+				log.warn("Could not read the geocode of '{}': {}", address, e.getLocalizedMessage());
+			}
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * Geocode the text and cache the result, unless the geocoder could not be reached
+	 *
+	 * @param address The normalized address
+	 * @param text    The text to geocode
+	 * @return The result
+	 * @throws GeoLocationException If the geocoder failed
+	 */
+	private Geocode lookup(final String address, final String text) throws GeoLocationException {
+		misses.incrementAndGet();
+		final long now = System.currentTimeMillis();
+		Geocode geocode;
+		try {
+			final Geo geo = geocoder.getPosition(text);
+			geocode = new Geocode(address, geo.getLatitude(), geo.getLongitude(), null, now + ttlMillis);
+		} catch (final HereNotFoundException e) {
+			geocode = new Geocode(address, null, null, e.getMessage(), now + negativeTtlMillis);
+		}
+		cache.put(address, geocode);
+		if (persistent) {
+			try {
+				geocodeDAO.save(geocode);
+			} catch (final EpickurDBException e) {
+				log.warn("Could not save the geocode of '{}': {}", address, e.getLocalizedMessage());
+			}
+		}
+		return geocode;
+	}
+
+	/**
+	 * @param running The lookup of another thread
+	 * @return Its result
+	 * @throws GeoLocationException If it failed
+	 */
+	private static Geocode await(final CompletableFuture<Geocode> running) throws GeoLocationException {
+		try {
+			return running.join();
+		} catch (final CompletionException e) {
+			if (e.getCause() instanceof GeoLocationException) {
+				throw (GeoLocationException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * @param geocode A result
+	 * @return A new Geo, the callers may modify it
+	 * @throws HereNotFoundException If the address was not found
+	 */
+	private static Geo toGeo(final Geocode geocode) throws HereNotFoundException {
+		if (!geocode.isFound()) {
+			throw new HereNotFoundException(StringUtils.defaultString(geocode.getError(), "Geolocation error"));
+		}
+		return geocode.toGeo();
+	}
+}
@@ -0,0 +1,130 @@
+package com.epickur.api.cache;
+
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.entity.Key;
+import org.bson.types.ObjectId;
+import org.joda.time.DateTimeConstants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded cache of the valid session keys, so that authenticating a request does not hit the database.
+ * <p>
+ * An entry expires when its key stops being valid (session.timeout days after its creation), or session.cache.ttl seconds after it has been
+ * cached if that comes first. The second limit bounds how long a key deleted by another server can still be used on this one. When the cache
+ * holds session.cache.size keys, the least recently used one is evicted.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Component
+public class KeyCache {
+
+	/**
+	 * Keys, by key value, in access order
+	 */
+	private final Map<String, CachedKey> keys;
+	/**
+	 * Validity of a key, from its creation date
+	 */
+	private final long sessionTimeoutMillis;
+	/**
+	 * Max time a key stays in the cache
+	 */
+	private final long ttlMillis;
+
+	@Autowired
+	public KeyCache(final EpickurProperties properties) {
+		final int maxSize = properties.getSessionCacheSize();
+		this.keys = Collections.synchronizedMap(new LinkedHashMap<String, CachedKey>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, CachedKey> eldest) {
+				return size() > maxSize;
+			}
+		});
+		// Utils.isValid accepts a key until more than session.timeout full days have passed
+		this.sessionTimeoutMillis = (properties.getSessionTimeout() + 1L) * DateTimeConstants.MILLIS_PER_DAY;
+		this.ttlMillis = properties.getSessionCacheTtl() * 1000L;
+	}
+
+	/**
+	 * @param key The key value
+	 * @return The key if it is cached and not expired
+	 */
+	public Optional<Key> get(final String key) {
+		final CachedKey cached = keys.get(key);
+		if (cached == null) {
+			return Optional.empty();
+		}
+		if (cached.expiresAt <= System.currentTimeMillis()) {
+			keys.remove(key);
+			return Optional.empty();
+		}
+		return Optional.of(cached.key);
+	}
+
+	/**
+	 * Cache a key. It must be valid.
+	 *
+	 * @param key The key
+	 */
+	public void put(final Key key) {
+		final long now = System.currentTimeMillis();
+		long expiresAt = now + ttlMillis;
+		if (key.getCreatedAt() != null) {
+			expiresAt = Math.min(expiresAt, key.getCreatedAt().getMillis() + sessionTimeoutMillis);
+		}
+		keys.put(key.getKey(), new CachedKey(key, expiresAt));
+	}
+
+	/**
+	 * @param key The key value
+	 */
+	public void invalidate(final String key) {
+		keys.remove(key);
+	}
+
+	/**
+	 * @param id The key id
+	 */
+	public void invalidateId(final ObjectId id) {
+		synchronized (keys) {
+			keys.values().removeIf(cached -> id.equals(cached.key.getId()));
+		}
+	}
+
+	/**
+	 * Remove all the keys
+	 */
+	public void clear() {
+		keys.clear();
+	}
+
+	/**
+	 * @return The number of keys cached, including the expired ones not evicted yet
+	 */
+	public int size() {
+		return keys.size();
+	}
+
+	/**
+	 * A key and its expiration time
+	 */
+	private static final class CachedKey {
+
+		private final Key key;
+		private final long expiresAt;
+
+		private CachedKey(final Key key, final long expiresAt) {
+			this.key = key;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
@@ -0,0 +1,7 @@
+/**
+ * In memory caches shared by the services and the filters.
+ *
+ * @author cph
+ * @version 1.0
+ */
+package com.epickur.api.cache;
@@ -0,0 +1,112 @@
+package com.epickur.api.cron;
+
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.dao.mongo.EmailOutboxDAO;
+import com.epickur.api.entity.AbstractMainDBEntity;
+import com.epickur.api.entity.EmailMessage;
+import com.epickur.api.exception.EpickurException;
+import com.epickur.api.utils.email.Email;
+import com.epickur.api.utils.email.EmailOutbox;
+import com.epickur.api.utils.email.EmailType;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.joda.time.DateTime;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Send the admin notifications buffered in the outbox as digests. Every email.admin.digest.window milliseconds, the notifications of each
+ * type are replaced by one email listing their subjects, with at most {@value #MAX_ITEMS} notifications per digest.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Log4j2
+@Component
+public class AdminDigestJob {
+
+	/**
+	 * Max number of notifications in one digest
+	 */
+	public static final int MAX_ITEMS = 500;
+
+	private final EmailOutboxDAO outboxDAO;
+	private final EmailOutbox outbox;
+	private final Email email;
+	private final JobLock jobLock;
+	private final EpickurProperties properties;
+
+	@Autowired
+	public AdminDigestJob(final EmailOutboxDAO outboxDAO, final EmailOutbox outbox, final Email email, final JobLock jobLock,
+						  final EpickurProperties properties) {
+		this.outboxDAO = outboxDAO;
+		this.outbox = outbox;
+		this.email = email;
+		this.jobLock = jobLock;
+		this.properties = properties;
+	}
+
+	@Scheduled(fixedDelayString = "${email.admin.digest.window:3600000}")
+	public void execute() {
+		jobLock.run("adminDigest", lease -> sendDigests());
+	}
+
+	/**
+	 * Queue one digest per type of buffered notifications, and delete them.
+	 */
+	public void sendDigests() {
+		int digests = 0;
+		try {
+			for (final String type : outboxDAO.readBufferedTypes()) {
+				List<EmailMessage> buffered;
+				do {
+					buffered = outboxDAO.readBuffered(type, MAX_ITEMS);
+					if (!buffered.isEmpty()) {
+						if (!queueDigest(type, buffered)) {
+							break;
+						}
+						outboxDAO.deleteAll(buffered.stream().map(AbstractMainDBEntity::getId).collect(Collectors.toList()));
+						digests++;
+					}
+				} while (buffered.size() == MAX_ITEMS);
+			}
+		} catch (final EpickurException e) {
+			log.error(e.getLocalizedMessage(), e);
+		}
+		if (digests > 0) {
+			log.info("Admin digest job done, {} digests queued", digests);
+		}
+	}
+
+	/**
+	 * @param type     The type of the notifications
+	 * @param buffered The notifications
+	 * @return False if the digest could not be rendered or queued, the notifications are then kept
+	 */
+	private boolean queueDigest(final String type, final List<EmailMessage> buffered) {
+		final StringBuilder items = new StringBuilder();
+		for (final EmailMessage message : buffered) {
+			items.append("<li>")
+				.append(message.getCreatedAt().toString("yyyy-MM-dd HH:mm"))
+				.append(" - ")
+				.append(StringEscapeUtils.escapeHtml4(message.getSubject()))
+				.append("</li>\n");
+		}
+		final DateTime since = buffered.get(0).getCreatedAt();
+		final Map<String, String> data = new HashMap<>();
+		data.put("@@TEAM_NAME@@", properties.getName());
+		data.put("@@DIGEST_TYPE@@", type);
+		data.put("@@DIGEST_COUNT@@", Integer.toString(buffered.size()));
+		data.put("@@DIGEST_SINCE@@", since.toString("yyyy-MM-dd HH:mm"));
+		data.put("@@DIGEST_ITEMS@@", items.toString());
+		final Optional<EmailMessage> digest = email.render(EmailType.ADMINS_DIGEST, data, properties.getAdmins());
+		return digest.isPresent() && outbox.add(digest.get());
+	}
+}
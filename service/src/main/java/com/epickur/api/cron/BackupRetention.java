@@ -0,0 +1,92 @@
+package com.epickur.api.cron;
+
+import com.epickur.api.aws.AmazonWebServices;
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.dump.BackupEntry;
+import com.epickur.api.dump.BackupManifest;
+import com.epickur.api.dump.MongoDBDump;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Retention of the backups. The backups are listed in a {@link BackupManifest} stored in the bucket, so the bucket is never listed: the
+ * last mongo.backup.kept full backups are kept with their incremental backups, the older ones are deleted in one batch. The uploads left
+ * incomplete by a server that died during a dump are aborted.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Log4j2
+@Component
+public class BackupRetention {
+
+	/**
+	 * Key of the manifest in the bucket
+	 */
+	public static final String MANIFEST = "manifest.json";
+
+	private final AmazonWebServices aws;
+	private final ObjectMapper mapper;
+	private final int fullKept;
+
+	@Autowired
+	public BackupRetention(final AmazonWebServices aws, final ObjectMapper mapper, final EpickurProperties properties) {
+		this.aws = aws;
+		this.mapper = mapper;
+		this.fullKept = properties.getMongoBackupKept();
+	}
+
+	/**
+	 * @return The manifest, empty if there is none yet
+	 * @throws IOException If the manifest could not be read
+	 */
+	public BackupManifest read() throws IOException {
+		final Optional<byte[]> content = aws.readObject(MANIFEST);
+		return content.isPresent() ? mapper.readValue(content.get(), BackupManifest.class) : new BackupManifest();
+	}
+
+	/**
+	 * Abort the uploads of the dumps that never completed. Their parts are not listed by the manifest and would stay in the bucket.
+	 *
+	 * @param before Only the uploads initiated before this date, in milliseconds, are aborted: the others may still be running
+	 * @return The number of uploads aborted
+	 */
+	public int abortStaleUploads(final long before) {
+		return aws.abortUploads(MongoDBDump.PREFIX, new Date(before));
+	}
+
+	/**
+	 * Add a backup to the manifest, then delete the backups that are not kept anymore. The manifest is written before the deletion, so it
+	 * never lists a deleted backup, and an archive still listed is never deleted.
+	 *
+	 * @param manifest The manifest, as read before the backup
+	 * @param entry    The backup uploaded
+	 * @return The names of the backups deleted
+	 * @throws IOException If the backup is already listed or the manifest could not be written, nothing is deleted then
+	 */
+	public List<String> record(final BackupManifest manifest, final BackupEntry entry) throws IOException {
+		if (manifest.contains(entry.getName())) {
+			throw new IOException("Backup " + entry.getName() + " is already in the manifest");
+		}
+		manifest.add(entry);
+		final List<String> expired = manifest.prune(fullKept).stream()
+			.map(BackupEntry::getName)
+			.filter(name -> !manifest.contains(name))
+			.distinct()
+			.collect(Collectors.toList());
+		aws.writeObject(MANIFEST, mapper.writeValueAsBytes(manifest));
+		if (!expired.isEmpty()) {
+			log.info("Deleting {} expired backups", expired.size());
+			aws.deleteObjects(expired);
+		}
+		return expired;
+	}
+}
@@ -1,17 +1,17 @@
 package com.epickur.api.cron;
 
+import com.epickur.api.config.EpickurProperties;
 import com.epickur.api.dao.mongo.KeyDAO;
-import com.epickur.api.entity.Key;
 import com.epickur.api.exception.EpickurException;
-import com.epickur.api.utils.Utils;
 import lombok.extern.log4j.Log4j2;
+import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 
-import java.util.List;
-
 /**
- * Cron clean keys job
+ * Cron clean keys job. The expired keys are deleted with one query on their creation date, whatever the number of sessions.
+ * <p>
+ * The keys cached by the servers are not invalidated: the {@link com.epickur.api.cache.KeyCache} already drops a key when it expires.
  *
  * @author cph
  * @version 1.0
@@ -25,19 +25,23 @@ public final class CleanKeysJob {
 	@Autowired
 	private KeyDAO keyDao;
 	@Autowired
-	private Utils utils;
+	private EpickurProperties properties;
+	@Autowired
+	private JobLock jobLock;
 
 	// TODO load properties for cron value
 	@Scheduled(cron = "0 0/5 * * * ?")
 	public void execute() {
+		jobLock.run("cleanKeys", lease -> cleanKeys());
+	}
+
+	private void cleanKeys() {
 		log.info("Clean keys job starting...");
 		try {
-			final List<Key> keys = keyDao.readAll();
-			for (final Key key : keys) {
-				if (!utils.isValid(key)) {
-					keyDao.delete(key.getId().toHexString());
-				}
-			}
+			// Utils.isValid accepts a key until more than session.timeout full days have passed
+			final DateTime expiredBefore = new DateTime().minusDays(properties.getSessionTimeout() + 1);
+			final long deleted = keyDao.deleteCreatedBefore(expiredBefore);
+			log.info("Clean keys job done, {} keys deleted", deleted);
 		} catch (final EpickurException e) {
 			log.error(e.getLocalizedMessage(), e);
 		}
@@ -1,18 +1,16 @@
 package com.epickur.api.cron;
 
+import com.epickur.api.config.EpickurProperties;
 import com.epickur.api.dao.mongo.VoucherDAO;
-import com.epickur.api.entity.Voucher;
-import com.epickur.api.enumeration.voucher.Status;
 import com.epickur.api.exception.EpickurException;
 import lombok.extern.log4j.Log4j2;
+import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-
 /**
- * Cron clean vouchers jobs.
+ * Cron clean vouchers jobs. The outdated vouchers are expired with one update. If voucher.clean.audit is true, their codes are then logged.
  *
  * @author cph
  * @version 1.0
@@ -26,17 +24,24 @@ public final class CleanVouchersJob {
 	 */
 	@Autowired
 	private VoucherDAO voucherDAO;
+	@Autowired
+	private EpickurProperties properties;
+	@Autowired
+	private JobLock jobLock;
 
 	@Scheduled(cron = "0 0 12 * * ?")
 	public void execute() {
+		jobLock.run("cleanVouchers", lease -> cleanVouchers());
+	}
+
+	private void cleanVouchers() {
 		log.info("Clean vouchers job starting...");
 		try {
-			final List<Voucher> vouchers = voucherDAO.readToClean();
-			for (final Voucher voucher : vouchers) {
-				log.info("Expire voucher {} {}", voucher.getCode(), voucher.getExpiration());
-				voucher.setStatus(Status.EXPIRED);
-				voucher.prepareForUpdateIntoDB();
-				voucherDAO.update(voucher);
+			final DateTime now = new DateTime();
+			final long expired = voucherDAO.expireOutdated(now);
+			log.info("Clean vouchers job done, {} vouchers expired", expired);
+			if (expired > 0 && Boolean.TRUE.equals(properties.getVoucherCleanAudit())) {
+				voucherDAO.forEachExpiredAt(now, code -> log.info("Expire voucher {}", code));
 			}
 		} catch (final EpickurException e) {
 			log.error(e.getLocalizedMessage(), e);
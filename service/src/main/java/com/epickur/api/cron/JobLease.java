@@ -0,0 +1,45 @@
+package com.epickur.api.cron;
+
+import com.epickur.api.dao.mongo.LockDAO;
+import com.epickur.api.exception.EpickurException;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * The lock held by a running job. A job with side effects outside the database checks it before applying them: if it is not valid
+ * anymore, another server took over.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Log4j2
+public final class JobLease {
+
+	private final String job;
+	private final long token;
+	private final LockDAO lockDAO;
+
+	JobLease(final String job, final long token, final LockDAO lockDAO) {
+		this.job = job;
+		this.token = token;
+		this.lockDAO = lockDAO;
+	}
+
+	/**
+	 * @return The fencing token, greater than the token of any previous run
+	 */
+	public long getToken() {
+		return token;
+	}
+
+	/**
+	 * @return True if the lock is still held by this run
+	 */
+	public boolean isValid() {
+		try {
+			return lockDAO.isHeld(job, token);
+		} catch (final EpickurException e) {
+			log.error("Could not check the lock of job {}: {}", job, e.getLocalizedMessage(), e);
+			return false;
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package com.epickur.api.cron;
+
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.dao.mongo.LockDAO;
+import com.epickur.api.exception.EpickurException;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Run a scheduled job on one server only. Every server triggers the job, the first one to acquire its lock in the locks collection runs it,
+ * the others skip it.
+ * <p>
+ * The lock is leased for cron.lock.lease milliseconds, so a server that dies while running a job only blocks it until then. At the end of
+ * the job, the lock is kept until cron.lock.min milliseconds after its acquisition, to absorb the clock differences between the servers.
+ * The lock records which server ran the job last, each server keeps the {@link JobStats} of its own runs.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Log4j2
+@Component
+public class JobLock {
+
+	private final LockDAO lockDAO;
+	private final String node;
+	private final long lease;
+	private final long minHold;
+	private final Map<String, JobStats> stats = new ConcurrentHashMap<>();
+
+	@Autowired
+	public JobLock(final LockDAO lockDAO, final EpickurProperties properties) {
+		this.lockDAO = lockDAO;
+		this.node = StringUtils.defaultIfBlank(properties.getCronLockNode(), ManagementFactory.getRuntimeMXBean().getName());
+		this.lease = properties.getCronLockLease();
+		this.minHold = properties.getCronLockMin();
+	}
+
+	/**
+	 * Run a job if no other server is running it.
+	 *
+	 * @param job  The job name, used as lock name
+	 * @param task The job
+	 * @return True if the job ran on this server
+	 */
+	public boolean run(final String job, final Consumer<JobLease> task) {
+		return run(job, lease, task);
+	}
+
+	/**
+	 * Run a job if no other server is running it.
+	 *
+	 * @param job   The job name, used as lock name
+	 * @param lease The lease in milliseconds, longer than the job is expected to last
+	 * @param task  The job
+	 * @return True if the job ran on this server
+	 */
+	public boolean run(final String job, final long lease, final Consumer<JobLease> task) {
+		final JobStats jobStats = stats.computeIfAbsent(job, name -> new JobStats());
+		final long start = System.currentTimeMillis();
+		final Optional<Long> token;
+		try {
+			token = lockDAO.acquire(job, node, start + lease);
+		} catch (final EpickurException e) {
+			log.error("Could not acquire the lock of job {}: {}", job, e.getLocalizedMessage(), e);
+			jobStats.failed();
+			return false;
+		}
+		if (!token.isPresent()) {
+			log.debug("Job {} is running on another server", job);
+			jobStats.skipped();
+			return false;
+		}
+		boolean succeeded = false;
+		try {
+			task.accept(new JobLease(job, token.get(), lockDAO));
+			succeeded = true;
+		} finally {
+			final long end = System.currentTimeMillis();
+			release(job, token.get(), Math.max(end, start + minHold));
+			if (succeeded) {
+				jobStats.ran(token.get(), end, end - start);
+			} else {
+				jobStats.failed();
+			}
+			log.info("Job {} run by {} with token {} in {} ms", job, node, token.get(), end - start);
+		}
+		return true;
+	}
+
+	/**
+	 * @return The name of this server in the locks
+	 */
+	public String getNode() {
+		return node;
+	}
+
+	/**
+	 * @return The statistics of the jobs on this server, by job name
+	 */
+	public Map<String, JobStats> getStats() {
+		return Collections.unmodifiableMap(stats);
+	}
+
+	private void release(final String job, final long token, final long until) {
+		try {
+			if (!lockDAO.release(job, node, token, until)) {
+				log.warn("Job {} outlived its lease, the lock {} has been taken by another server", job, token);
+			}
+		} catch (final EpickurException e) {
+			log.error("Could not release the lock of job {}: {}", job, e.getLocalizedMessage(), e);
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package com.epickur.api.cron;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of a job on this server.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public final class JobStats {
+
+	private final AtomicLong runs = new AtomicLong();
+	private final AtomicLong skipped = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+	private volatile long lastToken;
+	private volatile long lastRunAt;
+	private volatile long lastDuration;
+
+	void ran(final long token, final long at, final long duration) {
+		runs.incrementAndGet();
+		lastToken = token;
+		lastRunAt = at;
+		lastDuration = duration;
+	}
+
+	void skipped() {
+		skipped.incrementAndGet();
+	}
+
+	void failed() {
+		failures.incrementAndGet();
+	}
+
+	/**
+	 * @return The number of runs on this server
+	 */
+	public long getRuns() {
+		return runs.get();
+	}
+
+	/**
+	 * @return The number of times the job was running on another server
+	 */
+	public long getSkipped() {
+		return skipped.get();
+	}
+
+	/**
+	 * @return The number of runs that failed, or could not get the lock because of the database
+	 */
+	public long getFailures() {
+		return failures.get();
+	}
+
+	/**
+	 * @return The fencing token of the last run on this server
+	 */
+	public long getLastToken() {
+		return lastToken;
+	}
+
+	/**
+	 * @return The end of the last run on this server, in milliseconds
+	 */
+	public long getLastRunAt() {
+		return lastRunAt;
+	}
+
+	/**
+	 * @return The duration of the last run on this server, in milliseconds
+	 */
+	public long getLastDuration() {
+		return lastDuration;
+	}
+}
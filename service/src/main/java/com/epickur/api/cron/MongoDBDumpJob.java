@@ -1,16 +1,31 @@
 package com.epickur.api.cron;
 
 import com.epickur.api.aws.AmazonWebServices;
-import com.epickur.api.commons.CommonsUtil;
+import com.epickur.api.aws.S3UploadStream;
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.dump.BackupEntry;
+import com.epickur.api.dump.BackupManifest;
+import com.epickur.api.dump.BackupType;
+import com.epickur.api.dump.DumpStats;
 import com.epickur.api.dump.MongoDBDump;
+import com.epickur.api.dump.MongoDBExporter;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 
-import java.util.List;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Job that creat a dump of MongoDB and send it to Amazon servers.
+ * Job that creat a dump of MongoDB and send it to Amazon servers. The dump is streamed to S3 while it is exported, nothing is written on
+ * disk.
+ * <p>
+ * The backups are recorded in a {@link BackupManifest} stored next to them. When mongo.backup.incremental is true, a full backup is taken
+ * every mongo.backup.full.interval milliseconds and the other backups only hold the documents changed since the previous one. The backups
+ * kept are decided by {@link BackupRetention}. Each run gets a new {@link MongoDBDump}, so a new name: a dump never overwrites a backup listed
+ * in the manifest.
  *
  * @author cph
  * @version 1.0
@@ -18,30 +33,81 @@ import java.util.List;
 @Log4j2
 public class MongoDBDumpJob {
 
+	/**
+	 * Lease of the dump lock, longer than a dump and its upload
+	 */
+	private static final long LEASE = TimeUnit.HOURS.toMillis(1);
+
+	private final AmazonWebServices aws;
+	private final ObjectFactory<MongoDBDump> mongoDBDumps;
+	private final MongoDBExporter mongoDBExporter;
+	private final JobLock jobLock;
+	private final BackupRetention retention;
+	private final EpickurProperties properties;
+
 	@Autowired
-	private AmazonWebServices aws;
-	@Autowired
-	private MongoDBDump mongoDBDump;
+	public MongoDBDumpJob(final AmazonWebServices aws, final ObjectFactory<MongoDBDump> mongoDBDumps, final MongoDBExporter mongoDBExporter,
+						  final JobLock jobLock, final BackupRetention retention, final EpickurProperties properties) {
+		this.aws = aws;
+		this.mongoDBDumps = mongoDBDumps;
+		this.mongoDBExporter = mongoDBExporter;
+		this.jobLock = jobLock;
+		this.retention = retention;
+		this.properties = properties;
+	}
 
 	@Scheduled(cron = "0 0 0/2 * * ?")
 	public void execute() {
-		log.info("Start DB dump...");
-		final boolean exported = mongoDBDump.exportMongo();
-		log.info("DB dump done");
-		if (exported) {
-			log.info("Creating tar.gz...");
-			final List<String> list = mongoDBDump.getListFiles();
-			CommonsUtil.createTarGz(list, mongoDBDump.getCurrentFullPathName());
-			log.info("tar.gz generated: " + mongoDBDump.getCurrentFullPathName());
-
-			aws.deleteOldFile();
-			aws.uploadFile(mongoDBDump.getCurrentFullPathName());
-
-			// Clean after upload
-			mongoDBDump.cleanDumpDirectory();
-			mongoDBDump.deleteDumpFile();
-		} else {
-			log.info("DB dump failed...:(");
+		jobLock.run("mongoDBDump", LEASE, this::dump);
+	}
+
+	private void dump(final JobLease lease) {
+		final String name = mongoDBDumps.getObject().getCurrentNameFile();
+		final long startedAt = System.currentTimeMillis();
+		S3UploadStream upload = null;
+		// A dump initiated more than a lease ago lost its lock, it is not running anymore
+		retention.abortStaleUploads(startedAt - LEASE);
+		try {
+			final BackupManifest manifest = retention.read();
+			if (manifest.contains(name)) {
+				log.error("DB dump canceled, {} is already a backup", name);
+				return;
+			}
+			final Optional<BackupEntry> base = Boolean.TRUE.equals(properties.getMongoBackupIncremental())
+				? manifest.getBase(startedAt, properties.getMongoBackupFullInterval())
+				: Optional.empty();
+			final Long since = base.isPresent() ? manifest.getLast().get().getStartedAt() - properties.getMongoBackupOverlap() : null;
+			log.info("Start {} DB dump to {}...", since == null ? "full" : "incremental", name);
+
+			upload = aws.openUpload(name);
+			final DumpStats stats = mongoDBExporter.export(upload, since);
+			if (!lease.isValid()) {
+				log.warn("DB dump took longer than its lease, another server took over. Upload canceled");
+				upload.abort();
+				return;
+			}
+			upload.close();
+			log.info("DB dump done: {}", stats);
+
+			retention.record(manifest, toEntry(name, base, since, startedAt, stats));
+		} catch (final IOException e) {
+			log.error("DB dump failed: {}", e.getLocalizedMessage(), e);
+			if (upload != null) {
+				upload.abort();
+			}
 		}
 	}
+
+	private static BackupEntry toEntry(final String name, final Optional<BackupEntry> base, final Long since, final long startedAt,
+		final DumpStats stats) {
+		final BackupEntry entry = new BackupEntry();
+		entry.setName(name);
+		entry.setType(since == null ? BackupType.FULL : BackupType.INCREMENTAL);
+		entry.setBase(base.map(BackupEntry::getName).orElse(name));
+		entry.setSince(since);
+		entry.setStartedAt(startedAt);
+		entry.setDocuments(stats.getDocuments());
+		entry.setCompressedBytes(stats.getCompressedBytes());
+		return entry;
+	}
 }
@@ -0,0 +1,62 @@
+package com.epickur.api.cron;
+
+import com.epickur.api.aws.AmazonWebServices;
+import com.epickur.api.dump.BackupEntry;
+import com.epickur.api.dump.BackupManifest;
+import com.epickur.api.dump.MongoDBRestorer;
+import com.epickur.api.dump.RestoreStats;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Restore the database from the backups taken by {@link MongoDBDumpJob}: the full backup, then its incremental backups in order.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Log4j2
+public class MongoDBRestore {
+
+	@Autowired
+	private AmazonWebServices aws;
+	@Autowired
+	private MongoDBRestorer restorer;
+	@Autowired
+	private BackupRetention retention;
+
+	/**
+	 * Restore a backup. An archive that is not in the manifest, taken before it existed, is restored alone.
+	 *
+	 * @param name The name of the backup, null for the last one
+	 * @return The statistics of each archive restored
+	 * @throws IOException If the restore failed
+	 */
+	public List<RestoreStats> restore(final String name) throws IOException {
+		final BackupManifest manifest = retention.read();
+		final List<String> chain = new ArrayList<>();
+		for (final BackupEntry entry : name == null ? manifest.getChain() : manifest.getChain(name)) {
+			chain.add(entry.getName());
+		}
+		if (chain.isEmpty()) {
+			if (name == null) {
+				throw new IOException("No backup to restore");
+			}
+			chain.add(name);
+		}
+
+		log.info("Restoring {} archives: {}", chain.size(), chain);
+		final List<RestoreStats> restored = new ArrayList<>(chain.size());
+		for (final String archive : chain) {
+			log.info("Restoring {}...", archive);
+			try (final InputStream in = aws.openObject(archive)) {
+				restored.add(restorer.restore(in));
+			}
+		}
+		return restored;
+	}
+}
@@ -0,0 +1,131 @@
+package com.epickur.api.cron;
+
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.dao.mongo.OrderDAO;
+import com.epickur.api.dao.mongo.UserDAO;
+import com.epickur.api.entity.Order;
+import com.epickur.api.entity.User;
+import com.epickur.api.exception.EpickurException;
+import com.epickur.api.service.VoucherService;
+import com.epickur.api.utils.email.EmailUtils;
+import lombok.extern.log4j.Log4j2;
+import org.bson.types.ObjectId;
+import org.joda.time.DateTime;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cancel the orders that have not been accepted in time.
+ * <p>
+ * Each order gets an expiration date at creation, cron.order.timelimit minutes later. Every cron.order.sweep.interval milliseconds, the
+ * expired pending orders are canceled in batches of cron.order.sweep.batch, then their voucher is reverted and the user notified. The state
+ * lives in the database only, so nothing is lost on restart and several servers can sweep at the same time: each step is recorded on the
+ * order, and an order canceled but not notified within cron.order.notify.lease milliseconds is notified by a later sweep. A step is
+ * repeated only if the server stops between the step and its record.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Log4j2
+@Component
+public class OrderExpiryJob {
+
+	private final OrderDAO orderDAO;
+	private final UserDAO userDAO;
+	private final VoucherService voucherService;
+	private final EmailUtils emailUtils;
+	private final int timeLimit;
+	private final int batchSize;
+	private final long notifyLease;
+
+	@Autowired
+	public OrderExpiryJob(final OrderDAO orderDAO, final UserDAO userDAO, final VoucherService voucherService, final EmailUtils emailUtils,
+						  final EpickurProperties properties) {
+		this.orderDAO = orderDAO;
+		this.userDAO = userDAO;
+		this.voucherService = voucherService;
+		this.emailUtils = emailUtils;
+		this.timeLimit = properties.getOrderTimeLimit();
+		this.batchSize = properties.getOrderSweepBatchSize();
+		this.notifyLease = properties.getOrderNotifyLease();
+	}
+
+	/**
+	 * @param createdAt The creation date of the order
+	 * @return The date after which the order is canceled
+	 */
+	public DateTime getExpiration(final DateTime createdAt) {
+		return createdAt.plusMinutes(timeLimit);
+	}
+
+	/**
+	 * Cancel the expired orders until there is none left, then notify the orders canceled earlier and not notified in time.
+	 */
+	@Scheduled(fixedDelayString = "${cron.order.sweep.interval:30000}")
+	public void execute() {
+		int canceled = 0;
+		int resumed = 0;
+		try {
+			List<Order> orders;
+			do {
+				final DateTime now = new DateTime();
+				orders = orderDAO.cancelExpired(now, now.minusMinutes(timeLimit), now.plus(notifyLease), batchSize);
+				notifyCanceled(orders);
+				canceled += orders.size();
+			} while (!orders.isEmpty());
+			do {
+				final DateTime now = new DateTime();
+				orders = orderDAO.claimUnnotified(now, now.plus(notifyLease), batchSize);
+				notifyCanceled(orders);
+				resumed += orders.size();
+			} while (!orders.isEmpty());
+		} catch (final EpickurException e) {
+			log.error(e.getLocalizedMessage(), e);
+		}
+		if (canceled > 0) {
+			log.info("Canceled {} expired orders", canceled);
+		}
+		if (resumed > 0) {
+			log.info("Notified {} expired orders canceled earlier", resumed);
+		}
+	}
+
+	/**
+	 * Revert the vouchers and email the users of the canceled orders. Each step is recorded once done, an order that fails stays to notify.
+	 *
+	 * @param orders The orders canceled
+	 * @throws EpickurException If the users could not be read
+	 */
+	private void notifyCanceled(final List<Order> orders) throws EpickurException {
+		if (orders.isEmpty()) {
+			return;
+		}
+		final Set<ObjectId> userIds = orders.stream().map(Order::getCreatedBy).collect(Collectors.toSet());
+		final Map<ObjectId, User> users = userDAO.readAll(userIds).stream().collect(Collectors.toMap(User::getId, Function.identity()));
+		for (final Order order : orders) {
+			try {
+				if (order.getVoucher() != null && !Boolean.TRUE.equals(order.getVoucherReverted())) {
+					order.setVoucher(voucherService.revertVoucher(order.getVoucher().getCode()));
+					orderDAO.markVoucherReverted(order.getId());
+				}
+				final User user = users.get(order.getCreatedBy());
+				if (user != null) {
+					log.info("Cancel order id: {} with user id: {}", order.getId(), user.getId());
+					emailUtils.emailCancelOrder(user, order);
+				} else {
+					log.warn("Canceled order '{}' but could not find user '{}'", order.getId(), order.getCreatedBy());
+				}
+				orderDAO.markCancelNotified(order.getId());
+			} catch (final EpickurException e) {
+				log.error("Could not notify the cancel of order {}, retried by a later sweep: {}", order.getId(), e.getLocalizedMessage(), e);
+			}
+		}
+	}
+}
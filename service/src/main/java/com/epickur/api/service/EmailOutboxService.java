@@ -0,0 +1,272 @@
+package com.epickur.api.service;
+
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.dao.mongo.EmailOutboxDAO;
+import com.epickur.api.entity.EmailMessage;
+import com.epickur.api.enumeration.EmailStatus;
+import com.epickur.api.exception.EpickurException;
+import com.epickur.api.utils.email.Email;
+import com.epickur.api.utils.email.EmailOutbox;
+import lombok.extern.log4j.Log4j2;
+import org.joda.time.DateTime;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Email outbox stored in MongoDB. The emails are inserted in the emailOutbox collection and sent in background by email.outbox.workers
+ * threads, so the requests never wait for Mandrill.
+ * <p>
+ * A worker claims one email at a time until the outbox is empty, then waits to be woken up by a new email or for email.outbox.poll
+ * milliseconds. The claim lasts email.outbox.lease milliseconds: the emails claimed by a server that stopped are sent by another one. An
+ * email that can not be sent is retried with an exponential backoff, starting at email.outbox.backoff milliseconds, and is marked as
+ * failed after email.outbox.attempts attempts. An email is deleted once sent, an email can be sent twice if it can not be deleted.
+ * <p>
+ * The admin notifications buffered for a digest are not sent by the workers, the {@link com.epickur.api.cron.AdminDigestJob} replaces
+ * them with one email per type.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Log4j2
+@Service
+public class EmailOutboxService implements EmailOutbox {
+
+	private final EmailOutboxDAO outboxDAO;
+	private final Email email;
+	private final int workers;
+	private final long poll;
+	private final long lease;
+	private final int maxAttempts;
+	private final long backoff;
+	private final long maxBackoff;
+	private final long shutdownTimeout;
+	private final ExecutorService executor;
+	private final Object signal = new Object();
+	private volatile boolean running;
+	/**
+	 * Emails inserted in the outbox
+	 */
+	private final AtomicLong queued = new AtomicLong();
+	/**
+	 * Emails sent
+	 */
+	private final AtomicLong sent = new AtomicLong();
+	/**
+	 * Attempts that failed and will be retried
+	 */
+	private final AtomicLong retried = new AtomicLong();
+	/**
+	 * Emails given up, or lost because they could not be inserted
+	 */
+	private final AtomicLong failed = new AtomicLong();
+
+	@Autowired
+	public EmailOutboxService(final EmailOutboxDAO outboxDAO, final Email email, final EpickurProperties properties) {
+		this.outboxDAO = outboxDAO;
+		this.email = email;
+		this.workers = properties.getEmailOutboxWorkers();
+		this.poll = properties.getEmailOutboxPoll();
+		this.lease = properties.getEmailOutboxLease();
+		this.maxAttempts = properties.getEmailOutboxAttempts();
+		this.backoff = properties.getEmailOutboxBackoff();
+		this.maxBackoff = properties.getEmailOutboxBackoffMax();
+		this.shutdownTimeout = properties.getEmailOutboxShutdown();
+		final AtomicInteger threads = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(workers, runnable -> {
+			final Thread thread = new Thread(runnable, "email-outbox-" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Start the workers. It is called once the application is up, unless it runs a restore.
+	 */
+	public void start() {
+		running = true;
+		for (int i = 0; i < workers; i++) {
+			executor.execute(this::work);
+		}
+	}
+
+	@Override
+	public boolean add(final EmailMessage message) {
+		if (!insert(message, EmailStatus.PENDING)) {
+			return false;
+		}
+		synchronized (signal) {
+			signal.notify();
+		}
+		return true;
+	}
+
+	@Override
+	public boolean addToDigest(final EmailMessage message) {
+		return insert(message, EmailStatus.BUFFERED);
+	}
+
+	/**
+	 * @param message The email
+	 * @param status  The status to insert it with
+	 * @return False if it could not be inserted
+	 */
+	private boolean insert(final EmailMessage message, final EmailStatus status) {
+		message.prepareForInsertionIntoDB();
+		message.setStatus(status);
+		message.setAttempts(0);
+		message.setNextAttemptAt(message.getCreatedAt());
+		try {
+			outboxDAO.create(message);
+			queued.incrementAndGet();
+			return true;
+		} catch (final EpickurException e) {
+			failed.incrementAndGet();
+			log.error("Could not queue the email {} to {}: {}", message.getType(), message.getTo(), e.getLocalizedMessage(), e);
+			return false;
+		}
+	}
+
+	/**
+	 * Claim and send the next email due
+	 *
+	 * @return False if there was no email to send
+	 * @throws EpickurException If the outbox could not be accessed
+	 */
+	public boolean sendNext() throws EpickurException {
+		final DateTime now = new DateTime();
+		final Optional<EmailMessage> claimed = outboxDAO.claim(now, now.plus(lease));
+		if (!claimed.isPresent()) {
+			return false;
+		}
+		final EmailMessage message = claimed.get();
+		try {
+			email.send(message);
+		} catch (final EpickurException e) {
+			attemptFailed(message, e.getLocalizedMessage());
+			return true;
+		} catch (final RuntimeException e) {
+			log.error("Error while sending the email {} to {}", message.getType(), message.getTo(), e);
+			attemptFailed(message, e.toString());
+			return true;
+		}
+		sent.incrementAndGet();
+		outboxDAO.delete(message.getId().toHexString());
+		return true;
+	}
+
+	/**
+	 * Retry an email that could not be sent, or mark it as failed once it has been attempted email.outbox.attempts times.
+	 *
+	 * @param message The email
+	 * @param error   The error of the attempt
+	 * @throws EpickurException If the outbox could not be accessed
+	 */
+	private void attemptFailed(final EmailMessage message, final String error) throws EpickurException {
+		final int attempts = (message.getAttempts() == null ? 0 : message.getAttempts()) + 1;
+		if (attempts >= maxAttempts) {
+			failed.incrementAndGet();
+			log.error("Giving up on the email {} to {} after {} attempts: {}", message.getType(), message.getTo(), attempts, error);
+			outboxDAO.fail(message.getId(), attempts, error);
+		} else {
+			retried.incrementAndGet();
+			log.warn("Could not send the email {} to {}, attempt {}: {}", message.getType(), message.getTo(), attempts, error);
+			outboxDAO.retry(message.getId(), attempts, new DateTime().plus(getBackoff(attempts)), error);
+		}
+	}
+
+	/**
+	 * @param attempts The number of failed attempts
+	 * @return The delay before the next attempt
+	 */
+	public long getBackoff(final int attempts) {
+		final int shift = Math.min(attempts - 1, 30);
+		return Math.min(maxBackoff, backoff << shift);
+	}
+
+	/**
+	 * Stop the workers. The emails being sent are finished, the others stay in the outbox.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		running = false;
+		synchronized (signal) {
+			signal.notifyAll();
+		}
+		executor.shutdown();
+		try {
+			if (!executor.awaitTermination(shutdownTimeout, TimeUnit.MILLISECONDS)) {
+				executor.shutdownNow();
+			}
+		} catch (final InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+		log.info("Emails queued: {}, sent: {}, retried: {}, failed: {}", queued.get(), sent.get(), retried.get(), failed.get());
+	}
+
+	private void work() {
+		while (running) {
+			boolean idle;
+			try {
+				idle = !sendNext();
+			} catch (final EpickurException | RuntimeException e) {
+				log.error("Email outbox worker error: {}", e.getLocalizedMessage(), e);
+				idle = true;
+			}
+			if (idle && running) {
+				synchronized (signal) {
+					try {
+						signal.wait(poll);
+					} catch (final InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return The number of emails inserted in the outbox
+	 */
+	public long getQueued() {
+		return queued.get();
+	}
+
+	/**
+	 * @return The number of emails sent
+	 */
+	public long getSent() {
+		return sent.get();
+	}
+
+	/**
+	 * @return The number of attempts that failed and will be retried
+	 */
+	public long getRetried() {
+		return retried.get();
+	}
+
+	/**
+	 * @return The number of emails given up or lost
+	 */
+	public long getFailed() {
+		return failed.get();
+	}
+
+	/**
+	 * @return The number of emails waiting in the outbox
+	 * @throws EpickurException If the outbox could not be accessed
+	 */
+	public long getPending() throws EpickurException {
+		return outboxDAO.count(EmailStatus.PENDING);
+	}
+}
@@ -1,10 +1,12 @@
 package com.epickur.api.service;
 
+import com.epickur.api.cache.KeyCache;
 import com.epickur.api.dao.mongo.KeyDAO;
 import com.epickur.api.entity.Key;
 import com.epickur.api.exception.EpickurException;
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -25,6 +27,16 @@ public class KeyService {
 	 */
 	@NonNull
 	private KeyDAO keyDao;
+	/**
+	 * Valid keys cached by the key filter
+	 */
+	@NonNull
+	private KeyCache keyCache;
+	/**
+	 * Signed tokens, used instead of the keys if enabled
+	 */
+	@NonNull
+	private TokenService tokenService;
 
 	/**
 	 * Create a new Key
@@ -50,18 +62,37 @@ public class KeyService {
 	}
 
 	/**
-	 * Delete a Key with its id
+	 * Delete a Key with its id. The key is removed from the cache once deleted, so that a request reading it meanwhile can not cache it
+	 * again.
 	 *
 	 * @param id the id of the Key
 	 * @return a boolean
 	 * @throws EpickurException If an ${@link EpickurException} occurred
 	 */
 	public boolean delete(final String id) throws EpickurException {
-		return keyDao.delete(id);
+		try {
+			return keyDao.delete(id);
+		} finally {
+			keyCache.invalidateId(new ObjectId(id));
+		}
 	}
 
+	/**
+	 * Delete a Key with its value, or revoke it if it is a token
+	 *
+	 * @param key the value of the Key
+	 * @return a boolean
+	 * @throws EpickurException If an ${@link EpickurException} occurred
+	 */
 	public boolean deleteWithKey(final String key) throws EpickurException {
-		return keyDao.deleteWithKey(key);
+		if (tokenService.isToken(key)) {
+			return tokenService.revoke(key);
+		}
+		try {
+			return keyDao.deleteWithKey(key);
+		} finally {
+			keyCache.invalidate(key);
+		}
 	}
 
 	/**
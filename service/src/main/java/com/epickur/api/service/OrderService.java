@@ -1,7 +1,7 @@
 package com.epickur.api.service;
 
 import com.epickur.api.annotation.ValidateComplexAccessRights;
-import com.epickur.api.cron.OrderJob;
+import com.epickur.api.cron.OrderExpiryJob;
 import com.epickur.api.dao.mongo.OrderDAO;
 import com.epickur.api.dao.mongo.SequenceDAO;
 import com.epickur.api.dao.mongo.UserDAO;
@@ -52,7 +52,7 @@ public class OrderService {
 	@NonNull
 	private VoucherService voucherService;
 	@NonNull
-	private OrderJob jobs;
+	private OrderExpiryJob orderExpiry;
 	@NonNull
 	private EmailUtils emailUtils;
 	@NonNull
@@ -89,12 +89,12 @@ public class OrderService {
 		addSequenceIdToOrder(order);
 		order.setCreatedBy(new ObjectId(userId));
 		order.prepareForInsertionIntoDB();
+		order.setExpiresAt(orderExpiry.getExpiration(order.getCreatedAt()));
 	}
 
 	protected void postCreation(final Order order, final User user) {
 		final String orderCode = Security.createOrderCode(order.getId(), order.getCardToken());
 		emailUtils.emailNewOrder(user, order, orderCode);
-		jobs.addTemporaryOrderJob(user, order);
 	}
 
 	protected void addSequenceIdToOrder(final Order order) throws EpickurDBException {
@@ -189,7 +189,6 @@ public class OrderService {
 			order.setStatus(OrderStatus.DECLINED);
 			order = orderDAO.update(order);
 		}
-		jobs.removeTemporaryOrderJob(orderId);
 		return order;
 	}
 
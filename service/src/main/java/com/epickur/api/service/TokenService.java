@@ -0,0 +1,215 @@
+package com.epickur.api.service;
+
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.dao.mongo.RevokedTokenDAO;
+import com.epickur.api.entity.Key;
+import com.epickur.api.entity.User;
+import com.epickur.api.enumeration.Role;
+import com.epickur.api.exception.EpickurException;
+import com.epickur.api.utils.security.Security;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.lang3.StringUtils;
+import org.bson.types.ObjectId;
+import org.joda.time.DateTime;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Stateless session tokens, used instead of the keys collection when session.token.enabled is true.
+ * <p>
+ * A token is {@code base64(userId:role:issuedAt:id).base64(HMAC-SHA256(payload))}, signed with session.token.secret. It is checked without
+ * any database access. The ids of the revoked tokens are stored in the revokedTokens collection and reloaded in memory every
+ * session.token.revocation.refresh milliseconds, so a logout is seen by the other servers within that delay. A revocation is stored before it
+ * is applied in memory, so a logout that failed can be retried.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Log4j2
+@Service
+public class TokenService {
+
+	private static final char SEPARATOR = ':';
+	/**
+	 * Index of the payload fields
+	 */
+	private static final int USER_ID = 0;
+	private static final int ROLE = 1;
+	private static final int ISSUED_AT = 2;
+	private static final int ID = 3;
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+	private final RevokedTokenDAO revokedTokenDAO;
+	private final boolean enabled;
+	private final byte[] secret;
+	private final int sessionTimeout;
+	private final SecureRandom random = new SecureRandom();
+	/**
+	 * Ids of the revoked tokens, with the {@link System#nanoTime()} they were added at
+	 */
+	private volatile ConcurrentMap<String, Long> revoked = new ConcurrentHashMap<>();
+
+	@Autowired
+	public TokenService(final RevokedTokenDAO revokedTokenDAO, final EpickurProperties properties) {
+		this.revokedTokenDAO = revokedTokenDAO;
+		this.enabled = Boolean.TRUE.equals(properties.getSessionTokenEnabled());
+		this.secret = StringUtils.defaultString(properties.getSessionTokenSecret()).getBytes(StandardCharsets.UTF_8);
+		this.sessionTimeout = properties.getSessionTimeout();
+		if (enabled && secret.length < 32) {
+			throw new IllegalStateException("session.token.secret must be at least 32 characters long when session.token.enabled is true");
+		}
+	}
+
+	/**
+	 * @return True if the sessions use tokens instead of keys
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @param key The key provided by the client
+	 * @return True if it looks like a token, the keys never contain a dot
+	 */
+	public boolean isToken(final String key) {
+		return enabled && key.indexOf('.') > 0;
+	}
+
+	/**
+	 * Issue a token for a User
+	 *
+	 * @param user The User
+	 * @return The token
+	 */
+	public String issue(final User user) {
+		final byte[] id = new byte[12];
+		random.nextBytes(id);
+		final String payload = user.getId().toHexString() + SEPARATOR + user.getRole().name() + SEPARATOR + System.currentTimeMillis()
+			+ SEPARATOR + Hex.encodeHexString(id);
+		final byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+		return ENCODER.encodeToString(payloadBytes) + '.' + ENCODER.encodeToString(Security.hmacSha256(secret, payloadBytes));
+	}
+
+	/**
+	 * Check the signature of a token and that it has not been revoked. The expiration is checked by the caller, like for the keys.
+	 *
+	 * @param token The token
+	 * @return The Key carried by the token: its value is the token, its creation date the issue date
+	 */
+	public Optional<Key> verify(final String token) {
+		return readPayload(token)
+			.filter(fields -> !revoked.containsKey(fields[ID]))
+			.map(fields -> toKey(token, fields));
+	}
+
+	/**
+	 * Revoke a token. Its signature must be valid.
+	 *
+	 * @param token The token
+	 * @return True if the token has been revoked
+	 * @throws EpickurException If an epickur exception occurred
+	 */
+	public boolean revoke(final String token) throws EpickurException {
+		final Optional<String[]> fields = readPayload(token);
+		if (!fields.isPresent()) {
+			return false;
+		}
+		final String id = fields.get()[ID];
+		if (!revoked.containsKey(id)) {
+			final Key revocation = toKey(id, fields.get());
+			revocation.setUpdatedAt(new DateTime());
+			revokedTokenDAO.create(revocation);
+			markRevoked(id);
+		}
+		return true;
+	}
+
+	/**
+	 * Add a stored revocation to the current set. If the set has been swapped by a refresh meanwhile, the id is added to the new one too.
+	 *
+	 * @param id The token id
+	 */
+	private void markRevoked(final String id) {
+		final long addedAt = System.nanoTime();
+		ConcurrentMap<String, Long> current;
+		do {
+			current = revoked;
+			current.put(id, addedAt);
+		} while (current != revoked);
+	}
+
+	/**
+	 * Delete the revocations of the expired tokens and reload the others from the database.
+	 */
+	@Scheduled(fixedDelayString = "${session.token.revocation.refresh:30000}")
+	public void refreshRevocations() {
+		if (!enabled) {
+			return;
+		}
+		try {
+			revokedTokenDAO.deleteIssuedBefore(new DateTime().minusDays(sessionTimeout + 1));
+			final long readAt = System.nanoTime();
+			final ConcurrentMap<String, Long> reloaded = new ConcurrentHashMap<>();
+			for (final Key revocation : revokedTokenDAO.readAll()) {
+				reloaded.put(revocation.getKey(), readAt);
+			}
+			final ConcurrentMap<String, Long> previous = revoked;
+			revoked = reloaded;
+			// The revocations added while reading may be missing from the database read
+			previous.forEach((id, addedAt) -> {
+				if (addedAt - readAt >= 0) {
+					reloaded.putIfAbsent(id, addedAt);
+				}
+			});
+		} catch (final EpickurException e) {
+			log.error("Could not reload the revoked tokens: {}", e.getLocalizedMessage(), e);
+		}
+	}
+
+	/**
+	 * @param token The token
+	 * @return The fields of the payload if the signature is valid
+	 */
+	private Optional<String[]> readPayload(final String token) {
+		final int dot = token.indexOf('.');
+		if (dot <= 0) {
+			return Optional.empty();
+		}
+		try {
+			final byte[] payloadBytes = DECODER.decode(token.substring(0, dot));
+			final byte[] signature = DECODER.decode(token.substring(dot + 1));
+			if (!MessageDigest.isEqual(signature, Security.hmacSha256(secret, payloadBytes))) {
+				return Optional.empty();
+			}
+			final String[] fields = StringUtils.split(new String(payloadBytes, StandardCharsets.UTF_8), SEPARATOR);
+			return fields.length == 4 ? Optional.of(fields) : Optional.empty();
+		} catch (final IllegalArgumentException e) {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * @param value  The value of the Key
+	 * @param fields The payload fields, already signed by us
+	 * @return The Key
+	 */
+	private static Key toKey(final String value, final String[] fields) {
+		final Key key = new Key();
+		key.setKey(value);
+		key.setUserId(new ObjectId(fields[USER_ID]));
+		key.setRole(Role.valueOf(fields[ROLE]));
+		key.setCreatedAt(new DateTime(Long.parseLong(fields[ISSUED_AT])));
+		return key;
+	}
+}
@@ -8,6 +8,7 @@ import com.epickur.api.exception.EpickurDBException;
 import com.epickur.api.exception.EpickurDuplicateKeyException;
 import com.epickur.api.exception.EpickurException;
 import com.epickur.api.exception.EpickurNotFoundException;
+import com.epickur.api.http.HttpClientPool;
 import com.epickur.api.utils.ErrorConstants;
 import com.epickur.api.utils.Utils;
 import com.epickur.api.utils.email.EmailUtils;
@@ -17,8 +18,6 @@ import lombok.AllArgsConstructor;
 import lombok.NonNull;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -50,6 +49,10 @@ public class UserService {
 	private EmailUtils emailUtils;
 	@NonNull
 	private Utils utils;
+	@NonNull
+	private TokenService tokenService;
+	@NonNull
+	private HttpClientPool httpClientPool;
 
 	/**
 	 * Create a User
@@ -151,8 +154,12 @@ public class UserService {
 	 */
 	public User login(final String email, final String password) throws EpickurException {
 		final User user = readWithEmail(email).orElseThrow(() -> new EpickurNotFoundException(ErrorConstants.USER_NOT_FOUND, email));
-		;
-		if (utils.isPasswordCorrect(password, user) && user.getAllow() == 1) {
+		if (!utils.isPasswordCorrect(password, user) || user.getAllow() != 1) {
+			throw new EpickurNotFoundException(ErrorConstants.USER_NOT_FOUND, email);
+		}
+		if (tokenService.isEnabled()) {
+			user.setKey(tokenService.issue(user));
+		} else {
 			final String tempKey = Security.generateRandomMd5();
 			user.setKey(tempKey);
 			final Key currentKey = keyService.readWithName(user.getName());
@@ -165,8 +172,6 @@ public class UserService {
 			key.setKey(user.getKey());
 			key.setRole(user.getRole());
 			keyService.create(key);
-		} else {
-			throw new EpickurNotFoundException(ErrorConstants.USER_NOT_FOUND, email);
 		}
 		return user;
 	}
@@ -279,8 +284,10 @@ public class UserService {
 
 	protected void subscribeUserToNewsletter(final String url, final String email) {
 		try {
-			final HttpPost request = new HttpPost(url);
-			HttpClientBuilder.create().build().execute(request);
+			final int status = httpClientPool.post(url);
+			if (status >= 300) {
+				log.warn("Could not subscribe {} to our newsletter, status: {}", email, status);
+			}
 		} catch (IOException ioe) {
 			log.error("Could not subscribe {} to our newsletter", email, ioe);
 		}
@@ -0,0 +1,236 @@
+package com.epickur.api.service;
+
+import com.epickur.api.commons.CommonsUtil;
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.dao.mongo.VoucherDAO;
+import com.epickur.api.dao.mongo.VoucherJobDAO;
+import com.epickur.api.entity.Voucher;
+import com.epickur.api.entity.VoucherGenerationJob;
+import com.epickur.api.exception.EpickurDBException;
+import com.epickur.api.exception.EpickurException;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Generate vouchers in bulk. The codes are generated in memory and inserted in unordered batches, the unique index on the code rejects the
+ * codes that already exist in the database. Only those are generated again and retried.
+ * <p>
+ * Large generations run in background, one at a time, as a {@link VoucherGenerationJob}. The job is stored and updated after each batch, so
+ * it can be polled on any server. A running job not updated for a while is reported as failed: the server running it stopped.
+ *
+ * @author cph
+ * @version 1.0
+ */
+@Log4j2
+@Component
+public class VoucherGenerator {
+
+	/**
+	 * Code of the duplicate key errors
+	 */
+	private static final String DUPLICATE_KEY = "E11000";
+	/**
+	 * Max number of passes over the colliding codes
+	 */
+	private static final int MAX_ATTEMPTS = 10;
+	/**
+	 * Delay without progress after which a running job is considered interrupted
+	 */
+	private static final long STALE_AFTER = TimeUnit.MINUTES.toMillis(10);
+
+	private final VoucherDAO voucherDAO;
+	private final VoucherJobDAO voucherJobDAO;
+	private final int batchSize;
+	private final int asyncThreshold;
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		final Thread thread = new Thread(runnable, "voucher-generator");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	@Autowired
+	public VoucherGenerator(final VoucherDAO voucherDAO, final VoucherJobDAO voucherJobDAO, final EpickurProperties properties) {
+		this.voucherDAO = voucherDAO;
+		this.voucherJobDAO = voucherJobDAO;
+		this.batchSize = properties.getVoucherGenerateBatchSize();
+		this.asyncThreshold = properties.getVoucherGenerateAsyncThreshold();
+	}
+
+	/**
+	 * @param count The number of vouchers
+	 * @return True if the generation should run in background
+	 */
+	public boolean isAsync(final int count) {
+		return count > asyncThreshold;
+	}
+
+	/**
+	 * Generate vouchers
+	 *
+	 * @param count    The number of vouchers
+	 * @param template The voucher to copy, without code
+	 * @return The vouchers generated
+	 * @throws EpickurException If an EpickurException occurred
+	 */
+	public Set<Voucher> generate(final int count, final Voucher template) throws EpickurException {
+		return generate(count, template, inserted -> {
+		});
+	}
+
+	/**
+	 * Generate vouchers in background
+	 *
+	 * @param count    The number of vouchers
+	 * @param template The voucher to copy, without code
+	 * @return The job, to poll with its id
+	 * @throws EpickurException If the job could not be stored
+	 */
+	public VoucherGenerationJob submit(final int count, final Voucher template) throws EpickurException {
+		final VoucherGenerationJob job = new VoucherGenerationJob(count);
+		voucherJobDAO.create(job);
+		executor.execute(() -> run(job.getId(), count, template));
+		return job;
+	}
+
+	/**
+	 * @param id The job id
+	 * @return The job, with its vouchers once it is done
+	 * @throws EpickurException If an EpickurException occurred
+	 */
+	public Optional<VoucherGenerationJob> getJob(final String id) throws EpickurException {
+		final Optional<VoucherGenerationJob> found = voucherJobDAO.read(id);
+		if (!found.isPresent()) {
+			return found;
+		}
+		final VoucherGenerationJob job = found.get();
+		if (job.getStatus() == VoucherGenerationJob.Status.RUNNING && voucherJobDAO.failStale(id, System.currentTimeMillis() - STALE_AFTER)) {
+			log.warn("Voucher generation {} interrupted after {} vouchers", id, job.getGenerated());
+			return voucherJobDAO.read(id);
+		}
+		if (job.getStatus() == VoucherGenerationJob.Status.DONE && job.getCodes() != null) {
+			job.setVouchers(new LinkedHashSet<>(voucherDAO.readByCodes(job.getCodes())));
+		}
+		return found;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private void run(final String id, final int count, final Voucher template) {
+		try {
+			final Set<Voucher> vouchers = generate(count, template, inserted -> progress(id, inserted));
+			voucherJobDAO.done(id, vouchers.stream().map(Voucher::getCode).collect(Collectors.toList()));
+			log.info("Voucher generation {} done: {} vouchers", id, count);
+		} catch (final EpickurException | RuntimeException e) {
+			log.error("Voucher generation {} failed: {}", id, e.getLocalizedMessage(), e);
+			try {
+				voucherJobDAO.failed(id, e.getLocalizedMessage());
+			} catch (final EpickurException | RuntimeException failure) {
+				// Reported as interrupted once it is stale
+				log.error("Could not record the failure of the voucher generation {}", id, failure);
+			}
+		}
+	}
+
+	/**
+	 * Record the progress of a job. A progress that could not be recorded is only logged, the next one catches up.
+	 *
+	 * @param id       The job id
+	 * @param inserted The number of vouchers inserted
+	 */
+	private void progress(final String id, final int inserted) {
+		try {
+			voucherJobDAO.progress(id, inserted);
+		} catch (final EpickurException e) {
+			log.warn("Could not record the progress of the voucher generation {}: {}", id, e.getLocalizedMessage());
+		}
+	}
+
+	private Set<Voucher> generate(final int count, final Voucher template, final IntConsumer progress) throws EpickurException {
+		final Set<String> codes = new HashSet<>(count * 2);
+		final List<Voucher> generated = new ArrayList<>(count);
+		List<Voucher> pending = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			pending.add(newVoucher(template, codes));
+		}
+		for (int attempt = 1; !pending.isEmpty(); attempt++) {
+			if (attempt > MAX_ATTEMPTS) {
+				throw new EpickurException("Could not generate " + pending.size() + " unique voucher codes after " + MAX_ATTEMPTS + " attempts");
+			}
+			final List<Voucher> collisions = new ArrayList<>();
+			for (int from = 0; from < pending.size(); from += batchSize) {
+				final List<Voucher> batch = pending.subList(from, Math.min(from + batchSize, pending.size()));
+				final Set<Integer> failed = insert(batch);
+				for (int i = 0; i < batch.size(); i++) {
+					if (failed.contains(i)) {
+						collisions.add(batch.get(i));
+					} else {
+						generated.add(batch.get(i));
+					}
+				}
+				progress.accept(batch.size() - failed.size());
+			}
+			for (final Voucher voucher : collisions) {
+				voucher.setCode(nextCode(codes));
+			}
+			pending = collisions;
+		}
+		return new LinkedHashSet<>(generated);
+	}
+
+	/**
+	 * @param batch The vouchers to insert
+	 * @return The index of the vouchers whose code already exists
+	 * @throws EpickurException If another error occurred
+	 */
+	private Set<Integer> insert(final List<Voucher> batch) throws EpickurException {
+		try {
+			voucherDAO.createAll(batch, false);
+			return Collections.emptySet();
+		} catch (final EpickurDBException e) {
+			final Map<Integer, String> errors = e.getErrors();
+			if (errors.isEmpty() || errors.values().stream().anyMatch(error -> error == null || !error.startsWith(DUPLICATE_KEY))) {
+				throw e;
+			}
+			log.debug("{} voucher codes already exist", errors.size());
+			return errors.keySet();
+		}
+	}
+
+	private static Voucher newVoucher(final Voucher template, final Set<String> codes) {
+		final Voucher voucher = template.clone();
+		voucher.setCode(nextCode(codes));
+		voucher.prepareForInsertionIntoDB();
+		return voucher;
+	}
+
+	/**
+	 * @param codes The codes already used by this generation
+	 * @return A new code
+	 */
+	private static String nextCode(final Set<String> codes) {
+		String code;
+		do {
+			code = CommonsUtil.generateRandomCode();
+		} while (!codes.add(code));
+		return code;
+	}
+}
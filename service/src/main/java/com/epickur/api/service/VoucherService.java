@@ -1,8 +1,8 @@
 package com.epickur.api.service;
 
-import com.epickur.api.commons.CommonsUtil;
 import com.epickur.api.dao.mongo.VoucherDAO;
 import com.epickur.api.entity.Voucher;
+import com.epickur.api.entity.VoucherGenerationJob;
 import com.epickur.api.enumeration.voucher.DiscountType;
 import com.epickur.api.enumeration.voucher.ExpirationType;
 import com.epickur.api.enumeration.voucher.Status;
@@ -13,7 +13,6 @@ import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
 
@@ -32,6 +31,11 @@ public class VoucherService {
 	 */
 	@NonNull
 	private VoucherDAO voucherDAO;
+	/**
+	 * Voucher generation engine
+	 */
+	@NonNull
+	private VoucherGenerator voucherGenerator;
 
 	/**
 	 * @param code The Voucher code
@@ -43,7 +47,7 @@ public class VoucherService {
 	}
 
 	/**
-	 * Generate vouchers. We use a Set to store data, and we need to check in the database if the voucher code has not been generated already.
+	 * Generate vouchers. The codes are checked by the unique index of the database, only the codes that already exist are generated again.
 	 *
 	 * @param count          The number of vouchers
 	 * @param discountType   The discount type
@@ -54,69 +58,83 @@ public class VoucherService {
 	 * @throws EpickurException If an EpickurException occurred
 	 */
 	public Set<Voucher> generate(final int count, final DiscountType discountType, final int discount, final ExpirationType expirationType, final DateTime expiration) throws EpickurException {
-		final Set<Voucher> result = new HashSet<>();
-		do {
-			final Voucher voucher = new Voucher();
-			voucher.setCode(CommonsUtil.generateRandomCode());
-			voucher.setDiscount(discount);
-			voucher.setDiscountType(discountType);
-			voucher.setExpirationType(expirationType);
-			if (expiration != null) {
-				voucher.setExpiration(expiration);
-				voucher.setUsedCount(0);
-			}
-			voucher.setStatus(Status.VALID);
-			final boolean added = result.add(voucher);
-			if (added) {
-				final Optional<Voucher> temp = voucherDAO.read(voucher.getCode());
-				if (temp.isPresent()) {
-					result.remove(voucher);
-				} else {
-					voucher.prepareForInsertionIntoDB();
-					voucherDAO.create(voucher);
-				}
-			}
-		} while (result.size() < count);
-		return result;
+		return voucherGenerator.generate(count, newTemplate(discountType, discount, expirationType, expiration));
+	}
+
+	/**
+	 * Generate vouchers in background
+	 *
+	 * @param count          The number of vouchers
+	 * @param discountType   The discount type
+	 * @param discount       The discount amount or percentage
+	 * @param expirationType The expiration type
+	 * @param expiration     The expiration date
+	 * @return The generation job
+	 * @throws EpickurException If an EpickurException occurred
+	 */
+	public VoucherGenerationJob generateAsync(final int count, final DiscountType discountType, final int discount, final ExpirationType expirationType, final DateTime expiration) throws EpickurException {
+		return voucherGenerator.submit(count, newTemplate(discountType, discount, expirationType, expiration));
 	}
 
 	/**
+	 * @param count The number of vouchers
+	 * @return True if that many vouchers should be generated in background
+	 */
+	public boolean isAsync(final int count) {
+		return voucherGenerator.isAsync(count);
+	}
+
+	/**
+	 * @param id The generation job id
+	 * @return The generation job
+	 * @throws EpickurException If an EpickurException occurred
+	 */
+	public Optional<VoucherGenerationJob> readGenerationJob(final String id) throws EpickurException {
+		return voucherGenerator.getJob(id);
+	}
+
+	private static Voucher newTemplate(final DiscountType discountType, final int discount, final ExpirationType expirationType, final DateTime expiration) {
+		final Voucher voucher = new Voucher();
+		voucher.setDiscount(discount);
+		voucher.setDiscountType(discountType);
+		voucher.setExpirationType(expirationType);
+		if (expiration != null) {
+			voucher.setExpiration(expiration);
+			voucher.setUsedCount(0);
+		}
+		voucher.setStatus(Status.VALID);
+		return voucher;
+	}
+
+	/**
+	 * Use a voucher. The voucher is checked and updated atomically, so concurrent orders can share a code.
+	 *
 	 * @param code The code
 	 * @return The Voucher
 	 * @throws EpickurException If an EpickurException occurred
 	 */
 	public Voucher validateVoucher(final String code) throws EpickurException {
+		final Optional<Voucher> redeemed = voucherDAO.redeem(code);
+		if (redeemed.isPresent()) {
+			return redeemed.get();
+		}
 		final Voucher found = this.readAndThrowException(code);
 		if (found.getStatus() == Status.EXPIRED) {
 			throw new EpickurException("Voucher '" + code + "' expired");
 		}
-		if (found.getExpirationType() == ExpirationType.ONETIME) {
-			found.setStatus(Status.EXPIRED);
-		} else if (found.getExpirationType() == ExpirationType.UNTIL) {
-			if (found.getUsedCount() != null) {
-				found.setUsedCount(found.getUsedCount() + 1);
-			} else {
-				found.setUsedCount(1);
-			}
-		}
-		found.prepareForUpdateIntoDB();
-		return voucherDAO.update(found);
+		return found;
 	}
 
 	/**
+	 * Give back a voucher used by an order that failed.
+	 *
 	 * @param code The voucher code
 	 * @return The Voucher
 	 * @throws EpickurException If an EpickurException occurred
 	 */
 	public Voucher revertVoucher(final String code) throws EpickurException {
-		final Voucher found = readAndThrowException(code);
-		if (found.getExpirationType() == ExpirationType.ONETIME) {
-			found.setStatus(Status.VALID);
-		} else if (found.getExpirationType() == ExpirationType.UNTIL) {
-			found.setUsedCount(found.getUsedCount() - 1);
-		}
-		found.prepareForUpdateIntoDB();
-		return voucherDAO.update(found);
+		final Optional<Voucher> reverted = voucherDAO.revert(code);
+		return reverted.isPresent() ? reverted.get() : readAndThrowException(code);
 	}
 
 	protected Voucher readAndThrowException(final String code) throws EpickurException {
@@ -0,0 +1,183 @@
+package com.epickur.api.cache;
+
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.dao.mongo.GeocodeDAO;
+import com.epickur.api.entity.Geo;
+import com.epickur.api.entity.Geocode;
+import com.epickur.api.exception.HereException;
+import com.epickur.api.exception.HereNotFoundException;
+import com.epickur.api.here.IGeocoder;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CachingGeocoderTest {
+
+	@Mock
+	private IGeocoder geocoder;
+	@Mock
+	private GeocodeDAO geocodeDAO;
+	@Mock
+	private EpickurProperties properties;
+
+	private CachingGeocoder cachingGeocoder;
+
+	@Before
+	public void setUp() {
+		given(properties.getGeocodeCacheSize()).willReturn(2);
+		given(properties.getGeocodeCacheTtl()).willReturn(300L);
+		given(properties.getGeocodeCacheNegativeTtl()).willReturn(60L);
+		given(properties.getGeocodeCachePersistent()).willReturn(false);
+		cachingGeocoder = new CachingGeocoder(geocoder, geocodeDAO, properties);
+	}
+
+	@Test
+	public void testGetPositionCached() throws Exception {
+		// Given
+		given(geocoder.getPosition(anyString())).willReturn(geo(41.8, -87.6));
+
+		// When
+		Geo first = cachingGeocoder.getPosition("832 W. Wrightwood, Chicago");
+		Geo second = cachingGeocoder.getPosition("  832 w wrightwood   CHICAGO ");
+
+		// Then
+		then(geocoder).should(times(1)).getPosition(anyString());
+		assertEquals(first, second);
+		assertNotSame(first, second);
+		assertEquals(1, cachingGeocoder.getHits());
+		assertEquals(1, cachingGeocoder.getMisses());
+		then(geocodeDAO).shouldHaveZeroInteractions();
+	}
+
+	@Test
+	public void testGetPositionNotFoundCached() throws Exception {
+		// Given
+		given(geocoder.getPosition(anyString())).willThrow(new HereNotFoundException("Could not geocode accurately"));
+
+		// When
+		for (int i = 0; i < 2; i++) {
+			try {
+				cachingGeocoder.getPosition("WTF, Paris, Turkey");
+				fail();
+			} catch (final HereNotFoundException e) {
+				assertEquals("Could not geocode accurately", e.getMessage());
+			}
+		}
+
+		// Then
+		then(geocoder).should(times(1)).getPosition(anyString());
+	}
+
+	@Test
+	public void testGetPositionErrorNotCached() throws Exception {
+		// Given
+		given(geocoder.getPosition(anyString())).willThrow(new HereException(HereException.CONNECT_ERROR)).willReturn(geo(41.8, -87.6));
+
+		// When
+		try {
+			cachingGeocoder.getPosition("Chicago");
+			fail();
+		} catch (final HereNotFoundException e) {
+			fail();
+		} catch (final HereException e) {
+			// expected
+		}
+		Geo actual = cachingGeocoder.getPosition("Chicago");
+
+		// Then
+		assertEquals(41.8, actual.getLatitude(), 0);
+		then(geocoder).should(times(2)).getPosition(anyString());
+	}
+
+	@Test
+	public void testGetPositionPersistent() throws Exception {
+		// Given
+		given(properties.getGeocodeCachePersistent()).willReturn(true);
+		cachingGeocoder = new CachingGeocoder(geocoder, geocodeDAO, properties);
+		given(geocodeDAO.read("chicago")).willReturn(Optional.of(new Geocode("chicago", 41.8, -87.6, null, Long.MAX_VALUE)));
+		given(geocodeDAO.read("paris")).willReturn(Optional.empty());
+		given(geocoder.getPosition("Paris")).willReturn(geo(48.8, 2.3));
+
+		// When
+		Geo chicago = cachingGeocoder.getPosition("Chicago");
+		Geo paris = cachingGeocoder.getPosition("Paris");
+
+		// Then
+		assertEquals(41.8, chicago.getLatitude(), 0);
+		assertEquals(48.8, paris.getLatitude(), 0);
+		then(geocoder).should(never()).getPosition("Chicago");
+		then(geocodeDAO).should().save(any(Geocode.class));
+	}
+
+	@Test
+	public void testGetPositionSingleFlight() throws Exception {
+		// Given
+		final int threads = 8;
+		final CountDownLatch called = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		given(geocoder.getPosition(anyString())).willAnswer(invocation -> {
+			called.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return geo(41.8, -87.6);
+		});
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			// When
+			final Future<Geo> first = executor.submit(() -> cachingGeocoder.getPosition("Chicago"));
+			called.await(5, TimeUnit.SECONDS);
+			final Future<?>[] others = new Future<?>[threads - 1];
+			for (int i = 0; i < others.length; i++) {
+				others[i] = executor.submit(() -> cachingGeocoder.getPosition("chicago"));
+			}
+			final long deadline = System.currentTimeMillis() + 5000;
+			while (cachingGeocoder.getShared() < others.length && System.currentTimeMillis() < deadline) {
+				Thread.sleep(5);
+			}
+			release.countDown();
+
+			// Then
+			assertEquals(others.length, cachingGeocoder.getShared());
+			assertEquals(41.8, first.get().getLatitude(), 0);
+			for (final Future<?> other : others) {
+				assertEquals(41.8, ((Geo) other.get()).getLatitude(), 0);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		then(geocoder).should(times(1)).getPosition(anyString());
+	}
+
+	@Test
+	public void testNormalize() {
+		assertEquals("832 w wrightwood chicago", CachingGeocoder.normalize(" 832 W. Wrightwood,  Chicago "));
+		assertEquals("saint etienne", CachingGeocoder.normalize("Saint-Étienne"));
+		assertEquals("", CachingGeocoder.normalize(null));
+	}
+
+	private static Geo geo(final double latitude, final double longitude) {
+		final Geo geo = new Geo();
+		geo.setLatitude(latitude);
+		geo.setLongitude(longitude);
+		return geo;
+	}
+}
@@ -0,0 +1,130 @@
+package com.epickur.api.cache;
+
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.entity.Key;
+import com.epickur.api.helper.EntityGenerator;
+import org.bson.types.ObjectId;
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+
+@RunWith(MockitoJUnitRunner.class)
+public class KeyCacheTest {
+
+	@Mock
+	private EpickurProperties properties;
+
+	private KeyCache keyCache;
+
+	@Before
+	public void setUp() {
+		given(properties.getSessionCacheSize()).willReturn(2);
+		given(properties.getSessionCacheTtl()).willReturn(300);
+		given(properties.getSessionTimeout()).willReturn(5);
+		keyCache = new KeyCache(properties);
+	}
+
+	@Test
+	public void testPutGet() {
+		// Given
+		Key key = generateKey(new DateTime());
+
+		// When
+		keyCache.put(key);
+		Optional<Key> actual = keyCache.get(key.getKey());
+
+		// Then
+		assertTrue(actual.isPresent());
+		assertSame(key, actual.get());
+	}
+
+	@Test
+	public void testGetMissing() {
+		// When
+		Optional<Key> actual = keyCache.get(EntityGenerator.generateRandomString());
+
+		// Then
+		assertFalse(actual.isPresent());
+	}
+
+	@Test
+	public void testGetExpiredKey() {
+		// Given
+		Key key = generateKey(new DateTime().minusDays(7));
+
+		// When
+		keyCache.put(key);
+		Optional<Key> actual = keyCache.get(key.getKey());
+
+		// Then
+		assertFalse(actual.isPresent());
+		assertEquals(0, keyCache.size());
+	}
+
+	@Test
+	public void testEvictLeastRecentlyUsed() {
+		// Given
+		Key key1 = generateKey(new DateTime());
+		Key key2 = generateKey(new DateTime());
+		Key key3 = generateKey(new DateTime());
+		keyCache.put(key1);
+		keyCache.put(key2);
+		keyCache.get(key1.getKey());
+
+		// When
+		keyCache.put(key3);
+
+		// Then
+		assertEquals(2, keyCache.size());
+		assertTrue(keyCache.get(key1.getKey()).isPresent());
+		assertFalse(keyCache.get(key2.getKey()).isPresent());
+		assertTrue(keyCache.get(key3.getKey()).isPresent());
+	}
+
+	@Test
+	public void testInvalidate() {
+		// Given
+		Key key = generateKey(new DateTime());
+		keyCache.put(key);
+
+		// When
+		keyCache.invalidate(key.getKey());
+
+		// Then
+		assertFalse(keyCache.get(key.getKey()).isPresent());
+	}
+
+	@Test
+	public void testInvalidateId() {
+		// Given
+		Key key = generateKey(new DateTime());
+		Key other = generateKey(new DateTime());
+		keyCache.put(key);
+		keyCache.put(other);
+
+		// When
+		keyCache.invalidateId(key.getId());
+
+		// Then
+		assertFalse(keyCache.get(key.getKey()).isPresent());
+		assertTrue(keyCache.get(other.getKey()).isPresent());
+	}
+
+	private static Key generateKey(final DateTime createdAt) {
+		Key key = EntityGenerator.generateRandomAdminKey();
+		key.setId(new ObjectId());
+		key.setCreatedAt(createdAt);
+		return key;
+	}
+}
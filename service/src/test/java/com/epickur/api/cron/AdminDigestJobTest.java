@@ -0,0 +1,146 @@
+package com.epickur.api.cron;
+
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.dao.mongo.EmailOutboxDAO;
+import com.epickur.api.entity.EmailMessage;
+import com.epickur.api.exception.EpickurException;
+import com.epickur.api.utils.email.Email;
+import com.epickur.api.utils.email.EmailOutbox;
+import com.epickur.api.utils.email.EmailType;
+import org.bson.types.ObjectId;
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AdminDigestJobTest {
+
+	@Mock
+	private EmailOutboxDAO outboxDAO;
+	@Mock
+	private EmailOutbox outbox;
+	@Mock
+	private Email email;
+	@Mock
+	private JobLock jobLock;
+	@Mock
+	private EpickurProperties properties;
+	@InjectMocks
+	private AdminDigestJob digestJob;
+
+	@Before
+	public void setUp() {
+		given(jobLock.run(anyString(), any())).willAnswer(invocation -> {
+			invocation.<Consumer<JobLease>>getArgument(1).accept(null);
+			return true;
+		});
+		given(properties.getAdmins()).willReturn(new String[]{"admin@example.com"});
+	}
+
+	@Test
+	public void testExecute() throws EpickurException {
+		// Given
+		List<EmailMessage> buffered = Arrays.asList(buffered("New order #1"), buffered("New order <#2>"));
+		given(outboxDAO.readBufferedTypes()).willReturn(Collections.singletonList("ORDER_ADMINS_NEW"));
+		given(outboxDAO.readBuffered("ORDER_ADMINS_NEW", AdminDigestJob.MAX_ITEMS)).willReturn(buffered);
+		EmailMessage digest = new EmailMessage();
+		given(email.render(eq(EmailType.ADMINS_DIGEST), any(), any())).willReturn(Optional.of(digest));
+		given(outbox.add(digest)).willReturn(true);
+
+		// When
+		digestJob.execute();
+
+		// Then
+		then(jobLock).should().run(eq("adminDigest"), any());
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<Map<String, String>> data = ArgumentCaptor.forClass(Map.class);
+		then(email).should().render(eq(EmailType.ADMINS_DIGEST), data.capture(), any());
+		assertEquals("2", data.getValue().get("@@DIGEST_COUNT@@"));
+		assertEquals("ORDER_ADMINS_NEW", data.getValue().get("@@DIGEST_TYPE@@"));
+		assertTrue(data.getValue().get("@@DIGEST_ITEMS@@").contains("New order &lt;#2&gt;"));
+		then(outbox).should().add(digest);
+		then(outboxDAO).should().deleteAll(Arrays.asList(buffered.get(0).getId(), buffered.get(1).getId()));
+	}
+
+	@Test
+	public void testExecuteFullDigest() throws EpickurException {
+		// Given
+		List<EmailMessage> full = new ArrayList<>();
+		for (int i = 0; i < AdminDigestJob.MAX_ITEMS; i++) {
+			full.add(buffered("Order canceled"));
+		}
+		given(outboxDAO.readBufferedTypes()).willReturn(Collections.singletonList("ORDER_ADMINS_CANCEL"));
+		given(outboxDAO.readBuffered("ORDER_ADMINS_CANCEL", AdminDigestJob.MAX_ITEMS))
+			.willReturn(full, Collections.singletonList(buffered("Order canceled")));
+		given(email.render(eq(EmailType.ADMINS_DIGEST), any(), any())).willReturn(Optional.of(new EmailMessage()));
+		given(outbox.add(any())).willReturn(true);
+
+		// When
+		digestJob.sendDigests();
+
+		// Then
+		then(outbox).should(times(2)).add(any());
+	}
+
+	@Test
+	public void testExecuteDigestNotQueued() throws EpickurException {
+		// Given
+		given(outboxDAO.readBufferedTypes()).willReturn(Collections.singletonList("ORDER_ADMINS_NEW"));
+		given(outboxDAO.readBuffered(anyString(), anyInt())).willReturn(Collections.singletonList(buffered("New order #1")));
+		given(email.render(eq(EmailType.ADMINS_DIGEST), any(), any())).willReturn(Optional.of(new EmailMessage()));
+		given(outbox.add(any())).willReturn(false);
+
+		// When
+		digestJob.sendDigests();
+
+		// Then
+		then(outbox).should().add(any());
+		then(outboxDAO).should(never()).deleteAll(any());
+	}
+
+	@Test
+	public void testExecuteTemplateMissing() throws EpickurException {
+		// Given
+		given(outboxDAO.readBufferedTypes()).willReturn(Collections.singletonList("ORDER_ADMINS_NEW"));
+		given(outboxDAO.readBuffered(anyString(), anyInt())).willReturn(Collections.singletonList(buffered("New order #1")));
+		given(email.render(any(), any(), any())).willReturn(Optional.empty());
+
+		// When
+		digestJob.sendDigests();
+
+		// Then
+		then(outboxDAO).should(never()).deleteAll(any());
+	}
+
+	private static EmailMessage buffered(final String subject) {
+		EmailMessage message = new EmailMessage();
+		message.setId(new ObjectId());
+		message.setCreatedAt(new DateTime());
+		message.setSubject(subject);
+		return message;
+	}
+}
@@ -0,0 +1,286 @@
+package com.epickur.api.cron;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ListMultipartUploadsRequest;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.MultipartUploadListing;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.epickur.api.aws.AmazonWebServices;
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.dao.mongo.LockDAO;
+import com.epickur.api.dump.BackupEntry;
+import com.epickur.api.dump.BackupManifest;
+import com.epickur.api.dump.BackupType;
+import com.epickur.api.dump.DumpStats;
+import com.epickur.api.dump.MongoDBDump;
+import com.epickur.api.dump.MongoDBExporter;
+import com.epickur.api.exception.EpickurException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.beans.factory.ObjectFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BackupRetentionTest {
+
+	private static final String BUCKET = "bucket";
+	private static final int KEPT = 2;
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+	@Mock
+	private AmazonS3 s3client;
+	@Mock
+	private EpickurProperties properties;
+	@Mock
+	private MongoDBExporter exporter;
+	@Mock
+	private JobLock jobLock;
+	@Mock
+	private LockDAO lockDAO;
+	@Mock
+	private ObjectFactory<MongoDBDump> dumps;
+	private final Map<String, byte[]> bucket = new HashMap<>();
+	private final ObjectMapper mapper = new ObjectMapper();
+	private AmazonWebServices aws;
+	private BackupRetention retention;
+
+	@Before
+	public void setUp() {
+		given(properties.getMongoBackupKept()).willReturn(KEPT);
+		aws = new AmazonWebServices(properties, s3client);
+		retention = new BackupRetention(aws, mapper, properties);
+	}
+
+	@Test
+	public void testRepeatedDumps() throws IOException, EpickurException {
+		// Given
+		givenBucket();
+		givenJob();
+		given(dumps.getObject()).willReturn(new MongoDBDump("1"), new MongoDBDump("2"), new MongoDBDump("3"), new MongoDBDump("4"));
+		final MongoDBDumpJob job = new MongoDBDumpJob(aws, dumps, exporter, jobLock, retention, properties);
+
+		// When
+		for (int i = 0; i < 4; i++) {
+			job.execute();
+		}
+
+		// Then
+		final ArgumentCaptor<CompleteMultipartUploadRequest> uploads = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+		then(s3client).should(times(4)).completeMultipartUpload(uploads.capture());
+		final List<String> keys = uploads.getAllValues().stream().map(CompleteMultipartUploadRequest::getKey).collect(Collectors.toList());
+		assertEquals(4, new HashSet<>(keys).size());
+		final Set<String> listed = retention.read().getBackups().stream().map(BackupEntry::getName).collect(Collectors.toSet());
+		assertEquals(new HashSet<>(keys.subList(2, 4)), listed);
+		final ArgumentCaptor<DeleteObjectsRequest> deletes = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+		then(s3client).should(times(2)).deleteObjects(deletes.capture());
+		for (final DeleteObjectsRequest delete : deletes.getAllValues()) {
+			delete.getKeys().forEach(key -> assertTrue(!listed.contains(key.getKey())));
+		}
+		listed.forEach(name -> assertTrue(bucket.containsKey(name)));
+	}
+
+	@Test
+	public void testDumpAlreadyListed() throws IOException, EpickurException {
+		// Given
+		givenBucket();
+		givenJob();
+		given(dumps.getObject()).willReturn(new MongoDBDump("1"), new MongoDBDump("2"), new MongoDBDump("3"), new MongoDBDump("3"));
+		final MongoDBDumpJob job = new MongoDBDumpJob(aws, dumps, exporter, jobLock, retention, properties);
+		for (int i = 0; i < 3; i++) {
+			job.execute();
+		}
+		final String last = new MongoDBDump("3").getCurrentNameFile();
+
+		// When
+		job.execute();
+
+		// Then
+		then(s3client).should(times(3)).initiateMultipartUpload(any(InitiateMultipartUploadRequest.class));
+		then(s3client).should().deleteObjects(any(DeleteObjectsRequest.class));
+		assertTrue(retention.read().contains(last));
+		assertTrue(bucket.containsKey(last));
+	}
+
+	@Test
+	public void testDumpAbortsStaleUploads() throws IOException, EpickurException {
+		// Given
+		givenBucket();
+		givenJob();
+		final MultipartUpload stale = new MultipartUpload();
+		stale.setKey(MongoDBDump.PREFIX + "dead.archive.gz");
+		stale.setUploadId("stale");
+		stale.setInitiated(new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2)));
+		final MultipartUpload running = new MultipartUpload();
+		running.setKey(MongoDBDump.PREFIX + "running.archive.gz");
+		running.setUploadId("running");
+		running.setInitiated(new Date());
+		final MultipartUploadListing uploads = new MultipartUploadListing();
+		uploads.setMultipartUploads(Arrays.asList(stale, running));
+		given(s3client.listMultipartUploads(any(ListMultipartUploadsRequest.class))).willReturn(uploads);
+		given(dumps.getObject()).willReturn(new MongoDBDump("1"));
+
+		// When
+		new MongoDBDumpJob(aws, dumps, exporter, jobLock, retention, properties).execute();
+
+		// Then
+		final ArgumentCaptor<ListMultipartUploadsRequest> list = ArgumentCaptor.forClass(ListMultipartUploadsRequest.class);
+		then(s3client).should().listMultipartUploads(list.capture());
+		assertEquals(MongoDBDump.PREFIX, list.getValue().getPrefix());
+		final ArgumentCaptor<AbortMultipartUploadRequest> abort = ArgumentCaptor.forClass(AbortMultipartUploadRequest.class);
+		then(s3client).should().abortMultipartUpload(abort.capture());
+		assertEquals("stale", abort.getValue().getUploadId());
+		then(s3client).should().completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+	}
+
+	@Test
+	public void testRecordDuplicateName() throws IOException {
+		// Given
+		final BackupManifest manifest = new BackupManifest();
+		manifest.add(entry("full1"));
+		manifest.add(entry("full2"));
+
+		thrown.expect(IOException.class);
+
+		// When
+		try {
+			retention.record(manifest, entry("full1"));
+		} finally {
+			// Then
+			then(s3client).should(never()).putObject(anyString(), anyString(), any(InputStream.class), any(ObjectMetadata.class));
+			then(s3client).should(never()).deleteObjects(any(DeleteObjectsRequest.class));
+		}
+	}
+
+	@Test
+	public void testRecordKeepsListedNames() throws IOException {
+		// Given
+		givenBucket();
+		final BackupManifest manifest = new BackupManifest();
+		manifest.add(entry("full1"));
+		manifest.add(entry("full2"));
+
+		// When
+		final List<String> deleted = retention.record(manifest, entry("full3"));
+
+		// Then
+		assertEquals(Arrays.asList("full1"), deleted);
+		assertEquals(Arrays.asList("full2", "full3"),
+			retention.read().getBackups().stream().map(BackupEntry::getName).collect(Collectors.toList()));
+		final ArgumentCaptor<DeleteObjectsRequest> delete = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+		then(s3client).should().deleteObjects(delete.capture());
+		assertEquals("full1", delete.getValue().getKeys().get(0).getKey());
+	}
+
+	/**
+	 * Back the client with an in memory bucket
+	 */
+	private void givenBucket() {
+		given(properties.getAwsBucket()).willReturn(BUCKET);
+		given(s3client.putObject(eq(BUCKET), anyString(), any(InputStream.class), any(ObjectMetadata.class))).willAnswer(invocation -> {
+			bucket.put(invocation.getArgument(1), IOUtils.toByteArray(invocation.<InputStream>getArgument(2)));
+			return new PutObjectResult();
+		});
+		given(s3client.getObject(eq(BUCKET), anyString())).willAnswer(invocation -> {
+			final byte[] content = bucket.get(invocation.<String>getArgument(1));
+			if (content == null) {
+				final AmazonS3Exception notFound = new AmazonS3Exception("Not found");
+				notFound.setStatusCode(404);
+				throw notFound;
+			}
+			final S3Object object = new S3Object();
+			object.setObjectContent(new ByteArrayInputStream(content));
+			return object;
+		});
+		given(s3client.listMultipartUploads(any(ListMultipartUploadsRequest.class))).willReturn(new MultipartUploadListing());
+		given(s3client.deleteObjects(any(DeleteObjectsRequest.class))).willAnswer(invocation -> {
+			invocation.<DeleteObjectsRequest>getArgument(0).getKeys().forEach(key -> bucket.remove(key.getKey()));
+			return null;
+		});
+	}
+
+	/**
+	 * Upload the dumps to the bucket, under a lease that stays valid
+	 */
+	private void givenJob() throws IOException, EpickurException {
+		given(properties.getAwsUploadPartSize()).willReturn(0);
+		given(properties.getAwsUploadThreads()).willReturn(1);
+		given(properties.getAwsUploadRetries()).willReturn(0);
+		given(properties.getAwsUploadRetryDelay()).willReturn(1L);
+		given(properties.getMongoBackupIncremental()).willReturn(false);
+		given(lockDAO.isHeld(anyString(), anyLong())).willReturn(true);
+		given(jobLock.run(anyString(), anyLong(), any())).willAnswer(invocation -> {
+			invocation.<Consumer<JobLease>>getArgument(2).accept(new JobLease("mongoDBDump", 1L, lockDAO));
+			return true;
+		});
+		given(exporter.export(any(OutputStream.class), isNull())).willReturn(new DumpStats());
+		given(s3client.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class))).willAnswer(invocation -> {
+			final InitiateMultipartUploadResult initiated = new InitiateMultipartUploadResult();
+			initiated.setUploadId(invocation.<InitiateMultipartUploadRequest>getArgument(0).getKey());
+			return initiated;
+		});
+		given(s3client.uploadPart(any(UploadPartRequest.class))).willAnswer(invocation -> {
+			final UploadPartResult result = new UploadPartResult();
+			result.setPartNumber(invocation.<UploadPartRequest>getArgument(0).getPartNumber());
+			result.setETag("etag");
+			return result;
+		});
+		given(s3client.completeMultipartUpload(any(CompleteMultipartUploadRequest.class))).willAnswer(invocation -> {
+			bucket.put(invocation.<CompleteMultipartUploadRequest>getArgument(0).getKey(), new byte[0]);
+			return new CompleteMultipartUploadResult();
+		});
+	}
+
+	private static BackupEntry entry(final String name) {
+		final BackupEntry entry = new BackupEntry();
+		entry.setName(name);
+		entry.setType(BackupType.FULL);
+		entry.setBase(name);
+		return entry;
+	}
+}
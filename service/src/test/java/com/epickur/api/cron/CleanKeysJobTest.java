@@ -1,104 +1,75 @@
 package com.epickur.api.cron;
 
 import com.epickur.api.config.EpickurProperties;
-import com.epickur.api.config.ServiceConfigTest;
 import com.epickur.api.dao.mongo.KeyDAO;
-import com.epickur.api.entity.Key;
 import com.epickur.api.exception.EpickurException;
-import com.epickur.api.helper.EntityGenerator;
-import com.epickur.api.utils.Utils;
-import org.bson.types.ObjectId;
 import org.joda.time.DateTime;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.quartz.JobExecutionContext;
-import org.quartz.JobExecutionException;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.test.context.ContextConfiguration;
-import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.mockito.runners.MockitoJUnitRunner;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.Assert.assertTrue;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyString;
-import static org.mockito.Mockito.never;
-import static org.mockito.MockitoAnnotations.initMocks;
+import static org.mockito.Mockito.eq;
 
-@RunWith(SpringJUnit4ClassRunner.class)
-@ContextConfiguration(classes = ServiceConfigTest.class)
+@RunWith(MockitoJUnitRunner.class)
 public class CleanKeysJobTest {
 
-	@Autowired
-	public EpickurProperties epickurProperties;
+	private static final int SESSION_TIMEOUT = 5;
+
 	@Mock
-	private JobExecutionContext context;
+	private EpickurProperties properties;
 	@Mock
 	private KeyDAO keyDao;
 	@Mock
-	private Utils utils;
+	private JobLock jobLock;
 	@InjectMocks
 	private CleanKeysJob keyJob;
 
 	@Before
 	public void setUp() {
-		initMocks(this);
+		given(properties.getSessionTimeout()).willReturn(SESSION_TIMEOUT);
+		given(jobLock.run(anyString(), any())).willAnswer(invocation -> {
+			invocation.<Consumer<JobLease>>getArgument(1).accept(null);
+			return true;
+		});
 	}
 
 	@Test
-	public void testExecuteValid() throws JobExecutionException, EpickurException {
+	public void testExecute() throws EpickurException {
 		// Given
-		List<Key> keys = new ArrayList<>();
-		Key key = EntityGenerator.generateRandomAdminKey();
-		DateTime now = new DateTime();
-		key.setCreatedAt(now);
-		keys.add(key);
-		given(keyDao.readAll()).willReturn(keys);
-		given(utils.isValid(key)).willReturn(true);
+		given(keyDao.deleteCreatedBefore(any(DateTime.class))).willReturn(3L);
+		DateTime before = new DateTime().minusDays(SESSION_TIMEOUT + 1);
 
 		// When
 		keyJob.execute();
 
 		// Then
-		then(keyDao).should().readAll();
-		then(keyDao).should(never()).delete(anyString());
+		then(jobLock).should().run(eq("cleanKeys"), any());
+		ArgumentCaptor<DateTime> date = ArgumentCaptor.forClass(DateTime.class);
+		then(keyDao).should().deleteCreatedBefore(date.capture());
+		DateTime after = new DateTime().minusDays(SESSION_TIMEOUT + 1);
+		assertTrue(!date.getValue().isBefore(before) && !date.getValue().isAfter(after));
 	}
 
 	@Test
-	public void testExecuteNotValid() throws JobExecutionException, EpickurException {
+	public void testExecuteEpickurException() throws EpickurException {
 		// Given
-		List<Key> keys = new ArrayList<>();
-		Key key = EntityGenerator.generateRandomAdminKey();
-		key.setId(new ObjectId());
-		DateTime now = new DateTime();
-		now = now.plusDays(epickurProperties.getSessionTimeout() + 10);
-		key.setCreatedAt(now);
-		keys.add(key);
-		given(keyDao.readAll()).willReturn(keys);
+		given(keyDao.deleteCreatedBefore(any(DateTime.class))).willThrow(new EpickurException());
 
 		// When
 		keyJob.execute();
 
 		// Then
-		then(keyDao).should().readAll();
-		then(keyDao).should().delete(key.getId().toHexString());
-	}
-
-	@Test
-	public void testExecuteEpickurException() throws JobExecutionException, EpickurException {
-		// Given
-		given(keyDao.readAll()).willThrow(new EpickurException());
-		try {
-			// When
-			keyJob.execute();
-		} finally {
-			// Then
-			then(keyDao).should().readAll();
-			then(keyDao).should(never()).delete(anyString());
-		}
+		then(keyDao).should().deleteCreatedBefore(any(DateTime.class));
 	}
 }
@@ -1,29 +1,86 @@
 package com.epickur.api.cron;
 
+import com.epickur.api.config.EpickurProperties;
 import com.epickur.api.dao.mongo.VoucherDAO;
 import com.epickur.api.exception.EpickurException;
-import com.epickur.api.service.VoucherService;
+import org.joda.time.DateTime;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.quartz.JobExecutionException;
 
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+
 @RunWith(MockitoJUnitRunner.class)
 public final class CleanVouchersJobTest {
 
 	@Mock
 	private VoucherDAO voucherDAO;
 	@Mock
-	private VoucherService voucherService;
+	private EpickurProperties properties;
+	@Mock
+	private JobLock jobLock;
 	@InjectMocks
 	private CleanVouchersJob voucherJob;
 
+	@Before
+	public void setUp() {
+		given(jobLock.run(anyString(), any())).willAnswer(invocation -> {
+			invocation.<Consumer<JobLease>>getArgument(1).accept(null);
+			return true;
+		});
+	}
+
 	@Test
 	public void testExecute() throws JobExecutionException, EpickurException {
+		// Given
+		given(voucherDAO.expireOutdated(any(DateTime.class))).willReturn(2L);
+
+		// When
+		voucherJob.execute();
+
+		// Then
+		then(jobLock).should().run(eq("cleanVouchers"), any());
+		then(voucherDAO).should().expireOutdated(any(DateTime.class));
+		then(voucherDAO).should(never()).forEachExpiredAt(any(DateTime.class), any());
+	}
+
+	@Test
+	public void testExecuteAudit() throws JobExecutionException, EpickurException {
+		// Given
+		given(properties.getVoucherCleanAudit()).willReturn(true);
+		given(voucherDAO.expireOutdated(any(DateTime.class))).willReturn(2L);
+
+		// When
+		voucherJob.execute();
+
+		// Then
+		ArgumentCaptor<DateTime> expiredAt = ArgumentCaptor.forClass(DateTime.class);
+		then(voucherDAO).should().expireOutdated(expiredAt.capture());
+		then(voucherDAO).should().forEachExpiredAt(eq(expiredAt.getValue()), any());
+	}
+
+	@Test
+	public void testExecuteEpickurException() throws JobExecutionException, EpickurException {
+		// Given
+		given(properties.getVoucherCleanAudit()).willReturn(true);
+		given(voucherDAO.expireOutdated(any(DateTime.class))).willThrow(new EpickurException());
+
+		// When
 		voucherJob.execute();
 
-		// TODO test not good enough
+		// Then
+		then(voucherDAO).should(never()).forEachExpiredAt(any(DateTime.class), any());
 	}
 }
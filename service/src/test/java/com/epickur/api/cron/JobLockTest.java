@@ -0,0 +1,142 @@
+package com.epickur.api.cron;
+
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.dao.mongo.LockDAO;
+import com.epickur.api.exception.EpickurDBException;
+import com.epickur.api.exception.EpickurException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JobLockTest {
+
+	private static final String JOB = "job";
+	private static final String NODE = "node-1";
+	private static final long LEASE = 60000L;
+	private static final long MIN = 30000L;
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+	@Mock
+	private LockDAO lockDAO;
+	@Mock
+	private EpickurProperties properties;
+	private JobLock jobLock;
+
+	@Before
+	public void setUp() {
+		given(properties.getCronLockNode()).willReturn(NODE);
+		given(properties.getCronLockLease()).willReturn(LEASE);
+		given(properties.getCronLockMin()).willReturn(MIN);
+		jobLock = new JobLock(lockDAO, properties);
+	}
+
+	@Test
+	public void testRun() throws EpickurException {
+		// Given
+		given(lockDAO.acquire(eq(JOB), eq(NODE), anyLong())).willReturn(Optional.of(7L));
+		given(lockDAO.release(eq(JOB), eq(NODE), eq(7L), anyLong())).willReturn(true);
+		AtomicReference<JobLease> ran = new AtomicReference<>();
+		long start = System.currentTimeMillis();
+
+		// When
+		boolean actual = jobLock.run(JOB, ran::set);
+
+		// Then
+		assertTrue(actual);
+		assertNotNull(ran.get());
+		assertEquals(7L, ran.get().getToken());
+		ArgumentCaptor<Long> until = ArgumentCaptor.forClass(Long.class);
+		then(lockDAO).should().acquire(eq(JOB), eq(NODE), until.capture());
+		assertTrue(until.getValue() >= start + LEASE);
+		then(lockDAO).should().release(eq(JOB), eq(NODE), eq(7L), until.capture());
+		assertTrue("The lock is kept for the min hold", until.getValue() >= start + MIN);
+		JobStats stats = jobLock.getStats().get(JOB);
+		assertEquals(1, stats.getRuns());
+		assertEquals(7L, stats.getLastToken());
+	}
+
+	@Test
+	public void testRunHeldByAnotherNode() throws EpickurException {
+		// Given
+		given(lockDAO.acquire(eq(JOB), eq(NODE), anyLong())).willReturn(Optional.empty());
+		AtomicReference<JobLease> ran = new AtomicReference<>();
+
+		// When
+		boolean actual = jobLock.run(JOB, ran::set);
+
+		// Then
+		assertFalse(actual);
+		assertEquals(null, ran.get());
+		then(lockDAO).should(never()).release(anyString(), anyString(), anyLong(), anyLong());
+		assertEquals(1, jobLock.getStats().get(JOB).getSkipped());
+	}
+
+	@Test
+	public void testRunAcquireFails() throws EpickurException {
+		// Given
+		given(lockDAO.acquire(eq(JOB), eq(NODE), anyLong())).willThrow(new EpickurDBException());
+
+		// When
+		boolean actual = jobLock.run(JOB, lease -> {
+			throw new IllegalStateException("Should not run");
+		});
+
+		// Then
+		assertFalse(actual);
+		assertEquals(1, jobLock.getStats().get(JOB).getFailures());
+	}
+
+	@Test
+	public void testRunJobFails() throws EpickurException {
+		// Then
+		thrown.expect(IllegalStateException.class);
+
+		// Given
+		given(lockDAO.acquire(eq(JOB), eq(NODE), anyLong())).willReturn(Optional.of(3L));
+
+		try {
+			// When
+			jobLock.run(JOB, lease -> {
+				throw new IllegalStateException();
+			});
+		} finally {
+			then(lockDAO).should().release(eq(JOB), eq(NODE), eq(3L), anyLong());
+			assertEquals(1, jobLock.getStats().get(JOB).getFailures());
+		}
+	}
+
+	@Test
+	public void testLeaseIsValid() throws EpickurException {
+		// Given
+		given(lockDAO.acquire(eq(JOB), eq(NODE), anyLong())).willReturn(Optional.of(4L));
+		given(lockDAO.isHeld(JOB, 4L)).willReturn(false);
+		AtomicReference<Boolean> valid = new AtomicReference<>();
+
+		// When
+		jobLock.run(JOB, lease -> valid.set(lease.isValid()));
+
+		// Then
+		assertFalse(valid.get());
+	}
+}
@@ -0,0 +1,200 @@
+package com.epickur.api.cron;
+
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.dao.mongo.OrderDAO;
+import com.epickur.api.dao.mongo.UserDAO;
+import com.epickur.api.entity.Order;
+import com.epickur.api.entity.User;
+import com.epickur.api.entity.Voucher;
+import com.epickur.api.exception.EpickurException;
+import com.epickur.api.helper.EntityGenerator;
+import com.epickur.api.service.VoucherService;
+import com.epickur.api.utils.email.EmailUtils;
+import org.bson.types.ObjectId;
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OrderExpiryJobTest {
+
+	private static final int TIME_LIMIT = 3;
+	private static final int BATCH_SIZE = 2;
+	private static final long NOTIFY_LEASE = 60000L;
+
+	@Mock
+	private OrderDAO orderDAO;
+	@Mock
+	private UserDAO userDAO;
+	@Mock
+	private VoucherService voucherService;
+	@Mock
+	private EmailUtils emailUtils;
+	@Mock
+	private EpickurProperties properties;
+	private OrderExpiryJob orderExpiryJob;
+
+	@Before
+	public void setUp() {
+		given(properties.getOrderTimeLimit()).willReturn(TIME_LIMIT);
+		given(properties.getOrderSweepBatchSize()).willReturn(BATCH_SIZE);
+		given(properties.getOrderNotifyLease()).willReturn(NOTIFY_LEASE);
+		orderExpiryJob = new OrderExpiryJob(orderDAO, userDAO, voucherService, emailUtils, properties);
+	}
+
+	@Test
+	public void testGetExpiration() {
+		DateTime createdAt = new DateTime();
+
+		assertEquals(createdAt.plusMinutes(TIME_LIMIT), orderExpiryJob.getExpiration(createdAt));
+	}
+
+	@Test
+	public void testExecute() throws EpickurException {
+		// Given
+		User user = EntityGenerator.generateRandomUserWithId();
+		Order order = orderOf(user);
+		Voucher voucher = EntityGenerator.generateVoucher();
+		order.setVoucher(voucher);
+		Order other = orderOf(user);
+		Order last = orderOf(user);
+		given(orderDAO.cancelExpired(any(DateTime.class), any(DateTime.class), any(DateTime.class), anyInt()))
+			.willReturn(Arrays.asList(order, other), Collections.singletonList(last), Collections.emptyList());
+		given(userDAO.readAll(anyCollection())).willReturn(Collections.singletonList(user));
+		given(voucherService.revertVoucher(voucher.getCode())).willReturn(voucher);
+
+		// When
+		orderExpiryJob.execute();
+
+		// Then
+		ArgumentCaptor<DateTime> now = ArgumentCaptor.forClass(DateTime.class);
+		ArgumentCaptor<DateTime> createdBefore = ArgumentCaptor.forClass(DateTime.class);
+		ArgumentCaptor<DateTime> notifyUntil = ArgumentCaptor.forClass(DateTime.class);
+		then(orderDAO).should(times(3)).cancelExpired(now.capture(), createdBefore.capture(), notifyUntil.capture(), anyInt());
+		assertEquals(now.getValue().minusMinutes(TIME_LIMIT), createdBefore.getValue());
+		assertEquals(now.getValue().plus(NOTIFY_LEASE), notifyUntil.getValue());
+		then(userDAO).should(times(2)).readAll(anyCollection());
+		then(voucherService).should().revertVoucher(voucher.getCode());
+		then(orderDAO).should().markVoucherReverted(order.getId());
+		then(emailUtils).should().emailCancelOrder(user, order);
+		then(emailUtils).should().emailCancelOrder(user, other);
+		then(emailUtils).should().emailCancelOrder(user, last);
+		then(orderDAO).should().markCancelNotified(order.getId());
+		then(orderDAO).should().markCancelNotified(other.getId());
+		then(orderDAO).should().markCancelNotified(last.getId());
+	}
+
+	@Test
+	public void testExecuteUserNotFound() throws EpickurException {
+		// Given
+		Order order = orderOf(EntityGenerator.generateRandomUserWithId());
+		given(orderDAO.cancelExpired(any(DateTime.class), any(DateTime.class), any(DateTime.class), anyInt()))
+			.willReturn(Collections.singletonList(order), Collections.emptyList());
+		given(userDAO.readAll(anyCollection())).willReturn(Collections.emptyList());
+
+		// When
+		orderExpiryJob.execute();
+
+		// Then
+		then(emailUtils).should(never()).emailCancelOrder(any(User.class), any(Order.class));
+		then(orderDAO).should().markCancelNotified(order.getId());
+	}
+
+	@Test
+	public void testExecuteEpickurException() throws EpickurException {
+		// Given
+		given(orderDAO.cancelExpired(any(DateTime.class), any(DateTime.class), any(DateTime.class), anyInt())).willThrow(new EpickurException());
+
+		// When
+		orderExpiryJob.execute();
+
+		// Then
+		then(userDAO).should(never()).readAll(anyCollection());
+		then(voucherService).should(never()).revertVoucher(anyString());
+		then(emailUtils).should(never()).emailCancelOrder(any(User.class), any(Order.class));
+	}
+
+	@Test
+	public void testExecuteUsersNotRead() throws EpickurException {
+		// Given
+		Order order = orderOf(EntityGenerator.generateRandomUserWithId());
+		order.setVoucher(EntityGenerator.generateVoucher());
+		given(orderDAO.cancelExpired(any(DateTime.class), any(DateTime.class), any(DateTime.class), anyInt()))
+			.willReturn(Collections.singletonList(order));
+		given(userDAO.readAll(anyCollection())).willThrow(new EpickurException());
+
+		// When
+		orderExpiryJob.execute();
+
+		// Then
+		then(voucherService).should(never()).revertVoucher(anyString());
+		then(orderDAO).should(never()).markCancelNotified(any(ObjectId.class));
+	}
+
+	@Test
+	public void testExecuteResumeAfterVoucherReverted() throws EpickurException {
+		// Given
+		User user = EntityGenerator.generateRandomUserWithId();
+		Order order = orderOf(user);
+		order.setVoucher(EntityGenerator.generateVoucher());
+		order.setVoucherReverted(true);
+		given(orderDAO.cancelExpired(any(DateTime.class), any(DateTime.class), any(DateTime.class), anyInt()))
+			.willReturn(Collections.emptyList());
+		given(orderDAO.claimUnnotified(any(DateTime.class), any(DateTime.class), anyInt()))
+			.willReturn(Collections.singletonList(order), Collections.emptyList());
+		given(userDAO.readAll(anyCollection())).willReturn(Collections.singletonList(user));
+
+		// When
+		orderExpiryJob.execute();
+
+		// Then
+		then(voucherService).should(never()).revertVoucher(anyString());
+		then(emailUtils).should().emailCancelOrder(user, order);
+		then(orderDAO).should().markCancelNotified(order.getId());
+	}
+
+	@Test
+	public void testExecuteResumeVoucherFailed() throws EpickurException {
+		// Given
+		User user = EntityGenerator.generateRandomUserWithId();
+		Order order = orderOf(user);
+		Voucher voucher = EntityGenerator.generateVoucher();
+		order.setVoucher(voucher);
+		given(orderDAO.cancelExpired(any(DateTime.class), any(DateTime.class), any(DateTime.class), anyInt()))
+			.willReturn(Collections.singletonList(order), Collections.emptyList());
+		given(orderDAO.claimUnnotified(any(DateTime.class), any(DateTime.class), anyInt())).willReturn(Collections.emptyList());
+		given(userDAO.readAll(anyCollection())).willReturn(Collections.singletonList(user));
+		given(voucherService.revertVoucher(voucher.getCode())).willThrow(new EpickurException());
+
+		// When
+		orderExpiryJob.execute();
+
+		// Then
+		then(orderDAO).should(never()).markVoucherReverted(any(ObjectId.class));
+		then(emailUtils).should(never()).emailCancelOrder(any(User.class), any(Order.class));
+		then(orderDAO).should(never()).markCancelNotified(any(ObjectId.class));
+	}
+
+	private static Order orderOf(final User user) {
+		Order order = EntityGenerator.generateRandomOrderWithId();
+		order.setCreatedBy(user.getId());
+		return order;
+	}
+}
@@ -0,0 +1,209 @@
+package com.epickur.api.service;
+
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.dao.mongo.EmailOutboxDAO;
+import com.epickur.api.entity.EmailMessage;
+import com.epickur.api.enumeration.EmailStatus;
+import com.epickur.api.exception.EpickurDBException;
+import com.epickur.api.exception.EpickurException;
+import com.epickur.api.utils.email.Email;
+import org.bson.types.ObjectId;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EmailOutboxServiceTest {
+
+	@Mock
+	private EmailOutboxDAO outboxDAO;
+	@Mock
+	private Email email;
+	@Mock
+	private EpickurProperties properties;
+	private EmailOutboxService outbox;
+
+	@Before
+	public void setUp() {
+		given(properties.getEmailOutboxWorkers()).willReturn(1);
+		given(properties.getEmailOutboxPoll()).willReturn(1000L);
+		given(properties.getEmailOutboxLease()).willReturn(60000L);
+		given(properties.getEmailOutboxAttempts()).willReturn(3);
+		given(properties.getEmailOutboxBackoff()).willReturn(10000L);
+		given(properties.getEmailOutboxBackoffMax()).willReturn(30000L);
+		given(properties.getEmailOutboxShutdown()).willReturn(1000L);
+		outbox = new EmailOutboxService(outboxDAO, email, properties);
+	}
+
+	@After
+	public void tearDown() {
+		outbox.shutdown();
+	}
+
+	@Test
+	public void testAdd() throws EpickurException {
+		// Given
+		EmailMessage message = new EmailMessage();
+
+		// When
+		boolean actual = outbox.add(message);
+
+		// Then
+		assertTrue(actual);
+		then(outboxDAO).should().create(message);
+		assertEquals(EmailStatus.PENDING, message.getStatus());
+		assertEquals(0, message.getAttempts().intValue());
+		assertEquals(1, outbox.getQueued());
+	}
+
+	@Test
+	public void testAddToDigest() throws EpickurException {
+		// Given
+		EmailMessage message = new EmailMessage();
+
+		// When
+		outbox.addToDigest(message);
+
+		// Then
+		then(outboxDAO).should().create(message);
+		assertEquals(EmailStatus.BUFFERED, message.getStatus());
+	}
+
+	@Test
+	public void testAddDBError() throws EpickurException {
+		// Given
+		given(outboxDAO.create(any())).willThrow(new EpickurDBException());
+
+		// When
+		boolean actual = outbox.add(new EmailMessage());
+
+		// Then
+		assertFalse(actual);
+		assertEquals(0, outbox.getQueued());
+		assertEquals(1, outbox.getFailed());
+	}
+
+	@Test
+	public void testSendNextEmpty() throws EpickurException {
+		// Given
+		given(outboxDAO.claim(any(), any())).willReturn(Optional.empty());
+
+		// When
+		boolean actual = outbox.sendNext();
+
+		// Then
+		assertFalse(actual);
+		then(email).should(never()).send(any());
+	}
+
+	@Test
+	public void testSendNext() throws EpickurException {
+		// Given
+		EmailMessage message = claimed(0);
+
+		// When
+		boolean actual = outbox.sendNext();
+
+		// Then
+		assertTrue(actual);
+		then(email).should().send(message);
+		then(outboxDAO).should().delete(message.getId().toHexString());
+		assertEquals(1, outbox.getSent());
+	}
+
+	@Test
+	public void testSendNextRetry() throws EpickurException {
+		// Given
+		EmailMessage message = claimed(1);
+		willThrow(new EpickurException("timeout")).given(email).send(message);
+		long before = System.currentTimeMillis();
+
+		// When
+		outbox.sendNext();
+
+		// Then
+		ArgumentCaptor<DateTime> next = ArgumentCaptor.forClass(DateTime.class);
+		then(outboxDAO).should().retry(eq(message.getId()), eq(2), next.capture(), anyString());
+		assertTrue(next.getValue().getMillis() >= before + 20000);
+		then(outboxDAO).should(never()).delete(anyString());
+		assertEquals(1, outbox.getRetried());
+	}
+
+	@Test
+	public void testSendNextGiveUp() throws EpickurException {
+		// Given
+		EmailMessage message = claimed(2);
+		willThrow(new EpickurException("rejected")).given(email).send(message);
+
+		// When
+		outbox.sendNext();
+
+		// Then
+		then(outboxDAO).should().fail(message.getId(), 3, "rejected");
+		then(outboxDAO).should(never()).retry(any(), anyInt(), any(), anyString());
+		assertEquals(1, outbox.getFailed());
+	}
+
+	@Test
+	public void testSendNextRuntimeException() throws EpickurException {
+		// Given
+		EmailMessage message = claimed(0);
+		willThrow(new IllegalStateException("unparseable response")).given(email).send(message);
+		willAnswer(invocation -> {
+			message.setAttempts(invocation.getArgument(1));
+			return null;
+		}).given(outboxDAO).retry(eq(message.getId()), anyInt(), any(), anyString());
+
+		// When
+		outbox.sendNext();
+		outbox.sendNext();
+		outbox.sendNext();
+
+		// Then
+		then(email).should(times(3)).send(message);
+		then(outboxDAO).should(times(2)).retry(eq(message.getId()), anyInt(), any(), anyString());
+		then(outboxDAO).should().fail(message.getId(), 3, "java.lang.IllegalStateException: unparseable response");
+		then(outboxDAO).should(never()).delete(anyString());
+		assertEquals(2, outbox.getRetried());
+		assertEquals(1, outbox.getFailed());
+	}
+
+	@Test
+	public void testGetBackoff() {
+		assertEquals(10000L, outbox.getBackoff(1));
+		assertEquals(20000L, outbox.getBackoff(2));
+		assertEquals(30000L, outbox.getBackoff(3));
+		assertEquals(30000L, outbox.getBackoff(100));
+	}
+
+	private EmailMessage claimed(final int attempts) throws EpickurException {
+		EmailMessage message = new EmailMessage();
+		message.setId(new ObjectId());
+		message.setType("ORDER_USER_NEW");
+		message.setAttempts(attempts);
+		message.setStatus(EmailStatus.SENDING);
+		given(outboxDAO.claim(any(), any())).willReturn(Optional.of(message));
+		return message;
+	}
+}
@@ -1,9 +1,12 @@
 package com.epickur.api.service;
 
+import com.epickur.api.cache.KeyCache;
+import com.epickur.api.config.EpickurProperties;
 import com.epickur.api.dao.mongo.KeyDAO;
 import com.epickur.api.entity.Key;
 import com.epickur.api.exception.EpickurException;
 import com.epickur.api.helper.EntityGenerator;
+import org.bson.types.ObjectId;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
@@ -14,16 +17,24 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
 
 @RunWith(MockitoJUnitRunner.class)
 public class KeyServiceTest {
 
 	@Mock
 	private KeyDAO keyDAOMock;
+	@Mock
+	private KeyCache keyCacheMock;
+	@Mock
+	private TokenService tokenServiceMock;
+	@Mock
+	private EpickurProperties propertiesMock;
 	@InjectMocks
 	private KeyService keyBusiness;
 
@@ -62,25 +73,83 @@ public class KeyServiceTest {
 	@Test
 	public void testDelete() throws EpickurException {
 		// Given
+		ObjectId id = new ObjectId();
 		given(keyDAOMock.delete(any(String.class))).willReturn(true);
 
 		// When
-		boolean actual = keyBusiness.delete(EntityGenerator.generateRandomString());
+		boolean actual = keyBusiness.delete(id.toHexString());
 
 		// Then
 		assertTrue(actual);
+		then(keyCacheMock).should().invalidateId(id);
 	}
 
 	@Test
 	public void testDeleteWithKey() throws EpickurException {
 		// Given
+		String key = EntityGenerator.generateRandomString();
 		given(keyDAOMock.deleteWithKey(any(String.class))).willReturn(true);
 
 		// When
-		boolean actual = keyBusiness.deleteWithKey(EntityGenerator.generateRandomString());
+		boolean actual = keyBusiness.deleteWithKey(key);
+
+		// Then
+		assertTrue(actual);
+		then(keyCacheMock).should().invalidate(key);
+	}
+
+	@Test
+	public void testDeleteCachedDuringDelete() throws EpickurException {
+		// Given
+		KeyCache keyCache = keyCache();
+		KeyService keyService = new KeyService(keyDAOMock, keyCache, tokenServiceMock);
+		Key key = EntityGenerator.mockKeyAfterCreate(EntityGenerator.generateRandomAdminKey());
+		keyCache.put(key);
+		given(keyDAOMock.delete(key.getId().toHexString())).willAnswer(invocation -> {
+			// A request reads the key while it is being deleted
+			keyCache.put(key);
+			return true;
+		});
+
+		// When
+		keyService.delete(key.getId().toHexString());
+
+		// Then
+		assertFalse(keyCache.get(key.getKey()).isPresent());
+	}
+
+	@Test
+	public void testDeleteWithKeyCachedDuringDelete() throws EpickurException {
+		// Given
+		KeyCache keyCache = keyCache();
+		KeyService keyService = new KeyService(keyDAOMock, keyCache, tokenServiceMock);
+		Key key = EntityGenerator.mockKeyAfterCreate(EntityGenerator.generateRandomAdminKey());
+		keyCache.put(key);
+		given(keyDAOMock.deleteWithKey(key.getKey())).willAnswer(invocation -> {
+			keyCache.put(key);
+			return true;
+		});
+
+		// When
+		keyService.deleteWithKey(key.getKey());
+
+		// Then
+		assertFalse(keyCache.get(key.getKey()).isPresent());
+	}
+
+	@Test
+	public void testDeleteWithKeyToken() throws EpickurException {
+		// Given
+		String token = EntityGenerator.generateRandomString() + "." + EntityGenerator.generateRandomString();
+		given(tokenServiceMock.isToken(token)).willReturn(true);
+		given(tokenServiceMock.revoke(token)).willReturn(true);
+
+		// When
+		boolean actual = keyBusiness.deleteWithKey(token);
 
 		// Then
 		assertTrue(actual);
+		then(keyDAOMock).shouldHaveZeroInteractions();
 	}
 
 	@Test
@@ -99,4 +168,11 @@ public class KeyServiceTest {
 		assertNotNull(actual);
 		assertEquals(1, actual.size());
 	}
+
+	private KeyCache keyCache() {
+		given(propertiesMock.getSessionCacheSize()).willReturn(10);
+		given(propertiesMock.getSessionTimeout()).willReturn(1);
+		given(propertiesMock.getSessionCacheTtl()).willReturn(300);
+		return new KeyCache(propertiesMock);
+	}
 }
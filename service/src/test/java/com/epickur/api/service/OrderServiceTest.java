@@ -1,6 +1,6 @@
 package com.epickur.api.service;
 
-import com.epickur.api.cron.OrderJob;
+import com.epickur.api.cron.OrderExpiryJob;
 import com.epickur.api.dao.mongo.OrderDAO;
 import com.epickur.api.dao.mongo.SequenceDAO;
 import com.epickur.api.dao.mongo.UserDAO;
@@ -61,7 +61,7 @@ public class OrderServiceTest {
 	@Mock
 	private EmailUtils emailUtilsMock;
 	@Mock
-	private OrderJob jobs;
+	private OrderExpiryJob orderExpiry;
 	@InjectMocks
 	private OrderService orderService;
 
@@ -76,6 +76,8 @@ public class OrderServiceTest {
 		order = spy(order);
 		given(userDAOMock.read(user.getId().toHexString())).willReturn(Optional.of(user));
 		given(orderDAOMock.create(order)).willReturn(orderAfterCreate);
+		DateTime expiration = new DateTime().plusMinutes(3);
+		given(orderExpiry.getExpiration(any(DateTime.class))).willReturn(expiration);
 
 		// When
 		Order actual = orderService.create(user.getId().toHexString(), order);
@@ -87,6 +89,7 @@ public class OrderServiceTest {
 		then(order).should().setStatus(OrderStatus.PENDING);
 		then(order).should().setCreatedAt(any(DateTime.class));
 		then(order).should().setUpdatedAt(any(DateTime.class));
+		then(order).should().setExpiresAt(expiration);
 		then(userDAOMock).should().read(user.getId().toHexString());
 		then(orderDAOMock).should().create(order);
 		then(order).should().getVoucher();
@@ -0,0 +1,209 @@
+package com.epickur.api.service;
+
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.dao.mongo.RevokedTokenDAO;
+import com.epickur.api.entity.Key;
+import com.epickur.api.entity.User;
+import com.epickur.api.enumeration.Role;
+import com.epickur.api.exception.EpickurException;
+import com.epickur.api.helper.EntityGenerator;
+import org.bson.types.ObjectId;
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TokenServiceTest {
+
+	private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+	@Mock
+	private RevokedTokenDAO revokedTokenDAO;
+	@Mock
+	private EpickurProperties properties;
+
+	private TokenService tokenService;
+	private User user;
+
+	@Before
+	public void setUp() {
+		given(properties.getSessionTokenEnabled()).willReturn(true);
+		given(properties.getSessionTokenSecret()).willReturn(SECRET);
+		given(properties.getSessionTimeout()).willReturn(5);
+		tokenService = new TokenService(revokedTokenDAO, properties);
+		user = EntityGenerator.generateRandomUser();
+		user.setId(new ObjectId());
+		user.setRole(Role.SUPER_USER);
+	}
+
+	@Test
+	public void testIssueVerify() {
+		// Given
+		String token = tokenService.issue(user);
+
+		// When
+		Optional<Key> actual = tokenService.verify(token);
+
+		// Then
+		assertTrue(tokenService.isToken(token));
+		assertTrue(actual.isPresent());
+		assertEquals(token, actual.get().getKey());
+		assertEquals(user.getId(), actual.get().getUserId());
+		assertEquals(Role.SUPER_USER, actual.get().getRole());
+		assertTrue(actual.get().getCreatedAt().isBefore(new DateTime().plusSeconds(1)));
+	}
+
+	@Test
+	public void testVerifyTampered() {
+		// Given
+		String token = tokenService.issue(user);
+		User admin = EntityGenerator.generateRandomUser();
+		admin.setId(user.getId());
+		admin.setRole(Role.ADMIN);
+		String adminPayload = tokenService.issue(admin).split("\\.")[0];
+
+		// When
+		Optional<Key> actual = tokenService.verify(adminPayload + "." + token.split("\\.")[1]);
+
+		// Then
+		assertFalse(actual.isPresent());
+	}
+
+	@Test
+	public void testVerifyOtherSecret() {
+		// Given
+		given(properties.getSessionTokenSecret()).willReturn(SECRET.toUpperCase());
+		String token = new TokenService(revokedTokenDAO, properties).issue(user);
+
+		// When
+		Optional<Key> actual = tokenService.verify(token);
+
+		// Then
+		assertFalse(actual.isPresent());
+	}
+
+	@Test
+	public void testVerifyMalformed() {
+		assertFalse(tokenService.verify("not.a-token").isPresent());
+		assertFalse(tokenService.verify(".").isPresent());
+		assertFalse(tokenService.isToken(EntityGenerator.generateRandomString()));
+	}
+
+	@Test
+	public void testRevoke() throws EpickurException {
+		// Given
+		String token = tokenService.issue(user);
+
+		// When
+		boolean actual = tokenService.revoke(token);
+
+		// Then
+		assertTrue(actual);
+		assertFalse(tokenService.verify(token).isPresent());
+		then(revokedTokenDAO).should().create(any(Key.class));
+	}
+
+	@Test
+	public void testRevokeRetriedAfterFailure() throws EpickurException {
+		// Given
+		String token = tokenService.issue(user);
+		given(revokedTokenDAO.create(any(Key.class))).willThrow(new EpickurException("down")).willReturn(new Key());
+
+		// When
+		try {
+			tokenService.revoke(token);
+		} catch (final EpickurException e) {
+			assertTrue(tokenService.verify(token).isPresent());
+		}
+		boolean actual = tokenService.revoke(token);
+
+		// Then
+		assertTrue(actual);
+		assertFalse(tokenService.verify(token).isPresent());
+		then(revokedTokenDAO).should(times(2)).create(any(Key.class));
+	}
+
+	@Test
+	public void testRevokeInvalid() throws EpickurException {
+		// When
+		boolean actual = tokenService.revoke(EntityGenerator.generateRandomString() + "." + EntityGenerator.generateRandomString());
+
+		// Then
+		assertFalse(actual);
+		then(revokedTokenDAO).should(never()).create(any(Key.class));
+	}
+
+	@Test
+	public void testRefreshRevocations() throws EpickurException {
+		// Given
+		String token = tokenService.issue(user);
+		tokenService.revoke(token);
+		given(revokedTokenDAO.readAll()).willReturn(Collections.emptyList());
+
+		// When
+		tokenService.refreshRevocations();
+
+		// Then
+		then(revokedTokenDAO).should().deleteIssuedBefore(any(DateTime.class));
+		assertTrue(tokenService.verify(token).isPresent());
+	}
+
+	@Test
+	public void testRevokeDuringRefresh() throws EpickurException {
+		// Given
+		String token = tokenService.issue(user);
+		given(revokedTokenDAO.readAll()).willAnswer(invocation -> {
+			tokenService.revoke(token);
+			return Collections.emptyList();
+		});
+
+		// When
+		tokenService.refreshRevocations();
+
+		// Then
+		assertFalse(tokenService.verify(token).isPresent());
+	}
+
+	@Test
+	public void testDisabled() {
+		// Given
+		given(properties.getSessionTokenEnabled()).willReturn(false);
+		given(properties.getSessionTokenSecret()).willReturn("");
+		TokenService disabled = new TokenService(revokedTokenDAO, properties);
+
+		// Then
+		assertFalse(disabled.isEnabled());
+		assertFalse(disabled.isToken(tokenService.issue(user)));
+	}
+
+	@Test
+	public void testEnabledWithoutSecret() {
+		// Then
+		thrown.expect(IllegalStateException.class);
+
+		// Given
+		given(properties.getSessionTokenSecret()).willReturn("");
+
+		// When
+		new TokenService(revokedTokenDAO, properties);
+	}
+}
@@ -6,6 +6,7 @@ import com.epickur.api.entity.User;
 import com.epickur.api.enumeration.Role;
 import com.epickur.api.exception.EpickurException;
 import com.epickur.api.helper.EntityGenerator;
+import com.epickur.api.http.HttpClientPool;
 import com.epickur.api.utils.ErrorConstants;
 import com.epickur.api.utils.Utils;
 import com.epickur.api.utils.email.EmailUtils;
@@ -21,6 +22,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.io.IOException;
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
@@ -44,6 +46,10 @@ public class UserServiceTest {
 	private EmailUtils emailUtilsMock;
 	@Mock
 	private Utils utilsMock;
+	@Mock
+	private TokenService tokenServiceMock;
+	@Mock
+	private HttpClientPool httpClientPoolMock;
 	@InjectMocks
 	private UserService service;
 
@@ -122,6 +128,24 @@ public class UserServiceTest {
 		then(keyBusinessMock).should().create(any(Key.class));
 	}
 
+	@Test
+	public void testLoginToken() throws EpickurException {
+		User user = EntityGenerator.generateRandomUser();
+		User userAfterRead = EntityGenerator.mockUserAfterCreate(user);
+		userAfterRead.setAllow(1);
+		String token = EntityGenerator.generateRandomString() + "." + EntityGenerator.generateRandomString();
+
+		given(userDAOMock.readWithEmail(user.getEmail())).willReturn(Optional.of(userAfterRead));
+		given(utilsMock.isPasswordCorrect(user.getPassword(), userAfterRead)).willReturn(true);
+		given(tokenServiceMock.isEnabled()).willReturn(true);
+		given(tokenServiceMock.issue(userAfterRead)).willReturn(token);
+
+		User actual = service.login(user.getEmail(), user.getPassword());
+
+		assertEquals(token, actual.getKey());
+		then(keyBusinessMock).shouldHaveZeroInteractions();
+	}
+
 	@Test
 	public void testLoginUserNotFoundFail() throws EpickurException {
 		thrown.expect(EpickurException.class);
@@ -397,12 +421,14 @@ public class UserServiceTest {
 	}
 
 	@Test
-	public void testSuscribeToNewsletter() {
+	public void testSuscribeToNewsletter() throws IOException {
 		User user = EntityGenerator.generateRandomUser();
 		user = spy(user);
 
 		service.suscribeToNewsletter(user);
 
+		then(httpClientPoolMock).should().post(anyString());
+
 		then(user).should(times(2)).getFirst();
 		then(user).should(times(2)).getLast();
 		then(user).should(times(2)).getEmail();
@@ -0,0 +1,210 @@
+package com.epickur.api.service;
+
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.dao.mongo.VoucherDAO;
+import com.epickur.api.dao.mongo.VoucherJobDAO;
+import com.epickur.api.entity.Voucher;
+import com.epickur.api.entity.VoucherGenerationJob;
+import com.epickur.api.enumeration.voucher.DiscountType;
+import com.epickur.api.enumeration.voucher.ExpirationType;
+import com.epickur.api.enumeration.voucher.Status;
+import com.epickur.api.exception.EpickurDBException;
+import com.epickur.api.exception.EpickurException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+
+@RunWith(MockitoJUnitRunner.class)
+public class VoucherGeneratorTest {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+	@Mock
+	private VoucherDAO voucherDAO;
+	@Mock
+	private VoucherJobDAO voucherJobDAO;
+	@Mock
+	private EpickurProperties properties;
+	@Captor
+	private ArgumentCaptor<List<String>> codes;
+
+	private VoucherGenerator generator;
+	private Voucher template;
+
+	@Before
+	public void setUp() {
+		given(properties.getVoucherGenerateBatchSize()).willReturn(4);
+		given(properties.getVoucherGenerateAsyncThreshold()).willReturn(100);
+		generator = new VoucherGenerator(voucherDAO, voucherJobDAO, properties);
+		template = new Voucher();
+		template.setDiscount(10);
+		template.setDiscountType(DiscountType.PERCENTAGE);
+		template.setExpirationType(ExpirationType.ONETIME);
+		template.setStatus(Status.VALID);
+	}
+
+	@After
+	public void tearDown() {
+		generator.shutdown();
+	}
+
+	@Test
+	public void testGenerateInBatches() throws EpickurException {
+		// When
+		Set<Voucher> actual = generator.generate(10, template);
+
+		// Then
+		assertEquals(10, actual.size());
+		Set<String> codes = new HashSet<>();
+		for (Voucher voucher : actual) {
+			assertTrue(codes.add(voucher.getCode()));
+			assertEquals(10, voucher.getDiscount().intValue());
+			assertNotNull(voucher.getCreatedAt());
+		}
+		then(voucherDAO).should(times(3)).createAll(anyList(), eq(false));
+	}
+
+	@Test
+	public void testGenerateRetryCollisions() throws EpickurException {
+		// Given
+		List<String> rejected = new ArrayList<>();
+		willAnswer(invocation -> {
+			List<Voucher> batch = invocation.getArgument(0);
+			rejected.add(batch.get(1).getCode());
+			throw new EpickurDBException("createAll", "1 documents failed", Collections.singletonMap(1, "E11000 duplicate key error"), null);
+		}).willAnswer(invocation -> invocation.getArgument(0)).given(voucherDAO).createAll(anyList(), eq(false));
+
+		// When
+		Set<Voucher> actual = generator.generate(3, template);
+
+		// Then
+		assertEquals(3, actual.size());
+		assertFalse(actual.stream().anyMatch(voucher -> voucher.getCode().equals(rejected.get(0))));
+		then(voucherDAO).should(times(2)).createAll(anyList(), eq(false));
+	}
+
+	@Test
+	public void testGenerateOtherError() throws EpickurException {
+		// Then
+		thrown.expect(EpickurDBException.class);
+
+		// Given
+		willThrow(new EpickurDBException("createAll", "", Collections.singletonMap(0, "E121 document failed validation"), null))
+			.given(voucherDAO).createAll(anyList(), eq(false));
+
+		// When
+		generator.generate(3, template);
+	}
+
+	@Test
+	public void testGenerateTooManyCollisions() throws EpickurException {
+		// Then
+		thrown.expect(EpickurException.class);
+		thrown.expectMessage("unique voucher codes");
+
+		// Given
+		willThrow(new EpickurDBException("createAll", "", Collections.singletonMap(0, "E11000 duplicate key error"), null))
+			.given(voucherDAO).createAll(anyList(), eq(false));
+
+		// When
+		generator.generate(1, template);
+	}
+
+	@Test
+	public void testSubmit() throws Exception {
+		// When
+		VoucherGenerationJob job = generator.submit(5, template);
+
+		// Then
+		assertEquals(VoucherGenerationJob.Status.RUNNING, job.getStatus());
+		then(voucherJobDAO).should().create(job);
+		then(voucherJobDAO).should(timeout(1000)).done(eq(job.getId()), codes.capture());
+		assertEquals(5, codes.getValue().size());
+		then(voucherJobDAO).should(times(2)).progress(eq(job.getId()), anyInt());
+	}
+
+	@Test
+	public void testSubmitRuntimeException() throws Exception {
+		// Given
+		willThrow(new IllegalStateException("boom")).given(voucherDAO).createAll(anyList(), eq(false));
+
+		// When
+		VoucherGenerationJob job = generator.submit(5, template);
+
+		// Then
+		then(voucherJobDAO).should(timeout(1000)).failed(job.getId(), "boom");
+		then(voucherJobDAO).should(never()).done(anyString(), anyList());
+	}
+
+	@Test
+	public void testGetJobDone() throws Exception {
+		// Given
+		VoucherGenerationJob job = new VoucherGenerationJob(1);
+		job.setStatus(VoucherGenerationJob.Status.DONE);
+		job.setCodes(Collections.singletonList("CODE"));
+		Voucher voucher = template.clone();
+		voucher.setCode("CODE");
+		given(voucherJobDAO.read(job.getId())).willReturn(Optional.of(job));
+		given(voucherDAO.readByCodes(job.getCodes())).willReturn(Collections.singletonList(voucher));
+
+		// When
+		Optional<VoucherGenerationJob> actual = generator.getJob(job.getId());
+
+		// Then
+		assertTrue(actual.isPresent());
+		assertEquals(Collections.singleton(voucher), actual.get().getVouchers());
+	}
+
+	@Test
+	public void testGetJobStale() throws Exception {
+		// Given
+		VoucherGenerationJob running = new VoucherGenerationJob(1);
+		VoucherGenerationJob failed = new VoucherGenerationJob(1);
+		failed.setStatus(VoucherGenerationJob.Status.FAILED);
+		given(voucherJobDAO.read(running.getId())).willReturn(Optional.of(running), Optional.of(failed));
+		given(voucherJobDAO.failStale(eq(running.getId()), anyLong())).willReturn(true);
+
+		// When
+		Optional<VoucherGenerationJob> actual = generator.getJob(running.getId());
+
+		// Then
+		assertEquals(VoucherGenerationJob.Status.FAILED, actual.get().getStatus());
+	}
+
+	@Test
+	public void testIsAsync() {
+		assertFalse(generator.isAsync(100));
+		assertTrue(generator.isAsync(101));
+	}
+}
@@ -2,6 +2,7 @@ package com.epickur.api.service;
 
 import com.epickur.api.dao.mongo.VoucherDAO;
 import com.epickur.api.entity.Voucher;
+import com.epickur.api.entity.VoucherGenerationJob;
 import com.epickur.api.enumeration.voucher.DiscountType;
 import com.epickur.api.enumeration.voucher.ExpirationType;
 import com.epickur.api.enumeration.voucher.Status;
@@ -12,19 +13,26 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.Collections;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
 
 @RunWith(MockitoJUnitRunner.class)
 public class VoucherServiceTest {
@@ -33,6 +41,8 @@ public class VoucherServiceTest {
 	public ExpectedException thrown = ExpectedException.none();
 	@Mock
 	private VoucherDAO voucherDAO;
+	@Mock
+	private VoucherGenerator voucherGenerator;
 	@InjectMocks
 	private VoucherService voucherService;
 
@@ -49,26 +59,45 @@ public class VoucherServiceTest {
 
 	@Test
 	public void testGenerate() throws EpickurException {
-		given(voucherDAO.read(any(String.class))).willReturn(Optional.empty());
+		Set<Voucher> vouchers = Collections.singleton(EntityGenerator.generateVoucher());
+		given(voucherGenerator.generate(eq(10), any(Voucher.class))).willReturn(vouchers);
 
-		int count = 10;
-		Set<Voucher> actuals = voucherService.generate(count, DiscountType.AMOUNT, 15, ExpirationType.ONETIME, new DateTime());
+		DateTime expiration = new DateTime();
+		Set<Voucher> actuals = voucherService.generate(10, DiscountType.AMOUNT, 15, ExpirationType.ONETIME, expiration);
 		assertNotNull(actuals);
-		assertEquals(count, actuals.size());
+		assertEquals(vouchers, actuals);
+
+		ArgumentCaptor<Voucher> template = ArgumentCaptor.forClass(Voucher.class);
+		then(voucherGenerator).should().generate(eq(10), template.capture());
+		assertNull(template.getValue().getCode());
+		assertEquals(DiscountType.AMOUNT, template.getValue().getDiscountType());
+		assertEquals(15, template.getValue().getDiscount().intValue());
+		assertEquals(expiration, template.getValue().getExpiration());
+		assertEquals(0, template.getValue().getUsedCount().intValue());
+		assertEquals(Status.VALID, template.getValue().getStatus());
+	}
+
+	@Test
+	public void testGenerateAsync() throws EpickurException {
+		VoucherGenerationJob job = new VoucherGenerationJob(5000);
+		given(voucherGenerator.submit(eq(5000), any(Voucher.class))).willReturn(job);
+
+		VoucherGenerationJob actual = voucherService.generateAsync(5000, DiscountType.PERCENTAGE, 10, ExpirationType.ONETIME, null);
+		assertEquals(job, actual);
 	}
 
 	@Test
 	public void testValidate() throws EpickurException {
 		Voucher voucher = EntityGenerator.generateVoucher();
 		Voucher voucherAfter = EntityGenerator.mockVoucherAfterCreate(voucher);
-		voucherAfter.setStatus(Status.VALID);
+		voucherAfter.setStatus(Status.EXPIRED);
 		voucherAfter.setExpirationType(ExpirationType.ONETIME);
-		given(voucherDAO.read(voucher.getCode())).willReturn(Optional.of(voucherAfter));
-		given(voucherDAO.update(any(Voucher.class))).willReturn(voucherAfter);
+		given(voucherDAO.redeem(voucher.getCode())).willReturn(Optional.of(voucherAfter));
 
 		Voucher actual = voucherService.validateVoucher(voucher.getCode());
 		assertNotNull(actual);
 		assertEquals(Status.EXPIRED, actual.getStatus());
+		then(voucherDAO).should(never()).read(anyString());
 	}
 
 	@Test
@@ -77,6 +106,7 @@ public class VoucherServiceTest {
 		UUID uuid = UUID.randomUUID();
 		thrown.expectMessage("Voucher '" + uuid.toString() + "' not found");
 
+		given(voucherDAO.redeem(uuid.toString())).willReturn(Optional.empty());
 		given(voucherDAO.read(uuid.toString())).willReturn(Optional.empty());
 
 		voucherService.validateVoucher(uuid.toString());
@@ -92,98 +122,64 @@ public class VoucherServiceTest {
 		Voucher voucherAfter = EntityGenerator.mockVoucherAfterCreate(voucher);
 		voucherAfter.setStatus(Status.EXPIRED);
 
+		given(voucherDAO.redeem(uuid.toString())).willReturn(Optional.empty());
 		given(voucherDAO.read(uuid.toString())).willReturn(Optional.of(voucherAfter));
 
-		Voucher actual = voucherService.validateVoucher(uuid.toString());
-		assertNotNull(actual);
-		assertEquals(Status.EXPIRED, actual.getStatus());
+		voucherService.validateVoucher(uuid.toString());
 	}
 
 	@Test
 	public void testValidateUntil() throws EpickurException {
 		Voucher voucher = EntityGenerator.generateVoucher();
-		Voucher voucherAfterRead = EntityGenerator.mockVoucherAfterCreate(voucher);
-		voucherAfterRead.setStatus(Status.VALID);
-		voucherAfterRead.setExpirationType(ExpirationType.UNTIL);
-		voucherAfterRead.setDiscountType(DiscountType.AMOUNT);
 		Voucher voucherAfterUpdate = EntityGenerator.mockVoucherAfterCreate(voucher);
 		voucherAfterUpdate.setStatus(Status.VALID);
-		voucherAfterUpdate.setUsedCount(1);
-		DateTime now = new DateTime();
-		voucherAfterUpdate.setCreatedAt(now);
-		voucherAfterUpdate.setUpdatedAt(now);
+		voucherAfterUpdate.setExpirationType(ExpirationType.UNTIL);
+		voucherAfterUpdate.setUsedCount(4);
 
-		given(voucherDAO.read(voucher.getCode())).willReturn(Optional.of(voucherAfterRead));
-		given(voucherDAO.update(any(Voucher.class))).willReturn(voucherAfterUpdate);
+		given(voucherDAO.redeem(voucher.getCode())).willReturn(Optional.of(voucherAfterUpdate));
 
 		Voucher actual = voucherService.validateVoucher(voucher.getCode());
 		assertNotNull(actual);
 		assertEquals(Status.VALID, actual.getStatus());
-		assertEquals(1, actual.getUsedCount().intValue());
+		assertEquals(4, actual.getUsedCount().intValue());
 		assertNotNull(actual.getCreatedAt());
 		assertNotNull(actual.getUpdatedAt());
 	}
 
 	@Test
-	public void testValidateUntil2() throws EpickurException {
+	public void testRevert() throws EpickurException {
 		Voucher voucher = EntityGenerator.generateVoucher();
-		Voucher voucherAfterCreate = EntityGenerator.mockVoucherAfterCreate(voucher);
-		voucherAfterCreate.setStatus(Status.VALID);
-		voucherAfterCreate.setExpirationType(ExpirationType.UNTIL);
-		voucherAfterCreate.setDiscountType(DiscountType.AMOUNT);
 		Voucher voucherAfterUpdate = EntityGenerator.mockVoucherAfterCreate(voucher);
-		voucherAfterUpdate.setStatus(Status.VALID);
-		voucherAfterUpdate.setUsedCount(1);
-		DateTime now = new DateTime();
-		voucherAfterUpdate.setCreatedAt(now);
-		voucherAfterUpdate.setUpdatedAt(now);
-		voucherAfterUpdate.setUsedCount(4);
+		voucherAfterUpdate.setExpirationType(ExpirationType.UNTIL);
+		voucherAfterUpdate.setUsedCount(9);
 
-		given(voucherDAO.read(voucher.getCode())).willReturn(Optional.of(voucherAfterCreate));
-		given(voucherDAO.update(any(Voucher.class))).willReturn(voucherAfterUpdate);
+		given(voucherDAO.revert(voucher.getCode())).willReturn(Optional.of(voucherAfterUpdate));
 
-		Voucher actual = voucherService.validateVoucher(voucher.getCode());
+		Voucher actual = voucherService.revertVoucher(voucher.getCode());
 		assertNotNull(actual);
 		assertEquals(Status.VALID, actual.getStatus());
-		assertEquals(4, actual.getUsedCount().intValue());
-		assertNotNull(actual.getCreatedAt());
-		assertNotNull(actual.getUpdatedAt());
+		assertEquals(9, actual.getUsedCount().intValue());
 	}
 
 	@Test
-	public void testRevertOneTime() throws EpickurException {
-		Voucher voucher = EntityGenerator.generateVoucher();
-		Voucher voucherAfterRead = EntityGenerator.mockVoucherAfterCreate(voucher);
-		voucherAfterRead.setExpirationType(ExpirationType.ONETIME);
-		Voucher voucherAfterUpdate = EntityGenerator.mockVoucherAfterCreate(voucherAfterRead);
-		voucherAfterUpdate.setStatus(Status.VALID);
-		voucherAfterUpdate.setUsedCount(0);
+	public void testRevertNothingToRevert() throws EpickurException {
+		Voucher voucher = EntityGenerator.mockVoucherAfterCreate(EntityGenerator.generateVoucher());
 
-		given(voucherDAO.read(voucher.getCode())).willReturn(Optional.of(voucherAfterRead));
-		given(voucherDAO.update(any(Voucher.class))).willReturn(voucherAfterUpdate);
+		given(voucherDAO.revert(voucher.getCode())).willReturn(Optional.empty());
+		given(voucherDAO.read(voucher.getCode())).willReturn(Optional.of(voucher));
 
 		Voucher actual = voucherService.revertVoucher(voucher.getCode());
-		assertNotNull(actual);
-		assertEquals(Status.VALID, actual.getStatus());
-		assertEquals(0, actual.getUsedCount().intValue());
+		assertEquals(voucher, actual);
 	}
 
 	@Test
-	public void testRevertUntil() throws EpickurException {
-		Voucher voucher = EntityGenerator.generateVoucher();
-		Voucher voucherAfterRead = EntityGenerator.mockVoucherAfterCreate(voucher);
-		voucherAfterRead.setExpirationType(ExpirationType.UNTIL);
-		voucherAfterRead.setUsedCount(10);
-		Voucher voucherAfterUpdate = EntityGenerator.mockVoucherAfterCreate(voucherAfterRead);
-		voucherAfterUpdate.setStatus(Status.VALID);
-		voucherAfterUpdate.setUsedCount(9);
+	public void testRevertNotFound() throws EpickurException {
+		thrown.expect(EpickurException.class);
+		thrown.expectMessage("not found");
 
-		given(voucherDAO.read(voucher.getCode())).willReturn(Optional.of(voucherAfterRead));
-		given(voucherDAO.update(any(Voucher.class))).willReturn(voucherAfterUpdate);
+		given(voucherDAO.revert(anyString())).willReturn(Optional.empty());
+		given(voucherDAO.read(anyString())).willReturn(Optional.empty());
 
-		Voucher actual = voucherService.revertVoucher(voucher.getCode());
-		assertNotNull(actual);
-		assertEquals(Status.VALID, actual.getStatus());
-		assertEquals(9, actual.getUsedCount().intValue());
+		voucherService.revertVoucher(EntityGenerator.generateRandomString());
 	}
 }
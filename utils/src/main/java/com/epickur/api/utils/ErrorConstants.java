@@ -18,6 +18,8 @@ public final class ErrorConstants {
 	public static final String CATERER_NOT_FOUND = "Caterer not found";
 	/** Voucher not found */
 	public static final String VOUCHER_NOT_FOUND = "Voucher not found";
+	/** Voucher generation job not found */
+	public static final String VOUCHER_JOB_NOT_FOUND = "Voucher generation job not found";
 	/** Invalid key */
 	public static final String INVALID_KEY = "Invalid API key";
 	/** Missing key */
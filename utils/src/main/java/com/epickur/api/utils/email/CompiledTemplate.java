@@ -0,0 +1,102 @@
+package com.epickur.api.utils.email;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A template split once into literal segments and placeholders, like {@code @@USER_NAME@@}. Rendering is a single pass over the segments
+ * into a buffer of the exact size.
+ * <p>
+ * A placeholder without value in the data is left as it is.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public final class CompiledTemplate {
+
+	private static final String MARKER = "@@";
+
+	/**
+	 * The literal parts, one more than the placeholders
+	 */
+	private final String[] segments;
+	/**
+	 * The placeholders, the i-th one comes after the i-th segment
+	 */
+	private final String[] placeholders;
+	/**
+	 * Total length of the segments
+	 */
+	private final int literalLength;
+
+	private CompiledTemplate(final List<String> segments, final List<String> placeholders) {
+		this.segments = segments.toArray(new String[segments.size()]);
+		this.placeholders = placeholders.toArray(new String[placeholders.size()]);
+		int length = 0;
+		for (final String segment : this.segments) {
+			length += segment.length();
+		}
+		this.literalLength = length;
+	}
+
+	/**
+	 * @param template The template
+	 * @return The compiled template
+	 */
+	public static CompiledTemplate compile(final String template) {
+		final List<String> segments = new ArrayList<>();
+		final List<String> placeholders = new ArrayList<>();
+		int from = 0;
+		int start = template.indexOf(MARKER);
+		while (start >= 0) {
+			final int end = template.indexOf(MARKER, start + MARKER.length());
+			if (end < 0) {
+				break;
+			}
+			if (isPlaceholderName(template, start + MARKER.length(), end)) {
+				segments.add(template.substring(from, start));
+				placeholders.add(template.substring(start, end + MARKER.length()));
+				from = end + MARKER.length();
+				start = template.indexOf(MARKER, from);
+			} else {
+				// Not a placeholder, the closing marker may open the next one
+				start = end;
+			}
+		}
+		segments.add(template.substring(from));
+		return new CompiledTemplate(segments, placeholders);
+	}
+
+	/**
+	 * @param data The values, by placeholder
+	 * @return The rendered template
+	 */
+	public String render(final Map<String, String> data) {
+		final String[] values = new String[placeholders.length];
+		int length = literalLength;
+		for (int i = 0; i < placeholders.length; i++) {
+			final String value = data.get(placeholders[i]);
+			values[i] = value == null ? placeholders[i] : value;
+			length += values[i].length();
+		}
+		final StringBuilder builder = new StringBuilder(length);
+		for (int i = 0; i < placeholders.length; i++) {
+			builder.append(segments[i]).append(values[i]);
+		}
+		return builder.append(segments[placeholders.length]).toString();
+	}
+
+	private static boolean isPlaceholderName(final String template, final int from, final int to) {
+		if (from == to) {
+			return false;
+		}
+		for (int i = from; i < to; i++) {
+			final char c = template.charAt(i);
+			if (!(c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_')) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -24,20 +24,24 @@ import com.cribbstechnologies.clients.mandrill.request.MandrillMessagesRequest;
 import com.cribbstechnologies.clients.mandrill.request.MandrillRESTRequest;
 import com.cribbstechnologies.clients.mandrill.util.MandrillConfiguration;
 import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.entity.EmailMessage;
+import com.epickur.api.exception.EpickurException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.log4j.Log4j2;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.http.client.HttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Optional;
 
 /**
- * This class is used to send emails
+ * This class is used to render and send emails. It holds no state about the email being sent, so it can be used by several threads at
+ * once. The HTTP connections to Mandrill come from the shared httpClient.
  *
  * @author cph
  */
@@ -45,6 +49,8 @@ import java.util.Map.Entry;
 @Component
 public class Email {
 
+	private static final String[] TAGS = new String[]{"bmc", "bemychef", "be my chef"};
+
 	@Autowired
 	private EmailTemplate emailTemplate;
 	@Autowired
@@ -55,78 +61,73 @@ public class Email {
 	private MandrillConfiguration mandrillConfiguration;
 	@Autowired
 	private ObjectMapper mapper;
-	private MandrillRESTRequest request;
-	private String subject;
-	private String message;
-	private String[] sendTo;
+	@Autowired
+	private HttpClient httpClient;
 
 	/**
-	 * @param emailSubjectTxt The subject
-	 * @param emailMsgTxt     The content of the message in HTML
-	 * @param sendTo          The list of email to send to
+	 * Configure the Mandrill request once, it is shared by all the sends
 	 */
-	protected void configure(final String emailSubjectTxt, final String emailMsgTxt, final String[] sendTo) {
-		this.subject = emailSubjectTxt;
-		this.message = emailMsgTxt;
-		this.sendTo = sendTo;
-		this.request = new MandrillRESTRequest();
-		this.request.setConfig(mandrillConfiguration);
-		this.request.setObjectMapper(mapper);
-		this.messagesRequest.setRequest(request);
+	@PostConstruct
+	protected void configure() {
+		final MandrillRESTRequest request = new MandrillRESTRequest();
+		request.setConfig(mandrillConfiguration);
+		request.setObjectMapper(mapper);
+		request.setHttpClient(httpClient);
+		messagesRequest.setRequest(request);
 	}
 
 	/**
 	 * Actual send the email
+	 *
+	 * @param message The email
+	 * @throws EpickurException If Mandrill did not accept the email
 	 */
-	protected void send() {
-		final HttpClient httpClient = HttpClientBuilder.create().build();
-		request.setHttpClient(httpClient);
+	public void send(final EmailMessage message) throws EpickurException {
 		final MandrillMessageRequest mmr = new MandrillMessageRequest();
 		final MandrillHtmlMessage mess = new MandrillHtmlMessage();
 		final Map<String, String> headers = new HashMap<>();
 		mess.setFrom_email(properties.getMandrillFrom());
 		mess.setFrom_name(properties.getMandrillFromUsername());
 		mess.setHeaders(headers);
-		mess.setHtml(message);
-		mess.setSubject(subject);
-		final MandrillRecipient[] recipients = new MandrillRecipient[sendTo.length];
-		for (int i = 0; i < sendTo.length; i++) {
-			recipients[i] = new MandrillRecipient(null, sendTo[i]);
+		mess.setHtml(message.getContent());
+		mess.setSubject(message.getSubject());
+		final List<String> sendTo = message.getTo();
+		final MandrillRecipient[] recipients = new MandrillRecipient[sendTo.size()];
+		for (int i = 0; i < sendTo.size(); i++) {
+			recipients[i] = new MandrillRecipient(null, sendTo.get(i));
 		}
 		mess.setTo(recipients);
 		mess.setTrack_clicks(true);
-		final String[] tags = new String[]{"bmc", "bemychef", "be my chef"};
-		mess.setTags(tags);
+		mess.setTags(TAGS);
 		mmr.setMessage(mess);
 		if (properties.getSend()) {
 			try {
 				messagesRequest.sendMessage(mmr);
 			} catch (final RequestFailedException e) {
-				log.error(e.getLocalizedMessage(), e);
+				throw new EpickurException("Mandrill rejected the email " + message.getType() + ": " + e.getLocalizedMessage());
 			}
 		}
 	}
 
 	/**
-	 * Send emails
+	 * Render an email from its template
 	 *
 	 * @param emailType The Email Type
 	 * @param data      The data
 	 * @param sendTo    An array of email
+	 * @return The email, empty if the template is missing
 	 */
-	protected void sendMail(final EmailType emailType, final Map<String, String> data, final String[] sendTo) {
-		final Map<String, String> template = emailTemplate.getTemplate(emailType);
-		if (!template.isEmpty()) {
-			String subject = template.get("subject");
-			String content = template.get("content");
-			for (final Entry<String, String> entry : data.entrySet()) {
-				subject = StringUtils.replace(subject, entry.getKey(), entry.getValue());
-				content = StringUtils.replace(content, entry.getKey(), entry.getValue());
-			}
-			configure(subject, content, sendTo);
-			send();
-		} else {
+	public Optional<EmailMessage> render(final EmailType emailType, final Map<String, String> data, final String[] sendTo) {
+		final Map<String, CompiledTemplate> template = emailTemplate.getTemplate(emailType);
+		if (template.isEmpty()) {
 			log.error("Error while trying to access the email templates for: {}", emailType);
+			return Optional.empty();
 		}
+		final EmailMessage message = new EmailMessage();
+		message.setType(emailType.toString());
+		message.setSubject(template.get("subject").render(data));
+		message.setContent(template.get("content").render(data));
+		message.setTo(Arrays.asList(sendTo));
+		return Optional.of(message);
 	}
 }
@@ -0,0 +1,28 @@
+package com.epickur.api.utils.email;
+
+import com.epickur.api.entity.EmailMessage;
+
+/**
+ * Queue of the emails waiting to be sent.
+ *
+ * @author cph
+ * @version 1.0
+ */
+public interface EmailOutbox {
+
+	/**
+	 * Queue an email. Does not wait for its delivery.
+	 *
+	 * @param message The email
+	 * @return False if it could not be queued
+	 */
+	boolean add(EmailMessage message);
+
+	/**
+	 * Buffer an admin notification until the next digest of its type.
+	 *
+	 * @param message The email
+	 * @return False if it could not be buffered
+	 */
+	boolean addToDigest(EmailMessage message);
+}
@@ -36,7 +36,7 @@ public class EmailTemplate {
 	private Utils utils;
 	@Autowired
 	private ObjectMapper mapper;
-	private final Map<String, Map<String, String>> templates;
+	private final Map<String, Map<String, CompiledTemplate>> templates;
 
 	/**
 	 * The constructor
@@ -46,7 +46,7 @@ public class EmailTemplate {
 	}
 
 	/**
-	 * Load template into HashMap
+	 * Load the templates into a HashMap, compiled with the base template
 	 */
 	@PostConstruct
 	private void loadTemplates() {
@@ -65,9 +65,9 @@ public class EmailTemplate {
 				try (final InputStream is2 = utils.getResource("templates/" + folder + "/" + file)) {
 					final String content = IOUtils.toString(is2, Charset.forName("UTF-8"));
 					final String newContent = StringUtils.replace(base, "@@CONTENT@@", content);
-					final Map<String, String> res = new HashMap<>();
-					res.put("subject", subject);
-					res.put("content", newContent);
+					final Map<String, CompiledTemplate> res = new HashMap<>();
+					res.put("subject", CompiledTemplate.compile(subject));
+					res.put("content", CompiledTemplate.compile(newContent));
 					templates.put(entry.getKey(), res);
 				}
 			}
@@ -97,9 +97,9 @@ public class EmailTemplate {
 	 * Get a template from map
 	 *
 	 * @param type The type of template
-	 * @return A map containing the data of the template
+	 * @return A map containing the compiled subject and content of the template
 	 */
-	public Map<String, String> getTemplate(final EmailType type) {
+	public Map<String, CompiledTemplate> getTemplate(final EmailType type) {
 		final String typeStr = type.toString().toLowerCase();
 		if (templates.containsKey(typeStr)) {
 			return templates.get(typeStr);
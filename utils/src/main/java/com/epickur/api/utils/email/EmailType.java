@@ -47,6 +47,10 @@ public enum EmailType {
 	ORDER_CATERER_CANCEL,
 	/** Email sent to the admins when the caterer did not accept on time the order */
 	ORDER_ADMINS_CANCEL,
+
+	// Admin digest
+	/** Email sent to the admins with the notifications of one type buffered during the digest window */
+	ADMINS_DIGEST,
 	
 	// Reset password
 	/** Email sent to the user to reset its password */
@@ -3,13 +3,18 @@ package com.epickur.api.utils.email;
 import com.epickur.api.config.EpickurProperties;
 import com.epickur.api.entity.Order;
 import com.epickur.api.entity.User;
+import org.apache.commons.lang3.ArrayUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
 
 /**
- * Class that handle static method that send emails
+ * Class that handle static method that send emails. The emails are queued in the {@link EmailOutbox}, the callers do not wait for their
+ * delivery.
+ * <p>
+ * When email.admin.digest is true, the admin notifications are buffered and sent as one digest per type, except the types listed in
+ * email.admin.digest.immediate.
  *
  * @author cph
  * @version 1.0
@@ -22,6 +27,8 @@ public class EmailUtils {
 	@Autowired
 	private Email email;
 	@Autowired
+	private EmailOutbox outbox;
+	@Autowired
 	public EpickurProperties properties;
 
 	// Registration
@@ -42,7 +49,7 @@ public class EmailUtils {
 		// Convert data to use email template
 		final Map<String, String> emailData = emailTemplate.convertToDataNewRegistrationUser(user, code);
 		// Send an email to the user
-		email.sendMail(EmailType.REGISTRATION_USER, emailData, new String[] { user.getEmail() });
+		send(EmailType.REGISTRATION_USER, emailData, new String[] { user.getEmail() });
 	}
 
 	/**
@@ -52,7 +59,7 @@ public class EmailUtils {
 		// Convert data to use email template
 		final Map<String, String> emailDataAdmin = emailTemplate.convertToDataNewRegistrationAdmins(user);
 		// Send an email to admins
-		email.sendMail(EmailType.REGISTRATION_ADMIN, emailDataAdmin, properties.getAdmins());
+		sendAdmins(EmailType.REGISTRATION_ADMIN, emailDataAdmin);
 	}
 
 	// ORDER: case 1 - New order
@@ -74,7 +81,7 @@ public class EmailUtils {
 	 */
 	private void emailNewOrderUser(final User user, final Order order) {
 		final Map<String, String> emailData = emailTemplate.convertToDataNewOrderUser(user, order);
-		email.sendMail(EmailType.ORDER_USER_NEW, emailData, new String[] { user.getEmail() });
+		send(EmailType.ORDER_USER_NEW, emailData, new String[] { user.getEmail() });
 	}
 
 	/**
@@ -84,7 +91,7 @@ public class EmailUtils {
 	 */
 	private void emailNewOrderCaterer(final User user, final Order order, final String orderCode) {
 		final Map<String, String> emailData = emailTemplate.convertToDataNewOrderCaterer(user, order, orderCode);
-		email.sendMail(EmailType.ORDER_CATERER_NEW, emailData, new String[] { order.getDish().getCaterer().getEmail() });
+		send(EmailType.ORDER_CATERER_NEW, emailData, new String[] { order.getDish().getCaterer().getEmail() });
 	}
 
 	/**
@@ -93,7 +100,7 @@ public class EmailUtils {
 	 */
 	private void emailNewOrderAdmin(final User user, final Order order) {
 		final Map<String, String> emailData = emailTemplate.convertToDataNewOrderAdmins(user, order);
-		email.sendMail(EmailType.ORDER_ADMINS_NEW, emailData, properties.getAdmins());
+		sendAdmins(EmailType.ORDER_ADMINS_NEW, emailData);
 	}
 
 	// ORDER: case 2 - Caterer declined the order
@@ -113,7 +120,7 @@ public class EmailUtils {
 	 */
 	private void emailDeclineOrderUser(final User user, final Order order) {
 		final Map<String, String> emailData = emailTemplate.convertToDataDeclineOrderUser(user, order);
-		email.sendMail(EmailType.ORDER_USER_DECLINED, emailData, new String[] { user.getEmail() });
+		send(EmailType.ORDER_USER_DECLINED, emailData, new String[] { user.getEmail() });
 	}
 
 	/**
@@ -122,7 +129,7 @@ public class EmailUtils {
 	 */
 	private void emailDeclineOrderAdmins(final User user, final Order order) {
 		final Map<String, String> emailData = emailTemplate.convertToDataDeclineOrderAdmins(user, order);
-		email.sendMail(EmailType.ORDER_ADMINS_DECLINED, emailData, properties.getAdmins());
+		sendAdmins(EmailType.ORDER_ADMINS_DECLINED, emailData);
 	}
 
 	// ORDER: case 3 - The order is a success
@@ -143,7 +150,7 @@ public class EmailUtils {
 	 */
 	private void emailSuccessOrderUser(final User user, final Order order) {
 		final Map<String, String> emailData = emailTemplate.convertToDataSuccessOrderUser(user, order);
-		email.sendMail(EmailType.ORDER_USER_SUCCESS, emailData, new String[] { user.getEmail() });
+		send(EmailType.ORDER_USER_SUCCESS, emailData, new String[] { user.getEmail() });
 	}
 
 	/**
@@ -152,7 +159,7 @@ public class EmailUtils {
 	 */
 	private void emailSuccessOrderCaterer(final User user, final Order order) {
 		final Map<String, String> emailData = emailTemplate.convertToDataSuccessOrderCaterer(user, order);
-		this.email.sendMail(EmailType.ORDER_CATERER_SUCCESS, emailData, new String[] { order.getDish().getCaterer().getEmail() });
+		send(EmailType.ORDER_CATERER_SUCCESS, emailData, new String[] { order.getDish().getCaterer().getEmail() });
 	}
 
 	/**
@@ -161,7 +168,7 @@ public class EmailUtils {
 	 */
 	private void emailSuccessOrderAdmins(final User user, final Order order) {
 		Map<String, String> emailData = emailTemplate.convertToDataSuccessOrderAdmins(user, order);
-		email.sendMail(EmailType.ORDER_ADMINS_SUCCESS, emailData, properties.getAdmins());
+		sendAdmins(EmailType.ORDER_ADMINS_SUCCESS, emailData);
 	}
 
 	// ORDER: case 4 - The order has been accepted but the payment failed
@@ -182,7 +189,7 @@ public class EmailUtils {
 	 */
 	private void emailFailOrderUser(final User user, final Order order) {
 		final Map<String, String> emailData = emailTemplate.convertToDataDeclineOrderUser(user, order);
-		email.sendMail(EmailType.ORDER_USER_FAIL, emailData, new String[] { user.getEmail() });
+		send(EmailType.ORDER_USER_FAIL, emailData, new String[] { user.getEmail() });
 	}
 
 	/**
@@ -191,7 +198,7 @@ public class EmailUtils {
 	 */
 	private void emailFailOrderCaterer(final User user, final Order order) {
 		final Map<String, String> emailData = emailTemplate.convertToDataFailOrderCaterer(user, order);
-		email.sendMail(EmailType.ORDER_CATERER_FAIL, emailData, new String[] { order.getDish().getCaterer().getEmail() });
+		send(EmailType.ORDER_CATERER_FAIL, emailData, new String[] { order.getDish().getCaterer().getEmail() });
 	}
 
 	/**
@@ -200,7 +207,7 @@ public class EmailUtils {
 	 */
 	private void emailFailOrderAdmins(final User user, final Order order) {
 		final Map<String, String> emailData = emailTemplate.convertToDataFailOrderAdmins(user, order);
-		email.sendMail(EmailType.ORDER_ADMINS_FAIL, emailData, properties.getAdmins());
+		sendAdmins(EmailType.ORDER_ADMINS_FAIL, emailData);
 	}
 
 	// ORDER: case 5 - The order has been received by the Caterer, but he did not answer it on time.
@@ -221,7 +228,7 @@ public class EmailUtils {
 	 */
 	private void emailCancelOrderUser(final User user, final Order order) {
 		final Map<String, String> emailData = emailTemplate.convertToDataCancelOrderUser(user, order);
-		this.email.sendMail(EmailType.ORDER_USER_CANCEL, emailData, new String[] { user.getEmail() });
+		send(EmailType.ORDER_USER_CANCEL, emailData, new String[] { user.getEmail() });
 	}
 
 	/**
@@ -230,7 +237,7 @@ public class EmailUtils {
 	 */
 	private void emailCancelOrderCaterer(final User user, final Order order) {
 		Map<String, String> emailData = emailTemplate.convertToDataCancelOrderCaterer(user, order);
-		email.sendMail(EmailType.ORDER_CATERER_CANCEL, emailData, new String[] { order.getDish().getCaterer().getEmail() });
+		send(EmailType.ORDER_CATERER_CANCEL, emailData, new String[] { order.getDish().getCaterer().getEmail() });
 	}
 
 	/**
@@ -239,7 +246,7 @@ public class EmailUtils {
 	 */
 	private void emailCancelOrderAdmins(final User user, final Order order) {
 		final Map<String, String> emailData = emailTemplate.convertToDataCancelOrderAdmins(user, order);
-		email.sendMail(EmailType.ORDER_ADMINS_CANCEL, emailData, properties.getAdmins());
+		sendAdmins(EmailType.ORDER_ADMINS_CANCEL, emailData);
 	}
 
 	/**
@@ -248,6 +255,32 @@ public class EmailUtils {
 	 */
 	public void resetPassword(final User user, final String resetCode) {
 		final Map<String, String> emailData = emailTemplate.convertToDataResetUserPassword(user, resetCode);
-		email.sendMail(EmailType.RESET_USER_PASSWORD, emailData, new String[] { user.getEmail() });
+		send(EmailType.RESET_USER_PASSWORD, emailData, new String[] { user.getEmail() });
+	}
+
+	/**
+	 * Render an email and queue it
+	 *
+	 * @param emailType The Email Type
+	 * @param data      The data
+	 * @param sendTo    An array of email
+	 */
+	private void send(final EmailType emailType, final Map<String, String> data, final String[] sendTo) {
+		email.render(emailType, data, sendTo).ifPresent(outbox::add);
+	}
+
+	/**
+	 * Render an email to the admins and queue it, or buffer it for the digest
+	 *
+	 * @param emailType The Email Type
+	 * @param data      The data
+	 */
+	private void sendAdmins(final EmailType emailType, final Map<String, String> data) {
+		if (Boolean.TRUE.equals(properties.getEmailAdminDigest())
+			&& !ArrayUtils.contains(properties.getEmailAdminDigestImmediate(), emailType.name())) {
+			email.render(emailType, data, properties.getAdmins()).ifPresent(outbox::addToDigest);
+		} else {
+			send(emailType, data, properties.getAdmins());
+		}
 	}
 }
@@ -5,6 +5,8 @@ import lombok.SneakyThrows;
 import org.apache.commons.codec.binary.Hex;
 import org.bson.types.ObjectId;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.Charset;
 import java.security.MessageDigest;
 import java.security.SecureRandom;
@@ -110,4 +112,18 @@ public final class Security {
 	public static String createResetCode(final ObjectId orderId, final String email) {
 		return Security.encodeToSha256(orderId.toHexString() + email);
 	}
+
+	/**
+	 * Sign data with HMAC SHA-256
+	 *
+	 * @param secret The secret key
+	 * @param data   The data to sign
+	 * @return The signature
+	 */
+	@SneakyThrows
+	public static byte[] hmacSha256(final byte[] secret, final byte[] data) {
+		final Mac mac = Mac.getInstance("HmacSHA256");
+		mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+		return mac.doFinal(data);
+	}
 }
@@ -8,6 +8,8 @@ import com.epickur.api.utils.Utils;
 import com.epickur.api.utils.email.Email;
 import com.epickur.api.utils.email.EmailTemplate;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -47,6 +49,11 @@ public class EmailConfigTest {
 		return new MandrillMessagesRequest();
 	}
 
+	@Bean(destroyMethod = "close")
+	public CloseableHttpClient httpClient() {
+		return HttpClients.createDefault();
+	}
+
 	@Bean
 	public EpickurProperties epickurProperties() {
 		return new EpickurProperties();
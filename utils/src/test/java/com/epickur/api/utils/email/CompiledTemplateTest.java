@@ -0,0 +1,68 @@
+package com.epickur.api.utils.email;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class CompiledTemplateTest {
+
+	@Test
+	public void testRender() {
+		// Given
+		CompiledTemplate template = CompiledTemplate.compile("<p>Hi @@USER_FIRST@@, order #@@ORDER_ID@@ for @@USER_FIRST@@</p>");
+		Map<String, String> data = new HashMap<>();
+		data.put("@@USER_FIRST@@", "Carl");
+		data.put("@@ORDER_ID@@", "42");
+		data.put("@@UNUSED@@", "x");
+
+		// When
+		String actual = template.render(data);
+
+		// Then
+		assertEquals("<p>Hi Carl, order #42 for Carl</p>", actual);
+	}
+
+	@Test
+	public void testRenderMissingValue() {
+		// Given
+		CompiledTemplate template = CompiledTemplate.compile("@@TEAM_NAME@@ - @@USER_NAME@@");
+		Map<String, String> data = new HashMap<>();
+		data.put("@@TEAM_NAME@@", "BE MY CHEF");
+		data.put("@@USER_NAME@@", null);
+
+		// When
+		String actual = template.render(data);
+
+		// Then
+		assertEquals("BE MY CHEF - @@USER_NAME@@", actual);
+	}
+
+	@Test
+	public void testRenderNotPlaceholder() {
+		// Given
+		CompiledTemplate template = CompiledTemplate.compile("a @@ b @@DISH_NAME@@ c @@");
+		Map<String, String> data = new HashMap<>();
+		data.put("@@DISH_NAME@@", "Kebab");
+
+		// When
+		String actual = template.render(data);
+
+		// Then
+		assertEquals("a @@ b Kebab c @@", actual);
+	}
+
+	@Test
+	public void testRenderNoPlaceholder() {
+		// Given
+		CompiledTemplate template = CompiledTemplate.compile("Welcome to BE MY CHEF!");
+
+		// When
+		String actual = template.render(new HashMap<>());
+
+		// Then
+		assertEquals("Welcome to BE MY CHEF!", actual);
+	}
+}
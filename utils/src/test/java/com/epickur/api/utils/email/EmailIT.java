@@ -0,0 +1,38 @@
+package com.epickur.api.utils.email;
+
+import com.epickur.api.entity.EmailMessage;
+import com.epickur.api.exception.EpickurException;
+import com.epickur.api.utils.config.EmailConfigTest;
+import org.joda.time.DateTime;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.Arrays;
+
+/**
+ * Send a real email to the admins through Mandrill, when email.send is true.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = EmailConfigTest.class)
+public class EmailIT {
+
+	@Value("${epickur.admins}")
+	private String[] admins;
+
+	@Autowired
+	private Email email;
+
+	@Test
+	public void testSendRealEmailToAdmins() throws EpickurException {
+		EmailMessage message = new EmailMessage();
+		message.setType("test");
+		message.setSubject("[BMC] Email test");
+		message.setContent("Test email executed at " + new DateTime());
+		message.setTo(Arrays.asList(admins));
+		email.send(message);
+	}
+}
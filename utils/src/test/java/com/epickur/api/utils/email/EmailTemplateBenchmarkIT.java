@@ -0,0 +1,127 @@
+package com.epickur.api.utils.email;
+
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compare the rendering of the order templates, before and after they were compiled: one replace over the whole HTML per data entry,
+ * against a single pass over the compiled segments.
+ */
+@Log4j2
+public class EmailTemplateBenchmarkIT {
+
+	private static final String[] ORDER_TEMPLATES = {
+		"order/new/order_user_new.html",
+		"order/new/order_caterer_new.html",
+		"order/new/order_admins_new.html",
+		"order/accept/success/order_user_success.html",
+		"order/accept/success/order_caterer_success.html",
+		"order/accept/success/order_admins_success.html",
+		"order/accept/fail/order_user_fail.html",
+		"order/accept/fail/order_caterer_fail.html",
+		"order/accept/fail/order_admins_fail.html",
+		"order/decline/order_user_declined.html",
+		"order/decline/order_admins_declined.html",
+		"order/cancel/order_user_cancel.html",
+		"order/cancel/order_caterer_cancel.html",
+		"order/cancel/order_admins_cancel.html"};
+	private static final int WARMUP = 5_000;
+	private static final int ITERATIONS = 20_000;
+
+	@Test
+	public void testRender() throws IOException {
+		final String base = read("base.html");
+		final List<String> templates = new ArrayList<>();
+		final List<CompiledTemplate> compiled = new ArrayList<>();
+		for (final String file : ORDER_TEMPLATES) {
+			final String template = StringUtils.replace(base, "@@CONTENT@@", read(file));
+			templates.add(template);
+			compiled.add(CompiledTemplate.compile(template));
+		}
+		final Map<String, String> data = data();
+		for (int i = 0; i < templates.size(); i++) {
+			assertEquals(legacyRender(templates.get(i), data), compiled.get(i).render(data));
+		}
+
+		run(templates, compiled, data, WARMUP);
+		final long[] nanos = run(templates, compiled, data, ITERATIONS);
+		final int renders = ITERATIONS * templates.size();
+		log.info("Legacy rendering: {} ns/op", nanos[0] / renders);
+		log.info("Compiled rendering: {} ns/op", nanos[1] / renders);
+		log.info("Total: legacy {} ms, compiled {} ms", TimeUnit.NANOSECONDS.toMillis(nanos[0]), TimeUnit.NANOSECONDS.toMillis(nanos[1]));
+	}
+
+	private static long[] run(final List<String> templates, final List<CompiledTemplate> compiled, final Map<String, String> data,
+							  final int iterations) {
+		long sink = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			for (final String template : templates) {
+				sink += legacyRender(template, data).length();
+			}
+		}
+		final long legacy = System.nanoTime() - start;
+		start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			for (final CompiledTemplate template : compiled) {
+				sink += template.render(data).length();
+			}
+		}
+		final long current = System.nanoTime() - start;
+		log.trace("Sink {}", sink);
+		return new long[]{legacy, current};
+	}
+
+	/**
+	 * The rendering before the templates were compiled
+	 */
+	private static String legacyRender(final String template, final Map<String, String> data) {
+		String content = template;
+		for (final Map.Entry<String, String> entry : data.entrySet()) {
+			content = StringUtils.replace(content, entry.getKey(), entry.getValue());
+		}
+		return content;
+	}
+
+	private static Map<String, String> data() {
+		final Map<String, String> data = new HashMap<>();
+		data.put("@@TEAM_NAME@@", "BE MY CHEF");
+		data.put("@@WEB_ADDRESS@@", "https://www.bemychef.com.au");
+		data.put("@@DELAY@@", "3");
+		data.put("@@USER_ID@@", "5788d0e1c6b8a41ca43e5c51");
+		data.put("@@USER_EMAIL@@", "carl@example.com");
+		data.put("@@USER_NAME@@", "carl");
+		data.put("@@USER_FIRST@@", "Carl");
+		data.put("@@USER_LAST@@", "Harmant");
+		data.put("@@DISH_NAME@@", "Kebab fries");
+		data.put("@@CATERER_NAME@@", "Kebab");
+		data.put("@@CATERER_PHONE@@", "+61 2 0000 0000");
+		data.put("@@ORDER_ID@@", "5788d0e1c6b8a41ca43e5c52");
+		data.put("@@READABLE_ORDER_ID@@", "000123");
+		data.put("@@ORDER_QUANTITY@@", "2");
+		data.put("@@ORDER_AMOUNT@@", "15.0");
+		data.put("@@ORDER_CURRENCY@@", "$");
+		data.put("@@ORDER_PICKUP_DATE@@", "mon-1130");
+		data.put("@@ORDER_CODE@@", "a1b2c3d4");
+		return data;
+	}
+
+	private static String read(final String file) throws IOException {
+		try (final InputStream is = EmailTemplateBenchmarkIT.class.getClassLoader().getResourceAsStream("templates/" + file)) {
+			return IOUtils.toString(is, StandardCharsets.UTF_8);
+		}
+	}
+}
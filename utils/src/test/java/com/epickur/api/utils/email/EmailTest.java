@@ -1,27 +1,90 @@
 package com.epickur.api.utils.email;
 
-import com.epickur.api.utils.config.EmailConfigTest;
-import org.joda.time.DateTime;
+import com.cribbstechnologies.clients.mandrill.exception.RequestFailedException;
+import com.cribbstechnologies.clients.mandrill.model.MandrillMessageRequest;
+import com.cribbstechnologies.clients.mandrill.request.MandrillMessagesRequest;
+import com.epickur.api.config.EpickurProperties;
+import com.epickur.api.entity.EmailMessage;
+import com.epickur.api.exception.EpickurException;
+import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.test.context.ContextConfiguration;
-import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
 
-@RunWith(SpringJUnit4ClassRunner.class)
-@ContextConfiguration(classes = EmailConfigTest.class)
-public class EmailTest {
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
 
-	@Value("${epickur.admins}")
-	private String[] admins;
+@RunWith(MockitoJUnitRunner.class)
+public class EmailTest {
 
-	@Autowired
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+	@Mock
+	private MandrillMessagesRequest messagesRequest;
+	@Mock
+	private EpickurProperties properties;
+	@InjectMocks
 	private Email email;
+	private EmailMessage message;
+
+	@Before
+	public void setUp() {
+		message = new EmailMessage();
+		message.setType("test");
+		message.setSubject("[BMC] Email test");
+		message.setContent("Test email");
+		message.setTo(Arrays.asList("admin1@example.com", "admin2@example.com"));
+	}
 
 	@Test
-	public void testSendRealEmailToAdmins() {
-		email.configure("[BMC] Email test", "Test email executed at " + new DateTime(), admins);
-		email.send();
+	public void testSend() throws EpickurException, RequestFailedException {
+		// Given
+		given(properties.getSend()).willReturn(true);
+		given(properties.getMandrillFrom()).willReturn("bmc@example.com");
+
+		// When
+		email.send(message);
+
+		// Then
+		ArgumentCaptor<MandrillMessageRequest> request = ArgumentCaptor.forClass(MandrillMessageRequest.class);
+		then(messagesRequest).should().sendMessage(request.capture());
+		assertEquals("[BMC] Email test", request.getValue().getMessage().getSubject());
+		assertEquals("bmc@example.com", request.getValue().getMessage().getFrom_email());
+		assertEquals(2, request.getValue().getMessage().getTo().length);
+		assertEquals("admin2@example.com", request.getValue().getMessage().getTo()[1].getEmail());
+	}
+
+	@Test
+	public void testSendDisabled() throws EpickurException, RequestFailedException {
+		// Given
+		given(properties.getSend()).willReturn(false);
+
+		// When
+		email.send(message);
+
+		// Then
+		then(messagesRequest).should(never()).sendMessage(any());
+	}
+
+	@Test
+	public void testSendRejected() throws EpickurException, RequestFailedException {
+		// Given
+		given(properties.getSend()).willReturn(true);
+		given(messagesRequest.sendMessage(any())).willThrow(new RequestFailedException("Invalid key"));
+
+		thrown.expect(EpickurException.class);
+
+		// When
+		email.send(message);
 	}
 }
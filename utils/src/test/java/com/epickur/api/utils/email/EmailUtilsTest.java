@@ -4,6 +4,7 @@ import com.cribbstechnologies.clients.mandrill.request.MandrillMessagesRequest;
 import com.epickur.api.config.EpickurProperties;
 import com.epickur.api.entity.Caterer;
 import com.epickur.api.entity.Dish;
+import com.epickur.api.entity.EmailMessage;
 import com.epickur.api.entity.Order;
 import com.epickur.api.entity.User;
 import com.epickur.api.enumeration.Currency;
@@ -19,6 +20,13 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import javax.inject.Inject;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 
 @RunWith(MockitoJUnitRunner.class)
 public class EmailUtilsTest {
@@ -34,6 +42,8 @@ public class EmailUtilsTest {
 	private EmailTemplate emailTemplate;
 	@Mock
 	private EpickurProperties epickurProperties;
+	@Mock
+	private EmailOutbox outbox;
 	@InjectMocks
 	private EmailUtils emailUtils;
 
@@ -169,4 +179,56 @@ public class EmailUtilsTest {
 		// When
 		emailUtils.resetPassword(user, Security.generateRandomMd5());
 	}
+
+	@Test
+	public void emailCancelOrderQueuedTest() {
+		// Given
+		User user = EntityGenerator.generateRandomUserWithId();
+		user.setEmail(EMAIL_TEST);
+		Order order = EntityGenerator.generateRandomOrderWithId();
+		EmailMessage message = new EmailMessage();
+		given(email.render(any(), any(), any())).willReturn(Optional.of(message));
+
+		// When
+		emailUtils.emailCancelOrder(user, order);
+
+		// Then
+		then(outbox).should(times(3)).add(message);
+	}
+
+	@Test
+	public void emailNewOrderDigestTest() {
+		// Given
+		User user = EntityGenerator.generateRandomUserWithId();
+		Order order = EntityGenerator.generateRandomOrderWithId();
+		EmailMessage message = new EmailMessage();
+		given(email.render(any(), any(), any())).willReturn(Optional.of(message));
+		given(epickurProperties.getEmailAdminDigest()).willReturn(true);
+		given(epickurProperties.getEmailAdminDigestImmediate()).willReturn(new String[] { "ORDER_ADMINS_FAIL" });
+
+		// When
+		emailUtils.emailNewOrder(user, order, "code");
+
+		// Then
+		then(outbox).should(times(2)).add(message);
+		then(outbox).should().addToDigest(message);
+	}
+
+	@Test
+	public void emailFailOrderDigestImmediateTest() {
+		// Given
+		User user = EntityGenerator.generateRandomUserWithId();
+		Order order = EntityGenerator.generateRandomOrderWithId();
+		EmailMessage message = new EmailMessage();
+		given(email.render(any(), any(), any())).willReturn(Optional.of(message));
+		given(epickurProperties.getEmailAdminDigest()).willReturn(true);
+		given(epickurProperties.getEmailAdminDigestImmediate()).willReturn(new String[] { "ORDER_ADMINS_FAIL" });
+
+		// When
+		emailUtils.emailFailOrder(user, order);
+
+		// Then
+		then(outbox).should(times(3)).add(message);
+		then(outbox).should(never()).addToDigest(any());
+	}
 }
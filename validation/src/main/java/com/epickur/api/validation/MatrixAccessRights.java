@@ -141,6 +141,7 @@ public final class MatrixAccessRights {
 			line = offset + 4;
 			break;
 		case GENERATE_VOUCHER:
+		case READ_GENERATION_JOB:
 			if (!endpoint.equals(EndpointType.VOUCHER)) {
 				throw new EpickurWrongAccessRights("Operation: " + operation + " - Endpoint: " + endpoint
 						+ ". This error should not happen. Developer error.");
@@ -219,6 +219,18 @@ public class SimpleAccessRightsAspectTest {
 		then(voucherValidator).should().checkVoucherGenerate((ExpirationType) args[3], (String) args[4], (String) args[5]);
 	}
 
+	@Test
+	public void testHandleVoucherGenerationJob() throws EpickurParsingException {
+		// Given
+		Object[] args = new Object[] { "jobId" };
+
+		// When
+		accessRightsAspect.handleVoucher(READ_GENERATION_JOB, args);
+
+		// Then
+		then(voucherValidator).shouldHaveZeroInteractions();
+	}
+
 	@Test
 	public void testHandleDishCreate() throws EpickurException {
 		// Given
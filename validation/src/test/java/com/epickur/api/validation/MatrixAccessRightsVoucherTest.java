@@ -48,6 +48,11 @@ public class MatrixAccessRightsVoucherTest {
 	public void adminGenerateTest() {
 		MatrixAccessRights.check(Role.ADMIN, Operation.GENERATE_VOUCHER, ENDPOINT_TYPE);
 	}
+
+	@Test
+	public void adminReadGenerationJobTest() {
+		MatrixAccessRights.check(Role.ADMIN, Operation.READ_GENERATION_JOB, ENDPOINT_TYPE);
+	}
 	
 	@Test
 	public void superUserCreateTest() {
@@ -105,6 +110,12 @@ public class MatrixAccessRightsVoucherTest {
 		thrown.expect(EpickurForbiddenException.class);
 		MatrixAccessRights.check(Role.USER, Operation.GENERATE_VOUCHER, ENDPOINT_TYPE);
 	}
+
+	@Test
+	public void userReadGenerationJobTest() {
+		thrown.expect(EpickurForbiddenException.class);
+		MatrixAccessRights.check(Role.USER, Operation.READ_GENERATION_JOB, ENDPOINT_TYPE);
+	}
 	
 	@Test
 	public void webCreateTest() {